@@ -0,0 +1,164 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2015, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.jboss.as.ee.component;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.jboss.as.ee.component.interceptors.InterceptorOrder;
+import org.jboss.as.ee.utils.DescriptorUtils;
+import org.jboss.as.naming.context.NamespaceContextSelector;
+import org.jboss.invocation.ImmediateInterceptorFactory;
+import org.jboss.invocation.Interceptor;
+import org.jboss.invocation.InterceptorContext;
+import org.jboss.invocation.Interceptors;
+import org.jboss.invocation.proxy.ProxyConfiguration;
+import org.jboss.invocation.proxy.ProxyFactory;
+import org.jboss.msc.service.ServiceName;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures a no-op invocation through the proxy of a local view, as created by a started {@link ViewService}, whose
+ * client interceptor chain dispatches to the view interceptor chain, as for a stateless session bean.
+ * Also measures the resolution of the invoked method of an in-VM remote invocation, either via its descriptor or via
+ * the {@link ViewMethodIndex} of the view.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ViewInvocationBenchmark {
+
+    private static final AtomicInteger PROXY_ID = new AtomicInteger(0);
+
+    private ViewService service;
+    private ComponentView view;
+    private LocalView proxy;
+    private Method invokedMethod;
+    private ViewMethodIndex methodIndex;
+
+    @Setup
+    public void setup() throws Exception {
+        final ProxyConfiguration<Object> configuration = new ProxyConfiguration<Object>();
+        configuration.setProxyName(LocalView.class.getName() + "$$$view" + PROXY_ID.incrementAndGet());
+        configuration.setClassLoader(LocalView.class.getClassLoader());
+        configuration.setProtectionDomain(LocalView.class.getProtectionDomain());
+        configuration.setSuperClass(Object.class);
+        configuration.addAdditionalInterface(LocalView.class);
+        final ProxyFactory<Object> factory = new ProxyFactory<Object>(configuration);
+
+        // configured as by the default view configurator of a component
+        final ViewConfiguration viewConfiguration = new ViewConfiguration(LocalView.class, null, ServiceName.JBOSS.append("benchmark", "view"), factory);
+        viewConfiguration.addClientInterceptor(ViewDescription.CLIENT_DISPATCHER_INTERCEPTOR_FACTORY, InterceptorOrder.Client.CLIENT_DISPATCHER);
+        // the bean method does nothing
+        viewConfiguration.addViewInterceptor(new ImmediateInterceptorFactory(new Interceptor() {
+            @Override
+            public Object processInvocation(InterceptorContext context) {
+                return null;
+            }
+        }), InterceptorOrder.View.COMPONENT_DISPATCHER);
+        viewConfiguration.addClientPostConstructInterceptor(Interceptors.getTerminalInterceptorFactory(), InterceptorOrder.ClientPostConstruct.TERMINAL_INTERCEPTOR);
+        viewConfiguration.addClientPreDestroyInterceptor(Interceptors.getTerminalInterceptorFactory(), InterceptorOrder.ClientPreDestroy.TERMINAL_INTERCEPTOR);
+
+        this.service = new ViewService(viewConfiguration);
+        this.service.getComponentInjector().inject(new BenchmarkComponent());
+        this.service.start(null);
+        this.view = this.service.getValue();
+        this.proxy = (LocalView) this.view.createInstance().getInstance();
+        this.methodIndex = this.view.getPrivateData(ViewMethodIndex.class);
+        // the in-VM receiver resolves the method of the client interface, rather than that of the proxy
+        this.invokedMethod = LocalView.class.getMethod("invoke", Object.class);
+    }
+
+    @TearDown
+    public void tearDown() {
+        this.service.stop(null);
+    }
+
+    @Benchmark
+    public Object invoke() {
+        return this.proxy.invoke(this);
+    }
+
+    @Benchmark
+    public Method resolveByDescriptor() {
+        return this.view.getMethod(this.invokedMethod.getName(), DescriptorUtils.methodDescriptor(this.invokedMethod));
+    }
+
+    @Benchmark
+    public Method resolveByIndex() {
+        return this.methodIndex.getMethod(this.methodIndex.indexOf(this.invokedMethod));
+    }
+
+    public interface LocalView {
+        Object invoke(Object value);
+        Object get(String key);
+        void put(String key, Object value);
+        void remove(String key);
+        int size();
+        boolean isEmpty();
+        void clear();
+    }
+
+    private static class BenchmarkComponent implements Component {
+        @Override
+        public void start() {
+        }
+
+        @Override
+        public void stop() {
+        }
+
+        @Override
+        public Class<?> getComponentClass() {
+            return LocalView.class;
+        }
+
+        @Override
+        public ComponentInstance createInstance() {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public ComponentInstance createInstance(Object instance) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public NamespaceContextSelector getNamespaceContextSelector() {
+            return null;
+        }
+    }
+}
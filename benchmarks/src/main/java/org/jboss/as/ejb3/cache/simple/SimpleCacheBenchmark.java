@@ -0,0 +1,126 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2015, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.jboss.as.ejb3.cache.simple;
+
+import java.util.UUID;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.jboss.as.ejb3.cache.Cache;
+import org.jboss.as.ejb3.cache.Identifiable;
+import org.jboss.as.ejb3.cache.StatefulObjectFactory;
+import org.jboss.as.ejb3.component.stateful.StatefulTimeoutInfo;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.wildfly.clustering.ejb.IdentifierFactory;
+
+/**
+ * Measures the lookup and release of a stateful session bean by a {@link SimpleCache} holding many idle beans.
+ * Each release reschedules the expiration of the bean.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@Threads(4)
+public class SimpleCacheBenchmark {
+
+    @Param({ "10000", "1000000" })
+    private int size;
+
+    private ScheduledExecutorService executor;
+    private Cache<UUID, Bean> cache;
+    private UUID[] ids;
+
+    @Setup
+    public void setup() {
+        StatefulObjectFactory<Bean> factory = new StatefulObjectFactory<Bean>() {
+            @Override
+            public Bean createInstance() {
+                return new Bean(UUID.randomUUID());
+            }
+
+            @Override
+            public void destroyInstance(Bean instance) {
+                // Nothing to destroy
+            }
+        };
+        IdentifierFactory<UUID> identifierFactory = new IdentifierFactory<UUID>() {
+            @Override
+            public UUID createIdentifier() {
+                return UUID.randomUUID();
+            }
+        };
+        this.executor = Executors.newSingleThreadScheduledExecutor();
+        this.cache = new SimpleCache<>(factory, identifierFactory, new StatefulTimeoutInfo(30, TimeUnit.MINUTES), null, this.executor);
+        this.cache.start();
+        this.ids = new UUID[this.size];
+        for (int i = 0; i < this.size; ++i) {
+            Bean bean = this.cache.create();
+            this.cache.release(bean);
+            this.ids[i] = bean.getId();
+        }
+    }
+
+    @TearDown
+    public void tearDown() {
+        this.cache.stop();
+        this.executor.shutdownNow();
+    }
+
+    @Benchmark
+    public Bean getAndRelease() {
+        Bean bean = this.cache.get(this.ids[ThreadLocalRandom.current().nextInt(this.size)]);
+        if (bean != null) {
+            this.cache.release(bean);
+        }
+        return bean;
+    }
+
+    static class Bean implements Identifiable<UUID> {
+        private final UUID id;
+
+        Bean(UUID id) {
+            this.id = id;
+        }
+
+        @Override
+        public UUID getId() {
+            return this.id;
+        }
+    }
+}
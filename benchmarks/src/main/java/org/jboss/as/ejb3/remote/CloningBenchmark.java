@@ -0,0 +1,138 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2015, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.jboss.as.ejb3.remote;
+
+import java.io.Serializable;
+import java.lang.reflect.Method;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.concurrent.TimeUnit;
+
+import org.jboss.marshalling.cloner.ClassLoaderClassCloner;
+import org.jboss.marshalling.cloner.ClonerConfiguration;
+import org.jboss.marshalling.cloner.ObjectCloner;
+import org.jboss.marshalling.cloner.ObjectCloners;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures the copying of the parameters of an in-VM invocation on a remote view, as done by the
+ * {@link LocalEjbReceiver}: either by cloning every parameter, or according to the {@link CloningPlan} of the method.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CloningBenchmark {
+
+    /**
+     * Whether the parameters include a mutable, application defined, value
+     */
+    @Param({ "false", "true" })
+    private boolean mutable;
+
+    private ClonerConfiguration config;
+    private CloningPlan.MethodPlan plan;
+    private Object[] parameters;
+
+    @Setup
+    public void setup() throws NoSuchMethodException {
+        this.config = new ClonerConfiguration();
+        this.config.setClassCloner(new ClassLoaderClassCloner(this.getClass().getClassLoader()));
+        Method method = View.class.getMethod("invoke", String.class, Integer.class, Date.class, Payload.class);
+        this.plan = new CloningPlan(Arrays.asList(View.class.getMethods())).getMethodPlan(method);
+        this.parameters = new Object[] { "name", Integer.valueOf(1000), new Date(), this.mutable ? new Payload("value", 10) : null };
+    }
+
+    @Benchmark
+    public Object[] cloneAll() throws Exception {
+        ObjectCloner cloner = ObjectCloners.getSerializingObjectClonerFactory().createCloner(this.config);
+        Object[] result = new Object[this.parameters.length];
+        for (int i = 0; i < this.parameters.length; ++i) {
+            Object value = this.parameters[i];
+            result[i] = (value != null) ? cloner.clone(value) : null;
+        }
+        return result;
+    }
+
+    @Benchmark
+    public Object[] clonePlanned() throws Exception {
+        ObjectCloner cloner = null;
+        Object[] result = new Object[this.parameters.length];
+        for (int i = 0; i < this.parameters.length; ++i) {
+            Object value = this.parameters[i];
+            if (value == null) continue;
+            switch (this.plan.getParameterStrategy(i, value)) {
+                case IMMUTABLE: {
+                    result[i] = value;
+                    break;
+                }
+                case COPY: {
+                    result[i] = CloningStrategy.copy(value);
+                    break;
+                }
+                default: {
+                    if (cloner == null) {
+                        cloner = ObjectCloners.getSerializingObjectClonerFactory().createCloner(this.config);
+                    }
+                    result[i] = cloner.clone(value);
+                }
+            }
+        }
+        return result;
+    }
+
+    public interface View {
+        Payload invoke(String name, Integer count, Date date, Payload payload);
+    }
+
+    public static class Payload implements Serializable {
+        private static final long serialVersionUID = -4185233432395125768L;
+
+        private final String value;
+        private final int count;
+
+        public Payload(String value, int count) {
+            this.value = value;
+            this.count = count;
+        }
+
+        public String getValue() {
+            return this.value;
+        }
+
+        public int getCount() {
+            return this.count;
+        }
+    }
+}
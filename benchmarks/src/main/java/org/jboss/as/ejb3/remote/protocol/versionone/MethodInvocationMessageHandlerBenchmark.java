@@ -0,0 +1,317 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2015, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.jboss.as.ejb3.remote.protocol.versionone;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.AbstractExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import org.jboss.as.ee.component.Component;
+import org.jboss.as.ee.component.ComponentView;
+import org.jboss.as.ejb3.deployment.DeploymentModuleIdentifier;
+import org.jboss.as.ejb3.deployment.DeploymentRepository;
+import org.jboss.as.ejb3.deployment.EjbDeploymentInformation;
+import org.jboss.as.ejb3.deployment.ModuleDeployment;
+import org.jboss.as.ejb3.remote.protocol.RetainableInputStream;
+import org.jboss.as.naming.ManagedReference;
+import org.jboss.ejb.client.StatelessEJBLocator;
+import org.jboss.invocation.InterceptorContext;
+import org.jboss.marshalling.Marshaller;
+import org.jboss.marshalling.MarshallerFactory;
+import org.jboss.marshalling.Marshalling;
+import org.jboss.marshalling.MarshallingConfiguration;
+import org.jboss.marshalling.reflect.SunReflectiveCreator;
+import org.jboss.marshalling.river.RiverMarshallerFactory;
+import org.jboss.msc.value.ImmediateValue;
+import org.jboss.msc.value.InjectedValue;
+import org.jboss.remoting3.Channel;
+import org.jboss.remoting3.MessageOutputStream;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Drives the v1 protocol {@link MethodInvocationMessageHandler} in-process with a remote invocation of a deployed bean,
+ * as received from a remoting channel.
+ * <p/>
+ * {@link #receive()} measures the time spent on the remoting thread, which no other message of the channel can use,
+ * while {@link #invoke()} measures a whole invocation, including the response.
+ * A message that is not retainable is read entirely on the remoting thread, as are messages received while too many
+ * messages of the channel are retained.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MethodInvocationMessageHandlerBenchmark {
+
+    private static final String APP_NAME = "";
+    private static final String MODULE_NAME = "benchmark";
+    private static final String DISTINCT_NAME = "";
+    private static final String BEAN_NAME = "EchoBean";
+
+    /**
+     * Whether the channel receiver passes a retainable message, so that the parameters are read by the worker thread
+     */
+    @Param({ "false", "true" })
+    private boolean retainable;
+
+    /**
+     * Number of strings of the parameter of the invocation
+     */
+    @Param({ "1", "100" })
+    private int size;
+
+    private MethodInvocationMessageHandler handler;
+    private ChannelAssociation channelAssociation;
+    private byte[] request;
+    // The task submitted to the executor by the last invocation, if any
+    private Runnable task;
+
+    @Setup
+    public void setup() throws Exception {
+        MarshallerFactory marshallerFactory = new RiverMarshallerFactory();
+        DeploymentModuleIdentifier identifier = new DeploymentModuleIdentifier(APP_NAME, MODULE_NAME, DISTINCT_NAME);
+        InjectedValue<ComponentView> view = new InjectedValue<>();
+        view.setValue(new ImmediateValue<ComponentView>(new EchoView()));
+        EjbDeploymentInformation information = new EjbDeploymentInformation(BEAN_NAME, null, Collections.singletonMap(Echo.class.getName(), view), null, this.getClass().getClassLoader(), null);
+        DeploymentRepository repository = new DeploymentRepository();
+        repository.start(null);
+        repository.add(identifier, new ModuleDeployment(identifier, Collections.singletonMap(BEAN_NAME, information)));
+        repository.startDeployment(identifier);
+
+        this.handler = new MethodInvocationMessageHandler(repository, marshallerFactory, new AbstractExecutorService() {
+            @Override
+            public void execute(Runnable command) {
+                MethodInvocationMessageHandlerBenchmark.this.task = command;
+            }
+
+            @Override
+            public void shutdown() {
+            }
+
+            @Override
+            public List<Runnable> shutdownNow() {
+                return Collections.emptyList();
+            }
+
+            @Override
+            public boolean isShutdown() {
+                return false;
+            }
+
+            @Override
+            public boolean isTerminated() {
+                return false;
+            }
+
+            @Override
+            public boolean awaitTermination(long timeout, TimeUnit unit) {
+                return false;
+            }
+        }, null);
+        this.channelAssociation = new ChannelAssociation((Channel) Proxy.newProxyInstance(Channel.class.getClassLoader(), new Class<?>[] { Channel.class }, (proxy, method, args) -> {
+            switch (method.getName()) {
+                case "writeMessage": {
+                    return new DiscardingMessageOutputStream();
+                }
+                default: {
+                    return null;
+                }
+            }
+        }));
+        this.request = this.createRequest();
+    }
+
+    @TearDown(Level.Invocation)
+    public void runTask() {
+        // Run the remainder of a received invocation outside of the measurement, so that its message is released
+        Runnable task = this.task;
+        if (task != null) {
+            this.task = null;
+            task.run();
+        }
+    }
+
+    @Benchmark
+    public void receive() throws IOException {
+        this.receiveMessage();
+    }
+
+    @Benchmark
+    public void invoke() throws IOException {
+        this.receiveMessage();
+        this.runTask();
+    }
+
+    private void receiveMessage() throws IOException {
+        InputStream input = new ByteArrayInputStream(this.request);
+        if (this.retainable) {
+            input = new RetainableInputStream(input);
+        }
+        try {
+            this.handler.processMessage(this.channelAssociation, input);
+        } finally {
+            // The channel receiver closes the message once the handler returns
+            input.close();
+        }
+    }
+
+    private byte[] createRequest() throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        DataOutputStream output = new DataOutputStream(bytes);
+        // The message header was already consumed by the channel receiver
+        output.writeShort(1);
+        output.writeUTF("echo");
+        output.writeUTF(String[].class.getName());
+        MarshallingConfiguration config = new MarshallingConfiguration();
+        config.setClassTable(ProtocolV1ClassTable.INSTANCE);
+        config.setObjectTable(ProtocolV1ObjectTable.INSTANCE);
+        config.setVersion(2);
+        config.setSerializedCreator(new SunReflectiveCreator());
+        Marshaller marshaller = new RiverMarshallerFactory().createMarshaller(config);
+        marshaller.start(Marshalling.createByteOutput(output));
+        marshaller.writeObject(APP_NAME);
+        marshaller.writeObject(MODULE_NAME);
+        marshaller.writeObject(DISTINCT_NAME);
+        marshaller.writeObject(BEAN_NAME);
+        marshaller.writeObject(new StatelessEJBLocator<>(Echo.class, APP_NAME, MODULE_NAME, BEAN_NAME, DISTINCT_NAME));
+        String[] values = new String[this.size];
+        Arrays.fill(values, "value");
+        marshaller.writeObject(values);
+        // No attachments
+        marshaller.writeByte(0);
+        marshaller.finish();
+        output.flush();
+        return bytes.toByteArray();
+    }
+
+    public interface Echo {
+        String[] echo(String[] values);
+    }
+
+    static class EchoView implements ComponentView {
+        private final Set<Method> methods = new HashSet<>(Arrays.asList(Echo.class.getMethods()));
+
+        @Override
+        public ManagedReference createInstance() {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public ManagedReference createInstance(Map<Object, Object> contextData) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public Object invoke(InterceptorContext context) {
+            return context.getParameters()[0];
+        }
+
+        @Override
+        public Component getComponent() {
+            return null;
+        }
+
+        @Override
+        public Class<?> getProxyClass() {
+            return Echo.class;
+        }
+
+        @Override
+        public Class<?> getViewClass() {
+            return Echo.class;
+        }
+
+        @Override
+        public Set<Method> getViewMethods() {
+            return this.methods;
+        }
+
+        @Override
+        public Method getMethod(String name, String descriptor) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public <T> T getPrivateData(Class<T> clazz) {
+            return null;
+        }
+
+        @Override
+        public boolean isAsynchronous(Method method) {
+            return false;
+        }
+    }
+
+    static class DiscardingMessageOutputStream extends MessageOutputStream {
+        private final OutputStream output = new ByteArrayOutputStream();
+
+        @Override
+        public void write(int b) throws IOException {
+            this.output.write(b);
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            this.output.write(b, off, len);
+        }
+
+        @Override
+        public void flush() {
+        }
+
+        @Override
+        public void close() {
+        }
+
+        @Override
+        public MessageOutputStream cancel() {
+            return this;
+        }
+    }
+}
@@ -0,0 +1,94 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2015, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.jboss.as.ejb3.timerservice.schedule;
+
+import java.util.Calendar;
+import java.util.GregorianCalendar;
+import java.util.TimeZone;
+import java.util.concurrent.TimeUnit;
+
+import javax.ejb.ScheduleExpression;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures the computation of the next timeout of a calendar based timer, as done after every timeout.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CalendarBasedTimeoutBenchmark {
+
+    @Param({ "every-second", "business-hours", "last-day-of-month", "leap-day" })
+    private String schedule;
+
+    private CalendarBasedTimeout timeout;
+    private Calendar start;
+
+    @Setup
+    public void setup() {
+        ScheduleExpression expression = new ScheduleExpression().timezone("UTC");
+        switch (this.schedule) {
+            case "every-second": {
+                expression.second("*").minute("*").hour("*");
+                break;
+            }
+            case "business-hours": {
+                expression.minute("*/15").hour("9-17").dayOfWeek("Mon-Fri");
+                break;
+            }
+            case "last-day-of-month": {
+                expression.hour("23").dayOfMonth("Last");
+                break;
+            }
+            case "leap-day": {
+                expression.hour("12").dayOfMonth("29").month("Feb");
+                break;
+            }
+            default: {
+                throw new IllegalArgumentException(this.schedule);
+            }
+        }
+        this.timeout = new CalendarBasedTimeout(expression);
+        this.start = new GregorianCalendar(TimeZone.getTimeZone("UTC"));
+        this.start.set(2015, Calendar.MARCH, 2, 18, 30, 0);
+        this.start.set(Calendar.MILLISECOND, 0);
+    }
+
+    @Benchmark
+    public Calendar getNextTimeout() {
+        return this.timeout.getNextTimeout((Calendar) this.start.clone());
+    }
+}
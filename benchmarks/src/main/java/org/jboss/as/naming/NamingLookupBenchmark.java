@@ -0,0 +1,99 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2015, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.jboss.as.naming;
+
+import java.util.Hashtable;
+import java.util.concurrent.TimeUnit;
+
+import javax.naming.CompositeName;
+import javax.naming.Name;
+import javax.naming.NamingException;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures the lookup of a binding of an {@link InMemoryNamingStore}, directly and via a {@link NamingContext},
+ * among many bindings of the same depth.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class NamingLookupBenchmark {
+
+    private static final int BINDINGS = 1000;
+
+    @Param({ "1", "4", "8" })
+    private int depth;
+
+    private InMemoryNamingStore store;
+    private NamingContext context;
+    private Name name;
+    private String nameString;
+
+    @Setup
+    public void setup() throws NamingException {
+        this.store = new InMemoryNamingStore();
+        this.context = new NamingContext(this.store, new Hashtable<String, Object>());
+        for (int i = 0; i < BINDINGS; ++i) {
+            this.store.bind(new CompositeName(name(this.depth, i)), Integer.valueOf(i));
+        }
+        this.nameString = name(this.depth, BINDINGS / 2);
+        this.name = new CompositeName(this.nameString);
+    }
+
+    @TearDown
+    public void tearDown() throws NamingException {
+        this.store.close();
+    }
+
+    @Benchmark
+    public Object storeLookup() throws NamingException {
+        return this.store.lookup(this.name);
+    }
+
+    @Benchmark
+    public Object contextLookup() throws NamingException {
+        return this.context.lookup(this.nameString);
+    }
+
+    private static String name(int depth, int index) {
+        StringBuilder builder = new StringBuilder();
+        for (int i = 1; i < depth; ++i) {
+            builder.append("context").append(i % 2 == 0 ? index % 10 : i).append('/');
+        }
+        return builder.append("binding").append(index).toString();
+    }
+}
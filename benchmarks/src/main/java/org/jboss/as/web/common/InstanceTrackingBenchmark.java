@@ -0,0 +1,91 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2015, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.jboss.as.web.common;
+
+import java.util.EnumSet;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.jboss.as.naming.ManagedReference;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures the tracking of an injected instance by a {@link WebInjectionContainer}, as done for every servlet, filter,
+ * listener and tag handler instance it creates and destroys, e.g. for every tag of a JSP page that does not pool its
+ * tag handlers.
+ * Compares the previous {@link ConcurrentReferenceHashMap} with the {@link ManagedReferenceTracker}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@Threads(8)
+public class InstanceTrackingBenchmark {
+
+    private static final ManagedReference REFERENCE = new ManagedReference() {
+        @Override
+        public void release() {
+            // Nothing to release
+        }
+
+        @Override
+        public Object getInstance() {
+            return null;
+        }
+    };
+
+    private Map<Object, ManagedReference> map;
+    private ManagedReferenceTracker tracker;
+
+    @Setup
+    public void setup() {
+        int concurrency = Runtime.getRuntime().availableProcessors();
+        this.map = new ConcurrentReferenceHashMap<>(256, ConcurrentReferenceHashMap.DEFAULT_LOAD_FACTOR, concurrency, ConcurrentReferenceHashMap.ReferenceType.STRONG, ConcurrentReferenceHashMap.ReferenceType.WEAK, EnumSet.of(ConcurrentReferenceHashMap.Option.IDENTITY_COMPARISONS));
+        this.tracker = new ManagedReferenceTracker(256, concurrency * 2);
+    }
+
+    @Benchmark
+    public ManagedReference concurrentReferenceHashMap() {
+        Object instance = new Object();
+        this.map.put(instance, REFERENCE);
+        return this.map.remove(instance);
+    }
+
+    @Benchmark
+    public ManagedReference managedReferenceTracker() {
+        Object instance = new Object();
+        this.tracker.put(instance, REFERENCE);
+        return this.tracker.remove(instance);
+    }
+}
@@ -0,0 +1,255 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2015, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.wildfly.clustering.web.infinispan.session;
+
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import javax.servlet.ServletContext;
+
+import org.infinispan.Cache;
+import org.infinispan.configuration.cache.ConfigurationBuilder;
+import org.infinispan.configuration.global.GlobalConfigurationBuilder;
+import org.infinispan.manager.DefaultCacheManager;
+import org.infinispan.manager.EmbeddedCacheManager;
+import org.infinispan.remoting.transport.Address;
+import org.infinispan.transaction.LockingMode;
+import org.infinispan.transaction.TransactionMode;
+import org.infinispan.transaction.lookup.DummyTransactionManagerLookup;
+import org.infinispan.util.concurrent.IsolationLevel;
+import org.jboss.marshalling.MarshallingConfiguration;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.wildfly.clustering.dispatcher.CommandDispatcherFactory;
+import org.wildfly.clustering.ee.Batch;
+import org.wildfly.clustering.ee.Batcher;
+import org.wildfly.clustering.ee.Recordable;
+import org.wildfly.clustering.ee.infinispan.InfinispanBatcher;
+import org.wildfly.clustering.ee.infinispan.TransactionBatch;
+import org.wildfly.clustering.group.Node;
+import org.wildfly.clustering.group.NodeFactory;
+import org.wildfly.clustering.infinispan.spi.distribution.Key;
+import org.wildfly.clustering.marshalling.jboss.MarshalledValue;
+import org.wildfly.clustering.marshalling.jboss.MarshalledValueMarshaller;
+import org.wildfly.clustering.marshalling.jboss.Marshaller;
+import org.wildfly.clustering.marshalling.jboss.MarshallingContext;
+import org.wildfly.clustering.marshalling.jboss.SimpleMarshalledValueFactory;
+import org.wildfly.clustering.marshalling.jboss.SimpleMarshallingConfigurationRepository;
+import org.wildfly.clustering.marshalling.jboss.SimpleMarshallingContextFactory;
+import org.wildfly.clustering.server.dispatcher.LocalCommandDispatcherFactory;
+import org.wildfly.clustering.server.group.LocalGroup;
+import org.wildfly.clustering.server.group.LocalNodeFactory;
+import org.wildfly.clustering.web.IdentifierFactory;
+import org.wildfly.clustering.web.LocalContextFactory;
+import org.wildfly.clustering.web.infinispan.session.coarse.CoarseSessionAttributesFactory;
+import org.wildfly.clustering.web.infinispan.session.coarse.DeltaSessionAttributesFactory;
+import org.wildfly.clustering.web.infinispan.session.fine.FineSessionAttributesFactory;
+import org.wildfly.clustering.web.session.ImmutableSession;
+import org.wildfly.clustering.web.session.Session;
+import org.wildfly.clustering.web.session.SessionExpirationListener;
+import org.wildfly.clustering.web.session.SessionManager;
+
+/**
+ * Measures a request against an existing session of an {@link InfinispanSessionManager} backed by a local,
+ * transactional cache: the session is located, one attribute is read, another is written, and the session is closed.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@Threads(4)
+public class InfinispanSessionManagerBenchmark {
+
+    @Param({ "coarse", "delta", "fine" })
+    private String granularity;
+
+    @Param("10000")
+    private int sessions;
+
+    @Param("10")
+    private int attributes;
+
+    private EmbeddedCacheManager container;
+    private SessionManager<Void, TransactionBatch> manager;
+    private String[] ids;
+
+    @Setup
+    public void setup() {
+        GlobalConfigurationBuilder global = new GlobalConfigurationBuilder();
+        global.globalJmxStatistics().allowDuplicateDomains(true);
+        ConfigurationBuilder builder = new ConfigurationBuilder();
+        builder.transaction().transactionMode(TransactionMode.TRANSACTIONAL).lockingMode(LockingMode.PESSIMISTIC).transactionManagerLookup(new DummyTransactionManagerLookup());
+        builder.locking().isolationLevel(IsolationLevel.REPEATABLE_READ);
+        this.container = new DefaultCacheManager(global.build(), builder.build());
+        Cache<Key<String>, ?> cache = this.container.getCache();
+
+        this.manager = new InfinispanSessionManager<>(this.createSessionFactory(cache), new LocalSessionManagerConfiguration(cache));
+        this.manager.start();
+
+        this.ids = new String[this.sessions];
+        for (int i = 0; i < this.sessions; ++i) {
+            String id = this.manager.createIdentifier();
+            try (Batch batch = this.manager.getBatcher().createBatch()) {
+                try (Session<Void> session = this.manager.createSession(id)) {
+                    for (int j = 0; j < this.attributes; ++j) {
+                        session.getAttributes().setAttribute("attribute" + j, new StringBuilder("value").append(j));
+                    }
+                }
+            }
+            this.ids[i] = id;
+        }
+    }
+
+    @TearDown
+    public void tearDown() {
+        this.manager.stop();
+        this.container.stop();
+    }
+
+    @Benchmark
+    public Object request() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        String id = this.ids[random.nextInt(this.sessions)];
+        try (Batch batch = this.manager.getBatcher().createBatch()) {
+            try (Session<Void> session = this.manager.findSession(id)) {
+                Object value = session.getAttributes().getAttribute("attribute0");
+                session.getAttributes().setAttribute("attribute" + random.nextInt(this.attributes), new StringBuilder("value").append(random.nextInt()));
+                return value;
+            }
+        }
+    }
+
+    private SessionFactory<?, ?, Void> createSessionFactory(Cache<Key<String>, ?> cache) {
+        MarshallingContext context = new SimpleMarshallingContextFactory().createMarshallingContext(new SimpleMarshallingConfigurationRepository(new MarshallingConfiguration()), this.getClass().getClassLoader());
+        SimpleMarshalledValueFactory factory = new SimpleMarshalledValueFactory(context);
+        LocalContextFactory<Void> localContextFactory = () -> null;
+        // Require marshallable attributes, as a replicated or persistent cache would
+        switch (this.granularity) {
+            case "coarse": {
+                Marshaller<Map<String, Object>, MarshalledValue<Map<String, Object>, MarshallingContext>, MarshallingContext> marshaller = new MarshalledValueMarshaller<>(factory, context);
+                return new InfinispanSessionFactory<>(new InfinispanSessionMetaDataFactory<>(cache, true), new CoarseSessionAttributesFactory(cache, marshaller, true, true), localContextFactory);
+            }
+            case "delta": {
+                Marshaller<Object, MarshalledValue<Object, MarshallingContext>, MarshallingContext> marshaller = new MarshalledValueMarshaller<>(factory, context);
+                return new InfinispanSessionFactory<>(new InfinispanSessionMetaDataFactory<>(cache, true), new DeltaSessionAttributesFactory(cache, marshaller, true), localContextFactory);
+            }
+            case "fine": {
+                Marshaller<Object, MarshalledValue<Object, MarshallingContext>, MarshallingContext> marshaller = new MarshalledValueMarshaller<>(factory, context);
+                return new InfinispanSessionFactory<>(new InfinispanSessionMetaDataFactory<>(cache, true), new FineSessionAttributesFactory(cache, marshaller, true), localContextFactory);
+            }
+            default: {
+                throw new IllegalArgumentException(this.granularity);
+            }
+        }
+    }
+
+    private static class LocalSessionManagerConfiguration implements InfinispanSessionManagerConfiguration {
+        private final Cache<Key<String>, ?> cache;
+        private final Batcher<TransactionBatch> batcher;
+        private final CommandDispatcherFactory dispatcherFactory;
+
+        LocalSessionManagerConfiguration(Cache<Key<String>, ?> cache) {
+            this.cache = cache;
+            this.batcher = new InfinispanBatcher(cache);
+            Node node = new LocalNodeFactory("benchmark", "local").createNode(null);
+            this.dispatcherFactory = new LocalCommandDispatcherFactory(new LocalGroup("benchmark", node));
+        }
+
+        @Override
+        public ServletContext getServletContext() {
+            return null;
+        }
+
+        @Override
+        public SessionExpirationListener getExpirationListener() {
+            return session -> {
+                // Sessions do not expire during a benchmark
+            };
+        }
+
+        @Override
+        public Cache<Key<String>, ?> getCache() {
+            return this.cache;
+        }
+
+        @Override
+        public IdentifierFactory<String> getIdentifierFactory() {
+            return new IdentifierFactory<String>() {
+                @Override
+                public String createIdentifier() {
+                    return UUID.randomUUID().toString();
+                }
+
+                @Override
+                public void start() {
+                    // Nothing to start
+                }
+
+                @Override
+                public void stop() {
+                    // Nothing to stop
+                }
+            };
+        }
+
+        @Override
+        public Batcher<TransactionBatch> getBatcher() {
+            return this.batcher;
+        }
+
+        @Override
+        public CommandDispatcherFactory getCommandDispatcherFactory() {
+            return this.dispatcherFactory;
+        }
+
+        @Override
+        public NodeFactory<Address> getNodeFactory() {
+            // The primary owner of a session of a local cache is always the local node
+            return null;
+        }
+
+        @Override
+        public int getMaxActiveSessions() {
+            return -1;
+        }
+
+        @Override
+        public Recordable<ImmutableSession> getInactiveSessionRecorder() {
+            return null;
+        }
+    }
+}
@@ -0,0 +1,125 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2015, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.wildfly.clustering.web.infinispan.session;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.infinispan.transaction.tm.DummyTransactionManager;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.wildfly.clustering.ee.infinispan.InfinispanBatcher;
+import org.wildfly.clustering.web.session.ImmutableSessionMetaData;
+
+/**
+ * Measures the cancellation and rescheduling of the expiration of a session, as done at the start and end of every
+ * request, by a {@link SessionExpirationScheduler} that already schedules the expiration of many sessions.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@Threads(4)
+public class SessionExpirationSchedulerBenchmark {
+
+    @Param({ "10000", "1000000" })
+    private int sessions;
+
+    private SessionExpirationScheduler scheduler;
+    private String[] ids;
+    private ImmutableSessionMetaData metaData;
+
+    @Setup
+    public void setup() {
+        // Sessions never expire during a benchmark, so neither the batcher nor the remover is ever used
+        this.scheduler = new SessionExpirationScheduler(new InfinispanBatcher(DummyTransactionManager.getInstance()), id -> false);
+        this.metaData = new SimpleMetaData(Instant.now(), Duration.ofMinutes(30));
+        this.ids = new String[this.sessions];
+        for (int i = 0; i < this.sessions; ++i) {
+            this.ids[i] = Integer.toString(i);
+            this.scheduler.schedule(this.ids[i], this.metaData);
+        }
+    }
+
+    @TearDown
+    public void tearDown() {
+        this.scheduler.close();
+    }
+
+    @Benchmark
+    public void cancelAndSchedule() {
+        String id = this.ids[ThreadLocalRandom.current().nextInt(this.sessions)];
+        this.scheduler.cancel(id);
+        this.scheduler.schedule(id, this.metaData);
+    }
+
+    private static class SimpleMetaData implements ImmutableSessionMetaData {
+        private final Instant creationTime;
+        private final Duration maxInactiveInterval;
+
+        SimpleMetaData(Instant creationTime, Duration maxInactiveInterval) {
+            this.creationTime = creationTime;
+            this.maxInactiveInterval = maxInactiveInterval;
+        }
+
+        @Override
+        public boolean isNew() {
+            return false;
+        }
+
+        @Override
+        public boolean isExpired() {
+            return false;
+        }
+
+        @Override
+        public Instant getCreationTime() {
+            return this.creationTime;
+        }
+
+        @Override
+        public Instant getLastAccessedTime() {
+            // Reflects the last access of a session at the time it was scheduled
+            return Instant.now();
+        }
+
+        @Override
+        public Duration getMaxInactiveInterval() {
+            return this.maxInactiveInterval;
+        }
+    }
+}
@@ -0,0 +1,177 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2015, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.wildfly.clustering.web.infinispan.session.coarse;
+
+import java.io.IOException;
+import java.io.ObjectOutput;
+import java.io.ObjectOutputStream;
+import java.io.OutputStream;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.jboss.marshalling.MarshallingConfiguration;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.wildfly.clustering.marshalling.jboss.MarshallingContext;
+import org.wildfly.clustering.marshalling.jboss.SimpleMarshalledValue;
+import org.wildfly.clustering.marshalling.jboss.SimpleMarshalledValueExternalizer;
+import org.wildfly.clustering.marshalling.jboss.SimpleMarshalledValueFactory;
+import org.wildfly.clustering.marshalling.jboss.SimpleMarshallingConfigurationRepository;
+import org.wildfly.clustering.marshalling.jboss.SimpleMarshallingContextFactory;
+
+/**
+ * Measures the payload replicated by a request that mutates a single attribute of a session, per attribute persistence
+ * strategy: the entire attribute map of a coarse session, the changed attributes of a delta session, or the changed
+ * attribute entry of a fine session.
+ * The {@code bytes} counter divided by the throughput gives the number of bytes replicated per request.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SessionReplicationBenchmark {
+
+    @Param({ "1", "10", "50" })
+    private int attributes;
+
+    @Param({ "100", "1000" })
+    private int attributeSize;
+
+    private final SimpleMarshalledValueExternalizer<Object> valueExternalizer = new SimpleMarshalledValueExternalizer<>();
+    private final SessionAttributesEntryDeltaExternalizer deltaExternalizer = new SessionAttributesEntryDeltaExternalizer();
+
+    private SimpleMarshalledValueFactory factory;
+    private Map<String, Object> map;
+    private SessionAttributesEntry entry;
+    private CountingOutput output;
+
+    @Setup
+    public void setup() throws IOException {
+        MarshallingContext context = new SimpleMarshallingContextFactory().createMarshallingContext(new SimpleMarshallingConfigurationRepository(new MarshallingConfiguration()), this.getClass().getClassLoader());
+        this.factory = new SimpleMarshalledValueFactory(context);
+        this.map = new HashMap<>();
+        this.entry = new SessionAttributesEntry();
+        for (int i = 0; i < this.attributes; ++i) {
+            String name = "attribute" + i;
+            Object value = this.createValue();
+            this.map.put(name, value);
+            this.entry.put(name, this.factory.createMarshalledValue(value));
+        }
+        this.entry.commit();
+        this.output = new CountingOutput();
+    }
+
+    @Setup(Level.Iteration)
+    public void reset(Counters counters) {
+        counters.bytes = 0;
+    }
+
+    @Benchmark
+    public void coarse(Counters counters) throws IOException {
+        this.map.put(this.mutate(), this.createValue());
+        this.valueExternalizer.writeObject(this.output.reset(), this.factory.<Object>createMarshalledValue(this.map));
+        counters.bytes += this.output.count();
+    }
+
+    @Benchmark
+    public void delta(Counters counters) throws IOException {
+        this.entry.put(this.mutate(), this.factory.createMarshalledValue(this.createValue()));
+        this.deltaExternalizer.writeObject(this.output.reset(), (SessionAttributesEntryDelta) this.entry.delta());
+        counters.bytes += this.output.count();
+    }
+
+    @Benchmark
+    public void fine(Counters counters) throws IOException {
+        SimpleMarshalledValue<Object> value = this.factory.createMarshalledValue(this.createValue());
+        ObjectOutput output = this.output.reset();
+        output.writeUTF(this.mutate());
+        this.valueExternalizer.writeObject(output, value);
+        counters.bytes += this.output.count();
+    }
+
+    private String mutate() {
+        return "attribute" + ThreadLocalRandom.current().nextInt(this.attributes);
+    }
+
+    private Object createValue() {
+        char[] chars = new char[this.attributeSize];
+        for (int i = 0; i < chars.length; ++i) {
+            chars[i] = (char) ('a' + ThreadLocalRandom.current().nextInt(26));
+        }
+        return new StringBuilder().append(chars);
+    }
+
+    @AuxCounters
+    @State(Scope.Thread)
+    public static class Counters {
+        public long bytes;
+    }
+
+    /**
+     * Object output that discards its payload, retaining only its size.
+     */
+    static class CountingOutput extends OutputStream {
+        private long count;
+        private ObjectOutputStream output;
+
+        ObjectOutput reset() throws IOException {
+            this.count = 0;
+            if (this.output == null) {
+                this.output = new ObjectOutputStream(this);
+            }
+            this.output.reset();
+            this.output.flush();
+            this.count = 0;
+            return this.output;
+        }
+
+        long count() throws IOException {
+            this.output.flush();
+            return this.count;
+        }
+
+        @Override
+        public void write(int b) {
+            this.count += 1;
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) {
+            this.count += len;
+        }
+    }
+}
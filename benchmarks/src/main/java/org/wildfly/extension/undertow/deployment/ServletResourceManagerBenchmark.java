@@ -0,0 +1,142 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2015, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.wildfly.extension.undertow.deployment;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Collections;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import io.undertow.server.handlers.resource.FileResourceManager;
+import io.undertow.server.handlers.resource.Resource;
+import org.jboss.vfs.VFS;
+import org.jboss.vfs.VirtualFile;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures the lookup of static resources of a deployment with an overlay, for a mix of existing and missing paths,
+ * by the {@link ServletResourceManager}, and by an uncached lookup that queries the file system for every request.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@Threads(4)
+public class ServletResourceManagerBenchmark {
+
+    private static final int FILES = 200;
+
+    /**
+     * Percentage of requested paths that do not exist
+     */
+    @Param({ "0", "20", "80" })
+    private int missing;
+
+    @Param({ "false", "true" })
+    private boolean exploded;
+
+    private Path root;
+    private Path overlay;
+    private ServletResourceManager manager;
+    private FileResourceManager uncached;
+    private VirtualFile overlayFile;
+    private String[] paths;
+
+    @Setup
+    public void setup() throws IOException {
+        this.root = Files.createTempDirectory("deployment");
+        this.overlay = Files.createTempDirectory("overlay");
+        for (int i = 0; i < FILES; ++i) {
+            Path dir = Files.createDirectories(this.root.resolve("static").resolve("dir" + (i % 10)));
+            Files.write(dir.resolve("file" + i + ".css"), new byte[] { 0 });
+        }
+        Files.write(Files.createDirectories(this.overlay.resolve("static")).resolve("overlay.css"), new byte[] { 0 });
+
+        VirtualFile rootFile = VFS.getChild(this.root.toAbsolutePath().toString());
+        this.overlayFile = VFS.getChild(this.overlay.toAbsolutePath().toString());
+        this.manager = new ServletResourceManager(rootFile, Collections.singleton(this.overlayFile), this.exploded, false);
+        this.uncached = new FileResourceManager(this.root.toFile(), 1024 * 1024, false, "/");
+
+        // A fixed mix of paths, so that the cached lookup is measured at steady state
+        this.paths = new String[1000];
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        for (int i = 0; i < this.paths.length; ++i) {
+            if (random.nextInt(100) < this.missing) {
+                this.paths[i] = "/static/missing" + random.nextInt(FILES) + ".css";
+            } else {
+                int file = random.nextInt(FILES + 1);
+                this.paths[i] = (file < FILES) ? "/static/dir" + (file % 10) + "/file" + file + ".css" : "/static/overlay.css";
+            }
+        }
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        this.manager.close();
+        this.uncached.close();
+        delete(this.root.toFile());
+        delete(this.overlay.toFile());
+    }
+
+    @Benchmark
+    public Resource cached() throws IOException {
+        return this.manager.getResource(this.paths[ThreadLocalRandom.current().nextInt(this.paths.length)]);
+    }
+
+    @Benchmark
+    public Resource uncached() throws IOException {
+        String path = this.paths[ThreadLocalRandom.current().nextInt(this.paths.length)];
+        Resource resource = this.uncached.getResource(path);
+        if (resource != null) {
+            return resource;
+        }
+        VirtualFile child = this.overlayFile.getChild(path.substring(1));
+        return child.exists() ? new VirtualFileResource(this.overlayFile.getPhysicalFile(), child, path) : null;
+    }
+
+    private static void delete(File file) {
+        File[] children = file.listFiles();
+        if (children != null) {
+            for (File child : children) {
+                delete(child);
+            }
+        }
+        file.delete();
+    }
+}
@@ -0,0 +1,151 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2015, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.wildfly.clustering.ee;
+
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+/**
+ * Records operations against a target guarded by a lock, so that callers never block on that lock.
+ * Recorded operations are replayed against the target, in order, by whichever caller manages to acquire the lock.
+ * A caller replays a bounded number of operations, so that it is never stuck replaying operations recorded by other
+ * threads faster than it can replay them; any operations left over are replayed by subsequent callers.
+ *
+ * @param <T> the target type
+ */
+public class ReplayBuffer<T> {
+
+    /**
+     * The number of operations replayed by a single caller, by default
+     */
+    public static final int DEFAULT_MAX_BATCH_SIZE = 64;
+
+    private final Queue<Consumer<T>> operations = new ConcurrentLinkedQueue<>();
+    private final Lock lock = new ReentrantLock();
+    // Guarded by lock
+    private final T target;
+    private final int maxBatchSize;
+    private final Consumer<T> listener;
+
+    /**
+     * Creates a replay buffer for the specified target.
+     * @param target the target of the recorded operations
+     */
+    public ReplayBuffer(T target) {
+        this(target, replayed -> {});
+    }
+
+    /**
+     * Creates a replay buffer for the specified target.
+     * @param target the target of the recorded operations
+     * @param listener notified of the target, while holding the lock, after each batch of replayed operations
+     */
+    public ReplayBuffer(T target, Consumer<T> listener) {
+        this(target, DEFAULT_MAX_BATCH_SIZE, listener);
+    }
+
+    /**
+     * Creates a replay buffer for the specified target.
+     * @param target the target of the recorded operations
+     * @param maxBatchSize the maximum number of operations replayed by a single caller
+     * @param listener notified of the target, while holding the lock, after each batch of replayed operations
+     */
+    public ReplayBuffer(T target, int maxBatchSize, Consumer<T> listener) {
+        this.target = target;
+        this.maxBatchSize = maxBatchSize;
+        this.listener = listener;
+    }
+
+    /**
+     * Records the specified operation, then replays recorded operations, unless another thread holds the lock.
+     * @param operation an operation against the target
+     */
+    public void add(Consumer<T> operation) {
+        this.operations.add(operation);
+        this.drain();
+    }
+
+    /**
+     * Acquires the lock, replays recorded operations, then applies the specified function to the target.
+     * @param function a function of the target
+     * @return the result of the function
+     */
+    public <R> R apply(Function<T, R> function) {
+        R result;
+        this.lock.lock();
+        try {
+            this.replay(this.maxBatchSize);
+            result = function.apply(this.target);
+        } finally {
+            this.lock.unlock();
+        }
+        // Replay any operations recorded by threads that failed to acquire the lock while we held it
+        this.drain();
+        return result;
+    }
+
+    /**
+     * Discards any recorded operations, then applies the specified operation to the target.
+     * @param operation an operation against the target
+     */
+    public void reset(Consumer<T> operation) {
+        this.lock.lock();
+        try {
+            this.operations.clear();
+            operation.accept(this.target);
+        } finally {
+            this.lock.unlock();
+        }
+    }
+
+    private void drain() {
+        int remaining = this.maxBatchSize;
+        // A thread holding the lock replays our operation before releasing it, or retries after releasing it,
+        // unless it has exhausted its batch, in which case our operation is left to the next caller
+        while ((remaining > 0) && !this.operations.isEmpty() && this.lock.tryLock()) {
+            try {
+                remaining -= this.replay(remaining);
+            } finally {
+                this.lock.unlock();
+            }
+        }
+    }
+
+    // Requires lock
+    private int replay(int limit) {
+        int count = 0;
+        while (count < limit) {
+            Consumer<T> operation = this.operations.poll();
+            if (operation == null) break;
+            operation.accept(this.target);
+            count += 1;
+        }
+        if (count > 0) {
+            this.listener.accept(this.target);
+        }
+        return count;
+    }
+}
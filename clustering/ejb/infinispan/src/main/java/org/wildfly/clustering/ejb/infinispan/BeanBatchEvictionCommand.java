@@ -0,0 +1,91 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2015, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.wildfly.clustering.ejb.infinispan;
+
+import java.util.ArrayList;
+import java.util.Collection;
+
+import org.wildfly.clustering.dispatcher.Command;
+import org.wildfly.clustering.ee.Batch;
+import org.wildfly.clustering.ejb.infinispan.logging.InfinispanEjbLogger;
+
+/**
+ * Command that evicts a number of beans within a single batch.
+ * If the eviction of any bean fails, the batch is discarded and each bean is evicted within its own batch instead,
+ * so that one failure does not prevent the eviction of the other beans, which are no longer scheduled.
+ * <p/>
+ * Nodes that predate this command cannot execute it, so during a rolling upgrade the beans of a batch are only evicted
+ * on the upgraded nodes.  Evictions of a single bean are still sent as a {@link BeanEvictionCommand}.
+ */
+public class BeanBatchEvictionCommand<I> implements Command<Void, BeanEvictionContext<I>> {
+    private static final long serialVersionUID = -2709517932131223111L;
+
+    private final Collection<I> ids;
+
+    public BeanBatchEvictionCommand(Collection<I> ids) {
+        this.ids = new ArrayList<>(ids);
+    }
+
+    @Override
+    public Void execute(BeanEvictionContext<I> context) throws Exception {
+        Batch batch = context.getBatcher().createBatch();
+        boolean success = false;
+        try {
+            for (I id : this.ids) {
+                InfinispanEjbLogger.ROOT_LOGGER.tracef("Evicting stateful session bean %s", id);
+                context.getEvictor().evict(id);
+            }
+            success = true;
+        } catch (RuntimeException e) {
+            InfinispanEjbLogger.ROOT_LOGGER.debugf(e, "Failed to evict stateful session beans %s within a single batch", this.ids);
+        } finally {
+            if (success) {
+                batch.close();
+            } else {
+                batch.discard();
+            }
+        }
+        if (!success) {
+            for (I id : this.ids) {
+                evict(context, id);
+            }
+        }
+        return null;
+    }
+
+    private static <I> void evict(BeanEvictionContext<I> context, I id) {
+        Batch batch = context.getBatcher().createBatch();
+        boolean success = false;
+        try {
+            context.getEvictor().evict(id);
+            success = true;
+        } catch (RuntimeException e) {
+            InfinispanEjbLogger.ROOT_LOGGER.failedToPassivateBean(e, id);
+        } finally {
+            if (success) {
+                batch.close();
+            } else {
+                batch.discard();
+            }
+        }
+    }
+}
@@ -21,13 +21,17 @@
  */
 package org.wildfly.clustering.ejb.infinispan;
 
+import java.util.ArrayList;
 import java.util.Iterator;
 import java.util.LinkedHashSet;
+import java.util.List;
 import java.util.Set;
 
+import org.wildfly.clustering.dispatcher.Command;
 import org.wildfly.clustering.dispatcher.CommandDispatcher;
 import org.wildfly.clustering.dispatcher.CommandDispatcherFactory;
 import org.wildfly.clustering.ee.Batcher;
+import org.wildfly.clustering.ee.ReplayBuffer;
 import org.wildfly.clustering.ee.infinispan.Evictor;
 import org.wildfly.clustering.ee.infinispan.TransactionBatch;
 import org.wildfly.clustering.ejb.infinispan.logging.InfinispanEjbLogger;
@@ -35,6 +39,9 @@ import org.wildfly.clustering.infinispan.spi.distribution.Locality;
 
 /**
  * Schedules a bean for eviction.
+ * Callers never block on the eviction queue: scheduling and cancellation are recorded in a {@link ReplayBuffer}.
+ * After each batch of replayed operations, beans in excess of the configured maximum size are evicted in a single batch,
+ * via one {@link BeanBatchEvictionCommand}.
  *
  * @author Paul Ferraro
  *
@@ -44,7 +51,7 @@ import org.wildfly.clustering.infinispan.spi.distribution.Locality;
  */
 public class BeanEvictionScheduler<I> implements Scheduler<I>, BeanEvictionContext<I> {
 
-    private final Set<I> evictionQueue = new LinkedHashSet<>();
+    private final ReplayBuffer<Set<I>> evictionQueue = new ReplayBuffer<>(new LinkedHashSet<>(), this::evict);
     private final Batcher<TransactionBatch> batcher;
     private final Evictor<I> evictor;
     private final CommandDispatcher<BeanEvictionContext<I>> dispatcher;
@@ -69,47 +76,47 @@ public class BeanEvictionScheduler<I> implements Scheduler<I>, BeanEvictionConte
 
     @Override
     public void cancel(I id) {
-        synchronized (this.evictionQueue) {
-            this.evictionQueue.remove(id);
-        }
+        this.evictionQueue.add(queue -> queue.remove(id));
     }
 
     @Override
     public void cancel(Locality locality) {
-        synchronized (this.evictionQueue) {
-            Iterator<I> beans = this.evictionQueue.iterator();
-            while (beans.hasNext()) {
-                I id = beans.next();
-                if (!locality.isLocal(id)) {
-                    beans.remove();
-                }
-            }
-        }
+        this.evictionQueue.add(queue -> queue.removeIf(id -> !locality.isLocal(id)));
     }
 
     @Override
     public void schedule(I id) {
-        synchronized (this.evictionQueue) {
-            this.evictionQueue.add(id);
-            // Trigger eviction of oldest bean if necessary
-            if (this.evictionQueue.size() > this.config.getConfiguration().getMaxSize()) {
-                Iterator<I> beans = this.evictionQueue.iterator();
-                I bean = beans.next();
-                try {
-                    this.dispatcher.submitOnCluster(new BeanEvictionCommand<>(bean));
-                    beans.remove();
-                } catch (Exception e) {
-                    InfinispanEjbLogger.ROOT_LOGGER.failedToPassivateBean(e, bean);
-                }
-            }
-        }
+        this.evictionQueue.add(queue -> {
+            // Move to the tail of the queue, if already present
+            queue.remove(id);
+            queue.add(id);
+        });
     }
 
     @Override
     public void close() {
-        synchronized (this.evictionQueue) {
-            this.evictionQueue.clear();
-        }
+        this.evictionQueue.reset(Set::clear);
         this.dispatcher.close();
     }
+
+    // Requires lock of the eviction queue
+    private void evict(Set<I> evictionQueue) {
+        int excess = evictionQueue.size() - this.config.getConfiguration().getMaxSize();
+        if (excess > 0) {
+            // Trigger eviction of oldest beans
+            List<I> beans = new ArrayList<>(excess);
+            Iterator<I> ids = evictionQueue.iterator();
+            while (beans.size() < excess) {
+                beans.add(ids.next());
+            }
+            // A single bean is evicted via the command understood by every node
+            Command<Void, BeanEvictionContext<I>> command = (beans.size() == 1) ? new BeanEvictionCommand<I>(beans.get(0)) : new BeanBatchEvictionCommand<I>(beans);
+            try {
+                this.dispatcher.submitOnCluster(command);
+                evictionQueue.removeAll(beans);
+            } catch (Exception e) {
+                InfinispanEjbLogger.ROOT_LOGGER.failedToPassivateBean(e, beans);
+            }
+        }
+    }
 }
@@ -0,0 +1,78 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2015, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.wildfly.clustering.ejb.infinispan;
+
+import static org.mockito.Mockito.*;
+
+import java.util.Arrays;
+
+import org.junit.Test;
+import org.wildfly.clustering.ee.Batcher;
+import org.wildfly.clustering.ee.infinispan.Evictor;
+import org.wildfly.clustering.ee.infinispan.TransactionBatch;
+
+public class BeanBatchEvictionCommandTestCase {
+    @SuppressWarnings("unchecked")
+    @Test
+    public void execute() throws Exception {
+        BeanEvictionContext<String> context = mock(BeanEvictionContext.class);
+        Batcher<TransactionBatch> batcher = mock(Batcher.class);
+        TransactionBatch batch = mock(TransactionBatch.class);
+        Evictor<String> evictor = mock(Evictor.class);
+
+        when(context.getBatcher()).thenReturn(batcher);
+        when(context.getEvictor()).thenReturn(evictor);
+        when(batcher.createBatch()).thenReturn(batch);
+
+        new BeanBatchEvictionCommand<>(Arrays.asList("a", "b")).execute(context);
+
+        verify(evictor).evict("a");
+        verify(evictor).evict("b");
+        verify(batcher, times(1)).createBatch();
+        verify(batch).close();
+        verify(batch, never()).discard();
+    }
+
+    @SuppressWarnings("unchecked")
+    @Test
+    public void executeFailure() throws Exception {
+        BeanEvictionContext<String> context = mock(BeanEvictionContext.class);
+        Batcher<TransactionBatch> batcher = mock(Batcher.class);
+        TransactionBatch batch = mock(TransactionBatch.class);
+        Evictor<String> evictor = mock(Evictor.class);
+
+        when(context.getBatcher()).thenReturn(batcher);
+        when(context.getEvictor()).thenReturn(evictor);
+        when(batcher.createBatch()).thenReturn(batch);
+        doThrow(new IllegalStateException()).when(evictor).evict("b");
+
+        new BeanBatchEvictionCommand<>(Arrays.asList("a", "b", "c")).execute(context);
+
+        // The failed batch is discarded, then each bean is evicted within its own batch
+        verify(evictor, times(2)).evict("a");
+        verify(evictor, times(2)).evict("b");
+        verify(evictor, times(1)).evict("c");
+        verify(batcher, times(4)).createBatch();
+        verify(batch, times(2)).discard();
+        verify(batch, times(2)).close();
+    }
+}
@@ -24,12 +24,17 @@ package org.wildfly.clustering.ejb.infinispan;
 import static org.mockito.Mockito.*;
 import static org.junit.Assert.*;
 
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
 import org.junit.Test;
 import org.mockito.ArgumentCaptor;
 import org.wildfly.clustering.dispatcher.Command;
 import org.wildfly.clustering.dispatcher.CommandDispatcher;
 import org.wildfly.clustering.dispatcher.CommandDispatcherFactory;
 import org.wildfly.clustering.ee.Batcher;
+import org.wildfly.clustering.ee.ReplayBuffer;
 import org.wildfly.clustering.ee.infinispan.Evictor;
 import org.wildfly.clustering.ee.infinispan.TransactionBatch;
 import org.wildfly.clustering.ejb.Bean;
@@ -80,4 +85,103 @@ public class BeanEvictionSchedulerTestCase {
 
         verify(dispatcher).close();
     }
+
+    @SuppressWarnings({ "rawtypes", "unchecked" })
+    @Test
+    public void batch() throws Exception {
+        String name = "bean";
+        CommandDispatcherFactory dispatcherFactory = mock(CommandDispatcherFactory.class);
+        CommandDispatcher<BeanEvictionContext<String>> dispatcher = mock(CommandDispatcher.class);
+        Batcher<TransactionBatch> batcher = mock(Batcher.class);
+        TransactionBatch batch = mock(TransactionBatch.class);
+        Evictor<String> evictor = mock(Evictor.class);
+        PassivationConfiguration<Bean<Object, String, Object>> config = mock(PassivationConfiguration.class);
+        BeanPassivationConfiguration passivationConfig = mock(BeanPassivationConfiguration.class);
+        ArgumentCaptor<Command> capturedCommand = ArgumentCaptor.forClass(Command.class);
+
+        when(dispatcherFactory.createCommandDispatcher(same(name), (BeanEvictionContext<String>) any(BeanEvictionContext.class))).thenReturn(dispatcher);
+        when(config.getConfiguration()).thenReturn(passivationConfig);
+        when(passivationConfig.getMaxSize()).thenReturn(1);
+        // Fail the first submission, so that the next eviction must include the oldest 2 beans
+        when(dispatcher.submitOnCluster(any(Command.class))).thenThrow(new IllegalStateException()).thenReturn(null);
+        when(batcher.createBatch()).thenReturn(batch);
+
+        try (BeanEvictionScheduler<String> scheduler = new BeanEvictionScheduler<>(name, batcher, evictor, dispatcherFactory, config)) {
+            scheduler.schedule("a");
+            scheduler.schedule("b");
+            scheduler.schedule("c");
+            // Cancelled beans are never evicted
+            scheduler.cancel("c");
+            scheduler.schedule("d");
+
+            verify(dispatcher, times(2)).submitOnCluster(capturedCommand.capture());
+
+            capturedCommand.getAllValues().get(1).execute(scheduler);
+
+            verify(evictor).evict("a");
+            verify(evictor).evict("b");
+            verify(evictor, never()).evict("c");
+            verify(evictor, never()).evict("d");
+            verify(batch).close();
+        }
+    }
+
+    @SuppressWarnings({ "rawtypes", "unchecked" })
+    @Test
+    public void boundedReplay() throws Exception {
+        String name = "bean";
+        int count = 1000;
+        int batchSize = ReplayBuffer.DEFAULT_MAX_BATCH_SIZE;
+        CommandDispatcherFactory dispatcherFactory = mock(CommandDispatcherFactory.class);
+        CommandDispatcher<BeanEvictionContext<String>> dispatcher = mock(CommandDispatcher.class);
+        Batcher<TransactionBatch> batcher = mock(Batcher.class);
+        TransactionBatch batch = mock(TransactionBatch.class);
+        Evictor<String> evictor = mock(Evictor.class);
+        PassivationConfiguration<Bean<Object, String, Object>> config = mock(PassivationConfiguration.class);
+        BeanPassivationConfiguration passivationConfig = mock(BeanPassivationConfiguration.class);
+        ArgumentCaptor<Command> capturedCommand = ArgumentCaptor.forClass(Command.class);
+        AtomicReference<Scheduler<String>> reference = new AtomicReference<>();
+        AtomicBoolean scheduled = new AtomicBoolean(false);
+        AtomicInteger maxSize = new AtomicInteger(Integer.MAX_VALUE);
+
+        when(dispatcherFactory.createCommandDispatcher(same(name), (BeanEvictionContext<String>) any(BeanEvictionContext.class))).thenReturn(dispatcher);
+        when(config.getConfiguration()).thenReturn(passivationConfig);
+        // While the first caller holds the lock, another thread schedules many more beans
+        when(passivationConfig.getMaxSize()).thenAnswer(invocation -> {
+            if (scheduled.compareAndSet(false, true)) {
+                Thread thread = new Thread(() -> {
+                    for (int i = 1; i < count; ++i) {
+                        reference.get().schedule(String.valueOf(i));
+                    }
+                });
+                thread.start();
+                thread.join();
+            }
+            return maxSize.get();
+        });
+        when(batcher.createBatch()).thenReturn(batch);
+
+        try (BeanEvictionScheduler<String> scheduler = new BeanEvictionScheduler<>(name, batcher, evictor, dispatcherFactory, config)) {
+            reference.set(scheduler);
+
+            // The first caller must not replay every operation recorded while it holds the lock
+            scheduler.schedule("0");
+
+            verifyZeroInteractions(dispatcher);
+
+            // The next caller replays the next batch, then evicts every bean scheduled so far
+            maxSize.set(0);
+            scheduler.schedule(String.valueOf(count));
+
+            verify(dispatcher).submitOnCluster(capturedCommand.capture());
+
+            capturedCommand.getValue().execute(scheduler);
+
+            for (int i = 0; i < 2 * batchSize; ++i) {
+                verify(evictor).evict(String.valueOf(i));
+            }
+            verify(evictor, never()).evict(String.valueOf(2 * batchSize));
+            verify(evictor, never()).evict(String.valueOf(count));
+        }
+    }
 }
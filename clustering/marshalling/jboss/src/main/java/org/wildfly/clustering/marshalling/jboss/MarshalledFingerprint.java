@@ -0,0 +1,98 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2015, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.wildfly.clustering.marshalling.jboss;
+
+import java.io.IOException;
+import java.io.OutputStream;
+
+import org.jboss.marshalling.Marshaller;
+import org.jboss.marshalling.Marshalling;
+import org.wildfly.security.manager.WildFlySecurityManager;
+
+/**
+ * Computes a 64-bit fingerprint of the marshalled form of an object.
+ * The marshalled form is hashed as it is written, and is never buffered, so the state of a mutable object can be
+ * compared to its earlier state without retaining a copy of its serialized bytes.
+ */
+public class MarshalledFingerprint {
+
+    // 64-bit FNV-1a
+    private static final long OFFSET_BASIS = 0xcbf29ce484222325L;
+    private static final long PRIME = 0x100000001b3L;
+
+    private final MarshallingContext context;
+
+    public MarshalledFingerprint(MarshallingContext context) {
+        this.context = context;
+    }
+
+    /**
+     * Computes the fingerprint of the marshalled form of the specified object.
+     * Objects whose marshalled forms are equal have the same fingerprint.
+     * @param object an object to marshal
+     * @return a fingerprint of the marshalled form of the object
+     * @throws IOException if the object could not be marshalled
+     */
+    public long compute(Object object) throws IOException {
+        HashingOutputStream output = new HashingOutputStream();
+        int version = this.context.getCurrentVersion();
+        ClassLoader loader = setThreadContextClassLoader(this.context.getClassLoader());
+        try (Marshaller marshaller = this.context.createMarshaller(version)) {
+            marshaller.start(Marshalling.createByteOutput(output));
+            marshaller.writeObject(object);
+            marshaller.finish();
+        } finally {
+            setThreadContextClassLoader(loader);
+        }
+        return output.getHash();
+    }
+
+    private static ClassLoader setThreadContextClassLoader(ClassLoader loader) {
+        return (loader != null) ? WildFlySecurityManager.setCurrentContextClassLoaderPrivileged(loader) : null;
+    }
+
+    private static class HashingOutputStream extends OutputStream {
+        private long hash = OFFSET_BASIS;
+        private long length = 0;
+
+        @Override
+        public void write(int b) {
+            this.hash = (this.hash ^ (b & 0xff)) * PRIME;
+            this.length += 1;
+        }
+
+        @Override
+        public void write(byte[] bytes, int offset, int length) {
+            long hash = this.hash;
+            for (int i = offset; i < offset + length; ++i) {
+                hash = (hash ^ (bytes[i] & 0xff)) * PRIME;
+            }
+            this.hash = hash;
+            this.length += length;
+        }
+
+        long getHash() {
+            // Fold in the length, so that forms differing only by trailing bytes are less likely to collide
+            return (this.hash ^ this.length) * PRIME;
+        }
+    }
+}
@@ -0,0 +1,89 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2015, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.wildfly.clustering.marshalling.jboss;
+
+import static org.junit.Assert.*;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import org.jboss.marshalling.Marshalling;
+import org.jboss.marshalling.MarshallingConfiguration;
+import org.junit.Test;
+
+/**
+ * Unit test for {@link MarshalledFingerprint}.
+ */
+public class MarshalledFingerprintTestCase {
+    private final MarshalledFingerprint fingerprint;
+
+    public MarshalledFingerprintTestCase() {
+        MarshallingConfigurationRepository repository = new MarshallingConfigurationRepository() {
+            @Override
+            public int getCurrentMarshallingVersion() {
+                return 0;
+            }
+
+            @Override
+            public MarshallingConfiguration getMarshallingConfiguration(int version) {
+                assertEquals(0, version);
+                return new MarshallingConfiguration();
+            }
+        };
+        MarshallingContext context = new SimpleMarshallingContext(Marshalling.getMarshallerFactory("river", Marshalling.class.getClassLoader()), repository, Thread.currentThread().getContextClassLoader());
+        this.fingerprint = new MarshalledFingerprint(context);
+    }
+
+    @Test
+    public void equalObjects() throws IOException {
+        UUID uuid = UUID.randomUUID();
+        assertEquals(this.fingerprint.compute(uuid), this.fingerprint.compute(new UUID(uuid.getMostSignificantBits(), uuid.getLeastSignificantBits())));
+    }
+
+    @Test
+    public void mutation() throws IOException {
+        List<String> list = new ArrayList<>();
+        list.add("foo");
+        long original = this.fingerprint.compute(list);
+
+        // Reads do not change the fingerprint
+        list.get(0);
+        assertEquals(original, this.fingerprint.compute(list));
+
+        list.add("bar");
+        long mutated = this.fingerprint.compute(list);
+        assertNotEquals(original, mutated);
+
+        list.set(1, "baz");
+        assertNotEquals(mutated, this.fingerprint.compute(list));
+
+        list.remove(1);
+        assertEquals(original, this.fingerprint.compute(list));
+    }
+
+    @Test(expected = IOException.class)
+    public void notMarshallable() throws IOException {
+        this.fingerprint.compute(new Object());
+    }
+}
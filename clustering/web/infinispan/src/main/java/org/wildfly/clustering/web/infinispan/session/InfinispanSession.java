@@ -80,6 +80,7 @@ public class InfinispanSession<L> extends InfinispanImmutableSession implements
     @Override
     public void close() {
         if (this.valid.get()) {
+            this.attributes.close();
             this.metaData.setLastAccessedTime(Instant.now());
         }
     }
@@ -58,6 +58,7 @@ import org.wildfly.clustering.web.IdentifierFactory;
 import org.wildfly.clustering.web.LocalContextFactory;
 import org.wildfly.clustering.web.infinispan.AffinityIdentifierFactory;
 import org.wildfly.clustering.web.infinispan.session.coarse.CoarseSessionAttributesFactory;
+import org.wildfly.clustering.web.infinispan.session.coarse.DeltaSessionAttributesFactory;
 import org.wildfly.clustering.web.infinispan.session.fine.FineSessionAttributesFactory;
 import org.wildfly.clustering.web.session.ImmutableSession;
 import org.wildfly.clustering.web.session.SessionExpirationListener;
@@ -176,9 +177,15 @@ public class InfinispanSessionManagerFactory implements SessionManagerFactory<Tr
         switch (this.config.getSessionManagerFactoryConfiguration().getAttributePersistenceStrategy()) {
             case FINE: {
                 Marshaller<Object, MarshalledValue<Object, MarshallingContext>, MarshallingContext> marshaller = new MarshalledValueMarshaller<>(factory, marshallingContext);
-                return new FineSessionAttributesFactory(this.config.getCache(), marshaller, requireMarshallable);
+                // Change detection only pays off if attributes are replicated or persisted
+                boolean detectChanges = requireMarshallable && config.isAttributeChangeDetectionEnabled();
+                return new FineSessionAttributesFactory(this.config.getCache(), marshaller, requireMarshallable, detectChanges);
             }
             case COARSE: {
+                if (requireMarshallable && config.isDeltaReplicationEnabled()) {
+                    Marshaller<Object, MarshalledValue<Object, MarshallingContext>, MarshallingContext> marshaller = new MarshalledValueMarshaller<>(factory, marshallingContext);
+                    return new DeltaSessionAttributesFactory(this.config.getCache(), marshaller, requireMarshallable);
+                }
                 Marshaller<Map<String, Object>, MarshalledValue<Map<String, Object>, MarshallingContext>, MarshallingContext> marshaller = new MarshalledValueMarshaller<>(factory, marshallingContext);
                 return new CoarseSessionAttributesFactory(this.config.getCache(), marshaller, lockOnRead, requireMarshallable);
             }
@@ -25,14 +25,20 @@ import java.security.AccessController;
 import java.security.PrivilegedAction;
 import java.time.Duration;
 import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
 import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
-import java.util.concurrent.ExecutionException;
-import java.util.concurrent.Future;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.ScheduledThreadPoolExecutor;
 import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
 import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
 
 import org.jboss.threads.JBossThreadFactory;
 import org.wildfly.clustering.ee.Batch;
@@ -46,17 +52,38 @@ import org.wildfly.clustering.web.session.ImmutableSessionMetaData;
 /**
  * Session expiration scheduler that eagerly expires sessions as soon as they are eligible.
  * If/When Infinispan implements expiration notifications (ISPN-694), this will be obsolete.
+ * <p/>
+ * Sessions are bucketed by the tick in which they expire into a timing wheel, so scheduling and cancelling the
+ * expiration of a session are constant time operations that do not contend on a shared delay queue.
+ * A single thread advances the wheel every tick, and hands the expired sessions of each bucket, in batches,
+ * to a bounded pool of threads, each batch of sessions being removed within a single {@link Batch}.
+ * A session is therefore expired at most one tick after it becomes eligible.
  * @author Paul Ferraro
  */
 public class SessionExpirationScheduler implements Scheduler {
 
-    final Map<String, Future<?>> expirationFutures = new ConcurrentHashMap<>();
+    // The duration of a tick of the wheel, in milliseconds
+    static final long TICK_MILLIS = 100L;
+    // The number of ticks covered by a revolution of the wheel
+    static final int WHEEL_SIZE = 4096;
+    private static final int WHEEL_MASK = WHEEL_SIZE - 1;
+    // The maximum number of sessions to expire within a single batch
+    static final int MAX_BATCH_SIZE = 100;
+
+    // The tick in which each scheduled session will be expired
+    final Map<String, Long> expirations = new ConcurrentHashMap<>();
+    // The buckets of the wheel, each mapping the scheduled sessions to the tick in which they will be expired
+    private final List<Map<String, Long>> wheel = new ArrayList<>(WHEEL_SIZE);
     final Batcher<TransactionBatch> batcher;
     final Remover<String> remover;
-    private final ScheduledExecutorService executor;
+    private final LongSupplier clock;
+    private final ScheduledExecutorService ticker;
+    private final ExecutorService executor;
+    // The last tick whose bucket was, or is being, processed
+    private volatile long current;
 
     public SessionExpirationScheduler(Batcher<TransactionBatch> batcher, Remover<String> remover) {
-        this(batcher, remover, createScheduledExecutor(createThreadFactory()));
+        this(batcher, remover, createThreadFactory(), Math.min(Runtime.getRuntime().availableProcessors(), 4));
     }
 
     private static ThreadFactory createThreadFactory() {
@@ -68,24 +95,40 @@ public class SessionExpirationScheduler implements Scheduler {
         });
     }
 
-    private static ScheduledExecutorService createScheduledExecutor(ThreadFactory factory) {
-        ScheduledThreadPoolExecutor executor = new ScheduledThreadPoolExecutor(1, factory);
-        executor.setRemoveOnCancelPolicy(true);
-        executor.setExecuteExistingDelayedTasksAfterShutdownPolicy(false);
-        return executor;
+    public SessionExpirationScheduler(Batcher<TransactionBatch> batcher, Remover<String> remover, ThreadFactory factory, int maxThreads) {
+        this(batcher, remover, System::currentTimeMillis, createTicker(factory), createExecutor(factory, maxThreads));
     }
 
-    public SessionExpirationScheduler(Batcher<TransactionBatch> batcher, Remover<String> remover, ScheduledExecutorService executor) {
+    SessionExpirationScheduler(Batcher<TransactionBatch> batcher, Remover<String> remover, LongSupplier clock, ScheduledExecutorService ticker, ExecutorService executor) {
         this.batcher = batcher;
         this.remover = remover;
+        for (int i = 0; i < WHEEL_SIZE; ++i) {
+            this.wheel.add(new ConcurrentHashMap<>());
+        }
+        this.clock = clock;
+        this.ticker = ticker;
         this.executor = executor;
+        this.current = this.currentTick();
+        this.scheduleTick();
+    }
+
+    private static ScheduledExecutorService createTicker(ThreadFactory factory) {
+        ScheduledThreadPoolExecutor ticker = new ScheduledThreadPoolExecutor(1, factory);
+        ticker.setExecuteExistingDelayedTasksAfterShutdownPolicy(false);
+        return ticker;
+    }
+
+    private static ExecutorService createExecutor(ThreadFactory factory, int maxThreads) {
+        ThreadPoolExecutor executor = new ThreadPoolExecutor(maxThreads, maxThreads, 60L, TimeUnit.SECONDS, new LinkedBlockingQueue<>(), factory);
+        executor.allowCoreThreadTimeOut(true);
+        return executor;
     }
 
     @Override
     public void cancel(String sessionId) {
-        Future<?> future = this.expirationFutures.remove(sessionId);
-        if (future != null) {
-            future.cancel(false);
+        Long expiration = this.expirations.remove(sessionId);
+        if (expiration != null) {
+            this.bucket(expiration).remove(sessionId, expiration);
         }
     }
 
@@ -94,67 +137,164 @@ public class SessionExpirationScheduler implements Scheduler {
         Duration maxInactiveInterval = metaData.getMaxInactiveInterval();
         if (!maxInactiveInterval.isZero()) {
             Instant lastAccessed = metaData.getLastAccessedTime();
-            Duration delay = Duration.between(Instant.now(), lastAccessed.plus(maxInactiveInterval));
-            Runnable task = new ExpirationTask(sessionId);
-            long seconds = !delay.isNegative() ? delay.getSeconds() + 1 : 0;
-            InfinispanWebLogger.ROOT_LOGGER.tracef("Session %s will expire in %d sec", sessionId, seconds);
-            synchronized (task) {
-                this.expirationFutures.put(sessionId, this.executor.schedule(task, seconds, TimeUnit.SECONDS));
+            // A session is only expired once its expiration time is in the past, hence the following tick
+            Long expiration = Math.max((lastAccessed.plus(maxInactiveInterval).toEpochMilli() / TICK_MILLIS) + 1, this.current + 1);
+            InfinispanWebLogger.ROOT_LOGGER.tracef("Session %s will expire in %d ms", sessionId, Math.max((expiration * TICK_MILLIS) - this.clock.getAsLong(), 0));
+            Long previous = this.expirations.put(sessionId, expiration);
+            if ((previous != null) && !previous.equals(expiration)) {
+                this.bucket(previous).remove(sessionId, previous);
+            }
+            this.bucket(expiration).put(sessionId, expiration);
+            // If the wheel advanced to this bucket in the meantime, the ticker may have missed it, so move the session to the next bucket
+            while (expiration <= this.current) {
+                Long next = this.current + 1;
+                if (!this.expirations.replace(sessionId, expiration, next)) {
+                    // Session was expired, cancelled, or rescheduled concurrently
+                    break;
+                }
+                this.bucket(expiration).remove(sessionId, expiration);
+                this.bucket(next).put(sessionId, next);
+                expiration = next;
             }
         }
     }
 
     @Override
     public void cancel(Locality locality) {
-        this.expirationFutures.keySet().stream().filter(sessionId -> !locality.isLocal(sessionId)).forEach(sessionId -> this.cancel(sessionId));
+        this.expirations.keySet().stream().filter(sessionId -> !locality.isLocal(sessionId)).forEach(sessionId -> this.cancel(sessionId));
     }
 
     @Override
     public void close() {
-        this.executor.shutdown();
-        this.expirationFutures.values().forEach(future -> future.cancel(false));
-        this.expirationFutures.values().stream().filter(future -> !future.isDone()).forEach(future -> {
-            try {
-                future.get();
-            } catch (InterruptedException e) {
-                Thread.currentThread().interrupt();
-            } catch (ExecutionException e) {
-                // Ignore
+        try {
+            // Let any expiration in progress complete
+            this.ticker.shutdown();
+            this.ticker.awaitTermination(Long.MAX_VALUE, TimeUnit.MILLISECONDS);
+            this.executor.shutdown();
+            this.executor.awaitTermination(Long.MAX_VALUE, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            this.executor.shutdown();
+        }
+        this.expirations.clear();
+        this.wheel.forEach(bucket -> bucket.clear());
+    }
+
+    private Map<String, Long> bucket(long tick) {
+        return this.wheel.get((int) (tick & WHEEL_MASK));
+    }
+
+    private long currentTick() {
+        return this.clock.getAsLong() / TICK_MILLIS;
+    }
+
+    private void scheduleTick() {
+        try {
+            // Align ticks to the start of each tick interval
+            this.ticker.schedule(() -> this.tick(), TICK_MILLIS - (this.clock.getAsLong() % TICK_MILLIS), TimeUnit.MILLISECONDS);
+        } catch (RejectedExecutionException e) {
+            // Scheduler was closed
+        }
+    }
+
+    void tick() {
+        try {
+            long now = this.currentTick();
+            long previous = this.current;
+            if (now > previous) {
+                // Advance the wheel before processing, so that sessions scheduled concurrently land in a later bucket
+                this.current = now;
+                // If the clock jumped by more than a revolution of the wheel, each bucket is processed once
+                for (long tick = Math.max(previous + 1, now - WHEEL_SIZE + 1); tick <= now; ++tick) {
+                    this.expire(this.bucket(tick), now);
+                }
             }
-        });
-        this.expirationFutures.clear();
+        } finally {
+            this.scheduleTick();
+        }
+    }
+
+    private void expire(Map<String, Long> bucket, long now) {
+        List<String> expired = new ArrayList<>();
+        for (Map.Entry<String, Long> entry : bucket.entrySet()) {
+            Long expiration = entry.getValue();
+            // Sessions expiring in a later revolution of the wheel remain in their bucket
+            if (expiration <= now) {
+                String sessionId = entry.getKey();
+                bucket.remove(sessionId, expiration);
+                // Skip sessions that were since rescheduled or cancelled
+                if (this.expirations.remove(sessionId, expiration)) {
+                    expired.add(sessionId);
+                    if (expired.size() == MAX_BATCH_SIZE) {
+                        this.dispatch(expired);
+                        expired = new ArrayList<>();
+                    }
+                }
+            }
+        }
+        if (!expired.isEmpty()) {
+            this.dispatch(expired);
+        }
+    }
+
+    private void dispatch(List<String> sessionIds) {
+        try {
+            this.executor.execute(new ExpirationTask(sessionIds));
+        } catch (RejectedExecutionException e) {
+            // Scheduler was closed
+        }
     }
 
     private class ExpirationTask implements Runnable {
-        private final String id;
+        private final List<String> ids;
 
-        public ExpirationTask(String id) {
-            this.id = id;
+        ExpirationTask(List<String> ids) {
+            this.ids = ids;
         }
 
         @Override
         public void run() {
-            InfinispanWebLogger.ROOT_LOGGER.tracef("Expiring session %s", this.id);
+            if ((this.ids.size() == 1) || !this.expireAll()) {
+                // Expire sessions individually, so that the failure to expire one session does not prevent the others from expiring
+                for (String id : this.ids) {
+                    this.expire(Collections.singletonList(id));
+                }
+            }
+        }
+
+        private boolean expireAll() {
             try {
-                Batch batch = SessionExpirationScheduler.this.batcher.createBatch();
-                boolean success = false;
-                try {
-                    SessionExpirationScheduler.this.remover.remove(this.id);
-                    success = true;
-                } catch (Throwable e) {
-                    InfinispanWebLogger.ROOT_LOGGER.failedToExpireSession(e, this.id);
-                } finally {
-                    if (success) {
-                        batch.close();
-                    } else {
-                        batch.discard();
-                    }
+                return this.expire(this.ids);
+            } catch (RuntimeException e) {
+                // Batch could not be closed
+                return false;
+            }
+        }
+
+        private boolean expire(List<String> ids) {
+            Batch batch = SessionExpirationScheduler.this.batcher.createBatch();
+            boolean success = false;
+            String id = null;
+            try {
+                for (String sessionId : ids) {
+                    id = sessionId;
+                    InfinispanWebLogger.ROOT_LOGGER.tracef("Expiring session %s", id);
+                    SessionExpirationScheduler.this.remover.remove(id);
+                }
+                success = true;
+            } catch (Throwable e) {
+                if (ids.size() == 1) {
+                    InfinispanWebLogger.ROOT_LOGGER.failedToExpireSession(e, id);
                 }
             } finally {
-                synchronized (this) {
-                    SessionExpirationScheduler.this.expirationFutures.remove(this.id);
+                if (success) {
+                    batch.close();
+                } else {
+                    batch.discard();
                 }
             }
+            return success;
         }
     }
 }
@@ -75,4 +75,9 @@ public class CoarseSessionAttributes extends CoarseImmutableSessionAttributes im
         }
         return value;
     }
+
+    @Override
+    public void close() {
+        // Mutations were already applied
+    }
 }
@@ -0,0 +1,88 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2015, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.wildfly.clustering.web.infinispan.session.coarse;
+
+import org.infinispan.commons.marshall.NotSerializableException;
+import org.wildfly.clustering.ee.infinispan.Mutator;
+import org.wildfly.clustering.marshalling.jboss.MarshalledValue;
+import org.wildfly.clustering.marshalling.jboss.Marshaller;
+import org.wildfly.clustering.marshalling.jboss.MarshallingContext;
+import org.wildfly.clustering.web.infinispan.session.MutableDetector;
+import org.wildfly.clustering.web.session.SessionAttributes;
+
+/**
+ * Exposes session attributes for a delta granularity session.
+ * Like a coarse granularity session, any mutation replaces the single cache entry of the session, but only the
+ * attributes changed by this session are replicated.
+ */
+public class DeltaSessionAttributes extends DeltaImmutableSessionAttributes implements SessionAttributes {
+    private final SessionAttributesEntry entry;
+    private final Mutator mutator;
+    private final Marshaller<Object, MarshalledValue<Object, MarshallingContext>, MarshallingContext> marshaller;
+    private final boolean requireMarshallable;
+
+    public DeltaSessionAttributes(String id, SessionAttributesEntry entry, Mutator mutator, Marshaller<Object, MarshalledValue<Object, MarshallingContext>, MarshallingContext> marshaller, boolean requireMarshallable) {
+        super(id, entry, marshaller);
+        this.entry = entry;
+        this.mutator = mutator;
+        this.marshaller = marshaller;
+        this.requireMarshallable = requireMarshallable;
+    }
+
+    @Override
+    public Object removeAttribute(String name) {
+        MarshalledValue<Object, MarshallingContext> value = this.entry.remove(name);
+        if (value != null) {
+            this.mutator.mutate();
+        }
+        return this.read(name, value);
+    }
+
+    @Override
+    public Object setAttribute(String name, Object attribute) {
+        if (attribute == null) {
+            return this.removeAttribute(name);
+        }
+        if (this.requireMarshallable && !this.marshaller.getContext().isMarshallable(attribute)) {
+            throw new IllegalArgumentException(new NotSerializableException(attribute.getClass().getName()));
+        }
+        MarshalledValue<Object, MarshallingContext> old = this.entry.put(name, this.marshaller.write(attribute));
+        this.mutator.mutate();
+        return this.read(name, old);
+    }
+
+    @Override
+    public Object getAttribute(String name) {
+        Object attribute = super.getAttribute(name);
+        // If the object is mutable, we need to indicate that the attribute should be replicated
+        if ((attribute != null) && MutableDetector.isMutable(attribute)) {
+            this.entry.changed(name);
+            this.mutator.mutate();
+        }
+        return attribute;
+    }
+
+    @Override
+    public void close() {
+        // Mutations were already applied
+    }
+}
@@ -0,0 +1,121 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2015, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.wildfly.clustering.web.infinispan.session.coarse;
+
+import java.util.Map;
+
+import org.infinispan.Cache;
+import org.infinispan.context.Flag;
+import org.wildfly.clustering.ee.infinispan.CacheEntryMutator;
+import org.wildfly.clustering.ee.infinispan.Mutator;
+import org.wildfly.clustering.infinispan.spi.distribution.Key;
+import org.wildfly.clustering.marshalling.jboss.InvalidSerializedFormException;
+import org.wildfly.clustering.marshalling.jboss.MarshalledValue;
+import org.wildfly.clustering.marshalling.jboss.Marshaller;
+import org.wildfly.clustering.marshalling.jboss.MarshallingContext;
+import org.wildfly.clustering.web.infinispan.logging.InfinispanWebLogger;
+import org.wildfly.clustering.web.infinispan.session.SessionAttributesFactory;
+import org.wildfly.clustering.web.session.ImmutableSessionAttributes;
+import org.wildfly.clustering.web.session.SessionAttributes;
+
+/**
+ * {@link SessionAttributesFactory} for delta granularity sessions.
+ * As with coarse granularity sessions, all session attributes are stored in a single cache entry, but each attribute
+ * is marshalled separately, and the cache entry is a {@link org.infinispan.atomic.DeltaAware} value, so that only
+ * the attributes that changed are replicated.
+ */
+public class DeltaSessionAttributesFactory implements SessionAttributesFactory<SessionAttributesEntry> {
+
+    private final Cache<SessionAttributesKey, SessionAttributesEntry> cache;
+    private final Marshaller<Object, MarshalledValue<Object, MarshallingContext>, MarshallingContext> marshaller;
+    private final boolean transactional;
+    private final boolean requireMarshallable;
+
+    @SuppressWarnings("unchecked")
+    public DeltaSessionAttributesFactory(Cache<? extends Key<String>, ?> cache, Marshaller<Object, MarshalledValue<Object, MarshallingContext>, MarshallingContext> marshaller, boolean requireMarshallable) {
+        this.cache = (Cache<SessionAttributesKey, SessionAttributesEntry>) cache;
+        this.marshaller = marshaller;
+        this.transactional = cache.getCacheConfiguration().transaction().transactionMode().isTransactional();
+        this.requireMarshallable = requireMarshallable;
+    }
+
+    @Override
+    public SessionAttributesEntry createValue(String id, Void context) {
+        SessionAttributesKey key = new SessionAttributesKey(id);
+        SessionAttributesEntry entry = this.cache.getAdvancedCache().withFlags(Flag.FORCE_SYNCHRONOUS).computeIfAbsent(key, k -> new SessionAttributesEntry());
+        if (!this.validate(id, entry)) {
+            this.cache.getAdvancedCache().withFlags(Flag.IGNORE_RETURN_VALUES).remove(key);
+            return this.createValue(id, context);
+        }
+        return entry;
+    }
+
+    @Override
+    public SessionAttributesEntry findValue(String id) {
+        SessionAttributesEntry entry = this.cache.get(new SessionAttributesKey(id));
+        if (entry != null) {
+            if (this.validate(id, entry)) {
+                return entry;
+            }
+            this.remove(id);
+        }
+        return null;
+    }
+
+    /**
+     * Preemptively reads all attributes to detect invalid session attributes.
+     */
+    private boolean validate(String id, SessionAttributesEntry entry) {
+        for (Map.Entry<String, MarshalledValue<Object, MarshallingContext>> attribute : entry.getAttributes().entrySet()) {
+            try {
+                this.marshaller.read(attribute.getValue());
+            } catch (InvalidSerializedFormException e) {
+                InfinispanWebLogger.ROOT_LOGGER.failedToActivateSessionAttribute(e, id, attribute.getKey());
+                return false;
+            }
+        }
+        return true;
+    }
+
+    @Override
+    public boolean remove(String id) {
+        this.cache.getAdvancedCache().withFlags(Flag.IGNORE_RETURN_VALUES).remove(new SessionAttributesKey(id));
+        return true;
+    }
+
+    @Override
+    public void evict(String id) {
+        this.cache.evict(new SessionAttributesKey(id));
+    }
+
+    @Override
+    public SessionAttributes createSessionAttributes(String id, SessionAttributesEntry entry) {
+        SessionAttributesKey key = new SessionAttributesKey(id);
+        Mutator mutator = this.transactional && this.cache.getAdvancedCache().getCacheEntry(key).isCreated() ? Mutator.PASSIVE : new CacheEntryMutator<>(this.cache, key, entry);
+        return new DeltaSessionAttributes(id, entry, mutator, this.marshaller, this.requireMarshallable);
+    }
+
+    @Override
+    public ImmutableSessionAttributes createImmutableSessionAttributes(String id, SessionAttributesEntry entry) {
+        return new DeltaImmutableSessionAttributes(id, entry, this.marshaller);
+    }
+}
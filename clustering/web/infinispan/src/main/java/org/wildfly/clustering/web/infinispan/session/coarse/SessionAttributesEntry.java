@@ -0,0 +1,98 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2015, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.wildfly.clustering.web.infinispan.session.coarse;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.infinispan.atomic.Delta;
+import org.infinispan.atomic.DeltaAware;
+import org.wildfly.clustering.marshalling.jboss.MarshalledValue;
+import org.wildfly.clustering.marshalling.jboss.MarshallingContext;
+
+/**
+ * Cache value of a delta granularity session, where all session attributes are stored in a single cache entry,
+ * but each attribute is marshalled separately.
+ * The names of the attributes changed since the last {@link #delta()} are tracked, so that only the marshalled form
+ * of those attributes is replicated.
+ */
+public class SessionAttributesEntry implements DeltaAware {
+
+    private final Map<String, MarshalledValue<Object, MarshallingContext>> attributes = new ConcurrentHashMap<>();
+    private final Set<String> changes = ConcurrentHashMap.newKeySet();
+
+    public Set<String> getNames() {
+        return Collections.unmodifiableSet(this.attributes.keySet());
+    }
+
+    public MarshalledValue<Object, MarshallingContext> get(String name) {
+        return this.attributes.get(name);
+    }
+
+    public MarshalledValue<Object, MarshallingContext> put(String name, MarshalledValue<Object, MarshallingContext> value) {
+        MarshalledValue<Object, MarshallingContext> old = this.attributes.put(name, value);
+        this.changes.add(name);
+        return old;
+    }
+
+    public MarshalledValue<Object, MarshallingContext> remove(String name) {
+        MarshalledValue<Object, MarshallingContext> old = this.attributes.remove(name);
+        this.changes.add(name);
+        return old;
+    }
+
+    /**
+     * Indicates that the specified attribute was, or may have been, mutated, so that it is included in the next delta.
+     * @param name an attribute name
+     */
+    public void changed(String name) {
+        this.changes.add(name);
+    }
+
+    Map<String, MarshalledValue<Object, MarshallingContext>> getAttributes() {
+        return this.attributes;
+    }
+
+    @Override
+    public Delta delta() {
+        // Null values indicate removed attributes
+        Map<String, MarshalledValue<Object, MarshallingContext>> delta = new HashMap<>();
+        for (String name : this.changes) {
+            this.changes.remove(name);
+            delta.put(name, this.attributes.get(name));
+        }
+        return new SessionAttributesEntryDelta(delta);
+    }
+
+    @Override
+    public void commit() {
+        this.changes.clear();
+    }
+
+    @Override
+    public String toString() {
+        return this.attributes.keySet().toString();
+    }
+}
@@ -0,0 +1,65 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2015, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.wildfly.clustering.web.infinispan.session.coarse;
+
+import java.util.Map;
+
+import org.infinispan.atomic.Delta;
+import org.infinispan.atomic.DeltaAware;
+import org.wildfly.clustering.marshalling.jboss.MarshalledValue;
+import org.wildfly.clustering.marshalling.jboss.MarshallingContext;
+
+/**
+ * The attributes of a {@link SessionAttributesEntry} that changed since its previous delta.
+ * Merging this delta into the entry of a remote node applies those changes.
+ */
+public class SessionAttributesEntryDelta implements Delta {
+
+    private final Map<String, MarshalledValue<Object, MarshallingContext>> attributes;
+
+    public SessionAttributesEntryDelta(Map<String, MarshalledValue<Object, MarshallingContext>> attributes) {
+        this.attributes = attributes;
+    }
+
+    /**
+     * Returns the changed attributes, where a null value indicates a removed attribute.
+     * @return a map of attribute name to marshalled value
+     */
+    Map<String, MarshalledValue<Object, MarshallingContext>> getAttributes() {
+        return this.attributes;
+    }
+
+    @Override
+    public DeltaAware merge(DeltaAware target) {
+        SessionAttributesEntry entry = (target instanceof SessionAttributesEntry) ? (SessionAttributesEntry) target : new SessionAttributesEntry();
+        Map<String, MarshalledValue<Object, MarshallingContext>> attributes = entry.getAttributes();
+        for (Map.Entry<String, MarshalledValue<Object, MarshallingContext>> attribute : this.attributes.entrySet()) {
+            MarshalledValue<Object, MarshallingContext> value = attribute.getValue();
+            if (value != null) {
+                attributes.put(attribute.getKey(), value);
+            } else {
+                attributes.remove(attribute.getKey());
+            }
+        }
+        return entry;
+    }
+}
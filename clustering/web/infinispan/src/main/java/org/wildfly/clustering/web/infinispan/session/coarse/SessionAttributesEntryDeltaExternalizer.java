@@ -0,0 +1,55 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2015, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.wildfly.clustering.web.infinispan.session.coarse;
+
+import java.io.IOException;
+import java.io.ObjectInput;
+import java.io.ObjectOutput;
+import java.util.HashMap;
+import java.util.Map;
+
+import org.wildfly.clustering.marshalling.Externalizer;
+import org.wildfly.clustering.marshalling.jboss.MarshalledValue;
+import org.wildfly.clustering.marshalling.jboss.MarshallingContext;
+
+/**
+ * Externalizer for {@link SessionAttributesEntryDelta}.
+ */
+public class SessionAttributesEntryDeltaExternalizer implements Externalizer<SessionAttributesEntryDelta> {
+
+    @Override
+    public void writeObject(ObjectOutput output, SessionAttributesEntryDelta delta) throws IOException {
+        SessionAttributesEntryExternalizer.writeAttributes(output, delta.getAttributes());
+    }
+
+    @Override
+    public SessionAttributesEntryDelta readObject(ObjectInput input) throws IOException, ClassNotFoundException {
+        Map<String, MarshalledValue<Object, MarshallingContext>> attributes = new HashMap<>();
+        SessionAttributesEntryExternalizer.readAttributes(input, attributes);
+        return new SessionAttributesEntryDelta(attributes);
+    }
+
+    @Override
+    public Class<SessionAttributesEntryDelta> getTargetClass() {
+        return SessionAttributesEntryDelta.class;
+    }
+}
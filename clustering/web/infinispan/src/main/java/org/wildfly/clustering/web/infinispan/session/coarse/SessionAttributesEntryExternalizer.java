@@ -0,0 +1,72 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2015, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.wildfly.clustering.web.infinispan.session.coarse;
+
+import java.io.IOException;
+import java.io.ObjectInput;
+import java.io.ObjectOutput;
+import java.util.Map;
+
+import org.wildfly.clustering.marshalling.Externalizer;
+import org.wildfly.clustering.marshalling.jboss.IndexExternalizer;
+import org.wildfly.clustering.marshalling.jboss.MarshalledValue;
+import org.wildfly.clustering.marshalling.jboss.MarshallingContext;
+
+/**
+ * Externalizer for {@link SessionAttributesEntry}.
+ */
+public class SessionAttributesEntryExternalizer implements Externalizer<SessionAttributesEntry> {
+
+    @Override
+    public void writeObject(ObjectOutput output, SessionAttributesEntry entry) throws IOException {
+        writeAttributes(output, entry.getAttributes());
+    }
+
+    @Override
+    public SessionAttributesEntry readObject(ObjectInput input) throws IOException, ClassNotFoundException {
+        SessionAttributesEntry entry = new SessionAttributesEntry();
+        readAttributes(input, entry.getAttributes());
+        return entry;
+    }
+
+    @Override
+    public Class<SessionAttributesEntry> getTargetClass() {
+        return SessionAttributesEntry.class;
+    }
+
+    static void writeAttributes(ObjectOutput output, Map<String, MarshalledValue<Object, MarshallingContext>> attributes) throws IOException {
+        IndexExternalizer.VARIABLE.writeData(output, attributes.size());
+        for (Map.Entry<String, MarshalledValue<Object, MarshallingContext>> attribute : attributes.entrySet()) {
+            output.writeUTF(attribute.getKey());
+            output.writeObject(attribute.getValue());
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    static void readAttributes(ObjectInput input, Map<String, MarshalledValue<Object, MarshallingContext>> attributes) throws IOException, ClassNotFoundException {
+        int size = IndexExternalizer.VARIABLE.readData(input);
+        for (int i = 0; i < size; ++i) {
+            String name = input.readUTF();
+            attributes.put(name, (MarshalledValue<Object, MarshallingContext>) input.readObject());
+        }
+    }
+}
@@ -21,10 +21,15 @@
  */
 package org.wildfly.clustering.web.infinispan.session.fine;
 
+import java.io.IOException;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
 import org.infinispan.Cache;
 import org.infinispan.commons.marshall.NotSerializableException;
 import org.infinispan.context.Flag;
 import org.wildfly.clustering.ee.infinispan.CacheEntryMutator;
+import org.wildfly.clustering.marshalling.jboss.MarshalledFingerprint;
 import org.wildfly.clustering.marshalling.jboss.Marshaller;
 import org.wildfly.clustering.marshalling.jboss.MarshallingContext;
 import org.wildfly.clustering.web.infinispan.session.MutableDetector;
@@ -32,22 +37,32 @@ import org.wildfly.clustering.web.session.SessionAttributes;
 
 /**
  * Exposes session attributes for fine granularity sessions.
+ * If a fingerprint is provided, the replication of mutable attributes is deferred until {@link #close()}, and only
+ * those attributes whose marshalled form changed since they were read are replicated.
  * @author Paul Ferraro
  */
 public class FineSessionAttributes<V> extends FineImmutableSessionAttributes<V> implements SessionAttributes {
     private final Cache<SessionAttributeKey, V> cache;
     private final Marshaller<Object, V, MarshallingContext> marshaller;
     private final boolean requireMarshallable;
+    private final MarshalledFingerprint fingerprint;
+    private final Map<String, MutableAttribute<V>> mutableAttributes = new ConcurrentHashMap<>();
 
     public FineSessionAttributes(String id, Cache<SessionAttributeKey, V> attributeCache, Marshaller<Object, V, MarshallingContext> marshaller, boolean requireMarshallable) {
+        this(id, attributeCache, marshaller, requireMarshallable, null);
+    }
+
+    public FineSessionAttributes(String id, Cache<SessionAttributeKey, V> attributeCache, Marshaller<Object, V, MarshallingContext> marshaller, boolean requireMarshallable, MarshalledFingerprint fingerprint) {
         super(id, attributeCache, marshaller);
         this.cache = attributeCache;
         this.marshaller = marshaller;
         this.requireMarshallable = requireMarshallable;
+        this.fingerprint = fingerprint;
     }
 
     @Override
     public Object removeAttribute(String name) {
+        this.mutableAttributes.remove(name);
         SessionAttributeKey key = this.createKey(name);
         return this.read(name, this.cache.getAdvancedCache().withFlags(Flag.FORCE_SYNCHRONOUS).remove(key));
     }
@@ -60,6 +75,7 @@ public class FineSessionAttributes<V> extends FineImmutableSessionAttributes<V>
         if (this.requireMarshallable && !this.marshaller.getContext().isMarshallable(attribute)) {
             throw new IllegalArgumentException(new NotSerializableException(attribute.getClass().getName()));
         }
+        this.mutableAttributes.remove(name);
         SessionAttributeKey key = this.createKey(name);
         V value = this.marshaller.write(attribute);
         return this.read(name, this.cache.getAdvancedCache().withFlags(Flag.FORCE_SYNCHRONOUS).put(key, value));
@@ -71,11 +87,60 @@ public class FineSessionAttributes<V> extends FineImmutableSessionAttributes<V>
         V value = this.cache.get(key);
         Object attribute = this.read(name, value);
         if (attribute != null) {
-            // If the object is mutable, we need to indicate that the attribute should be replicated
-            if (MutableDetector.isMutable(attribute)) {
+            // If the object is mutable, we need to indicate that the attribute should be replicated, either now, or on close if its changes are tracked
+            if (MutableDetector.isMutable(attribute) && !this.track(name, key, value, attribute)) {
                 new CacheEntryMutator<>(this.cache, key, value).mutate();
             }
         }
         return attribute;
     }
+
+    @Override
+    public void close() {
+        for (MutableAttribute<V> attribute : this.mutableAttributes.values()) {
+            if (attribute.isModified(this.fingerprint)) {
+                new CacheEntryMutator<>(this.cache, attribute.key, attribute.value).mutate();
+            }
+        }
+        this.mutableAttributes.clear();
+    }
+
+    /**
+     * Records the fingerprint of the specified mutable attribute, so that its replication can be deferred until close.
+     * @return true, if the attribute is tracked, false if it must be replicated eagerly
+     */
+    private boolean track(String name, SessionAttributeKey key, V value, Object attribute) {
+        if (this.fingerprint == null) return false;
+        MutableAttribute<V> tracked = this.mutableAttributes.get(name);
+        if ((tracked != null) && (tracked.attribute == attribute)) return true;
+        try {
+            this.mutableAttributes.put(name, new MutableAttribute<>(key, value, attribute, this.fingerprint.compute(attribute)));
+            return true;
+        } catch (IOException e) {
+            return false;
+        }
+    }
+
+    private static class MutableAttribute<V> {
+        final SessionAttributeKey key;
+        final V value;
+        final Object attribute;
+        private final long fingerprint;
+
+        MutableAttribute(SessionAttributeKey key, V value, Object attribute, long fingerprint) {
+            this.key = key;
+            this.value = value;
+            this.attribute = attribute;
+            this.fingerprint = fingerprint;
+        }
+
+        boolean isModified(MarshalledFingerprint fingerprint) {
+            try {
+                return fingerprint.compute(this.attribute) != this.fingerprint;
+            } catch (IOException e) {
+                // Replicate, if in doubt
+                return true;
+            }
+        }
+    }
 }
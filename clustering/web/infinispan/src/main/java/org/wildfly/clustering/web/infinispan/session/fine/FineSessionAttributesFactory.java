@@ -29,6 +29,7 @@ import org.infinispan.Cache;
 import org.infinispan.context.Flag;
 import org.wildfly.clustering.infinispan.spi.distribution.Key;
 import org.wildfly.clustering.marshalling.jboss.InvalidSerializedFormException;
+import org.wildfly.clustering.marshalling.jboss.MarshalledFingerprint;
 import org.wildfly.clustering.marshalling.jboss.MarshalledValue;
 import org.wildfly.clustering.marshalling.jboss.Marshaller;
 import org.wildfly.clustering.marshalling.jboss.MarshallingContext;
@@ -50,12 +51,21 @@ public class FineSessionAttributesFactory implements SessionAttributesFactory<Ob
     private final Marshaller<Object, MarshalledValue<Object, MarshallingContext>, MarshallingContext> marshaller;
     private final Predicate<Map.Entry<SessionAttributeKey, MarshalledValue<Object, MarshallingContext>>> invalidAttribute;
     private final boolean requireMarshallable;
+    private final MarshalledFingerprint fingerprint;
 
-    @SuppressWarnings("unchecked")
     public FineSessionAttributesFactory(Cache<? extends Key<String>, ?> cache, Marshaller<Object, MarshalledValue<Object, MarshallingContext>, MarshallingContext> marshaller, boolean requireMarshallable) {
+        this(cache, marshaller, requireMarshallable, false);
+    }
+
+    /**
+     * @param detectChanges indicates whether mutable attributes should only be replicated if their marshalled form changed
+     */
+    @SuppressWarnings("unchecked")
+    public FineSessionAttributesFactory(Cache<? extends Key<String>, ?> cache, Marshaller<Object, MarshalledValue<Object, MarshallingContext>, MarshallingContext> marshaller, boolean requireMarshallable, boolean detectChanges) {
         this.cache = (Cache<SessionAttributeKey, MarshalledValue<Object, MarshallingContext>>) cache;
         this.marshaller = marshaller;
         this.requireMarshallable = requireMarshallable;
+        this.fingerprint = detectChanges ? new MarshalledFingerprint(marshaller.getContext()) : null;
         this.invalidAttribute = entry -> {
             try {
                 this.marshaller.read(entry.getValue());
@@ -107,7 +117,7 @@ public class FineSessionAttributesFactory implements SessionAttributesFactory<Ob
 
     @Override
     public SessionAttributes createSessionAttributes(String id, Object value) {
-        return new FineSessionAttributes<>(id, this.cache, this.marshaller, this.requireMarshallable);
+        return new FineSessionAttributes<>(id, this.cache, this.marshaller, this.requireMarshallable, this.fingerprint);
     }
 
     @Override
@@ -101,13 +101,16 @@ public class InfinispanSessionTestCase {
     public void close() {
         this.session.close();
         
+        verify(this.attributes).close();
         verify(this.metaData).setLastAccessedTime(any(Instant.class));
         
-        reset(this.metaData);
+        reset(this.metaData, this.attributes);
         
         // Verify that session is not mutated if invalid
         this.session.invalidate();
+        this.session.close();
         
+        verify(this.attributes, never()).close();
         verify(this.metaData, never()).setLastAccessedTime(any(Instant.class));
     }
 
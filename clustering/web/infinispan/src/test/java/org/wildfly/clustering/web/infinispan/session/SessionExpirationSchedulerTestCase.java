@@ -21,63 +21,287 @@
  */
 package org.wildfly.clustering.web.infinispan.session;
 
+import static org.mockito.Matchers.anyString;
+import static org.mockito.Mockito.atLeastOnce;
+import static org.mockito.Mockito.doThrow;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 import java.time.Duration;
 import java.time.Instant;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.AbstractExecutorService;
+import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
 
 import org.junit.Test;
 import org.wildfly.clustering.ee.Batcher;
 import org.wildfly.clustering.ee.infinispan.Remover;
 import org.wildfly.clustering.ee.infinispan.TransactionBatch;
+import org.wildfly.clustering.infinispan.spi.distribution.Locality;
 import org.wildfly.clustering.web.session.ImmutableSessionMetaData;
 
 /**
  * Unit test for {@link SessionExpirationScheduler}.
+ * The wheel is advanced explicitly, using a manual clock, and expired sessions are removed by the advancing thread.
  * @author Paul Ferraro
  */
 public class SessionExpirationSchedulerTestCase {
+
+    private final Batcher<TransactionBatch> batcher = mock(Batcher.class);
+    private final TransactionBatch batch = mock(TransactionBatch.class);
+    private final Remover<String> remover = mock(Remover.class);
+    private final AtomicLong clock = new AtomicLong(TimeUnit.DAYS.toMillis(1));
+
+    private SessionExpirationScheduler createScheduler() {
+        when(this.batcher.createBatch()).thenReturn(this.batch);
+        return new SessionExpirationScheduler(this.batcher, this.remover, this.clock::get, mock(ScheduledExecutorService.class), new DirectExecutorService());
+    }
+
+    private Instant now() {
+        return Instant.ofEpochMilli(this.clock.get());
+    }
+
+    private void advance(SessionExpirationScheduler scheduler, Duration duration) {
+        this.clock.addAndGet(duration.toMillis());
+        scheduler.tick();
+    }
+
+    private static ImmutableSessionMetaData metaData(Instant lastAccessed, Duration maxInactiveInterval) {
+        ImmutableSessionMetaData metaData = mock(ImmutableSessionMetaData.class);
+        when(metaData.getLastAccessedTime()).thenReturn(lastAccessed);
+        when(metaData.getMaxInactiveInterval()).thenReturn(maxInactiveInterval);
+        return metaData;
+    }
+
     @Test
-    public void test() throws InterruptedException {
-        Batcher<TransactionBatch> batcher = mock(Batcher.class);
-        TransactionBatch batch = mock(TransactionBatch.class);
-        Remover<String> remover = mock(Remover.class);
-        ImmutableSessionMetaData immortalSessionMetaData = mock(ImmutableSessionMetaData.class);
-        ImmutableSessionMetaData expiringSessionMetaData = mock(ImmutableSessionMetaData.class);
-        ImmutableSessionMetaData canceledSessionMetaData = mock(ImmutableSessionMetaData.class);
+    public void test() {
         String immortalSessionId = "immortal";
         String expiringSessionId = "expiring";
         String canceledSessionId = "canceled";
 
-        when(batcher.createBatch()).thenReturn(batch);
-
-        when(immortalSessionMetaData.getMaxInactiveInterval()).thenReturn(Duration.ZERO);
-        when(expiringSessionMetaData.getMaxInactiveInterval()).thenReturn(Duration.ofMillis(1L));
-        when(canceledSessionMetaData.getMaxInactiveInterval()).thenReturn(Duration.ofSeconds(100L));
-
-        Instant now = Instant.now();
-        when(expiringSessionMetaData.getLastAccessedTime()).thenReturn(now);
-        when(canceledSessionMetaData.getLastAccessedTime()).thenReturn(now);
-        
-        try (Scheduler scheduler = new SessionExpirationScheduler(batcher, remover)) {
-            scheduler.schedule(immortalSessionId, immortalSessionMetaData);
+        try (SessionExpirationScheduler scheduler = this.createScheduler()) {
+            ImmutableSessionMetaData canceledSessionMetaData = metaData(this.now(), Duration.ofSeconds(100L));
+            scheduler.schedule(immortalSessionId, metaData(this.now(), Duration.ZERO));
             scheduler.schedule(canceledSessionId, canceledSessionMetaData);
-            scheduler.schedule(expiringSessionId, expiringSessionMetaData);
+            scheduler.schedule(expiringSessionId, metaData(this.now(), Duration.ofMillis(1L)));
+
+            // A session is not expired before it is eligible
+            this.advance(scheduler, Duration.ofMillis(1L));
+            verify(this.remover, never()).remove(expiringSessionId);
 
-            TimeUnit.SECONDS.sleep(1L);
+            // but is expired within the following tick
+            this.advance(scheduler, Duration.ofMillis(SessionExpirationScheduler.TICK_MILLIS));
+            verify(this.remover).remove(expiringSessionId);
 
             scheduler.cancel(canceledSessionId);
             scheduler.schedule(canceledSessionId, canceledSessionMetaData);
+            scheduler.cancel(canceledSessionId);
+
+            this.advance(scheduler, Duration.ofSeconds(200L));
+        }
+
+        verify(this.remover, never()).remove(immortalSessionId);
+        verify(this.remover).remove(expiringSessionId);
+        verify(this.remover, never()).remove(canceledSessionId);
+        verify(this.batch).close();
+    }
+
+    @Test
+    public void wheelRevolution() {
+        String sessionId = "session";
+        long revolution = SessionExpirationScheduler.WHEEL_SIZE * SessionExpirationScheduler.TICK_MILLIS;
+
+        try (SessionExpirationScheduler scheduler = this.createScheduler()) {
+            // Expires one revolution of the wheel after the first bucket that is passed
+            scheduler.schedule(sessionId, metaData(this.now(), Duration.ofMillis(revolution)));
+
+            this.advance(scheduler, Duration.ofMillis(SessionExpirationScheduler.TICK_MILLIS * 2));
+            verify(this.remover, never()).remove(sessionId);
+
+            // Pass over the bucket of the session one tick at a time
+            for (int i = 0; i < SessionExpirationScheduler.WHEEL_SIZE - 2; ++i) {
+                this.advance(scheduler, Duration.ofMillis(SessionExpirationScheduler.TICK_MILLIS));
+            }
+            verify(this.remover, never()).remove(sessionId);
+
+            this.advance(scheduler, Duration.ofMillis(SessionExpirationScheduler.TICK_MILLIS));
+            verify(this.remover).remove(sessionId);
+        }
+    }
+
+    @Test
+    public void clockJump() {
+        try (SessionExpirationScheduler scheduler = this.createScheduler()) {
+            scheduler.schedule("near", metaData(this.now(), Duration.ofSeconds(1L)));
+            scheduler.schedule("far", metaData(this.now(), Duration.ofHours(1L)));
+
+            // Buckets are processed once, even if the clock jumps by several revolutions of the wheel
+            this.advance(scheduler, Duration.ofHours(2L));
+
+            verify(this.remover).remove("near");
+            verify(this.remover).remove("far");
+        }
+    }
+
+    @Test
+    public void scheduleIntoPassedBucket() {
+        String sessionId = "session";
+        Instant lastAccessed = this.now();
+
+        try (SessionExpirationScheduler scheduler = this.createScheduler()) {
+            this.advance(scheduler, Duration.ofSeconds(10L));
+
+            // The bucket of this session was already passed, so it expires on the next tick
+            scheduler.schedule(sessionId, metaData(lastAccessed, Duration.ofSeconds(5L)));
+            verify(this.remover, never()).remove(sessionId);
+
+            this.advance(scheduler, Duration.ofMillis(SessionExpirationScheduler.TICK_MILLIS));
+            verify(this.remover).remove(sessionId);
         }
+    }
 
-        verify(remover, never()).remove(immortalSessionId);
-        verify(remover).remove(expiringSessionId);
-        verify(remover, never()).remove(canceledSessionId);
-        verify(batch).close();
+    @Test
+    public void rescheduleIntoPassedBucket() {
+        String sessionId = "session";
+        Instant lastAccessed = this.now();
+
+        try (SessionExpirationScheduler scheduler = this.createScheduler()) {
+            scheduler.schedule(sessionId, metaData(lastAccessed, Duration.ofSeconds(60L)));
+            this.advance(scheduler, Duration.ofSeconds(10L));
+
+            // Rescheduling moves the session out of its previous bucket, into the next tick
+            scheduler.schedule(sessionId, metaData(lastAccessed, Duration.ofSeconds(5L)));
+
+            this.advance(scheduler, Duration.ofMillis(SessionExpirationScheduler.TICK_MILLIS));
+            verify(this.remover).remove(sessionId);
+
+            // The previous bucket no longer contains the session
+            this.advance(scheduler, Duration.ofSeconds(60L));
+            verify(this.remover).remove(sessionId);
+        }
     }
 
+    @Test
+    public void cancelLocality() {
+        Locality locality = mock(Locality.class);
+        when(locality.isLocal("local")).thenReturn(true);
+        when(locality.isLocal("remote")).thenReturn(false);
+
+        try (SessionExpirationScheduler scheduler = this.createScheduler()) {
+            scheduler.schedule("local", metaData(this.now(), Duration.ofSeconds(1L)));
+            scheduler.schedule("remote", metaData(this.now(), Duration.ofSeconds(1L)));
+
+            scheduler.cancel(locality);
+
+            this.advance(scheduler, Duration.ofSeconds(2L));
+
+            verify(this.remover).remove("local");
+            verify(this.remover, never()).remove("remote");
+        }
+    }
+
+    @Test
+    public void batches() {
+        int sessions = SessionExpirationScheduler.MAX_BATCH_SIZE * 2 + 1;
+
+        try (SessionExpirationScheduler scheduler = this.createScheduler()) {
+            for (int i = 0; i < sessions; ++i) {
+                scheduler.schedule(String.valueOf(i), metaData(this.now(), Duration.ofSeconds(1L)));
+            }
+
+            this.advance(scheduler, Duration.ofSeconds(2L));
+
+            // Sessions are expired in batches of at most MAX_BATCH_SIZE
+            verify(this.batcher, times(3)).createBatch();
+            verify(this.batch, times(3)).close();
+            verify(this.remover, times(sessions)).remove(anyString());
+        }
+    }
+
+    @Test
+    public void batchFailure() {
+        when(this.remover.remove("failing")).thenThrow(new IllegalStateException());
+
+        try (SessionExpirationScheduler scheduler = this.createScheduler()) {
+            scheduler.schedule("first", metaData(this.now(), Duration.ofSeconds(1L)));
+            scheduler.schedule("failing", metaData(this.now(), Duration.ofSeconds(1L)));
+            scheduler.schedule("second", metaData(this.now(), Duration.ofSeconds(1L)));
+
+            this.advance(scheduler, Duration.ofSeconds(2L));
+
+            // The batch of all three sessions is discarded, after which each session is expired within its own batch
+            verify(this.batcher, times(4)).createBatch();
+            verify(this.remover, times(2)).remove("failing");
+            verify(this.remover, atLeastOnce()).remove("first");
+            verify(this.remover, atLeastOnce()).remove("second");
+            // The batch of all sessions and the batch of the failing session are discarded
+            verify(this.batch, times(2)).discard();
+            verify(this.batch, times(2)).close();
+        }
+    }
+
+    @Test
+    public void batchCloseFailure() {
+        // The first batch, of both sessions, fails to commit
+        TransactionBatch failingBatch = mock(TransactionBatch.class);
+        doThrow(new IllegalStateException()).when(failingBatch).close();
+
+        try (SessionExpirationScheduler scheduler = this.createScheduler()) {
+            when(this.batcher.createBatch()).thenReturn(failingBatch, this.batch);
+
+            scheduler.schedule("first", metaData(this.now(), Duration.ofSeconds(1L)));
+            scheduler.schedule("second", metaData(this.now(), Duration.ofSeconds(1L)));
+
+            this.advance(scheduler, Duration.ofSeconds(2L));
+
+            verify(this.batcher, times(3)).createBatch();
+            verify(this.remover, times(2)).remove("first");
+            verify(this.remover, times(2)).remove("second");
+            verify(this.batch, times(2)).close();
+        }
+    }
+
+    /**
+     * Executes tasks in the submitting thread.
+     */
+    private static class DirectExecutorService extends AbstractExecutorService {
+        private volatile boolean shutdown = false;
+
+        @Override
+        public void execute(Runnable command) {
+            command.run();
+        }
+
+        @Override
+        public void shutdown() {
+            this.shutdown = true;
+        }
+
+        @Override
+        public List<Runnable> shutdownNow() {
+            this.shutdown = true;
+            return Collections.emptyList();
+        }
+
+        @Override
+        public boolean isShutdown() {
+            return this.shutdown;
+        }
+
+        @Override
+        public boolean isTerminated() {
+            return this.shutdown;
+        }
+
+        @Override
+        public boolean awaitTermination(long timeout, TimeUnit unit) {
+            return true;
+        }
+    }
 }
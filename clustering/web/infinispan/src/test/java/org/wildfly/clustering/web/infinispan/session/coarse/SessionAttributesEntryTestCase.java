@@ -0,0 +1,104 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2015, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.wildfly.clustering.web.infinispan.session.coarse;
+
+import static org.junit.Assert.*;
+import static org.mockito.Mockito.mock;
+
+import java.util.Collections;
+import java.util.Map;
+
+import org.infinispan.atomic.DeltaAware;
+import org.junit.Test;
+import org.wildfly.clustering.marshalling.jboss.MarshalledValue;
+import org.wildfly.clustering.marshalling.jboss.MarshallingContext;
+
+/**
+ * Unit test for {@link SessionAttributesEntry} and {@link SessionAttributesEntryDelta}.
+ */
+public class SessionAttributesEntryTestCase {
+
+    @SuppressWarnings("unchecked")
+    @Test
+    public void delta() {
+        MarshalledValue<Object, MarshallingContext> foo = mock(MarshalledValue.class);
+        MarshalledValue<Object, MarshallingContext> bar = mock(MarshalledValue.class);
+        SessionAttributesEntry local = new SessionAttributesEntry();
+        SessionAttributesEntry remote = new SessionAttributesEntry();
+
+        local.put("foo", foo);
+        local.put("bar", bar);
+
+        Map<String, MarshalledValue<Object, MarshallingContext>> attributes = ((SessionAttributesEntryDelta) local.delta()).getAttributes();
+        assertEquals(2, attributes.size());
+        assertSame(foo, attributes.get("foo"));
+        assertSame(bar, attributes.get("bar"));
+
+        // Delta is reset once taken
+        assertTrue(((SessionAttributesEntryDelta) local.delta()).getAttributes().isEmpty());
+
+        local.put("foo", foo);
+        local.put("bar", bar);
+        assertSame(remote, local.delta().merge(remote));
+        assertEquals(local.getNames(), remote.getNames());
+        assertSame(foo, remote.get("foo"));
+
+        // Only the mutated attribute is included
+        local.changed("foo");
+        attributes = ((SessionAttributesEntryDelta) local.delta()).getAttributes();
+        assertEquals(Collections.singleton("foo"), attributes.keySet());
+
+        // Removals are included as null values
+        assertSame(bar, local.remove("bar"));
+        SessionAttributesEntryDelta delta = (SessionAttributesEntryDelta) local.delta();
+        attributes = delta.getAttributes();
+        assertEquals(Collections.singleton("bar"), attributes.keySet());
+        assertNull(attributes.get("bar"));
+        delta.merge(remote);
+        assertEquals(Collections.singleton("foo"), remote.getNames());
+
+        local.remove("foo");
+        local.delta().merge(remote);
+        assertTrue(remote.getNames().isEmpty());
+    }
+
+    @SuppressWarnings("unchecked")
+    @Test
+    public void mergeIntoMissingEntry() {
+        MarshalledValue<Object, MarshallingContext> foo = mock(MarshalledValue.class);
+        SessionAttributesEntry local = new SessionAttributesEntry();
+        local.put("foo", foo);
+
+        DeltaAware result = local.delta().merge(null);
+        assertTrue(result instanceof SessionAttributesEntry);
+        assertSame(foo, ((SessionAttributesEntry) result).get("foo"));
+    }
+
+    @SuppressWarnings("unchecked")
+    @Test
+    public void commit() {
+        SessionAttributesEntry entry = new SessionAttributesEntry();
+        entry.put("foo", mock(MarshalledValue.class));
+        entry.commit();
+        assertTrue(((SessionAttributesEntryDelta) entry.delta()).getAttributes().isEmpty());
+    }
+}
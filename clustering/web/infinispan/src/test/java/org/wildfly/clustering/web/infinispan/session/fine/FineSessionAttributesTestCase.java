@@ -0,0 +1,160 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2015, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.wildfly.clustering.web.infinispan.session.fine;
+
+import static org.junit.Assert.assertSame;
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.eq;
+import static org.mockito.Matchers.same;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.infinispan.AdvancedCache;
+import org.infinispan.configuration.cache.ConfigurationBuilder;
+import org.infinispan.context.Flag;
+import org.junit.Before;
+import org.junit.Test;
+import org.wildfly.clustering.marshalling.jboss.MarshalledFingerprint;
+import org.wildfly.clustering.marshalling.jboss.Marshaller;
+import org.wildfly.clustering.marshalling.jboss.MarshallingContext;
+
+/**
+ * Unit test for the deferred replication of mutable attributes by {@link FineSessionAttributes}.
+ */
+public class FineSessionAttributesTestCase {
+    private final String id = "session";
+    private final String name = "attribute";
+    private final SessionAttributeKey key = new SessionAttributeKey(this.id, this.name);
+    private final AdvancedCache<SessionAttributeKey, Object> cache = mock(AdvancedCache.class);
+    private final Marshaller<Object, Object, MarshallingContext> marshaller = mock(Marshaller.class);
+    private final MarshalledFingerprint fingerprint = mock(MarshalledFingerprint.class);
+    private final Object value = new Object();
+    private final List<String> attribute = new ArrayList<>();
+
+    @Before
+    public void init() throws Exception {
+        when(this.cache.getCacheConfiguration()).thenReturn(new ConfigurationBuilder().build());
+        when(this.cache.getAdvancedCache()).thenReturn(this.cache);
+        when(this.cache.withFlags(Flag.FORCE_SYNCHRONOUS)).thenReturn(this.cache);
+        when(this.cache.withFlags(Flag.IGNORE_RETURN_VALUES, Flag.FAIL_SILENTLY)).thenReturn(this.cache);
+        when(this.cache.get(this.key)).thenReturn(this.value);
+        when(this.marshaller.read(this.value)).thenReturn(this.attribute);
+    }
+
+    @Test
+    public void unmodified() throws Exception {
+        when(this.fingerprint.compute(this.attribute)).thenReturn(1L, 1L);
+        FineSessionAttributes<Object> attributes = new FineSessionAttributes<>(this.id, this.cache, this.marshaller, false, this.fingerprint);
+
+        assertSame(this.attribute, attributes.getAttribute(this.name));
+        // A repeated read of the same attribute is not fingerprinted again
+        assertSame(this.attribute, attributes.getAttribute(this.name));
+        attributes.close();
+
+        verify(this.fingerprint, times(2)).compute(this.attribute);
+        verify(this.cache, never()).put(any(SessionAttributeKey.class), any());
+    }
+
+    @Test
+    public void modified() throws Exception {
+        when(this.fingerprint.compute(this.attribute)).thenReturn(1L, 2L);
+        FineSessionAttributes<Object> attributes = new FineSessionAttributes<>(this.id, this.cache, this.marshaller, false, this.fingerprint);
+
+        assertSame(this.attribute, attributes.getAttribute(this.name));
+        this.attribute.add("modified");
+        verify(this.cache, never()).put(any(SessionAttributeKey.class), any());
+
+        attributes.close();
+
+        verify(this.cache).put(eq(this.key), same(this.value));
+
+        // Nothing is tracked once closed
+        attributes.close();
+
+        verify(this.cache, times(1)).put(eq(this.key), same(this.value));
+    }
+
+    @Test
+    public void removed() throws Exception {
+        when(this.fingerprint.compute(this.attribute)).thenReturn(1L, 2L);
+        when(this.cache.remove(this.key)).thenReturn(this.value);
+        FineSessionAttributes<Object> attributes = new FineSessionAttributes<>(this.id, this.cache, this.marshaller, false, this.fingerprint);
+
+        assertSame(this.attribute, attributes.getAttribute(this.name));
+        this.attribute.add("modified");
+        assertSame(this.attribute, attributes.removeAttribute(this.name));
+        attributes.close();
+
+        verify(this.cache).remove(this.key);
+        verify(this.cache, never()).put(any(SessionAttributeKey.class), any());
+    }
+
+    @Test
+    public void replaced() throws Exception {
+        Object replacementValue = new Object();
+        List<String> replacement = new ArrayList<>();
+        when(this.fingerprint.compute(this.attribute)).thenReturn(1L, 2L);
+        when(this.marshaller.write(replacement)).thenReturn(replacementValue);
+        when(this.cache.put(this.key, replacementValue)).thenReturn(this.value);
+        FineSessionAttributes<Object> attributes = new FineSessionAttributes<>(this.id, this.cache, this.marshaller, false, this.fingerprint);
+
+        assertSame(this.attribute, attributes.getAttribute(this.name));
+        this.attribute.add("modified");
+        assertSame(this.attribute, attributes.setAttribute(this.name, replacement));
+        attributes.close();
+
+        // The previous value is not written back over the replacement
+        verify(this.cache).put(eq(this.key), same(replacementValue));
+        verify(this.cache, never()).put(eq(this.key), same(this.value));
+    }
+
+    @Test
+    public void eager() throws Exception {
+        FineSessionAttributes<Object> attributes = new FineSessionAttributes<>(this.id, this.cache, this.marshaller, false);
+
+        assertSame(this.attribute, attributes.getAttribute(this.name));
+
+        verify(this.cache).put(eq(this.key), same(this.value));
+
+        attributes.close();
+
+        verify(this.cache, times(1)).put(eq(this.key), same(this.value));
+    }
+
+    @Test
+    public void immutable() throws Exception {
+        when(this.marshaller.read(this.value)).thenReturn("immutable");
+        FineSessionAttributes<Object> attributes = new FineSessionAttributes<>(this.id, this.cache, this.marshaller, false, this.fingerprint);
+
+        assertSame("immutable", attributes.getAttribute(this.name));
+        attributes.close();
+
+        verify(this.fingerprint, never()).compute(any());
+        verify(this.cache, never()).put(any(SessionAttributeKey.class), any());
+    }
+}
@@ -40,4 +40,10 @@ public interface SessionAttributes extends ImmutableSessionAttributes {
      * @return the old attribute value, or null if the attribute did not previously exist.
      */
     Object setAttribute(String name, Object value);
+
+    /**
+     * Indicates that the caller is done with these attributes, e.g. at the end of a request.
+     * Implementations may defer the replication of mutated attributes until this point.
+     */
+    void close();
 }
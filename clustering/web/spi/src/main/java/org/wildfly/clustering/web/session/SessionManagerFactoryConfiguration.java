@@ -39,4 +39,18 @@ public interface SessionManagerFactoryConfiguration {
     Module getModule();
 
     String getCacheName();
+
+    /**
+     * Indicates whether the replication of mutable attributes of {@link SessionAttributePersistenceStrategy#FINE} sessions
+     * is deferred until the end of the request, such that only attributes whose marshalled form changed are replicated.
+     * @return true, if changes to mutable attributes are detected, false if they are replicated whenever read
+     */
+    boolean isAttributeChangeDetectionEnabled();
+
+    /**
+     * Indicates whether the attributes of {@link SessionAttributePersistenceStrategy#COARSE} sessions are marshalled
+     * separately within a single cache entry, such that only the attributes that changed are replicated.
+     * @return true, if only changed attributes are replicated, false if the entire attribute map is replicated
+     */
+    boolean isDeltaReplicationEnabled();
 }
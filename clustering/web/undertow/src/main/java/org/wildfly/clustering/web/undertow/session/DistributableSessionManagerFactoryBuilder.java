@@ -100,6 +100,16 @@ public class DistributableSessionManagerFactoryBuilder implements org.wildfly.ex
             public String getCacheName() {
                 return config.getCacheName();
             }
+
+            @Override
+            public boolean isAttributeChangeDetectionEnabled() {
+                return config.isAttributeChangeDetectionEnabled();
+            }
+
+            @Override
+            public boolean isDeltaReplicationEnabled() {
+                return config.isDeltaReplicationEnabled();
+            }
         };
         Builder<org.wildfly.clustering.web.session.SessionManagerFactory<Batch>> builder = this.provider.getBuilder(configuration);
         builder.build(target).install();
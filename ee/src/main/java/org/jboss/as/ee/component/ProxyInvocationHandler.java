@@ -25,7 +25,6 @@ package org.jboss.as.ee.component;
 import java.lang.reflect.InvocationHandler;
 import java.lang.reflect.Method;
 import java.util.HashMap;
-import java.util.Map;
 
 import org.jboss.invocation.Interceptor;
 import org.jboss.invocation.InterceptorContext;
@@ -37,18 +36,21 @@ import org.jboss.invocation.InterceptorContext;
  */
 public final class ProxyInvocationHandler implements InvocationHandler {
 
-    private final Map<Method, Interceptor> interceptors;
+    private final ViewMethodIndex methodIndex;
+    private final Interceptor[] interceptors;
     private final ComponentView componentView;
     private final ComponentClientInstance instance;
 
     /**
      * Construct a new instance.
      *
-     * @param interceptors the interceptors map to use
+     * @param methodIndex the index of the methods of the view
+     * @param interceptors the interceptors to use, indexed by method
      * @param instance The view instane data
      * @param componentView The component view
      */
-    public ProxyInvocationHandler(final Map<Method, Interceptor> interceptors, ComponentClientInstance instance, ComponentView componentView) {
+    public ProxyInvocationHandler(final ViewMethodIndex methodIndex, final Interceptor[] interceptors, ComponentClientInstance instance, ComponentView componentView) {
+        this.methodIndex = methodIndex;
         this.interceptors = interceptors;
         this.instance = instance;
         this.componentView = componentView;
@@ -56,7 +58,8 @@ public final class ProxyInvocationHandler implements InvocationHandler {
 
     /** {@inheritDoc} */
     public Object invoke(final Object proxy, final Method method, final Object[] args) throws Throwable {
-        final Interceptor interceptor = interceptors.get(method);
+        final int index = methodIndex.indexOf(method);
+        final Interceptor interceptor = (index >= 0) ? interceptors[index] : null;
         if (interceptor == null) {
             throw new NoSuchMethodError(method.toString());
         }
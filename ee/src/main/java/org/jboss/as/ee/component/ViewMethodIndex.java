@@ -0,0 +1,222 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2015, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.jboss.as.ee.component;
+
+import java.lang.reflect.Method;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Assigns each method of a component view a fixed index, i.e. its position within the cached methods of the proxy factory
+ * of the view, so that per-method data, such as interceptor chains, can be held in arrays rather than in maps keyed by method.
+ * <p/>
+ * The {@link Method} instances of the view proxy are resolved by identity through an open addressing table, without allocation.
+ * Methods received from clients are resolved by name and parameter types, by comparing against the few methods of the
+ * view sharing that name, rather than by building a descriptor string per invocation.
+ */
+public final class ViewMethodIndex {
+
+    private final Method[] methods;
+    private final Class<?>[][] parameterTypes;
+    // Index + 1 of the method hashed into each slot, 0 for an empty slot
+    private final int[] table;
+    private final int mask;
+    private final Map<String, int[]> indexesByName = new HashMap<String, int[]>();
+
+    public ViewMethodIndex(final List<Method> methods) {
+        final int size = methods.size();
+        this.methods = methods.toArray(new Method[size]);
+        this.parameterTypes = new Class<?>[size][];
+        // Keep the table at most half full, so that probe sequences remain short
+        final int capacity = Integer.highestOneBit(Math.max(size, 1)) << 2;
+        this.table = new int[capacity];
+        this.mask = capacity - 1;
+        for (int i = 0; i < size; ++i) {
+            final Method method = this.methods[i];
+            this.parameterTypes[i] = method.getParameterTypes();
+            int slot = System.identityHashCode(method) & this.mask;
+            while (this.table[slot] != 0) {
+                slot = (slot + 1) & this.mask;
+            }
+            this.table[slot] = i + 1;
+            final int[] indexes = this.indexesByName.get(method.getName());
+            if (indexes == null) {
+                this.indexesByName.put(method.getName(), new int[] { i });
+            } else {
+                final int[] newIndexes = new int[indexes.length + 1];
+                System.arraycopy(indexes, 0, newIndexes, 0, indexes.length);
+                newIndexes[indexes.length] = i;
+                this.indexesByName.put(method.getName(), newIndexes);
+            }
+        }
+    }
+
+    /**
+     * @return the number of methods of the view
+     */
+    public int size() {
+        return this.methods.length;
+    }
+
+    /**
+     * @param index the index of a method
+     * @return the method with the given index
+     */
+    public Method getMethod(final int index) {
+        return this.methods[index];
+    }
+
+    /**
+     * Gets the index of a view method. Methods other than those of the view proxy, e.g. the methods of the view class as
+     * loaded by a client, are matched by name, parameter types and return type, as when matching a method descriptor.
+     *
+     * @param method a method
+     * @return the index of the method, or -1 if the view has no such method
+     */
+    public int indexOf(final Method method) {
+        for (int slot = System.identityHashCode(method) & this.mask; this.table[slot] != 0; slot = (slot + 1) & this.mask) {
+            final int index = this.table[slot] - 1;
+            if (this.methods[index] == method) {
+                return index;
+            }
+        }
+        final int[] indexes = this.indexesByName.get(method.getName());
+        if (indexes != null) {
+            final Class<?>[] types = method.getParameterTypes();
+            for (int index : indexes) {
+                if (matches(this.parameterTypes[index], types) && this.methods[index].getReturnType().getName().equals(method.getReturnType().getName())) {
+                    return index;
+                }
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Gets the index of the first view method with the given name and parameter types.
+     *
+     * @param name the method name
+     * @param parameterTypeNames the names of the parameter types, as returned by {@link Class#getName()}
+     * @return the index of the method, or -1 if the view has no such method
+     */
+    public int indexOf(final String name, final String[] parameterTypeNames) {
+        final int[] indexes = this.indexesByName.get(name);
+        if (indexes != null) {
+            for (int index : indexes) {
+                final Class<?>[] types = this.parameterTypes[index];
+                if (types.length != parameterTypeNames.length) continue;
+                boolean found = true;
+                for (int i = 0; found && (i < types.length); ++i) {
+                    found = types[i].getName().equals(parameterTypeNames[i]);
+                }
+                if (found) {
+                    return index;
+                }
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Gets the index of the view method with the given name and descriptor.
+     *
+     * @param name the method name
+     * @param descriptor The method descriptor in JVM format
+     * @return the index of the method, or -1 if the view has no such method
+     */
+    public int indexOf(final String name, final String descriptor) {
+        final int[] indexes = this.indexesByName.get(name);
+        if (indexes != null) {
+            for (int index : indexes) {
+                if (matches(this.parameterTypes[index], this.methods[index].getReturnType(), descriptor)) {
+                    return index;
+                }
+            }
+        }
+        return -1;
+    }
+
+    private static boolean matches(final Class<?>[] types, final Class<?>[] otherTypes) {
+        if (types.length != otherTypes.length) return false;
+        for (int i = 0; i < types.length; ++i) {
+            if ((types[i] != otherTypes[i]) && !types[i].getName().equals(otherTypes[i].getName())) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Matches a method signature against a descriptor in place, i.e. without building the descriptor of the method.
+     */
+    private static boolean matches(final Class<?>[] types, final Class<?> returnType, final String descriptor) {
+        if (descriptor.isEmpty() || descriptor.charAt(0) != '(') return false;
+        int position = 1;
+        for (Class<?> type : types) {
+            position = match(type, descriptor, position);
+            if (position < 0) return false;
+        }
+        if (position >= descriptor.length() || descriptor.charAt(position) != ')') return false;
+        return match(returnType, descriptor, position + 1) == descriptor.length();
+    }
+
+    /**
+     * Matches the descriptor of a type at the given position of a descriptor.
+     *
+     * @return the position following the type descriptor, or -1 if it does not match
+     */
+    private static int match(final Class<?> type, final String descriptor, int position) {
+        Class<?> component = type;
+        while (component.isArray()) {
+            if (position >= descriptor.length() || descriptor.charAt(position++) != '[') return -1;
+            component = component.getComponentType();
+        }
+        if (position >= descriptor.length()) return -1;
+        final char c = descriptor.charAt(position);
+        if (component.isPrimitive()) {
+            return (c == primitiveDescriptor(component)) ? position + 1 : -1;
+        }
+        if (c != 'L') return -1;
+        final String name = component.getName();
+        final int end = position + 1 + name.length();
+        if (end >= descriptor.length() || descriptor.charAt(end) != ';') return -1;
+        for (int i = 0; i < name.length(); ++i) {
+            final char expected = name.charAt(i);
+            if (descriptor.charAt(position + 1 + i) != ((expected == '.') ? '/' : expected)) return -1;
+        }
+        return end + 1;
+    }
+
+    private static char primitiveDescriptor(final Class<?> type) {
+        if (type == Void.TYPE) return 'V';
+        if (type == Boolean.TYPE) return 'Z';
+        if (type == Byte.TYPE) return 'B';
+        if (type == Character.TYPE) return 'C';
+        if (type == Short.TYPE) return 'S';
+        if (type == Integer.TYPE) return 'I';
+        if (type == Long.TYPE) return 'J';
+        if (type == Float.TYPE) return 'F';
+        if (type == Double.TYPE) return 'D';
+        return 0;
+    }
+}
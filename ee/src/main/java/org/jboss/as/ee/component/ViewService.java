@@ -31,7 +31,6 @@ import java.util.Map;
 import java.util.Set;
 
 import org.jboss.as.ee.logging.EeLogger;
-import org.jboss.as.ee.utils.DescriptorUtils;
 import org.jboss.as.naming.ManagedReference;
 import org.jboss.invocation.Interceptor;
 import org.jboss.invocation.InterceptorContext;
@@ -55,8 +54,9 @@ import static org.jboss.as.ee.logging.EeLogger.ROOT_LOGGER;
 public final class ViewService implements Service<ComponentView> {
 
     private final InjectedValue<Component> componentInjector = new InjectedValue<Component>();
-    private final Map<Method, InterceptorFactory> viewInterceptorFactories;
-    private final Map<Method, InterceptorFactory> clientInterceptorFactories;
+    private final ViewMethodIndex methodIndex;
+    private final InterceptorFactory[] viewInterceptorFactories;
+    private final InterceptorFactory[] clientInterceptorFactories;
     private final InterceptorFactory clientPostConstruct;
     private final InterceptorFactory clientPreDestroy;
     private final ProxyFactory<?> proxyFactory;
@@ -68,7 +68,7 @@ public final class ViewService implements Service<ComponentView> {
 
     private volatile Interceptor clientPostConstructInterceptor;
     private volatile Interceptor clientPreDestroyInterceptor;
-    private volatile Map<Method, Interceptor> clientInterceptors;
+    private volatile Interceptor[] clientInterceptors;
 
 
     public ViewService(final ViewConfiguration viewConfiguration) {
@@ -79,14 +79,17 @@ public final class ViewService implements Service<ComponentView> {
         final int methodCount = methods.size();
         clientPostConstruct = Interceptors.getChainedInterceptorFactory(viewConfiguration.getClientPostConstructInterceptors());
         clientPreDestroy = Interceptors.getChainedInterceptorFactory(viewConfiguration.getClientPreDestroyInterceptors());
-        final IdentityHashMap<Method, InterceptorFactory> viewInterceptorFactories = new IdentityHashMap<Method, InterceptorFactory>(methodCount);
-        final IdentityHashMap<Method, InterceptorFactory> clientInterceptorFactories = new IdentityHashMap<Method, InterceptorFactory>(methodCount);
-        for (final Method method : methods) {
+        // Interceptor chains are held in arrays indexed by the position of their method within the cached methods of the proxy factory
+        this.methodIndex = new ViewMethodIndex(methods);
+        final InterceptorFactory[] viewInterceptorFactories = new InterceptorFactory[methodCount];
+        final InterceptorFactory[] clientInterceptorFactories = new InterceptorFactory[methodCount];
+        for (int i = 0; i < methodCount; ++i) {
+            final Method method = methods.get(i);
             if (method.getName().equals("finalize") && method.getParameterTypes().length == 0) {
-                viewInterceptorFactories.put(method, Interceptors.getTerminalInterceptorFactory());
+                viewInterceptorFactories[i] = Interceptors.getTerminalInterceptorFactory();
             } else {
-                viewInterceptorFactories.put(method, Interceptors.getChainedInterceptorFactory(viewConfiguration.getViewInterceptors(method)));
-                clientInterceptorFactories.put(method, Interceptors.getChainedInterceptorFactory(viewConfiguration.getClientInterceptors(method)));
+                viewInterceptorFactories[i] = Interceptors.getChainedInterceptorFactory(viewConfiguration.getViewInterceptors(method));
+                clientInterceptorFactories[i] = Interceptors.getChainedInterceptorFactory(viewConfiguration.getClientInterceptors(method));
             }
         }
         this.viewInterceptorFactories = viewInterceptorFactories;
@@ -97,11 +100,10 @@ public final class ViewService implements Service<ComponentView> {
         } else {
             viewInstanceFactory = viewConfiguration.getViewInstanceFactory();
         }
-        if(viewConfiguration.getPrivateData().isEmpty()) {
-            privateData = Collections.emptyMap();
-        } else {
-            privateData = viewConfiguration.getPrivateData();
-        }
+        // expose the method index, so that invokers can resolve view methods without building descriptors
+        final Map<Class<?>, Object> privateData = new HashMap<Class<?>, Object>(viewConfiguration.getPrivateData());
+        privateData.put(ViewMethodIndex.class, this.methodIndex);
+        this.privateData = privateData;
     }
 
     public void start(final StartContext context) throws StartException {
@@ -118,11 +120,14 @@ public final class ViewService implements Service<ComponentView> {
         clientPostConstructInterceptor = clientPostConstruct.create(factoryContext);
         clientPreDestroyInterceptor = clientPreDestroy.create(factoryContext);
 
-        final Map<Method, InterceptorFactory> clientInterceptorFactories = ViewService.this.clientInterceptorFactories;
-        clientInterceptors = new IdentityHashMap<Method, Interceptor>(clientInterceptorFactories.size());
-        for (Method method : clientInterceptorFactories.keySet()) {
-            clientInterceptors.put(method, clientInterceptorFactories.get(method).create(factoryContext));
+        final InterceptorFactory[] clientInterceptorFactories = ViewService.this.clientInterceptorFactories;
+        final Interceptor[] clientInterceptors = new Interceptor[clientInterceptorFactories.length];
+        for (int i = 0; i < clientInterceptorFactories.length; ++i) {
+            if (clientInterceptorFactories[i] != null) {
+                clientInterceptors[i] = clientInterceptorFactories[i].create(factoryContext);
+            }
         }
+        this.clientInterceptors = clientInterceptors;
 
 
     }
@@ -142,30 +147,33 @@ public final class ViewService implements Service<ComponentView> {
     class View implements ComponentView {
 
         private final Component component;
-        private final Map<Method, Interceptor> viewInterceptors;
-        private final Map<MethodDescription, Method> methods;
+        private final Interceptor[] viewInterceptors;
+        private final Set<Method> viewMethods;
         private final Map<Class<?>, Object> privateData;
 
         View(final Map<Class<?>, Object> privateData) {
             this.privateData = privateData;
             component = componentInjector.getValue();
             //we need to build the view interceptor chain
-            this.viewInterceptors = new IdentityHashMap<Method, Interceptor>();
-            this.methods = new HashMap<MethodDescription, Method>();
+            this.viewInterceptors = new Interceptor[methodIndex.size()];
+            final Set<Method> viewMethods = Collections.newSetFromMap(new IdentityHashMap<Method, Boolean>(methodIndex.size()));
+            for (int i = 0; i < methodIndex.size(); ++i) {
+                viewMethods.add(methodIndex.getMethod(i));
+            }
+            this.viewMethods = Collections.unmodifiableSet(viewMethods);
         }
 
         void initializeInterceptors() {
             final SimpleInterceptorFactoryContext factoryContext = new SimpleInterceptorFactoryContext();
-            final Map<Method, InterceptorFactory> viewInterceptorFactories = ViewService.this.viewInterceptorFactories;
-            final Map<Method, Interceptor> viewEntryPoints = viewInterceptors;
+            final InterceptorFactory[] viewInterceptorFactories = ViewService.this.viewInterceptorFactories;
+            final Interceptor[] viewEntryPoints = viewInterceptors;
             factoryContext.getContextData().put(Component.class, component);
             //we don't have this code in the constructor so we avoid passing around
             //a half constructed instance
             factoryContext.getContextData().put(ComponentView.class, this);
 
-            for (Method method : viewInterceptorFactories.keySet()) {
-                viewEntryPoints.put(method, viewInterceptorFactories.get(method).create(factoryContext));
-                methods.put(new MethodDescription(method.getName(), DescriptorUtils.methodDescriptor(method)), method);
+            for (int i = 0; i < viewInterceptorFactories.length; ++i) {
+                viewEntryPoints[i] = viewInterceptorFactories[i].create(factoryContext);
             }
 
         }
@@ -191,8 +199,11 @@ public final class ViewService implements Service<ComponentView> {
         @Override
         public Object invoke(InterceptorContext interceptorContext) throws Exception {
             final Method method = interceptorContext.getMethod();
-            final Interceptor interceptor = viewInterceptors.get(method);
-            return interceptor.processInvocation(interceptorContext);
+            final int index = methodIndex.indexOf(method);
+            if (index < 0) {
+                throw new NoSuchMethodError(method.toString());
+            }
+            return viewInterceptors[index].processInvocation(interceptorContext);
         }
 
         public Component getComponent() {
@@ -211,16 +222,16 @@ public final class ViewService implements Service<ComponentView> {
 
         @Override
         public Set<Method> getViewMethods() {
-            return viewInterceptors.keySet();
+            return viewMethods;
         }
 
         @Override
         public Method getMethod(final String name, final String descriptor) {
-            Method method = this.methods.get(new MethodDescription(name, descriptor));
-            if (method == null) {
+            final int index = methodIndex.indexOf(name, descriptor);
+            if (index < 0) {
                 throw EeLogger.ROOT_LOGGER.viewMethodNotFound(name, descriptor, viewClass, component.getComponentClass());
             }
-            return method;
+            return methodIndex.getMethod(index);
         }
 
         @Override
@@ -238,36 +249,6 @@ public final class ViewService implements Service<ComponentView> {
             return "Component view " + viewClass + " for component "
                     + component.getComponentClass();
         }
-
-        private final class MethodDescription {
-            private final String name;
-            private final String descriptor;
-
-            public MethodDescription(final String name, final String descriptor) {
-                this.name = name;
-                this.descriptor = descriptor;
-            }
-
-            @Override
-            public boolean equals(final Object o) {
-                if (this == o) return true;
-                if (o == null || getClass() != o.getClass()) return false;
-
-                final MethodDescription that = (MethodDescription) o;
-
-                if (!descriptor.equals(that.descriptor)) return false;
-                if (!name.equals(that.name)) return false;
-
-                return true;
-            }
-
-            @Override
-            public int hashCode() {
-                int result = name.hashCode();
-                result = 31 * result + descriptor.hashCode();
-                return result;
-            }
-        }
     }
 
     private class DefaultViewInstanceFactory implements ViewInstanceFactory {
@@ -278,7 +259,7 @@ public final class ViewService implements Service<ComponentView> {
             final Component component = componentView.getComponent();
             final ComponentClientInstance instance = new ComponentClientInstance();
             try {
-                proxy = proxyFactory.newInstance(new ProxyInvocationHandler(clientInterceptors, instance, componentView));
+                proxy = proxyFactory.newInstance(new ProxyInvocationHandler(methodIndex, clientInterceptors, instance, componentView));
             } catch (InstantiationException e) {
                 InstantiationError error = new InstantiationError(e.getMessage());
                 Throwable cause = e.getCause();
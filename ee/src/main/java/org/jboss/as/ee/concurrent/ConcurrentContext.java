@@ -26,6 +26,7 @@ import org.jboss.as.ee.concurrent.handle.ResetContextHandle;
 import org.jboss.as.ee.concurrent.handle.SetupContextHandle;
 import org.jboss.as.ee.logging.EeLogger;
 import org.jboss.as.ee.concurrent.handle.ContextHandleFactory;
+import org.jboss.as.ee.concurrent.handle.InvariantContextHandleFactory;
 import org.jboss.as.naming.util.ThreadLocalStack;
 import org.jboss.as.server.CurrentServiceContainer;
 import org.jboss.modules.Module;
@@ -97,6 +98,14 @@ public class ConcurrentContext {
 
     private final Map<String, ContextHandleFactory> factoryMap = new HashMap<>();
     private List<ContextHandleFactory> factoryOrderedList;
+    /**
+     * the handles saved by the invariant factories, aligned with the ordered factories, null for other factories
+     */
+    private List<SetupContextHandle> invariantHandles;
+    /**
+     * the chained handle reused for every saved context, if all factories are invariant
+     */
+    private SetupContextHandle invariantContextHandle;
 
     private volatile ServiceName serviceName;
 
@@ -127,6 +136,19 @@ public class ConcurrentContext {
         SortedSet<ContextHandleFactory> sortedSet = new TreeSet<>(comparator);
         sortedSet.addAll(factoryMap.values());
         factoryOrderedList = new ArrayList<>(sortedSet);
+        // invariant factories save the same context for every task, so save it once
+        final List<SetupContextHandle> handles = new ArrayList<>(factoryOrderedList.size());
+        boolean invariant = true;
+        for (ContextHandleFactory orderedFactory : factoryOrderedList) {
+            if (orderedFactory instanceof InvariantContextHandleFactory) {
+                handles.add(orderedFactory.saveContext(null, null));
+            } else {
+                handles.add(null);
+                invariant = false;
+            }
+        }
+        invariantHandles = handles;
+        invariantContextHandle = invariant ? new ChainedSetupContextHandle(this, new ArrayList<>(handles)) : null;
     }
 
     /**
@@ -136,9 +158,13 @@ public class ConcurrentContext {
      * @return
      */
     public SetupContextHandle saveContext(ContextService contextService, Map<String, String> contextObjectProperties) {
+        if (invariantContextHandle != null) {
+            return invariantContextHandle;
+        }
         final List<SetupContextHandle> handles = new ArrayList<>(factoryOrderedList.size());
-        for (ContextHandleFactory factory : factoryOrderedList) {
-            handles.add(factory.saveContext(contextService, contextObjectProperties));
+        for (int i = 0; i < factoryOrderedList.size(); i++) {
+            final SetupContextHandle invariantHandle = invariantHandles.get(i);
+            handles.add(invariantHandle != null ? invariantHandle : factoryOrderedList.get(i).saveContext(contextService, contextObjectProperties));
         }
         return new ChainedSetupContextHandle(this, handles);
     }
@@ -38,6 +38,20 @@ import static org.jboss.as.ee.concurrent.ControlPointUtils.doWrap;
  */
 public class ManagedExecutorServiceImpl extends org.glassfish.enterprise.concurrent.ManagedExecutorServiceImpl {
 
+    /**
+     * The type of executor, i.e. how submitted tasks are queued for the threads of the executor.
+     */
+    public enum ExecutorType {
+        /**
+         * Tasks are queued in a single queue shared by all threads.
+         */
+        THREAD_POOL,
+        /**
+         * Tasks are queued in a {@link WorkStealingTaskQueue}.
+         */
+        WORK_STEALING
+    }
+
     private final ControlPoint controlPoint;
 
     public ManagedExecutorServiceImpl(String name, ManagedThreadFactoryImpl managedThreadFactory, long hungTaskThreshold, boolean longRunningTasks, int corePoolSize, int maxPoolSize, long keepAliveTime, TimeUnit keepAliveTimeUnit, long threadLifeTime, ContextServiceImpl contextService, RejectPolicy rejectPolicy, BlockingQueue<Runnable> queue, ControlPoint controlPoint) {
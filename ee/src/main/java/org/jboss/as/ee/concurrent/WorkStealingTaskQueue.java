@@ -0,0 +1,294 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2015, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.jboss.as.ee.concurrent;
+
+import java.util.AbstractQueue;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * A task queue for a managed executor, whose tasks are spread across a number of deques rather than being held by a single
+ * queue shared by every submitter and worker.
+ * <p/>
+ * Each thread is associated with a home deque. A task is added to the home deque of the submitting thread, so that tasks
+ * submitted by a worker, e.g. by a task of the executor, are usually taken by the same worker. A worker takes tasks from its
+ * home deque first, and only steals the oldest task of another deque when its own deque is empty. Workers that find no task
+ * in any deque park until a task is added.
+ * <p/>
+ * The capacity of the queue is enforced by a single counter, so the queue can be bounded as the queue of a
+ * {@link java.util.concurrent.ThreadPoolExecutor} usually is.
+ */
+public class WorkStealingTaskQueue extends AbstractQueue<Runnable> implements BlockingQueue<Runnable> {
+
+    private static final int MAX_DEQUES = 256;
+    /**
+     * Upper bound on a single park of a thread waiting for free capacity, which is not signalled.
+     */
+    private static final long MAX_PARK_NANOS = TimeUnit.MILLISECONDS.toNanos(10);
+
+    private final Deque<Runnable>[] deques;
+    private final int mask;
+    private final int capacity;
+    private final AtomicInteger count = new AtomicInteger(0);
+    /**
+     * Threads waiting for a task. Only touched when every deque is empty.
+     */
+    private final Queue<Thread> waiters = new ConcurrentLinkedQueue<Thread>();
+    private final AtomicInteger waiting = new AtomicInteger(0);
+
+    /**
+     * @param capacity the maximum number of queued tasks
+     * @param concurrency the expected number of workers
+     */
+    @SuppressWarnings("unchecked")
+    public WorkStealingTaskQueue(int capacity, int concurrency) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException();
+        }
+        this.capacity = capacity;
+        // Round up to a power of 2 so that a deque can be selected via a mask
+        int count = Math.min(Math.max(concurrency, 1), MAX_DEQUES);
+        count = (count > 1) ? Integer.highestOneBit(count - 1) << 1 : 1;
+        this.mask = count - 1;
+        this.deques = new Deque[count];
+        for (int i = 0; i < count; ++i) {
+            this.deques[i] = new ConcurrentLinkedDeque<Runnable>();
+        }
+    }
+
+    @Override
+    public boolean offer(Runnable task) {
+        if (task == null) {
+            throw new NullPointerException();
+        }
+        for (int count = this.count.get(); ; count = this.count.get()) {
+            if (count >= this.capacity) {
+                return false;
+            }
+            if (this.count.compareAndSet(count, count + 1)) {
+                break;
+            }
+        }
+        this.deques[this.home()].offerLast(task);
+        this.signal();
+        return true;
+    }
+
+    @Override
+    public boolean offer(Runnable task, long timeout, TimeUnit unit) throws InterruptedException {
+        final long deadline = System.nanoTime() + unit.toNanos(timeout);
+        while (!this.offer(task)) {
+            final long remaining = deadline - System.nanoTime();
+            if (remaining <= 0) {
+                return false;
+            }
+            LockSupport.parkNanos(this, Math.min(remaining, MAX_PARK_NANOS));
+            if (Thread.interrupted()) {
+                throw new InterruptedException();
+            }
+        }
+        return true;
+    }
+
+    @Override
+    public void put(Runnable task) throws InterruptedException {
+        while (!this.offer(task)) {
+            LockSupport.parkNanos(this, MAX_PARK_NANOS);
+            if (Thread.interrupted()) {
+                throw new InterruptedException();
+            }
+        }
+    }
+
+    @Override
+    public Runnable poll() {
+        final int home = this.home();
+        Runnable task = this.deques[home].pollFirst();
+        for (int i = 1; (task == null) && (i < this.deques.length); ++i) {
+            task = this.deques[(home + i) & this.mask].pollFirst();
+        }
+        if (task != null) {
+            this.count.decrementAndGet();
+        }
+        return task;
+    }
+
+    @Override
+    public Runnable poll(long timeout, TimeUnit unit) throws InterruptedException {
+        final Runnable task = this.poll();
+        return (task != null) ? task : this.await(System.nanoTime() + unit.toNanos(timeout), true);
+    }
+
+    @Override
+    public Runnable take() throws InterruptedException {
+        final Runnable task = this.poll();
+        return (task != null) ? task : this.await(0, false);
+    }
+
+    @Override
+    public Runnable peek() {
+        final int home = this.home();
+        for (int i = 0; i < this.deques.length; ++i) {
+            final Runnable task = this.deques[(home + i) & this.mask].peekFirst();
+            if (task != null) {
+                return task;
+            }
+        }
+        return null;
+    }
+
+    @Override
+    public boolean remove(Object task) {
+        for (Deque<Runnable> deque : this.deques) {
+            if (deque.removeFirstOccurrence(task)) {
+                this.count.decrementAndGet();
+                return true;
+            }
+        }
+        return false;
+    }
+
+    @Override
+    public int size() {
+        return this.count.get();
+    }
+
+    @Override
+    public int remainingCapacity() {
+        return Math.max(this.capacity - this.count.get(), 0);
+    }
+
+    @Override
+    public int drainTo(Collection<? super Runnable> tasks) {
+        return this.drainTo(tasks, Integer.MAX_VALUE);
+    }
+
+    @Override
+    public int drainTo(Collection<? super Runnable> tasks, int maxElements) {
+        if (tasks == this) {
+            throw new IllegalArgumentException();
+        }
+        int drained = 0;
+        while (drained < maxElements) {
+            final Runnable task = this.poll();
+            if (task == null) break;
+            tasks.add(task);
+            drained += 1;
+        }
+        return drained;
+    }
+
+    /**
+     * Returns an iterator over a snapshot of the queued tasks, whose removal operation removes the task from this queue.
+     */
+    @Override
+    public Iterator<Runnable> iterator() {
+        final List<Runnable> tasks = new ArrayList<Runnable>();
+        for (Deque<Runnable> deque : this.deques) {
+            tasks.addAll(deque);
+        }
+        final Iterator<Runnable> iterator = tasks.iterator();
+        return new Iterator<Runnable>() {
+            private Runnable current;
+
+            @Override
+            public boolean hasNext() {
+                return iterator.hasNext();
+            }
+
+            @Override
+            public Runnable next() {
+                this.current = iterator.next();
+                return this.current;
+            }
+
+            @Override
+            public void remove() {
+                if (this.current == null) {
+                    throw new IllegalStateException();
+                }
+                WorkStealingTaskQueue.this.remove(this.current);
+                this.current = null;
+            }
+        };
+    }
+
+    private int home() {
+        return (int) Thread.currentThread().getId() & this.mask;
+    }
+
+    private Runnable await(long deadline, boolean timed) throws InterruptedException {
+        final Thread thread = Thread.currentThread();
+        try {
+            while (true) {
+                // Register as a waiter before rescanning, so that a concurrent offer either leaves us a task or wakes us
+                this.waiting.incrementAndGet();
+                this.waiters.add(thread);
+                try {
+                    final Runnable task = this.poll();
+                    if (task != null) {
+                        return task;
+                    }
+                    if (timed) {
+                        final long remaining = deadline - System.nanoTime();
+                        if (remaining <= 0) {
+                            return null;
+                        }
+                        LockSupport.parkNanos(this, remaining);
+                    } else {
+                        LockSupport.park(this);
+                    }
+                } finally {
+                    this.waiters.remove(thread);
+                    this.waiting.decrementAndGet();
+                }
+                if (Thread.interrupted()) {
+                    throw new InterruptedException();
+                }
+            }
+        } finally {
+            // We may have consumed the wake-up of a task we did not take, so pass it on
+            if (!this.isEmpty()) {
+                this.signal();
+            }
+        }
+    }
+
+    private void signal() {
+        if (this.waiting.get() > 0) {
+            final Thread waiter = this.waiters.poll();
+            if (waiter != null) {
+                LockSupport.unpark(waiter);
+            }
+        }
+    }
+}
@@ -35,7 +35,7 @@ import java.util.Map;
  *
  * @author Eduardo Martins
  */
-public class ClassLoaderContextHandleFactory implements ContextHandleFactory {
+public class ClassLoaderContextHandleFactory implements InvariantContextHandleFactory {
 
     public static final String NAME = "CLASSLOADER";
 
@@ -37,7 +37,7 @@ import java.util.Map;
  *
  * @author Eduardo Martins
  */
-public class NamingContextHandleFactory implements ContextHandleFactory {
+public class NamingContextHandleFactory implements InvariantContextHandleFactory {
 
     public static final String NAME = "NAMING";
 
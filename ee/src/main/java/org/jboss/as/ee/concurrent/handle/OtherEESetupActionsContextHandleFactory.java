@@ -38,7 +38,7 @@ import java.util.Map;
  *
  * @author Eduardo Martins
  */
-public class OtherEESetupActionsContextHandleFactory implements ContextHandleFactory {
+public class OtherEESetupActionsContextHandleFactory implements InvariantContextHandleFactory {
 
     public static final String NAME = "EE_SETUP_ACTIONS";
 
@@ -443,6 +443,9 @@ class EESubsystemParser40 implements XMLStreamConstants, XMLElementReader<List<M
                 case REJECT_POLICY:
                     ManagedExecutorServiceResourceDefinition.REJECT_POLICY_AD.parseAndSetParameter(value, addOperation, reader);
                     break;
+                case EXECUTOR_TYPE:
+                    ManagedExecutorServiceResourceDefinition.EXECUTOR_TYPE_AD.parseAndSetParameter(value, addOperation, reader);
+                    break;
                 default:
                     throw unexpectedAttribute(reader, i);
             }
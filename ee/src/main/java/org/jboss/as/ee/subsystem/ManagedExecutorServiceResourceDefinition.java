@@ -40,8 +40,10 @@ import org.jboss.as.controller.operations.validation.StringLengthValidator;
 import org.jboss.as.controller.registry.AttributeAccess;
 import org.jboss.as.controller.registry.ManagementResourceRegistration;
 import org.jboss.as.controller.registry.Resource;
+import org.jboss.as.controller.transform.description.DiscardAttributeChecker;
 import org.jboss.as.controller.transform.description.RejectAttributeChecker;
 import org.jboss.as.controller.transform.description.ResourceTransformationDescriptionBuilder;
+import org.jboss.as.ee.concurrent.ManagedExecutorServiceImpl;
 import org.jboss.as.ee.logging.EeLogger;
 import org.jboss.dmr.ModelNode;
 import org.jboss.dmr.ModelType;
@@ -61,6 +63,7 @@ public class ManagedExecutorServiceResourceDefinition extends SimpleResourceDefi
     public static final String KEEPALIVE_TIME = "keepalive-time";
     public static final String QUEUE_LENGTH = "queue-length";
     public static final String REJECT_POLICY = "reject-policy";
+    public static final String EXECUTOR_TYPE = "executor-type";
 
     public static final SimpleAttributeDefinition JNDI_NAME_AD =
             new SimpleAttributeDefinitionBuilder(JNDI_NAME, ModelType.STRING, false)
@@ -136,8 +139,15 @@ public class ManagedExecutorServiceResourceDefinition extends SimpleResourceDefi
                     .setValidator(EnumValidator.create(AbstractManagedExecutorService.RejectPolicy.class, true, true))
                     .build();
 
+    public static final SimpleAttributeDefinition EXECUTOR_TYPE_AD =
+            new SimpleAttributeDefinitionBuilder(EXECUTOR_TYPE, ModelType.STRING, true)
+                    .setAllowExpression(true)
+                    .setFlags(AttributeAccess.Flag.RESTART_RESOURCE_SERVICES)
+                    .setDefaultValue(new ModelNode(ManagedExecutorServiceImpl.ExecutorType.THREAD_POOL.toString()))
+                    .setValidator(EnumValidator.create(ManagedExecutorServiceImpl.ExecutorType.class, true, true))
+                    .build();
 
-    static final SimpleAttributeDefinition[] ATTRIBUTES = {JNDI_NAME_AD, CONTEXT_SERVICE_AD, THREAD_FACTORY_AD, HUNG_TASK_THRESHOLD_AD, LONG_RUNNING_TASKS_AD, CORE_THREADS_AD, MAX_THREADS_AD, KEEPALIVE_TIME_AD, QUEUE_LENGTH_AD, REJECT_POLICY_AD};
+    static final SimpleAttributeDefinition[] ATTRIBUTES = {JNDI_NAME_AD, CONTEXT_SERVICE_AD, THREAD_FACTORY_AD, HUNG_TASK_THRESHOLD_AD, LONG_RUNNING_TASKS_AD, CORE_THREADS_AD, MAX_THREADS_AD, KEEPALIVE_TIME_AD, QUEUE_LENGTH_AD, REJECT_POLICY_AD, EXECUTOR_TYPE_AD};
 
     public static final ManagedExecutorServiceResourceDefinition INSTANCE = new ManagedExecutorServiceResourceDefinition();
 
@@ -158,6 +168,8 @@ public class ManagedExecutorServiceResourceDefinition extends SimpleResourceDefi
         final ResourceTransformationDescriptionBuilder resourceBuilder = builder.addChildResource(pathElement);
         resourceBuilder.getAttributeBuilder()
                 .addRejectCheck(RejectAttributeChecker.UNDEFINED, CORE_THREADS_AD)
+                .setDiscard(new DiscardAttributeChecker.DiscardAttributeValueChecker(EXECUTOR_TYPE_AD.getDefaultValue()), EXECUTOR_TYPE_AD)
+                .addRejectCheck(RejectAttributeChecker.DEFINED, EXECUTOR_TYPE_AD)
                 .end();
     }
 
@@ -0,0 +1,270 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2015, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.jboss.as.ee.component;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.lang.reflect.Method;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.jboss.as.ee.utils.DescriptorUtils;
+import org.junit.Test;
+
+/**
+ * Unit test for {@link ViewMethodIndex}.
+ */
+public class ViewMethodIndexTestCase {
+
+    @Test
+    public void identity() {
+        List<Method> methods = viewMethods(View.class);
+        ViewMethodIndex index = new ViewMethodIndex(methods);
+
+        assertEquals(methods.size(), index.size());
+        for (int i = 0; i < methods.size(); ++i) {
+            assertEquals(i, index.indexOf(methods.get(i)));
+            assertSame(methods.get(i), index.getMethod(i));
+        }
+    }
+
+    @Test
+    public void foreignMethod() throws Exception {
+        List<Method> methods = viewMethods(View.class);
+        ViewMethodIndex index = new ViewMethodIndex(methods);
+
+        // Methods of the same class, but other instances
+        for (int i = 0; i < methods.size(); ++i) {
+            Method method = methods.get(i);
+            Method copy = method.getDeclaringClass().getMethod(method.getName(), method.getParameterTypes());
+            assertNotSame(method, copy);
+            assertEquals(method.toString(), i, index.indexOf(copy));
+        }
+
+        // Methods of the view class as loaded by another class loader, e.g. by a client
+        URL location = View.class.getProtectionDomain().getCodeSource().getLocation();
+        try (URLClassLoader loader = new URLClassLoader(new URL[] { location }, null)) {
+            Class<?> foreignView = loader.loadClass(View.class.getName());
+            assertNotSame(View.class, foreignView);
+            for (Method foreignMethod : foreignView.getMethods()) {
+                int i = index.indexOf(foreignMethod);
+                assertNotEquals(foreignMethod.toString(), -1, i);
+                assertEquals(DescriptorUtils.methodDescriptor(foreignMethod), DescriptorUtils.methodDescriptor(index.getMethod(i)));
+            }
+        }
+
+        // Methods that are not methods of the view
+        assertEquals(-1, index.indexOf(String.class.getMethod("length")));
+        assertEquals(-1, index.indexOf(Other.class.getMethod("echo", String.class, String.class)));
+        // Same name and parameter types, but another return type
+        assertEquals(-1, index.indexOf(Other.class.getMethod("echo", String.class)));
+    }
+
+    @Test
+    public void overloads() throws Exception {
+        ViewMethodIndex index = new ViewMethodIndex(viewMethods(View.class));
+
+        int echoString = index.indexOf(View.class.getMethod("echo", String.class));
+        int echoInt = index.indexOf(View.class.getMethod("echo", int.class));
+        int echoIntArray = index.indexOf(View.class.getMethod("echo", int[].class));
+
+        assertNotEquals(-1, echoString);
+        assertNotEquals(-1, echoInt);
+        assertNotEquals(-1, echoIntArray);
+        assertNotEquals(echoString, echoInt);
+        assertNotEquals(echoInt, echoIntArray);
+
+        assertEquals(echoString, index.indexOf("echo", "(Ljava/lang/String;)Ljava/lang/String;"));
+        assertEquals(echoInt, index.indexOf("echo", "(I)I"));
+        assertEquals(echoIntArray, index.indexOf("echo", "([I)[I"));
+
+        assertEquals(echoString, index.indexOf("echo", new String[] { "java.lang.String" }));
+        assertEquals(echoInt, index.indexOf("echo", new String[] { "int" }));
+        assertEquals(echoIntArray, index.indexOf("echo", new String[] { "[I" }));
+    }
+
+    @Test
+    public void covariantAndBridgeMethods() throws Exception {
+        // The declared methods of a class overriding generic and covariant methods include their bridge methods
+        List<Method> methods = Arrays.asList(Bean.class.getDeclaredMethods());
+        ViewMethodIndex index = new ViewMethodIndex(methods);
+
+        int bridges = 0;
+        for (int i = 0; i < methods.size(); ++i) {
+            Method method = methods.get(i);
+            if (method.isBridge()) {
+                bridges += 1;
+            }
+            assertEquals(i, index.indexOf(method));
+            // Resolved by return type as well as by parameter types
+            Method copy = Bean.class.getDeclaredMethod(method.getName(), method.getParameterTypes());
+            if (copy.getReturnType() == method.getReturnType()) {
+                assertEquals(i, index.indexOf(copy));
+            }
+            assertEquals(i, index.indexOf(method.getName(), DescriptorUtils.methodDescriptor(method)));
+        }
+        assertEquals(2, bridges);
+
+        int get = index.indexOf("get", "()Ljava/lang/String;");
+        int bridgeGet = index.indexOf("get", "()Ljava/lang/Object;");
+        assertNotEquals(-1, get);
+        assertNotEquals(-1, bridgeGet);
+        assertFalse(index.getMethod(get).isBridge());
+        assertTrue(index.getMethod(bridgeGet).isBridge());
+
+        int copy = index.indexOf("copy", "()Ljava/lang/String;");
+        int bridgeCopy = index.indexOf("copy", "()Ljava/lang/CharSequence;");
+        assertNotEquals(-1, copy);
+        assertNotEquals(-1, bridgeCopy);
+        assertFalse(index.getMethod(copy).isBridge());
+        assertTrue(index.getMethod(bridgeCopy).isBridge());
+    }
+
+    @Test
+    public void descriptors() {
+        List<Method> methods = viewMethods(View.class);
+        ViewMethodIndex index = new ViewMethodIndex(methods);
+
+        for (int i = 0; i < methods.size(); ++i) {
+            Method method = methods.get(i);
+            assertEquals(method.toString(), i, index.indexOf(method.getName(), DescriptorUtils.methodDescriptor(method)));
+        }
+
+        String inner = "Lorg/jboss/as/ee/component/ViewMethodIndexTestCase$Nested$Inner;";
+        String nested = "Lorg/jboss/as/ee/component/ViewMethodIndexTestCase$Nested;";
+
+        assertNotEquals(-1, index.indexOf("primitives", "(ZCBSFDJ)V"));
+        assertNotEquals(-1, index.indexOf("arrays", "([[I[Ljava/lang/Object;)[[J"));
+        assertNotEquals(-1, index.indexOf("nested", "(" + inner + "[" + nested + ")" + nested));
+
+        // Mismatching primitives, array dimensions, return types and class names
+        assertEquals(-1, index.indexOf("primitives", "(ZCBSFDI)V"));
+        assertEquals(-1, index.indexOf("primitives", "(ZCBSFDJ)I"));
+        assertEquals(-1, index.indexOf("arrays", "([I[Ljava/lang/Object;)[[J"));
+        assertEquals(-1, index.indexOf("arrays", "([[I[Ljava/lang/Object;)[J"));
+        assertEquals(-1, index.indexOf("nested", "(Lorg/jboss/as/ee/component/ViewMethodIndexTestCase$Nested$Outer;[" + nested + ")" + nested));
+        assertEquals(-1, index.indexOf("nested", "(Lorg.jboss.as.ee.component.ViewMethodIndexTestCase$Nested$Inner;[" + nested + ")" + nested));
+        assertEquals(-1, index.indexOf("echo", "(Ljava/lang/String;)Ljava/lang/Object;"));
+
+        // Malformed descriptors
+        assertEquals(-1, index.indexOf("echo", ""));
+        assertEquals(-1, index.indexOf("echo", "(I"));
+        assertEquals(-1, index.indexOf("echo", "(I)"));
+        assertEquals(-1, index.indexOf("echo", "(I)II"));
+        assertEquals(-1, index.indexOf("echo", "(Ljava/lang/String)Ljava/lang/String;"));
+        assertEquals(-1, index.indexOf("missing", "()V"));
+    }
+
+    @Test
+    public void remoteLookup() {
+        List<Method> methods = viewMethods(View.class);
+        ViewMethodIndex index = new ViewMethodIndex(methods);
+
+        for (int i = 0; i < methods.size(); ++i) {
+            Method method = methods.get(i);
+            Class<?>[] types = method.getParameterTypes();
+            String[] names = new String[types.length];
+            for (int j = 0; j < types.length; ++j) {
+                names[j] = types[j].getName();
+            }
+            assertEquals(method.toString(), i, index.indexOf(method.getName(), names));
+        }
+
+        assertNotEquals(-1, index.indexOf("primitives", new String[] { "boolean", "char", "byte", "short", "float", "double", "long" }));
+        assertNotEquals(-1, index.indexOf("arrays", new String[] { "[[I", "[Ljava.lang.Object;" }));
+        assertNotEquals(-1, index.indexOf("nested", new String[] { Nested.Inner.class.getName(), "[Lorg.jboss.as.ee.component.ViewMethodIndexTestCase$Nested;" }));
+
+        assertEquals(-1, index.indexOf("nested", new String[] { "org.jboss.as.ee.component.ViewMethodIndexTestCase.Nested.Inner", "[Lorg.jboss.as.ee.component.ViewMethodIndexTestCase$Nested;" }));
+        assertEquals(-1, index.indexOf("echo", new String[] { "long" }));
+        assertEquals(-1, index.indexOf("echo", new String[0]));
+        assertEquals(-1, index.indexOf("echo", new String[] { "int", "int" }));
+        assertEquals(-1, index.indexOf("missing", new String[0]));
+    }
+
+    @Test
+    public void empty() throws Exception {
+        ViewMethodIndex index = new ViewMethodIndex(new ArrayList<Method>());
+
+        assertEquals(0, index.size());
+        assertEquals(-1, index.indexOf(Object.class.getMethod("toString")));
+        assertEquals(-1, index.indexOf("toString", "()Ljava/lang/String;"));
+        assertEquals(-1, index.indexOf("toString", new String[0]));
+    }
+
+    private static List<Method> viewMethods(Class<?> view) {
+        // As cached by the proxy factory of a view, i.e. the methods of the view followed by those of Object
+        List<Method> methods = new ArrayList<>(Arrays.asList(view.getMethods()));
+        methods.addAll(Arrays.asList(Object.class.getMethods()));
+        return methods;
+    }
+
+    public interface View {
+        String echo(String value);
+
+        int echo(int value);
+
+        int[] echo(int[] value);
+
+        void primitives(boolean z, char c, byte b, short s, float f, double d, long j);
+
+        long[][] arrays(int[][] values, Object[] objects);
+
+        Nested nested(Nested.Inner inner, Nested[] nested);
+    }
+
+    public static class Nested {
+        public static class Inner {
+        }
+    }
+
+    public interface Other {
+        Object echo(String value);
+
+        String echo(String value, String other);
+    }
+
+    public interface Source<T> {
+        T get();
+
+        CharSequence copy();
+    }
+
+    public static class Bean implements Source<String> {
+        @Override
+        public String get() {
+            return null;
+        }
+
+        @Override
+        public String copy() {
+            return null;
+        }
+    }
+}
@@ -0,0 +1,369 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2015, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.jboss.as.ee.concurrent;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Test;
+
+/**
+ * Unit test for {@link WorkStealingTaskQueue}.
+ */
+public class WorkStealingTaskQueueTestCase {
+
+    @Test(expected = IllegalArgumentException.class)
+    public void zeroCapacity() {
+        new WorkStealingTaskQueue(0, 1);
+    }
+
+    @Test(expected = NullPointerException.class)
+    public void nullTask() {
+        new WorkStealingTaskQueue(1, 1).offer(null);
+    }
+
+    @Test
+    public void capacity() throws InterruptedException {
+        WorkStealingTaskQueue queue = new WorkStealingTaskQueue(2, 4);
+        Runnable task1 = new Task();
+        Runnable task2 = new Task();
+        Runnable task3 = new Task();
+
+        assertEquals(2, queue.remainingCapacity());
+        assertTrue(queue.offer(task1));
+        assertTrue(queue.offer(task2));
+        assertEquals(2, queue.size());
+        assertEquals(0, queue.remainingCapacity());
+
+        assertFalse(queue.offer(task3));
+        assertFalse(queue.offer(task3, 10, TimeUnit.MILLISECONDS));
+        assertEquals(2, queue.size());
+
+        assertSame(task1, queue.poll());
+        assertEquals(1, queue.remainingCapacity());
+        assertTrue(queue.offer(task3));
+        assertSame(task2, queue.poll());
+        assertSame(task3, queue.poll());
+        assertNull(queue.poll());
+        assertTrue(queue.isEmpty());
+    }
+
+    @Test
+    public void putWaitsForCapacity() throws Exception {
+        final WorkStealingTaskQueue queue = new WorkStealingTaskQueue(1, 1);
+        final Runnable task = new Task();
+        assertTrue(queue.offer(new Task()));
+
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            Future<Void> future = executor.submit(new Callable<Void>() {
+                @Override
+                public Void call() throws InterruptedException {
+                    queue.put(task);
+                    return null;
+                }
+            });
+            Thread.sleep(50);
+            assertFalse(future.isDone());
+
+            queue.poll();
+            future.get(5, TimeUnit.SECONDS);
+            assertSame(task, queue.poll());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    public void takeWakesUp() throws Exception {
+        final WorkStealingTaskQueue queue = new WorkStealingTaskQueue(10, 4);
+        final Runnable task = new Task();
+        final CountDownLatch waiting = new CountDownLatch(1);
+
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            Future<Runnable> future = executor.submit(new Callable<Runnable>() {
+                @Override
+                public Runnable call() throws InterruptedException {
+                    waiting.countDown();
+                    return queue.take();
+                }
+            });
+            waiting.await();
+            Thread.sleep(50);
+            assertFalse(future.isDone());
+
+            assertTrue(queue.offer(task));
+            assertSame(task, future.get(5, TimeUnit.SECONDS));
+            assertTrue(queue.isEmpty());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    public void pollWakesUp() throws Exception {
+        final WorkStealingTaskQueue queue = new WorkStealingTaskQueue(10, 4);
+        final Runnable task = new Task();
+        final CountDownLatch waiting = new CountDownLatch(1);
+
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            Future<Runnable> future = executor.submit(new Callable<Runnable>() {
+                @Override
+                public Runnable call() throws InterruptedException {
+                    waiting.countDown();
+                    return queue.poll(1, TimeUnit.MINUTES);
+                }
+            });
+            waiting.await();
+            Thread.sleep(50);
+            assertFalse(future.isDone());
+
+            assertTrue(queue.offer(task));
+            assertSame(task, future.get(5, TimeUnit.SECONDS));
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    public void pollTimesOut() throws InterruptedException {
+        WorkStealingTaskQueue queue = new WorkStealingTaskQueue(10, 4);
+        long start = System.nanoTime();
+        assertNull(queue.poll(50, TimeUnit.MILLISECONDS));
+        assertTrue(System.nanoTime() - start >= TimeUnit.MILLISECONDS.toNanos(50));
+    }
+
+    @Test
+    public void takeInterrupted() throws Exception {
+        final WorkStealingTaskQueue queue = new WorkStealingTaskQueue(10, 4);
+        final CountDownLatch waiting = new CountDownLatch(1);
+
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            Future<Boolean> future = executor.submit(new Callable<Boolean>() {
+                @Override
+                public Boolean call() {
+                    waiting.countDown();
+                    try {
+                        queue.take();
+                        return Boolean.FALSE;
+                    } catch (InterruptedException e) {
+                        return Boolean.TRUE;
+                    }
+                }
+            });
+            waiting.await();
+            Thread.sleep(50);
+            executor.shutdownNow();
+            assertTrue(future.get(5, TimeUnit.SECONDS));
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    public void steal() throws Exception {
+        final WorkStealingTaskQueue queue = new WorkStealingTaskQueue(100, 8);
+        final List<Runnable> tasks = new ArrayList<Runnable>();
+        for (int i = 0; i < 10; ++i) {
+            tasks.add(new Task());
+        }
+        // Submit from another thread, so that the tasks are added to a deque other than ours
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            executor.submit(new Runnable() {
+                @Override
+                public void run() {
+                    for (Runnable task : tasks) {
+                        assertTrue(queue.offer(task));
+                    }
+                }
+            }).get(5, TimeUnit.SECONDS);
+        } finally {
+            executor.shutdownNow();
+        }
+
+        assertEquals(10, queue.size());
+        assertSame(tasks.get(0), queue.peek());
+        // Stolen tasks are taken oldest first
+        for (Runnable task : tasks) {
+            assertSame(task, queue.poll());
+        }
+        assertNull(queue.poll());
+        assertEquals(0, queue.size());
+    }
+
+    @Test
+    public void remove() {
+        WorkStealingTaskQueue queue = new WorkStealingTaskQueue(10, 4);
+        Runnable task1 = new Task();
+        Runnable task2 = new Task();
+        Runnable task3 = new Task();
+        queue.offer(task1);
+        queue.offer(task2);
+        queue.offer(task3);
+
+        assertTrue(queue.remove(task2));
+        assertFalse(queue.remove(task2));
+        assertFalse(queue.remove(new Task()));
+        assertEquals(2, queue.size());
+
+        Iterator<Runnable> tasks = queue.iterator();
+        assertSame(task1, tasks.next());
+        tasks.remove();
+        try {
+            tasks.remove();
+            fail();
+        } catch (IllegalStateException e) {
+            // Expected
+        }
+        assertSame(task3, tasks.next());
+        assertFalse(tasks.hasNext());
+
+        assertEquals(1, queue.size());
+        assertSame(task3, queue.poll());
+        assertTrue(queue.isEmpty());
+    }
+
+    @Test
+    public void drainTo() {
+        WorkStealingTaskQueue queue = new WorkStealingTaskQueue(10, 4);
+        List<Runnable> tasks = new ArrayList<Runnable>();
+        for (int i = 0; i < 5; ++i) {
+            Runnable task = new Task();
+            tasks.add(task);
+            queue.offer(task);
+        }
+
+        List<Runnable> drained = new ArrayList<Runnable>();
+        assertEquals(2, queue.drainTo(drained, 2));
+        assertEquals(tasks.subList(0, 2), drained);
+        assertEquals(3, queue.size());
+
+        assertEquals(3, queue.drainTo(drained));
+        assertEquals(tasks, drained);
+        assertTrue(queue.isEmpty());
+        assertEquals(10, queue.remainingCapacity());
+
+        assertEquals(0, queue.drainTo(drained));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void drainToSelf() {
+        WorkStealingTaskQueue queue = new WorkStealingTaskQueue(10, 4);
+        queue.drainTo(queue);
+    }
+
+    @Test
+    public void concurrent() throws Exception {
+        final int producers = 4;
+        final int consumers = 4;
+        final int tasksPerProducer = 10000;
+        final WorkStealingTaskQueue queue = new WorkStealingTaskQueue(64, consumers);
+        final Set<Runnable> taken = Collections.newSetFromMap(new ConcurrentHashMap<Runnable, Boolean>());
+        final AtomicInteger duplicates = new AtomicInteger(0);
+        final Runnable poison = new Task();
+
+        ExecutorService executor = Executors.newFixedThreadPool(producers + consumers);
+        try {
+            List<Future<Set<Runnable>>> submitted = new ArrayList<Future<Set<Runnable>>>(producers);
+            for (int i = 0; i < producers; ++i) {
+                submitted.add(executor.submit(new Callable<Set<Runnable>>() {
+                    @Override
+                    public Set<Runnable> call() throws InterruptedException {
+                        Set<Runnable> tasks = new HashSet<Runnable>();
+                        for (int j = 0; j < tasksPerProducer; ++j) {
+                            Runnable task = new Task();
+                            tasks.add(task);
+                            queue.put(task);
+                        }
+                        return tasks;
+                    }
+                }));
+            }
+            List<Future<Void>> consumed = new ArrayList<Future<Void>>(consumers);
+            for (int i = 0; i < consumers; ++i) {
+                consumed.add(executor.submit(new Callable<Void>() {
+                    @Override
+                    public Void call() throws InterruptedException {
+                        // Alternate between take and timed poll, so that both wait paths are exercised
+                        for (int j = 0; ; ++j) {
+                            Runnable task = ((j % 2) == 0) ? queue.take() : queue.poll(1, TimeUnit.MILLISECONDS);
+                            if (task == poison) {
+                                return null;
+                            }
+                            if ((task != null) && !taken.add(task)) {
+                                duplicates.incrementAndGet();
+                            }
+                        }
+                    }
+                }));
+            }
+
+            Set<Runnable> expected = new HashSet<Runnable>();
+            for (Future<Set<Runnable>> future : submitted) {
+                expected.addAll(future.get(1, TimeUnit.MINUTES));
+            }
+            for (int i = 0; i < consumers; ++i) {
+                queue.put(poison);
+            }
+            for (Future<Void> future : consumed) {
+                future.get(1, TimeUnit.MINUTES);
+            }
+
+            assertEquals(0, duplicates.get());
+            assertEquals(producers * tasksPerProducer, expected.size());
+            assertEquals(expected, taken);
+            assertTrue(queue.isEmpty());
+            assertEquals(64, queue.remainingCapacity());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private static class Task implements Runnable {
+        @Override
+        public void run() {
+        }
+    }
+}
@@ -92,7 +92,10 @@ public class EeSubsystemTestCase extends AbstractSubsystemBaseTest {
                 bootOps,
                 new FailedOperationTransformationConfig()
                         .addFailedAttribute(PathAddress.pathAddress(EeExtension.PATH_SUBSYSTEM, ManagedExecutorServiceResourceDefinition.INSTANCE.getPathElement()),
-                                new RejectUndefinedAttribute(new ModelNode(Integer.MAX_VALUE), ManagedExecutorServiceResourceDefinition.CORE_THREADS_AD.getName()))
+                                FailedOperationTransformationConfig.ChainedConfig.createBuilder(ManagedExecutorServiceResourceDefinition.CORE_THREADS_AD, ManagedExecutorServiceResourceDefinition.EXECUTOR_TYPE_AD)
+                                        .addConfig(new RejectUndefinedAttribute(new ModelNode(Integer.MAX_VALUE), ManagedExecutorServiceResourceDefinition.CORE_THREADS_AD.getName()))
+                                        .addConfig(new FailedOperationTransformationConfig.NewAttributesConfig(ManagedExecutorServiceResourceDefinition.EXECUTOR_TYPE_AD))
+                                        .build())
                         .addFailedAttribute(PathAddress.pathAddress(EeExtension.PATH_SUBSYSTEM, ManagedScheduledExecutorServiceResourceDefinition.INSTANCE.getPathElement()),
                                 new RejectUndefinedAttribute(new ModelNode(Integer.MAX_VALUE), ManagedScheduledExecutorServiceResourceDefinition.CORE_THREADS_AD.getName())));
     }
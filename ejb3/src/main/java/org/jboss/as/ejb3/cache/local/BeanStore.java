@@ -0,0 +1,63 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2015, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.jboss.as.ejb3.cache.local;
+
+/**
+ * Off-heap storage for passivated beans.
+ *
+ * @param <K> the bean identifier type
+ * @param <V> the bean type
+ */
+public interface BeanStore<K, V> {
+
+    /**
+     * Prepares this store for use, discarding any beans left over from a previous run.
+     */
+    void start();
+
+    /**
+     * Discards all stored beans.
+     */
+    void stop();
+
+    /**
+     * Stores the specified bean, replacing any bean previously stored under the same identifier.
+     * @param id a bean identifier
+     * @param bean a bean
+     * @throws Exception if the bean could not be stored
+     */
+    void store(K id, V bean) throws Exception;
+
+    /**
+     * Loads and removes the bean stored under the specified identifier.
+     * @param id a bean identifier
+     * @return the bean, or null if no such bean was stored
+     * @throws Exception if the bean could not be loaded
+     */
+    V load(K id) throws Exception;
+
+    /**
+     * Removes the bean stored under the specified identifier, if any, without loading it.
+     * @param id a bean identifier
+     */
+    void remove(K id);
+}
@@ -0,0 +1,146 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2015, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.jboss.as.ejb3.cache.local;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.jboss.as.ejb3.logging.EjbLogger;
+import org.jboss.marshalling.Marshaller;
+import org.jboss.marshalling.Marshalling;
+import org.jboss.marshalling.SimpleDataInput;
+import org.jboss.marshalling.SimpleDataOutput;
+import org.jboss.marshalling.Unmarshaller;
+import org.wildfly.clustering.marshalling.jboss.IndexExternalizer;
+import org.wildfly.clustering.marshalling.jboss.MarshallingContext;
+import org.wildfly.security.manager.WildFlySecurityManager;
+
+/**
+ * {@link BeanStore} that marshals each passivated bean to its own file within a local directory.
+ * Each file is prefixed by the version of the marshalling configuration used to write it.
+ *
+ * @param <K> the bean identifier type
+ * @param <V> the bean type
+ */
+public class FileBeanStore<K, V> implements BeanStore<K, V> {
+
+    private static final String FILE_SUFFIX = ".bean";
+
+    private final File directory;
+    private final MarshallingContext context;
+    private final ConcurrentMap<K, File> files = new ConcurrentHashMap<>();
+    private final AtomicLong sequence = new AtomicLong();
+
+    public FileBeanStore(File directory, MarshallingContext context) {
+        this.directory = directory;
+        this.context = context;
+    }
+
+    @Override
+    public void start() {
+        if (!this.directory.isDirectory() && !this.directory.mkdirs()) {
+            throw EjbLogger.ROOT_LOGGER.beanPassivationDirectoryCreationFailed(this.directory);
+        }
+        this.purge();
+    }
+
+    @Override
+    public void stop() {
+        this.files.clear();
+        this.purge();
+        this.directory.delete();
+    }
+
+    @Override
+    public void store(K id, V bean) throws Exception {
+        // Identifiers are not necessarily valid file names, so use a sequence number instead
+        File file = new File(this.directory, Long.toString(this.sequence.incrementAndGet()) + FILE_SUFFIX);
+        int version = this.context.getCurrentVersion();
+        ClassLoader loader = setThreadContextClassLoader(this.context.getClassLoader());
+        try (SimpleDataOutput output = new SimpleDataOutput(Marshalling.createByteOutput(new BufferedOutputStream(new FileOutputStream(file))))) {
+            IndexExternalizer.VARIABLE.writeData(output, version);
+            try (Marshaller marshaller = this.context.createMarshaller(version)) {
+                marshaller.start(output);
+                marshaller.writeObject(bean);
+                marshaller.finish();
+            }
+        } catch (Exception | Error e) {
+            file.delete();
+            throw e;
+        } finally {
+            setThreadContextClassLoader(loader);
+        }
+        File previous = this.files.put(id, file);
+        if (previous != null) {
+            previous.delete();
+        }
+    }
+
+    @Override
+    public V load(K id) throws Exception {
+        File file = this.files.remove(id);
+        if (file == null) return null;
+        ClassLoader loader = setThreadContextClassLoader(this.context.getClassLoader());
+        try (SimpleDataInput input = new SimpleDataInput(Marshalling.createByteInput(new BufferedInputStream(new FileInputStream(file))))) {
+            int version = IndexExternalizer.VARIABLE.readData(input);
+            try (Unmarshaller unmarshaller = this.context.createUnmarshaller(version)) {
+                unmarshaller.start(input);
+                @SuppressWarnings("unchecked")
+                V bean = (V) unmarshaller.readObject();
+                unmarshaller.finish();
+                return bean;
+            }
+        } finally {
+            setThreadContextClassLoader(loader);
+            file.delete();
+        }
+    }
+
+    @Override
+    public void remove(K id) {
+        File file = this.files.remove(id);
+        if (file != null) {
+            file.delete();
+        }
+    }
+
+    private void purge() {
+        File[] files = this.directory.listFiles();
+        if (files != null) {
+            for (File file : files) {
+                if (file.getName().endsWith(FILE_SUFFIX)) {
+                    file.delete();
+                }
+            }
+        }
+    }
+
+    private static ClassLoader setThreadContextClassLoader(ClassLoader loader) {
+        return (loader != null) ? WildFlySecurityManager.setCurrentContextClassLoaderPrivileged(loader) : null;
+    }
+}
@@ -0,0 +1,381 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2015, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.jboss.as.ejb3.cache.local;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Future;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.jboss.as.ejb3.cache.Cache;
+import org.jboss.as.ejb3.cache.Identifiable;
+import org.jboss.as.ejb3.cache.StatefulObjectFactory;
+import org.jboss.as.ejb3.component.stateful.StatefulTimeoutInfo;
+import org.jboss.as.ejb3.logging.EjbLogger;
+import org.jboss.as.server.ServerEnvironment;
+import org.jboss.ejb.client.Affinity;
+import org.jboss.ejb.client.NodeAffinity;
+import org.wildfly.clustering.ee.ReplayBuffer;
+import org.wildfly.clustering.ejb.BeanPassivationConfiguration;
+import org.wildfly.clustering.ejb.IdentifierFactory;
+import org.wildfly.clustering.ejb.PassivationListener;
+
+/**
+ * Non-clustered {@link Cache} implementation that bounds the number of beans held in memory.
+ * <p/>
+ * When the number of beans in memory exceeds the max-size of its passivation configuration, the least recently used idle
+ * beans are passivated to a local {@link BeanStore}, and are activated again on demand.
+ * Beans are passivated and activated while holding the lock of their entry only, so that the I/O of one bean never
+ * blocks access to another.
+ * Callers of {@link #get(Object)} and {@link #release(Identifiable)} never block on the least recently used order either:
+ * changes to the idle entries are recorded in a {@link ReplayBuffer}.
+ *
+ * @param <K> the cache key type
+ * @param <V> the cache value type
+ */
+public class LocalCache<K, V extends Identifiable<K>> implements Cache<K, V> {
+
+    private final ConcurrentMap<K, Entry<V>> entries = new ConcurrentHashMap<>();
+    // Idle entries whose bean is in memory, in least recently used order
+    private final ReplayBuffer<Map<K, Entry<V>>> idle = new ReplayBuffer<>(new LinkedHashMap<>());
+    private final AtomicInteger active = new AtomicInteger();
+    private final AtomicInteger passivated = new AtomicInteger();
+    private final StatefulObjectFactory<V> factory;
+    private final PassivationListener<V> passivationListener;
+    private final IdentifierFactory<K> identifierFactory;
+    private final BeanStore<K, V> store;
+    private final BeanPassivationConfiguration config;
+    private final ServerEnvironment environment;
+    private final ScheduledExecutorService executor;
+    // Stateful timeout in nanoseconds, or negative if beans never expire
+    private final long timeout;
+
+    public LocalCache(StatefulObjectFactory<V> factory, PassivationListener<V> passivationListener, IdentifierFactory<K> identifierFactory, BeanStore<K, V> store, BeanPassivationConfiguration config, StatefulTimeoutInfo timeout, ServerEnvironment environment, ScheduledExecutorService executor) {
+        this.factory = factory;
+        this.passivationListener = passivationListener;
+        this.identifierFactory = identifierFactory;
+        this.store = store;
+        this.config = config;
+        this.environment = environment;
+        this.executor = executor;
+        this.timeout = ((timeout != null) && (timeout.getValue() >= 0)) ? timeout.getTimeUnit().toNanos(timeout.getValue()) : -1;
+    }
+
+    @Override
+    public void start() {
+        this.store.start();
+    }
+
+    @Override
+    public void stop() {
+        for (Entry<V> entry : this.entries.values()) {
+            synchronized (entry) {
+                entry.removed = true;
+                entry.cancelExpiration();
+                if (entry.value != null) {
+                    this.factory.destroyInstance(entry.value);
+                }
+            }
+        }
+        this.entries.clear();
+        this.idle.reset(Map::clear);
+        this.active.set(0);
+        this.passivated.set(0);
+        // Beans that timeout while passivated are not required to receive their PreDestroy callback
+        this.store.stop();
+    }
+
+    @Override
+    public Affinity getStrictAffinity() {
+        return new NodeAffinity(this.environment.getNodeName());
+    }
+
+    @Override
+    public Affinity getWeakAffinity(K key) {
+        return Affinity.NONE;
+    }
+
+    @Override
+    public K createIdentifier() {
+        return this.identifierFactory.createIdentifier();
+    }
+
+    @Override
+    public V create() {
+        if (CURRENT_GROUP.get() != null) {
+            // An SFSB that uses a distributable cache cannot contain an SFSB that uses a local cache
+            throw EjbLogger.ROOT_LOGGER.incompatibleCaches();
+        }
+        V bean = this.factory.createInstance();
+        K id = bean.getId();
+        Entry<V> entry = new Entry<>(bean);
+        this.entries.put(id, entry);
+        this.active.incrementAndGet();
+        synchronized (entry) {
+            this.idle(id, entry);
+        }
+        this.passivateExcess();
+        return bean;
+    }
+
+    @Override
+    public void discard(V value) {
+        K id = value.getId();
+        Entry<V> entry = this.entries.remove(id);
+        if (entry != null) {
+            synchronized (entry) {
+                this.evict(id, entry);
+            }
+        }
+    }
+
+    @Override
+    public void remove(K key) {
+        Entry<V> entry = this.entries.remove(key);
+        if (entry != null) {
+            V bean = null;
+            synchronized (entry) {
+                try {
+                    // Activate a passivated bean, so that it receives its PreDestroy callback
+                    if (entry.value == null) {
+                        this.activate(key, entry);
+                    }
+                    bean = entry.value;
+                } finally {
+                    this.evict(key, entry);
+                }
+            }
+            this.factory.destroyInstance(bean);
+        }
+    }
+
+    @Override
+    public V get(K key) {
+        Entry<V> entry = this.entries.get(key);
+        if (entry == null) return null;
+        synchronized (entry) {
+            // Entry may have expired since we looked it up
+            if (entry.removed) return null;
+            if (entry.value == null) {
+                this.activate(key, entry);
+            }
+            if (entry.usage++ == 0) {
+                entry.cancelExpiration();
+                this.idle.add(idle -> idle.remove(key));
+            }
+            return entry.value;
+        }
+    }
+
+    @Override
+    public boolean contains(K key) {
+        return this.entries.containsKey(key);
+    }
+
+    @Override
+    public void release(V bean) {
+        K id = bean.getId();
+        Entry<V> entry = this.entries.get(id);
+        if (entry == null) return;
+        synchronized (entry) {
+            if (entry.removed || (entry.usage == 0) || (--entry.usage > 0)) return;
+            if (this.timeout == 0) {
+                // The EJB specification allows a 0 timeout, which means the bean is immediately eligible for removal.
+                // However, removing it directly is faster than scheduling it for immediate removal.
+                this.entries.remove(id, entry);
+                this.evict(id, entry);
+            } else {
+                if (this.timeout > 0) {
+                    entry.expirationFuture = this.executor.schedule(new ExpirationTask(id, entry, ++entry.generation), this.timeout, TimeUnit.NANOSECONDS);
+                }
+                this.idle(id, entry);
+                bean = null;
+            }
+        }
+        if (bean != null) {
+            this.factory.destroyInstance(bean);
+        } else {
+            this.passivateExcess();
+        }
+    }
+
+    @Override
+    public int getCacheSize() {
+        return this.active.get();
+    }
+
+    @Override
+    public int getPassivatedCount() {
+        return this.passivated.get();
+    }
+
+    @Override
+    public int getTotalSize() {
+        return this.entries.size();
+    }
+
+    /**
+     * Makes the specified entry the most recently used idle entry.
+     * Must be called while holding the lock of the entry, so that changes to the same entry are recorded in order.
+     */
+    private void idle(K id, Entry<V> entry) {
+        this.idle.add(idle -> idle.put(id, entry));
+    }
+
+    /**
+     * Removes the specified entry from this cache, without destroying its bean.
+     * Must be called while holding the lock of the entry.
+     */
+    private void evict(K id, Entry<V> entry) {
+        entry.removed = true;
+        entry.cancelExpiration();
+        this.idle.add(idle -> idle.remove(id));
+        if (entry.value != null) {
+            this.active.decrementAndGet();
+        } else {
+            this.passivated.decrementAndGet();
+            this.store.remove(id);
+        }
+    }
+
+    /**
+     * Passivates least recently used idle beans until the number of beans in memory no longer exceeds the max size.
+     * Beans that are in use are never passivated, so the max size can be exceeded temporarily.
+     */
+    private void passivateExcess() {
+        while (this.active.get() > this.config.getMaxSize()) {
+            // Recorded changes are replayed first, so that we see the current least recently used order
+            Map.Entry<K, Entry<V>> eldest = this.idle.apply(LocalCache::removeEldest);
+            if (eldest == null) break;
+            K id = eldest.getKey();
+            Entry<V> entry = eldest.getValue();
+            synchronized (entry) {
+                // Entry may have been used or removed since we removed it from the idle entries
+                if (!entry.removed && (entry.usage == 0) && (entry.value != null)) {
+                    this.passivate(id, entry);
+                }
+            }
+        }
+    }
+
+    private static <K, E> Map.Entry<K, E> removeEldest(Map<K, E> idle) {
+        Iterator<Map.Entry<K, E>> entries = idle.entrySet().iterator();
+        if (!entries.hasNext()) return null;
+        Map.Entry<K, E> eldest = entries.next();
+        entries.remove();
+        return eldest;
+    }
+
+    /**
+     * Must be called while holding the lock of the entry.
+     */
+    private void passivate(K id, Entry<V> entry) {
+        V bean = entry.value;
+        this.passivationListener.prePassivate(bean);
+        try {
+            this.store.store(id, bean);
+        } catch (Exception e) {
+            // Keep the bean in memory, but do not make it eligible for passivation again until its next release
+            this.passivationListener.postActivate(bean);
+            EjbLogger.ROOT_LOGGER.beanPassivationFailed(e, id);
+            return;
+        }
+        entry.value = null;
+        this.active.decrementAndGet();
+        this.passivated.incrementAndGet();
+    }
+
+    /**
+     * Must be called while holding the lock of the entry.
+     */
+    private void activate(K id, Entry<V> entry) {
+        V bean;
+        try {
+            bean = this.store.load(id);
+        } catch (Exception e) {
+            throw EjbLogger.ROOT_LOGGER.beanActivationFailed(id, e);
+        }
+        if (bean == null) {
+            throw EjbLogger.ROOT_LOGGER.beanActivationFailed(id, null);
+        }
+        this.passivationListener.postActivate(bean);
+        entry.value = bean;
+        this.passivated.decrementAndGet();
+        this.active.incrementAndGet();
+    }
+
+    class ExpirationTask implements Runnable {
+        private final K id;
+        private final Entry<V> entry;
+        private final int generation;
+
+        ExpirationTask(K id, Entry<V> entry, int generation) {
+            this.id = id;
+            this.entry = entry;
+            this.generation = generation;
+        }
+
+        @Override
+        public void run() {
+            V bean;
+            synchronized (this.entry) {
+                // Entry may have been used or removed since this task was scheduled, even if cancellation came too late
+                if (this.entry.removed || (this.entry.generation != this.generation)) return;
+                bean = this.entry.value;
+                LocalCache.this.entries.remove(this.id, this.entry);
+                LocalCache.this.evict(this.id, this.entry);
+            }
+            // A passivated bean is simply discarded, as beans that timeout while passivated need not receive PreDestroy
+            if (bean != null) {
+                LocalCache.this.factory.destroyInstance(bean);
+            }
+        }
+    }
+
+    static class Entry<V> {
+        // All fields are guarded by the entry's monitor
+        V value;
+        int usage = 0;
+        boolean removed = false;
+        Future<?> expirationFuture;
+        // Incremented whenever the expiration of this entry is scheduled or cancelled
+        int generation = 0;
+
+        Entry(V value) {
+            this.value = value;
+        }
+
+        void cancelExpiration() {
+            this.generation += 1;
+            Future<?> future = this.expirationFuture;
+            if (future != null) {
+                future.cancel(false);
+                this.expirationFuture = null;
+            }
+        }
+    }
+}
@@ -0,0 +1,93 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2015, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.jboss.as.ejb3.cache.local;
+
+import static java.security.AccessController.doPrivileged;
+
+import java.security.PrivilegedAction;
+import java.util.concurrent.ThreadFactory;
+
+import org.jboss.as.ejb3.cache.CacheFactory;
+import org.jboss.as.ejb3.cache.Identifiable;
+import org.jboss.as.ejb3.cache.distributable.DistributableCacheFactoryBuilderService;
+import org.jboss.as.ejb3.component.stateful.StatefulTimeoutInfo;
+import org.jboss.msc.service.AbstractService;
+import org.jboss.msc.service.ServiceBuilder;
+import org.jboss.msc.service.ServiceName;
+import org.jboss.msc.service.ServiceTarget;
+import org.jboss.threads.JBossThreadFactory;
+import org.wildfly.clustering.ejb.BeanContext;
+import org.wildfly.clustering.ejb.BeanPassivationConfiguration;
+import org.wildfly.clustering.service.concurrent.RemoveOnCancelScheduledExecutorServiceBuilder;
+
+/**
+ * Service that provides a {@link LocalCacheFactoryBuilder} for a local passivation store.
+ *
+ * @param <K> the cache key type
+ * @param <V> the cache value type
+ */
+public class LocalCacheFactoryBuilderService<K, V extends Identifiable<K>> extends AbstractService<LocalCacheFactoryBuilder<K, V>> implements LocalCacheFactoryBuilder<K, V> {
+
+    private static final ThreadFactory THREAD_FACTORY = doPrivileged(new PrivilegedAction<JBossThreadFactory>() {
+        public JBossThreadFactory run() {
+            return new JBossThreadFactory(new ThreadGroup(LocalCache.class.getSimpleName()), Boolean.FALSE, null, "%G - %t", null, null);
+        }
+    });
+
+    private final String name;
+    private final BeanPassivationConfiguration config;
+
+    public LocalCacheFactoryBuilderService(String name, BeanPassivationConfiguration config) {
+        this.name = name;
+        this.config = config;
+    }
+
+    public ServiceBuilder<LocalCacheFactoryBuilder<K, V>> build(ServiceTarget target) {
+        // All passivation stores share the same namespace, so that a cache can reference a passivation store of any type
+        return target.addService(DistributableCacheFactoryBuilderService.getServiceName(this.name), this);
+    }
+
+    @Override
+    public LocalCacheFactoryBuilder<K, V> getValue() {
+        return this;
+    }
+
+    @Override
+    public BeanPassivationConfiguration getConfiguration() {
+        return this.config;
+    }
+
+    @Override
+    public void installDeploymentUnitDependencies(ServiceTarget target, ServiceName deploymentUnitServiceName) {
+        new RemoveOnCancelScheduledExecutorServiceBuilder(LocalCacheFactoryService.getExpirationServiceName(deploymentUnitServiceName, this.name), THREAD_FACTORY).build(target).install();
+    }
+
+    @Override
+    public ServiceBuilder<? extends CacheFactory<K, V>> build(ServiceTarget target, ServiceName serviceName, BeanContext context, StatefulTimeoutInfo timeout) {
+        return LocalCacheFactoryService.build(this.name, target, serviceName, context, timeout, this.config);
+    }
+
+    @Override
+    public boolean supportsPassivation() {
+        return true;
+    }
+}
@@ -0,0 +1,103 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2015, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.jboss.as.ejb3.cache.local;
+
+import java.io.File;
+import java.util.concurrent.ScheduledExecutorService;
+
+import org.jboss.as.ejb3.cache.Cache;
+import org.jboss.as.ejb3.cache.CacheFactory;
+import org.jboss.as.ejb3.cache.Identifiable;
+import org.jboss.as.ejb3.cache.StatefulObjectFactory;
+import org.jboss.as.ejb3.component.stateful.MarshallingConfigurationRepositoryValue;
+import org.jboss.as.ejb3.component.stateful.StatefulTimeoutInfo;
+import org.jboss.as.server.ServerEnvironment;
+import org.jboss.as.server.ServerEnvironmentService;
+import org.jboss.msc.service.AbstractService;
+import org.jboss.msc.service.ServiceBuilder;
+import org.jboss.msc.service.ServiceName;
+import org.jboss.msc.service.ServiceTarget;
+import org.jboss.msc.value.InjectedValue;
+import org.wildfly.clustering.ejb.BeanContext;
+import org.wildfly.clustering.ejb.BeanPassivationConfiguration;
+import org.wildfly.clustering.ejb.IdentifierFactory;
+import org.wildfly.clustering.ejb.PassivationListener;
+import org.wildfly.clustering.marshalling.jboss.MarshallingConfigurationRepository;
+import org.wildfly.clustering.marshalling.jboss.MarshallingContext;
+import org.wildfly.clustering.marshalling.jboss.SimpleMarshallingContextFactory;
+
+/**
+ * Service that provides a {@link CacheFactory} for {@link LocalCache} instances.
+ * Passivated beans are stored beneath the data directory of the server, in a directory per passivation store and bean.
+ *
+ * @param <K> the cache key type
+ * @param <V> the cache value type
+ */
+public class LocalCacheFactoryService<K, V extends Identifiable<K>> extends AbstractService<CacheFactory<K, V>> implements CacheFactory<K, V> {
+
+    static ServiceName getExpirationServiceName(ServiceName deploymentUnitServiceName, String name) {
+        return deploymentUnitServiceName.append(name, "local-expiration");
+    }
+
+    public static <K, V extends Identifiable<K>> ServiceBuilder<CacheFactory<K, V>> build(String name, ServiceTarget target, ServiceName serviceName, BeanContext context, StatefulTimeoutInfo timeout, BeanPassivationConfiguration config) {
+        LocalCacheFactoryService<K, V> service = new LocalCacheFactoryService<>(name, context, timeout, config);
+        ServiceName deploymentUnitServiceName = context.getDeploymentUnitServiceName();
+        return target.addService(serviceName, service)
+                .addDependency(ServerEnvironmentService.SERVICE_NAME, ServerEnvironment.class, service.environment)
+                .addDependency(getExpirationServiceName(deploymentUnitServiceName, name), ScheduledExecutorService.class, service.executor)
+                .addDependency(MarshallingConfigurationRepositoryValue.getServiceName(deploymentUnitServiceName), MarshallingConfigurationRepository.class, service.repository)
+        ;
+    }
+
+    private final InjectedValue<ServerEnvironment> environment = new InjectedValue<>();
+    private final InjectedValue<ScheduledExecutorService> executor = new InjectedValue<>();
+    private final InjectedValue<MarshallingConfigurationRepository> repository = new InjectedValue<>();
+    private final String name;
+    private final BeanContext context;
+    private final StatefulTimeoutInfo timeout;
+    private final BeanPassivationConfiguration config;
+
+    private LocalCacheFactoryService(String name, BeanContext context, StatefulTimeoutInfo timeout, BeanPassivationConfiguration config) {
+        this.name = name;
+        this.context = context;
+        this.timeout = timeout;
+        this.config = config;
+    }
+
+    @Override
+    public CacheFactory<K, V> getValue() {
+        return this;
+    }
+
+    @Override
+    public Cache<K, V> createCache(IdentifierFactory<K> identifierFactory, StatefulObjectFactory<V> factory, PassivationListener<V> passivationListener) {
+        ServerEnvironment environment = this.environment.getValue();
+        MarshallingContext context = new SimpleMarshallingContextFactory().createMarshallingContext(this.repository.getValue(), this.context.getClassLoader());
+        File directory = new File(environment.getServerDataDir(), String.join(File.separator, "ejb3", "passivation", this.name, toFileName(this.context.getDeploymentUnitServiceName().getCanonicalName()), toFileName(this.context.getBeanName())));
+        BeanStore<K, V> store = new FileBeanStore<>(directory, context);
+        return new LocalCache<>(factory, passivationListener, identifierFactory, store, this.config, this.timeout, environment, this.executor.getValue());
+    }
+
+    private static String toFileName(String name) {
+        return name.replaceAll("[^A-Za-z0-9._-]", "_");
+    }
+}
@@ -28,7 +28,8 @@ import java.util.concurrent.ExecutionException;
 import java.util.concurrent.Future;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.TimeUnit;
-import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicIntegerFieldUpdater;
+import java.util.concurrent.atomic.AtomicReferenceArray;
 
 import org.jboss.as.ejb3.logging.EjbLogger;
 import org.jboss.as.ejb3.cache.Cache;
@@ -42,6 +43,12 @@ import org.wildfly.clustering.ejb.IdentifierFactory;
 
 /**
  * Simple {@link Cache} implementation using in-memory storage and eager expiration.
+ * <p/>
+ * Idle beans are expired via a hashed timing wheel, advanced by a single periodic task, rather than by scheduling a task
+ * per released bean. Each wheel slot is an intrusive stack of entries, so releasing a bean only records its deadline and,
+ * if the bean is not already in the wheel, pushes it onto a slot. Neither operation allocates.
+ * Entries whose deadline moved since they were pushed are re-bucketed lazily, when their slot is visited.
+ * Expiration may therefore be delayed by up to one tick, i.e. 1/{@value #TICKS_PER_TIMEOUT} of the stateful timeout.
  *
  * @author Paul Ferraro
  *
@@ -50,33 +57,52 @@ import org.wildfly.clustering.ejb.IdentifierFactory;
  */
 public class SimpleCache<K, V extends Identifiable<K>> implements Cache<K, V> {
 
-    final Map<K, Future<?>> expirationFutures = new ConcurrentHashMap<>();
-    private final ConcurrentMap<K, Entry<V>> entries = new ConcurrentHashMap<>();
+    static final int TICKS_PER_TIMEOUT = 64;
+    private static final long MIN_TICK_NANOS = TimeUnit.MILLISECONDS.toNanos(1);
+    private static final long MAX_TICK_NANOS = TimeUnit.SECONDS.toNanos(1);
+    private static final int MAX_SLOTS = 4096;
+
+    private final ConcurrentMap<K, Entry<K, V>> entries = new ConcurrentHashMap<>();
     private final StatefulObjectFactory<V> factory;
     private final IdentifierFactory<K> identifierFactory;
-    private final StatefulTimeoutInfo timeout;
     private final ServerEnvironment environment;
     private final ScheduledExecutorService executor;
+    // Stateful timeout in nanoseconds, or negative if beans never expire
+    private final long timeout;
+    private final long tick;
+    private final AtomicReferenceArray<Entry<K, V>> wheel;
+    private final int mask;
+    private final long origin = System.nanoTime();
+    // The last tick processed by the expiration task
+    private volatile long processedTick = 0;
+    private volatile Future<?> expirationFuture;
 
     public SimpleCache(StatefulObjectFactory<V> factory, IdentifierFactory<K> identifierFactory, StatefulTimeoutInfo timeout, ServerEnvironment environment, ScheduledExecutorService executor) {
         this.factory = factory;
         this.identifierFactory = identifierFactory;
-        this.timeout = timeout;
         this.environment = environment;
         this.executor = executor;
+        this.timeout = ((timeout != null) && (timeout.getValue() >= 0)) ? timeout.getTimeUnit().toNanos(timeout.getValue()) : -1;
+        this.tick = Math.min(Math.max(this.timeout / TICKS_PER_TIMEOUT, MIN_TICK_NANOS), MAX_TICK_NANOS);
+        // The wheel spans the timeout, so that each idle bean is typically visited at most twice before it expires
+        long slots = (this.timeout > 0) ? Math.min((this.timeout / this.tick) + 2, MAX_SLOTS) : 1;
+        int size = Integer.highestOneBit((int) slots - 1) << 1;
+        this.wheel = new AtomicReferenceArray<>(Math.max(size, 1));
+        this.mask = this.wheel.length() - 1;
     }
 
     @Override
     public void start() {
-        // Do nothing
+        if (this.timeout > 0) {
+            this.expirationFuture = this.executor.scheduleWithFixedDelay(new ExpirationTask(), this.tick, this.tick, TimeUnit.NANOSECONDS);
+        }
     }
 
     @Override
     public void stop() {
-        for (Future<?> future: this.expirationFutures.values()) {
-            future.cancel(true);
-        }
-        for (Future<?> future: this.expirationFutures.values()) {
+        Future<?> future = this.expirationFuture;
+        if (future != null) {
+            future.cancel(false);
             if (!future.isCancelled() && !future.isDone()) {
                 try {
                     future.get();
@@ -86,12 +112,15 @@ public class SimpleCache<K, V extends Identifiable<K>> implements Cache<K, V> {
                     // Ignore
                 }
             }
+            this.expirationFuture = null;
         }
-        for(Map.Entry<K, Entry<V>> entry : entries.entrySet()) {
+        for (Map.Entry<K, Entry<K, V>> entry : this.entries.entrySet()) {
             this.factory.destroyInstance(entry.getValue().getValue());
         }
-        this.expirationFutures.clear();
         this.entries.clear();
+        for (int i = 0; i < this.wheel.length(); ++i) {
+            this.wheel.set(i, null);
+        }
     }
 
     @Override
@@ -116,7 +145,7 @@ public class SimpleCache<K, V extends Identifiable<K>> implements Cache<K, V> {
             throw EjbLogger.ROOT_LOGGER.incompatibleCaches();
         }
         V bean = this.factory.createInstance();
-        this.entries.put(bean.getId(), new Entry<>(bean));
+        this.entries.put(bean.getId(), new Entry<>(bean.getId(), bean));
         return bean;
     }
 
@@ -127,7 +156,7 @@ public class SimpleCache<K, V extends Identifiable<K>> implements Cache<K, V> {
 
     @Override
     public void remove(K key) {
-        Entry<V> entry = this.entries.remove(key);
+        Entry<K, V> entry = this.entries.remove(key);
         if (entry != null) {
             this.factory.destroyInstance(entry.getValue());
         }
@@ -135,13 +164,9 @@ public class SimpleCache<K, V extends Identifiable<K>> implements Cache<K, V> {
 
     @Override
     public V get(K key) {
-        Future<?> future = this.expirationFutures.get(key);
-        if (future != null) {
-            future.cancel(true);
-        }
-        Entry<V> entry = this.entries.get(key);
-        if (entry == null) return null;
-        entry.use();
+        Entry<K, V> entry = this.entries.get(key);
+        // An entry cannot be used once it started expiring
+        if ((entry == null) || !entry.use()) return null;
         return entry.getValue();
     }
 
@@ -153,22 +178,19 @@ public class SimpleCache<K, V extends Identifiable<K>> implements Cache<K, V> {
     @Override
     public void release(V bean) {
         K id = bean.getId();
-        Entry<V> entry = this.entries.get(id);
-        if ((entry != null) && entry.done()) {
-            if (this.timeout != null) {
-                long value = this.timeout.getValue();
-                if (value > 0) {
-                    TimeUnit unit = this.timeout.getTimeUnit();
-                    RemoveTask task = new RemoveTask(id);
-                    // Make sure the expiration future map insertion happens before map removal (during task execution).
-                    synchronized (task) {
-                        this.expirationFutures.put(id, this.executor.schedule(task, value, unit));
-                    }
-                } else if (value == 0) {
-                    // The EJB specification allows a 0 timeout, which means the bean is immediately eligible for removal.
-                    // However, removing it directly is faster than scheduling it for immediate removal.
-                    remove(id);
-                }
+        Entry<K, V> entry = this.entries.get(id);
+        if (entry == null) return;
+        if (this.timeout > 0) {
+            // Set the deadline before the entry becomes idle, so that the expiration task never sees an idle entry with a stale deadline
+            entry.deadline = System.nanoTime() + this.timeout;
+        }
+        if (entry.done()) {
+            if (this.timeout > 0) {
+                this.schedule(entry);
+            } else if (this.timeout == 0) {
+                // The EJB specification allows a 0 timeout, which means the bean is immediately eligible for removal.
+                // However, removing it directly is faster than scheduling it for immediate removal.
+                remove(id);
             }
         }
     }
@@ -188,36 +210,142 @@ public class SimpleCache<K, V extends Identifiable<K>> implements Cache<K, V> {
         return this.getCacheSize();
     }
 
-    class RemoveTask implements Runnable {
-        private final K key;
+    private long tickOf(long nanoTime) {
+        return (nanoTime - this.origin) / this.tick;
+    }
 
-        RemoveTask(K key) {
-            this.key = key;
+    /**
+     * Pushes the specified entry onto the wheel slot of its deadline, unless the entry is already in the wheel.
+     */
+    private void schedule(Entry<K, V> entry) {
+        if (entry.schedule()) {
+            this.push(entry);
+        }
+    }
+
+    private void push(Entry<K, V> entry) {
+        // Deadlines that are already due are processed by the next tick
+        long tick = Math.max(this.tickOf(entry.deadline), this.processedTick + 1);
+        int slot = (int) (tick & this.mask);
+        Entry<K, V> head;
+        do {
+            head = this.wheel.get(slot);
+            entry.next = head;
+        } while (!this.wheel.compareAndSet(slot, head, entry));
+    }
+
+    /**
+     * Advances the wheel to the current time, expiring idle entries whose deadline elapsed.
+     */
+    void advance() {
+        long now = System.nanoTime();
+        long currentTick = this.tickOf(now);
+        // If we fell behind by more than a revolution, visiting each slot once suffices
+        for (long tick = Math.max(this.processedTick + 1, currentTick - this.mask); tick <= currentTick; ++tick) {
+            this.processedTick = tick;
+            Entry<K, V> entry = this.wheel.getAndSet((int) (tick & this.mask), null);
+            while (entry != null) {
+                Entry<K, V> next = entry.next;
+                entry.next = null;
+                this.process(entry, now);
+                entry = next;
+            }
+        }
+    }
+
+    private void process(Entry<K, V> entry, long now) {
+        // Leave the wheel before inspecting the entry, so that a concurrent release either sees the entry outside the wheel, or we see its new deadline
+        entry.unschedule();
+        if (!entry.isIdle()) {
+            // Entry will be rescheduled when released
+            return;
         }
+        if (entry.deadline - now <= 0) {
+            if (entry.expire()) {
+                // Entry cannot be used or released while expiring, so its deadline is now stable
+                if (entry.deadline - now <= 0) {
+                    if (this.entries.remove(entry.getKey(), entry)) {
+                        this.factory.destroyInstance(entry.getValue());
+                    }
+                    return;
+                }
+                entry.unexpire();
+            } else {
+                // Entry was concurrently used
+                return;
+            }
+        }
+        // Entry was touched since it was scheduled, move it to the slot of its new deadline
+        this.schedule(entry);
+    }
 
+    class ExpirationTask implements Runnable {
         @Override
-        public synchronized void run() {
-            if (!Thread.currentThread().isInterrupted()) {
-                SimpleCache.this.remove(this.key);
+        public void run() {
+            try {
+                SimpleCache.this.advance();
+            } catch (Throwable e) {
+                // Never let an exception cancel the periodic expiration task
+                EjbLogger.ROOT_LOGGER.debug(e.getLocalizedMessage(), e);
             }
-            SimpleCache.this.expirationFutures.remove(this.key);
         }
     }
 
-    static class Entry<V> {
+    static class Entry<K, V> {
+        private static final int EXPIRING = -1;
+        @SuppressWarnings("rawtypes")
+        private static final AtomicIntegerFieldUpdater<Entry> USAGE = AtomicIntegerFieldUpdater.newUpdater(Entry.class, "usage");
+        @SuppressWarnings("rawtypes")
+        private static final AtomicIntegerFieldUpdater<Entry> SCHEDULED = AtomicIntegerFieldUpdater.newUpdater(Entry.class, "scheduled");
+
+        private final K key;
         private final V value;
-        private final AtomicInteger usage = new AtomicInteger();
+        private volatile int usage = 0;
+        private volatile int scheduled = 0;
+        volatile long deadline;
+        // Next entry within the same wheel slot, published via the slot CAS
+        Entry<K, V> next;
 
-        Entry(V value) {
+        Entry(K key, V value) {
+            this.key = key;
             this.value = value;
         }
 
-        void use() {
-            this.usage.incrementAndGet();
+        boolean use() {
+            for (int usage = this.usage; usage != EXPIRING; usage = this.usage) {
+                if (USAGE.compareAndSet(this, usage, usage + 1)) {
+                    return true;
+                }
+            }
+            return false;
         }
 
         boolean done() {
-            return this.usage.decrementAndGet() == 0;
+            return USAGE.decrementAndGet(this) == 0;
+        }
+
+        boolean isIdle() {
+            return this.usage == 0;
+        }
+
+        boolean expire() {
+            return USAGE.compareAndSet(this, 0, EXPIRING);
+        }
+
+        void unexpire() {
+            this.usage = 0;
+        }
+
+        boolean schedule() {
+            return SCHEDULED.compareAndSet(this, 0, 1);
+        }
+
+        void unschedule() {
+            this.scheduled = 0;
+        }
+
+        K getKey() {
+            return this.key;
         }
 
         V getValue() {
@@ -77,6 +77,7 @@ import org.jboss.as.ejb3.deployment.ApplicationExceptions;
 import org.jboss.as.ejb3.deployment.EjbDeploymentAttachmentKeys;
 import org.jboss.as.ejb3.deployment.EjbJarDescription;
 import org.jboss.as.ejb3.deployment.ModuleDeployment;
+import org.jboss.as.ejb3.remote.CloningPlanViewConfigurator;
 import org.jboss.as.ejb3.remote.CompressionHintViewConfigurator;
 import org.jboss.as.ejb3.remote.EJBRemoteConnectorService;
 import org.jboss.as.ejb3.remote.EJBRemoteTransactionsRepository;
@@ -469,6 +470,8 @@ public abstract class EJBComponentDescription extends ComponentDescription {
             }
             // add the remote tx propagating interceptor
             view.getConfigurators().add(new EJBRemoteTransactionsViewConfigurator());
+            // classify the parameter and return types for local invocations via the remote view
+            view.getConfigurators().add(CloningPlanViewConfigurator.INSTANCE);
         }
 
     }
@@ -0,0 +1,100 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2015, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.jboss.as.ejb3.component.pool;
+
+import java.util.concurrent.TimeUnit;
+
+import org.jboss.as.ejb3.pool.Pool;
+import org.jboss.as.ejb3.pool.StatelessObjectFactory;
+import org.jboss.as.ejb3.pool.adaptive.AdaptivePool;
+
+/**
+ * Configuration of an {@link AdaptivePool}, whose maximum size adapts at runtime between a floor and a ceiling.
+ */
+public class AdaptivePoolConfig extends PoolConfig {
+
+    public static final int DEFAULT_MIN_POOL_SIZE = 1;
+
+    private volatile int minPoolSize;
+
+    private volatile int maxPoolSize;
+
+    private volatile TimeUnit timeoutUnit;
+
+    private volatile long timeout;
+
+    public AdaptivePoolConfig(final String poolName, int minSize, int maxSize, long timeout, TimeUnit timeUnit) {
+        super(poolName);
+        this.minPoolSize = minSize;
+        this.maxPoolSize = maxSize;
+        this.timeout = timeout;
+        this.timeoutUnit = timeUnit;
+    }
+
+    @Override
+    public <T> Pool<T> createPool(final StatelessObjectFactory<T> statelessObjectFactory) {
+        return new AdaptivePool<T>(statelessObjectFactory, this.minPoolSize, this.maxPoolSize, this.timeout, this.timeoutUnit);
+    }
+
+    public int getMinPoolSize() {
+        return minPoolSize;
+    }
+
+    public void setMinPoolSize(int minPoolSize) {
+        this.minPoolSize = minPoolSize;
+    }
+
+    public int getMaxPoolSize() {
+        return maxPoolSize;
+    }
+
+    public void setMaxPoolSize(int maxPoolSize) {
+        this.maxPoolSize = maxPoolSize;
+    }
+
+    public TimeUnit getTimeoutUnit() {
+        return timeoutUnit;
+    }
+
+    public void setTimeoutUnit(TimeUnit timeoutUnit) {
+        this.timeoutUnit = timeoutUnit;
+    }
+
+    public long getTimeout() {
+        return timeout;
+    }
+
+    public void setTimeout(long timeout) {
+        this.timeout = timeout;
+    }
+
+    @Override
+    public String toString() {
+        return "AdaptivePoolConfig{" +
+                "name=" + this.poolName +
+                ", minPoolSize=" + minPoolSize +
+                ", maxPoolSize=" + maxPoolSize +
+                ", timeoutUnit=" + timeoutUnit +
+                ", timeout=" + timeout +
+                '}';
+    }
+}
@@ -157,6 +157,17 @@ public class DeploymentRepository implements Service<DeploymentRepository> {
         return modules;
     }
 
+    /**
+     * Returns the deployment with the specified identifier, if it is in a started state.
+     * Unlike {@link #getStartedModules()}, this does not copy the deployments.
+     * @param identifier a deployment identifier
+     * @return The started deployment, or null if no such deployment exists or it is not yet started
+     */
+    public ModuleDeployment getStartedModule(DeploymentModuleIdentifier identifier) {
+        final DeploymentHolder holder = this.modules.get(identifier);
+        return (holder != null && holder.started) ? holder.deployment : null;
+    }
+
     private class DeploymentHolder {
         final ModuleDeployment deployment;
         volatile boolean started = false;
@@ -3111,4 +3111,37 @@ public interface EjbLogger extends BasicLogger {
     @LogMessage(level = WARN)
     @Message(id = 484, value = "Could not send a cluster removal message for cluster: (%s) to the client on channel %s")
     void couldNotSendClusterRemovalMessage(@Cause Throwable cause, Group group, Channel channel);
+
+    @Message(id = 485, value = "The min-pool-size (%2$d) of pool %1$s must not exceed its max-pool-size (%3$d)")
+    OperationFailedException invalidPoolSizeBounds(String name, int minSize, int maxSize);
+
+    @LogMessage(level = WARN)
+    @Message(id = 486, value = "Failed to passivate %s, it will remain in memory")
+    void beanPassivationFailed(@Cause Throwable cause, Object id);
+
+    @Message(id = 487, value = "Failed to activate %s")
+    RuntimeException beanActivationFailed(Object id, @Cause Throwable cause);
+
+    @Message(id = 488, value = "Failed to create passivation directory: %s")
+    IllegalStateException beanPassivationDirectoryCreationFailed(File directory);
+
+    @LogMessage(level = WARN)
+    @Message(id = 489, value = "Timer journal %s is truncated or corrupt after %d bytes, the remainder of the segment will be ignored")
+    void timerJournalTruncated(File segment, long position);
+
+    @LogMessage(level = INFO)
+    @Message(id = 490, value = "Migrated %d persistent timers of %s from %s into the timer journal")
+    void timersMigratedToJournal(int count, String timedObjectId, File directory);
+
+    @LogMessage(level = WARN)
+    @Message(id = 491, value = "Could not delete %s, timers removed since it was written may be restored on the next start")
+    void timerStoreFileNotDeleted(File file);
+
+    @LogMessage(level = ERROR)
+    @Message(id = 492, value = "Failed to dispatch the timeout of timer %s")
+    void timerSchedulerTaskFailed(@Cause Throwable cause, Object timerId);
+
+    @LogMessage(level = ERROR)
+    @Message(id = 493, value = "Failed to read method invocation %d on channel %s")
+    void failedToReadMethodInvocation(@Cause Throwable cause, short invocationId, Channel channel);
 }
@@ -0,0 +1,362 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2015, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.jboss.as.ejb3.pool.adaptive;
+
+import static org.jboss.as.ejb3.logging.EjbLogger.ROOT_LOGGER;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.Deque;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.jboss.as.ejb3.logging.EjbLogger;
+import org.jboss.as.ejb3.pool.AbstractPool;
+import org.jboss.as.ejb3.pool.StatelessObjectFactory;
+
+/**
+ * A pool whose maximum size adapts at runtime, between a floor and a ceiling, to the observed cost of waiting for an
+ * instance relative to the cost of creating one.
+ * <p/>
+ * The pool starts at its configured maximum size, unless an initial size is given, so that a burst on a cold pool does
+ * not have to wait for it to grow. Sizing is re-evaluated at most once per evaluation interval, piggy-backing on
+ * {@link #get()}, including by callers that are waiting for an instance, so no additional thread is required. The pool
+ * grows by the number of callers still waiting, or when a significant share of acquisitions had to wait or the mean
+ * wait exceeds the mean instance creation time, and shrinks when no acquisition waited and more than half of the
+ * permits were unused. Surplus idle instances are destroyed when the pool shrinks.
+ */
+public class AdaptivePool<T> extends AbstractPool<T> {
+
+    public static final long DEFAULT_EVALUATION_INTERVAL = TimeUnit.SECONDS.toNanos(1);
+
+    /**
+     * Number of resize events retained for management purposes.
+     */
+    private static final int RETAINED_RESIZE_EVENTS = 16;
+    /**
+     * Grow when at least 1 in this many acquisitions had to wait.
+     */
+    private static final int WAIT_RATIO_THRESHOLD = 10;
+    /**
+     * Shortest time a caller waits for an instance before re-evaluating the size of the pool.
+     */
+    private static final long MIN_WAIT_SLICE = TimeUnit.MILLISECONDS.toNanos(1);
+
+    private final ResizableSemaphore semaphore;
+    private final Queue<T> pool = new ConcurrentLinkedQueue<T>();
+    private final int minSize;
+    private final int maxSize;
+    private final long timeout;
+    private final TimeUnit timeUnit;
+    private final long evaluationInterval;
+
+    private volatile int currentMaxSize;
+
+    private final WaitHistogram waits = new WaitHistogram();
+    private final LongAdder windowAcquisitions = new LongAdder();
+    private final LongAdder windowWaits = new LongAdder();
+    private final LongAdder windowWaitNanos = new LongAdder();
+    private final LongAdder creationNanos = new LongAdder();
+    private final AtomicLong nextEvaluation;
+    private final AtomicLong resizeCount = new AtomicLong(0);
+    // Guarded by this
+    private final Deque<ResizeEvent> resizeEvents = new ArrayDeque<ResizeEvent>(RETAINED_RESIZE_EVENTS);
+
+    public AdaptivePool(StatelessObjectFactory<T> factory, int minSize, int maxSize, long timeout, TimeUnit timeUnit) {
+        this(factory, minSize, maxSize, timeout, timeUnit, DEFAULT_EVALUATION_INTERVAL);
+    }
+
+    public AdaptivePool(StatelessObjectFactory<T> factory, int minSize, int maxSize, long timeout, TimeUnit timeUnit, long evaluationInterval) {
+        this(factory, minSize, maxSize, maxSize, timeout, timeUnit, evaluationInterval);
+    }
+
+    public AdaptivePool(StatelessObjectFactory<T> factory, int minSize, int maxSize, int initialSize, long timeout, TimeUnit timeUnit, long evaluationInterval) {
+        super(factory);
+        this.minSize = Math.max(1, minSize);
+        this.maxSize = Math.max(this.minSize, maxSize);
+        this.currentMaxSize = Math.min(Math.max(initialSize, this.minSize), this.maxSize);
+        this.semaphore = new ResizableSemaphore(this.currentMaxSize);
+        this.timeout = timeout;
+        this.timeUnit = timeUnit;
+        this.evaluationInterval = evaluationInterval;
+        this.nextEvaluation = new AtomicLong(System.nanoTime() + evaluationInterval);
+    }
+
+    @Override
+    public void discard(T ctx) {
+        if (ROOT_LOGGER.isTraceEnabled()) {
+            ROOT_LOGGER.tracef("Discard instance %s#%s", this, ctx);
+        }
+
+        this.semaphore.release();
+
+        // Let the super do any other remove stuff
+        super.doRemove(ctx);
+    }
+
+    @Override
+    public int getCurrentSize() {
+        return this.getCreateCount() - this.getRemoveCount();
+    }
+
+    @Override
+    public int getAvailableCount() {
+        return Math.max(0, this.semaphore.availablePermits());
+    }
+
+    /**
+     * Returns the current, adaptive, maximum size of this pool.
+     */
+    @Override
+    public int getMaxSize() {
+        return this.currentMaxSize;
+    }
+
+    /**
+     * Overrides the current maximum size of this pool, bounded by the configured floor and ceiling.
+     * Subsequent evaluations will continue to adapt the size from this value.
+     */
+    @Override
+    public void setMaxSize(int maxSize) {
+        this.resize(Math.min(Math.max(maxSize, this.minSize), this.maxSize));
+    }
+
+    public int getMinSize() {
+        return this.minSize;
+    }
+
+    public int getMaxSizeCeiling() {
+        return this.maxSize;
+    }
+
+    public WaitHistogram getWaitHistogram() {
+        return this.waits;
+    }
+
+    public long getResizeCount() {
+        return this.resizeCount.get();
+    }
+
+    public synchronized List<ResizeEvent> getResizeEvents() {
+        return new ArrayList<ResizeEvent>(this.resizeEvents);
+    }
+
+    @Override
+    public T get() {
+        this.windowAcquisitions.increment();
+        if (!this.semaphore.tryAcquire()) {
+            long start = System.nanoTime();
+            long deadline = start + this.timeUnit.toNanos(this.timeout);
+            long slice = Math.max(this.evaluationInterval, MIN_WAIT_SLICE);
+            try {
+                // Wait in slices of the evaluation interval, so that the pool can grow while its callers are waiting
+                boolean acquired = false;
+                while (!acquired) {
+                    this.evaluate(true);
+                    long remaining = deadline - System.nanoTime();
+                    if (remaining <= 0) {
+                        throw EjbLogger.ROOT_LOGGER.failedToAcquirePermit(this.timeout, this.timeUnit);
+                    }
+                    acquired = this.semaphore.tryAcquire(Math.min(remaining, slice), TimeUnit.NANOSECONDS);
+                }
+            } catch (InterruptedException e) {
+                throw EjbLogger.ROOT_LOGGER.acquireSemaphoreInterrupted();
+            } finally {
+                long wait = System.nanoTime() - start;
+                this.waits.record(wait);
+                this.windowWaits.increment();
+                this.windowWaitNanos.add(wait);
+            }
+        } else {
+            // A caller that waited has already evaluated the size of the pool
+            this.evaluate(false);
+        }
+
+        T bean = this.pool.poll();
+        if (bean != null) {
+            return bean;
+        }
+
+        try {
+            // Pool is empty, create an instance
+            long start = System.nanoTime();
+            bean = this.create();
+            this.creationNanos.add(System.nanoTime() - start);
+        } finally {
+            if (bean == null) {
+                this.semaphore.release();
+            }
+        }
+        return bean;
+    }
+
+    @Override
+    public void release(T obj) {
+        if (ROOT_LOGGER.isTraceEnabled()) {
+            ROOT_LOGGER.tracef("%s/%s Free instance: %s", this.getAvailableCount(), this.currentMaxSize, this);
+        }
+
+        if (this.getCurrentSize() > this.currentMaxSize) {
+            // The pool shrank while this instance was in use
+            this.destroy(obj);
+        } else {
+            this.pool.add(obj);
+        }
+
+        this.semaphore.release();
+    }
+
+    @Override
+    @Deprecated
+    public void remove(T ctx) {
+        if (ROOT_LOGGER.isTraceEnabled()) {
+            ROOT_LOGGER.tracef("Removing instance: %s#%s", this, ctx);
+        }
+
+        this.semaphore.release();
+        // let the super do the other remove stuff
+        super.doRemove(ctx);
+    }
+
+    @Override
+    public void start() {
+        // Nothing to start
+    }
+
+    @Override
+    public void stop() {
+        for (T obj = this.pool.poll(); obj != null; obj = this.pool.poll()) {
+            this.destroy(obj);
+        }
+    }
+
+    /**
+     * Re-evaluates the size of this pool, if the evaluation interval has elapsed and no other thread beat us to it.
+     * @param waiting whether the calling thread is itself waiting for an instance
+     */
+    private void evaluate(boolean waiting) {
+        long now = System.nanoTime();
+        long next = this.nextEvaluation.get();
+        if ((now - next < 0) || !this.nextEvaluation.compareAndSet(next, now + this.evaluationInterval)) {
+            return;
+        }
+        long acquisitions = this.windowAcquisitions.sumThenReset();
+        long waits = this.windowWaits.sumThenReset();
+        long waitNanos = this.windowWaitNanos.sumThenReset();
+        int current = this.currentMaxSize;
+        int backlog = this.semaphore.getQueueLength() + (waiting ? 1 : 0);
+        if (backlog > 0) {
+            // Callers are waiting right now, grow by as many instances as there are callers
+            this.resize((int) Math.min((long) current + backlog, this.maxSize));
+        } else if (waits > 0) {
+            long meanWait = waitNanos / waits;
+            int created = this.getCreateCount();
+            long meanCreation = (created > 0) ? this.creationNanos.sum() / created : 0;
+            // Only worth growing if waiting for an instance is frequent, or more costly than creating one
+            if ((waits * WAIT_RATIO_THRESHOLD >= acquisitions) || (meanWait > meanCreation)) {
+                this.resize(Math.min(current + Math.max(1, current / 4), this.maxSize));
+            }
+        } else if (this.semaphore.availablePermits() > current / 2) {
+            this.resize(Math.max(current - Math.max(1, current / 8), this.minSize));
+        }
+    }
+
+    private synchronized void resize(int newMaxSize) {
+        int oldMaxSize = this.currentMaxSize;
+        if (newMaxSize == oldMaxSize) return;
+
+        if (newMaxSize > oldMaxSize) {
+            this.semaphore.release(newMaxSize - oldMaxSize);
+        } else {
+            this.semaphore.reducePermits(oldMaxSize - newMaxSize);
+        }
+        this.currentMaxSize = newMaxSize;
+
+        // Destroy idle instances in excess of the new size
+        for (int excess = this.getCurrentSize() - newMaxSize; excess > 0; --excess) {
+            T obj = this.pool.poll();
+            if (obj == null) break;
+            this.destroy(obj);
+        }
+
+        this.resizeCount.incrementAndGet();
+        if (this.resizeEvents.size() == RETAINED_RESIZE_EVENTS) {
+            this.resizeEvents.removeFirst();
+        }
+        this.resizeEvents.addLast(new ResizeEvent(oldMaxSize, newMaxSize));
+        if (ROOT_LOGGER.isDebugEnabled()) {
+            ROOT_LOGGER.debugf("Resized pool %s from %d to %d", this, oldMaxSize, newMaxSize);
+        }
+    }
+
+    /**
+     * Records a change of the maximum size of the pool.
+     */
+    public static class ResizeEvent {
+        private final long timestamp = System.currentTimeMillis();
+        private final int oldSize;
+        private final int newSize;
+
+        ResizeEvent(int oldSize, int newSize) {
+            this.oldSize = oldSize;
+            this.newSize = newSize;
+        }
+
+        public long getTimestamp() {
+            return this.timestamp;
+        }
+
+        public int getOldSize() {
+            return this.oldSize;
+        }
+
+        public int getNewSize() {
+            return this.newSize;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("%s: %d -> %d", new Date(this.timestamp), this.oldSize, this.newSize);
+        }
+    }
+
+    /**
+     * Exposes {@link Semaphore#reducePermits(int)}, so that the number of permits can shrink with the pool.
+     */
+    @SuppressWarnings("serial")
+    private static class ResizableSemaphore extends Semaphore {
+        ResizableSemaphore(int permits) {
+            super(permits, false);
+        }
+
+        @Override
+        protected void reducePermits(int reduction) {
+            super.reducePermits(reduction);
+        }
+    }
+}
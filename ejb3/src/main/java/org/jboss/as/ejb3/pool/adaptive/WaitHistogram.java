@@ -0,0 +1,78 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2015, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.jboss.as.ejb3.pool.adaptive;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Histogram of the time spent waiting for a pooled instance, using power of 2 millisecond buckets. Only acquisitions
+ * that could not obtain an instance straight away are recorded.
+ * Recording is a single {@link LongAdder} increment, so it adds no contention between waiting callers.
+ */
+public class WaitHistogram {
+
+    /**
+     * Number of power of 2 buckets, the last covering waits of 2^(BUCKETS - 2) ms or more (~65s).
+     */
+    static final int BUCKETS = 18;
+
+    private final LongAdder[] buckets = new LongAdder[BUCKETS];
+
+    public WaitHistogram() {
+        for (int i = 0; i < BUCKETS; ++i) {
+            this.buckets[i] = new LongAdder();
+        }
+    }
+
+    /**
+     * Records a wait of the specified duration.
+     * @param nanos the wait time in nanoseconds
+     */
+    public void record(long nanos) {
+        this.buckets[bucket(TimeUnit.NANOSECONDS.toMillis(nanos))].increment();
+    }
+
+    /**
+     * Returns the number of waits recorded per bucket, keyed by a description of the bucket's range.
+     * @return an ordered map of bucket description to count
+     */
+    public Map<String, Long> getCounts() {
+        Map<String, Long> counts = new LinkedHashMap<>();
+        counts.put("<1ms", this.buckets[0].sum());
+        for (int i = 1; i < BUCKETS - 1; ++i) {
+            counts.put(String.format("<%dms", 1L << i), this.buckets[i].sum());
+        }
+        counts.put(String.format(">=%dms", 1L << (BUCKETS - 2)), this.buckets[BUCKETS - 1].sum());
+        return counts;
+    }
+
+    static int bucket(long millis) {
+        if (millis <= 0) {
+            return 0;
+        }
+        // Bucket i (i > 0) covers [2^(i-1), 2^i) ms
+        return Math.min(64 - Long.numberOfLeadingZeros(millis), BUCKETS - 1);
+    }
+}
@@ -0,0 +1,260 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2015, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.jboss.as.ejb3.pool.striped;
+
+import static org.jboss.as.ejb3.logging.EjbLogger.ROOT_LOGGER;
+
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+
+import org.jboss.as.ejb3.logging.EjbLogger;
+import org.jboss.as.ejb3.pool.AbstractPool;
+import org.jboss.as.ejb3.pool.StatelessObjectFactory;
+
+/**
+ * A pool with a maximum size, like {@link org.jboss.as.ejb3.pool.strictmax.StrictMaxPool}, but whose permits and free
+ * instances are striped across a number of independent stripes rather than being held by a single semaphore and queue.
+ * <p/>
+ * Each thread is associated with a home stripe. A thread first tries to take a permit and an instance from its home
+ * stripe and only steals from the other stripes when its own stripe is exhausted. The maximum size is enforced by
+ * the sum of the permits held by all stripes, so there is no single counter shared by every invocation.
+ * Threads that find no permit in any stripe park until a permit is returned or the acquisition timeout elapses.
+ */
+public class StripedPool<T> extends AbstractPool<T> {
+
+    /**
+     * Upper bound on a single park, so that a waiter whose wake-up was consumed by another thread rescans the stripes.
+     */
+    private static final long MAX_PARK_NANOS = TimeUnit.MILLISECONDS.toNanos(10);
+
+    private final Stripe<T>[] stripes;
+    private final int mask;
+    private final int maxSize;
+    private final long timeout;
+    private final TimeUnit timeUnit;
+    /**
+     * Threads waiting for a permit. Only touched when every stripe is exhausted.
+     */
+    private final Queue<Thread> waiters = new ConcurrentLinkedQueue<Thread>();
+    private final AtomicInteger waiting = new AtomicInteger(0);
+
+    public StripedPool(StatelessObjectFactory<T> factory, int maxSize, long timeout, TimeUnit timeUnit) {
+        this(factory, maxSize, timeout, timeUnit, Runtime.getRuntime().availableProcessors());
+    }
+
+    @SuppressWarnings("unchecked")
+    public StripedPool(StatelessObjectFactory<T> factory, int maxSize, long timeout, TimeUnit timeUnit, int concurrency) {
+        super(factory);
+        this.maxSize = maxSize;
+        this.timeout = timeout;
+        this.timeUnit = timeUnit;
+        // Round up to a power of 2 so that a stripe can be selected via a mask
+        int count = (concurrency > 1) ? Integer.highestOneBit(concurrency - 1) << 1 : 1;
+        this.mask = count - 1;
+        this.stripes = new Stripe[count];
+        for (int i = 0; i < count; ++i) {
+            // Distribute the permits as evenly as possible, the remainder going to the first stripes
+            this.stripes[i] = new Stripe<T>(i, (maxSize / count) + ((i < (maxSize % count)) ? 1 : 0));
+        }
+    }
+
+    @Override
+    public void discard(T ctx) {
+        if (ROOT_LOGGER.isTraceEnabled()) {
+            ROOT_LOGGER.tracef("Discard instance %s#%s", this, ctx);
+        }
+
+        this.releasePermit(this.stripe());
+
+        // Let the super do any other remove stuff
+        super.doRemove(ctx);
+    }
+
+    @Override
+    public int getCurrentSize() {
+        return this.getCreateCount() - this.getRemoveCount();
+    }
+
+    @Override
+    public int getAvailableCount() {
+        int available = 0;
+        for (Stripe<T> stripe : this.stripes) {
+            available += stripe.get();
+        }
+        return available;
+    }
+
+    @Override
+    public int getMaxSize() {
+        return this.maxSize;
+    }
+
+    @Override
+    public void setMaxSize(int maxSize) {
+        throw EjbLogger.ROOT_LOGGER.methodNotImplemented();
+    }
+
+    @Override
+    public T get() {
+        Stripe<T> home = this.stripe();
+        if (!this.acquirePermit(home)) {
+            this.awaitPermit(home);
+        }
+
+        T bean = this.poll(home);
+        if (bean != null) {
+            return bean;
+        }
+
+        try {
+            // No free instance in any stripe, create an instance
+            bean = this.create();
+        } finally {
+            if (bean == null) {
+                this.releasePermit(home);
+            }
+        }
+        return bean;
+    }
+
+    @Override
+    public void release(T obj) {
+        if (ROOT_LOGGER.isTraceEnabled()) {
+            ROOT_LOGGER.tracef("%s/%s Free instance: %s", this.getAvailableCount(), this.maxSize, this);
+        }
+
+        Stripe<T> home = this.stripe();
+        home.free.add(obj);
+        this.releasePermit(home);
+    }
+
+    @Override
+    @Deprecated
+    public void remove(T ctx) {
+        if (ROOT_LOGGER.isTraceEnabled()) {
+            ROOT_LOGGER.tracef("Removing instance: %s#%s", this, ctx);
+        }
+
+        this.releasePermit(this.stripe());
+        // let the super do the other remove stuff
+        super.doRemove(ctx);
+    }
+
+    @Override
+    public void start() {
+        // Nothing to start
+    }
+
+    @Override
+    public void stop() {
+        for (Stripe<T> stripe : this.stripes) {
+            for (T obj = stripe.free.poll(); obj != null; obj = stripe.free.poll()) {
+                this.destroy(obj);
+            }
+        }
+    }
+
+    private Stripe<T> stripe() {
+        return this.stripes[(int) Thread.currentThread().getId() & this.mask];
+    }
+
+    private boolean acquirePermit(Stripe<T> home) {
+        if (home.tryAcquire()) {
+            return true;
+        }
+        for (int i = 1; i < this.stripes.length; ++i) {
+            if (this.stripes[(home.index + i) & this.mask].tryAcquire()) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private void awaitPermit(Stripe<T> home) {
+        final long deadline = System.nanoTime() + this.timeUnit.toNanos(this.timeout);
+        final Thread thread = Thread.currentThread();
+        // Register as a waiter before rescanning, so that a concurrent release either leaves us a permit or wakes us
+        this.waiting.incrementAndGet();
+        this.waiters.add(thread);
+        try {
+            while (!this.acquirePermit(home)) {
+                long remaining = deadline - System.nanoTime();
+                if (remaining <= 0) {
+                    throw EjbLogger.ROOT_LOGGER.failedToAcquirePermit(this.timeout, this.timeUnit);
+                }
+                LockSupport.parkNanos(this, Math.min(remaining, MAX_PARK_NANOS));
+                if (Thread.interrupted()) {
+                    throw EjbLogger.ROOT_LOGGER.acquireSemaphoreInterrupted();
+                }
+            }
+        } finally {
+            this.waiters.remove(thread);
+            this.waiting.decrementAndGet();
+        }
+    }
+
+    private void releasePermit(Stripe<T> home) {
+        home.incrementAndGet();
+        if (this.waiting.get() > 0) {
+            Thread waiter = this.waiters.peek();
+            if (waiter != null) {
+                LockSupport.unpark(waiter);
+            }
+        }
+    }
+
+    private T poll(Stripe<T> home) {
+        T bean = home.free.poll();
+        for (int i = 1; (bean == null) && (i < this.stripes.length); ++i) {
+            bean = this.stripes[(home.index + i) & this.mask].free.poll();
+        }
+        return bean;
+    }
+
+    /**
+     * A stripe of the pool. The value of this atomic integer is the number of permits held by this stripe.
+     */
+    @SuppressWarnings("serial")
+    private static class Stripe<T> extends AtomicInteger {
+        final int index;
+        final Queue<T> free = new ConcurrentLinkedQueue<T>();
+        // Pad the permit count so that adjacent stripes do not share a cache line
+        long p1, p2, p3, p4, p5, p6, p7;
+
+        Stripe(int index, int permits) {
+            super(permits);
+            this.index = index;
+        }
+
+        boolean tryAcquire() {
+            for (int permits = this.get(); permits > 0; permits = this.get()) {
+                if (this.compareAndSet(permits, permits - 1)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+    }
+}
@@ -0,0 +1,98 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2015, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.jboss.as.ejb3.remote;
+
+import java.lang.reflect.Method;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * The cloning strategies of the parameters and return values of the methods of a view, as used by the
+ * {@link LocalEjbReceiver}. Each method is classified once, when the view is configured, so that an invocation only
+ * needs to inspect the class of a value if its declared type does not already determine the strategy.
+ */
+final class CloningPlan {
+
+    private final Map<Method, MethodPlan> plans;
+
+    CloningPlan(Collection<Method> methods) {
+        this.plans = new HashMap<Method, MethodPlan>();
+        for (Method method : methods) {
+            this.plans.put(method, new MethodPlan(method));
+        }
+    }
+
+    /**
+     * Returns the plan of the specified view method.
+     * @param method a method of the view
+     * @return a method plan
+     */
+    MethodPlan getMethodPlan(Method method) {
+        MethodPlan plan = this.plans.get(method);
+        return (plan != null) ? plan : MethodPlan.PER_VALUE;
+    }
+
+    static final class MethodPlan {
+        /**
+         * A plan that determines the strategy of every value from its class.
+         */
+        static final MethodPlan PER_VALUE = new MethodPlan(new CloningStrategy[0], null);
+
+        private final CloningStrategy[] parameterStrategies;
+        private final CloningStrategy resultStrategy;
+
+        MethodPlan(Method method) {
+            Class<?>[] types = method.getParameterTypes();
+            this.parameterStrategies = new CloningStrategy[types.length];
+            for (int i = 0; i < types.length; ++i) {
+                this.parameterStrategies[i] = CloningStrategy.forDeclaredType(types[i]);
+            }
+            this.resultStrategy = CloningStrategy.forDeclaredType(method.getReturnType());
+        }
+
+        private MethodPlan(CloningStrategy[] parameterStrategies, CloningStrategy resultStrategy) {
+            this.parameterStrategies = parameterStrategies;
+            this.resultStrategy = resultStrategy;
+        }
+
+        /**
+         * Returns the strategy for the specified non-null parameter value.
+         * @param index the index of the parameter
+         * @param value the parameter value
+         * @return a cloning strategy
+         */
+        CloningStrategy getParameterStrategy(int index, Object value) {
+            CloningStrategy strategy = (index < this.parameterStrategies.length) ? this.parameterStrategies[index] : null;
+            return (strategy != null) ? strategy : CloningStrategy.forClass(value.getClass());
+        }
+
+        /**
+         * Returns the strategy for the specified non-null return value.
+         * @param value the return value
+         * @return a cloning strategy
+         */
+        CloningStrategy getResultStrategy(Object value) {
+            return (this.resultStrategy != null) ? this.resultStrategy : CloningStrategy.forClass(value.getClass());
+        }
+    }
+}
@@ -0,0 +1,171 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2015, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.jboss.as.ejb3.remote;
+
+import java.lang.reflect.Modifier;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.MonthDay;
+import java.time.OffsetDateTime;
+import java.time.OffsetTime;
+import java.time.Period;
+import java.time.Year;
+import java.time.YearMonth;
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Date;
+import java.util.HashSet;
+import java.util.Locale;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * Describes how a value passed to, or returned from, a local invocation on a remote view must be copied so that
+ * the caller and the bean do not share mutable state.
+ * <p/>
+ * Only classes loaded by the bootstrap class loader are ever shared or copied directly, since these are the same
+ * classes on both sides of the invocation. Any other value is cloned by an {@link org.jboss.marshalling.cloner.ObjectCloner}.
+ *
+ * @see CloningPlan
+ */
+enum CloningStrategy {
+    /**
+     * The value is immutable and can be passed by reference.
+     */
+    IMMUTABLE,
+    /**
+     * The value is mutable, but can be copied without marshalling, e.g. a {@link Date} or an array of immutable values.
+     */
+    COPY,
+    /**
+     * The value must be cloned by an {@link org.jboss.marshalling.cloner.ObjectCloner}.
+     */
+    CLONE,
+    ;
+
+    private static final Set<Class<?>> IMMUTABLE_CLASSES = Collections.unmodifiableSet(new HashSet<Class<?>>(Arrays.<Class<?>>asList(
+            String.class, Boolean.class, Character.class, Byte.class, Short.class, Integer.class, Long.class, Float.class, Double.class,
+            BigInteger.class, BigDecimal.class, UUID.class, Locale.class,
+            Duration.class, Instant.class, LocalDate.class, LocalDateTime.class, LocalTime.class, MonthDay.class, OffsetDateTime.class,
+            OffsetTime.class, Period.class, Year.class, YearMonth.class, ZoneOffset.class, ZonedDateTime.class)));
+
+    private static final ClassValue<CloningStrategy> STRATEGIES = new ClassValue<CloningStrategy>() {
+        @Override
+        protected CloningStrategy computeValue(Class<?> type) {
+            return classify(type);
+        }
+    };
+
+    /**
+     * Returns the strategy for values whose class is exactly the specified class.
+     * The result is computed once per class.
+     * @param type the class of a value
+     * @return a cloning strategy
+     */
+    static CloningStrategy forClass(Class<?> type) {
+        return STRATEGIES.get(type);
+    }
+
+    /**
+     * Returns the strategy for values whose declared type is the specified type, or null if the strategy depends on
+     * the class of the value.
+     * @param type a declared parameter or return type
+     * @return a cloning strategy, or null if the strategy must be determined per value
+     */
+    static CloningStrategy forDeclaredType(Class<?> type) {
+        if (type.isPrimitive()) {
+            return IMMUTABLE;
+        }
+        // Values of a final class (including arrays) can only be instances of that very class
+        return Modifier.isFinal(type.getModifiers()) ? forClass(type) : null;
+    }
+
+    /**
+     * Copies a value classified as {@link #COPY}.
+     * @param value a value
+     * @return a copy of the specified value
+     */
+    static Object copy(Object value) {
+        if (value instanceof Object[]) {
+            // Arrays are only copied if their elements are immutable, so a shallow copy is sufficient
+            return ((Object[]) value).clone();
+        }
+        if (value instanceof byte[]) {
+            return ((byte[]) value).clone();
+        }
+        if (value instanceof char[]) {
+            return ((char[]) value).clone();
+        }
+        if (value instanceof int[]) {
+            return ((int[]) value).clone();
+        }
+        if (value instanceof long[]) {
+            return ((long[]) value).clone();
+        }
+        if (value instanceof boolean[]) {
+            return ((boolean[]) value).clone();
+        }
+        if (value instanceof short[]) {
+            return ((short[]) value).clone();
+        }
+        if (value instanceof float[]) {
+            return ((float[]) value).clone();
+        }
+        if (value instanceof double[]) {
+            return ((double[]) value).clone();
+        }
+        if (value.getClass() == Date.class) {
+            return new Date(((Date) value).getTime());
+        }
+        throw new IllegalArgumentException(value.getClass().getName());
+    }
+
+    private static CloningStrategy classify(Class<?> type) {
+        if (type.isArray()) {
+            Class<?> componentType = type.getComponentType();
+            if (componentType.isPrimitive()) {
+                return COPY;
+            }
+            // Elements of an array of a non-final component type could be instances of a mutable subclass
+            boolean exact = Modifier.isFinal(componentType.getModifiers()) || componentType.isEnum();
+            return (exact && (forClass(componentType) == IMMUTABLE)) ? COPY : CLONE;
+        }
+        if (type.getClassLoader() != null) {
+            return CLONE;
+        }
+        if (IMMUTABLE_CLASSES.contains(type)) {
+            return IMMUTABLE;
+        }
+        // Enum constants of the JDK are singletons, which the cloner would resolve to the same instance
+        if (Enum.class.isAssignableFrom(type)) {
+            return IMMUTABLE;
+        }
+        return (type == Date.class) ? COPY : CLONE;
+    }
+}
@@ -44,6 +44,7 @@ import javax.transaction.xa.XAResource;
 
 import org.jboss.as.ee.component.Component;
 import org.jboss.as.ee.component.ComponentView;
+import org.jboss.as.ee.component.ViewMethodIndex;
 import org.jboss.as.ee.utils.DescriptorUtils;
 import org.jboss.as.ejb3.logging.EjbLogger;
 import org.jboss.as.ejb3.component.EJBComponent;
@@ -149,11 +150,9 @@ public class LocalEjbReceiver extends EJBReceiver implements Service<LocalEjbRec
         if (!ejb.isRemoteView(viewClass.getName())) {
             throw EjbLogger.ROOT_LOGGER.viewNotFound(viewClass.getName(), ejb.getEjbName());
         }
-        final ClonerConfiguration paramConfig = new ClonerConfiguration();
-        paramConfig.setClassCloner(new ClassLoaderClassCloner(ejb.getDeploymentClassLoader()));
-        final ObjectCloner parameterCloner = createCloner(paramConfig);
-        //TODO: this is not very efficient
-        final Method method = view.getMethod(invocation.getInvokedMethod().getName(), DescriptorUtils.methodDescriptor(invocation.getInvokedMethod()));
+        final Method method = findMethod(view, invocation.getInvokedMethod());
+        final CloningPlan cloningPlan = view.getPrivateData(CloningPlan.class);
+        final CloningPlan.MethodPlan plan = (cloningPlan != null) ? cloningPlan.getMethodPlan(method) : CloningPlan.MethodPlan.PER_VALUE;
 
         final boolean async = view.isAsynchronous(method);
 
@@ -161,10 +160,9 @@ public class LocalEjbReceiver extends EJBReceiver implements Service<LocalEjbRec
         if (invocation.getParameters() == null) {
             parameters = EMPTY_OBJECT_ARRAY;
         } else {
-            parameters = new Object[invocation.getParameters().length];
-            for (int i = 0; i < parameters.length; ++i) {
-                parameters[i] = clone(method.getParameterTypes()[i], parameterCloner, invocation.getParameters()[i], allowPassByReference);
-            }
+            final ClonerConfiguration paramConfig = new ClonerConfiguration();
+            paramConfig.setClassCloner(new ClassLoaderClassCloner(ejb.getDeploymentClassLoader()));
+            parameters = this.cloneParameters(method.getParameterTypes(), plan, paramConfig, invocation.getParameters());
         }
 
         final InterceptorContext interceptorContext = new InterceptorContext();
@@ -212,7 +210,6 @@ public class LocalEjbReceiver extends EJBReceiver implements Service<LocalEjbRec
 
         final ClonerConfiguration config = new ClonerConfiguration();
         config.setClassCloner(new LocalInvocationClassCloner(WildFlySecurityManager.getClassLoaderPrivileged(invocation.getInvokedProxy().getClass())));
-        final ObjectCloner resultCloner = createCloner(config);
         if (async) {
             if (ejbComponent instanceof SessionBeanComponent) {
                 final SessionBeanComponent component = (SessionBeanComponent) ejbComponent;
@@ -236,12 +233,12 @@ public class LocalEjbReceiver extends EJBReceiver implements Service<LocalEjbRec
                                 if(asyncValue == null) {
                                     return asyncValue;
                                 }
-                                return new AsyncResult(LocalEjbReceiver.clone(asyncValue.getClass(), resultCloner, asyncValue, allowPassByReference));
+                                return new AsyncResult(cloneResult(asyncValue.getClass(), CloningStrategy.forClass(asyncValue.getClass()), config, asyncValue));
                             }
-                            return LocalEjbReceiver.clone(result.getClass(), resultCloner, result, allowPassByReference);
+                            return cloneResult(result.getClass(), CloningStrategy.forClass(result.getClass()), config, result);
                         } catch(ExecutionException e) {
                             // WFLY-4331 - clone the exception of an async task
-                            throw ((Exception) LocalEjbReceiver.clone(e.getClass(), resultCloner, e, allowPassByReference));
+                            throw ((Exception) cloneResult(e.getClass(), CloningStrategy.CLONE, config, e));
                         } finally {
                             clearSecurityContextOnAssociation();
                         }
@@ -260,16 +257,29 @@ public class LocalEjbReceiver extends EJBReceiver implements Service<LocalEjbRec
             } catch (Exception e) {
                 //we even have to clone the exception type
                 //to make sure it matches
-                throw (Exception) clone(Exception.class, resultCloner, e, allowPassByReference);
+                throw (Exception) cloneResult(Exception.class, CloningStrategy.CLONE, config, e);
             }
             //we do not marshal the return type unless we have to, the spec only says we have to
             //pass parameters by reference
             //TODO: investigate the implications of this further
-            final Object clonedResult = clone(invocation.getInvokedMethod().getReturnType(), resultCloner, result, allowPassByReference);
+            final Object clonedResult = (result != null) ? cloneResult(invocation.getInvokedMethod().getReturnType(), plan.getResultStrategy(result), config, result) : null;
             receiverContext.resultReady(new ImmediateResultProducer(clonedResult));
         }
     }
 
+    private static Method findMethod(final ComponentView view, final Method invokedMethod) {
+        // resolve the method via the index of the view, rather than via its descriptor
+        final ViewMethodIndex methodIndex = view.getPrivateData(ViewMethodIndex.class);
+        if (methodIndex != null) {
+            final int index = methodIndex.indexOf(invokedMethod);
+            if (index >= 0) {
+                return methodIndex.getMethod(index);
+            }
+        }
+        // the lookup by descriptor also reports a missing method
+        return view.getMethod(invokedMethod.getName(), DescriptorUtils.methodDescriptor(invokedMethod));
+    }
+
     private ObjectCloner createCloner(final ClonerConfiguration paramConfig) {
         ObjectCloner parameterCloner;
         if(WildFlySecurityManager.isChecking()) {
@@ -297,10 +307,57 @@ public class LocalEjbReceiver extends EJBReceiver implements Service<LocalEjbRec
         return new StatefulEJBLocator<T>(viewType, appName, moduleName, beanName, distinctName, sessionID, statefulComponent.getCache().getStrictAffinity(), this.getNodeName());
     }
 
-    private static Object clone(final Class<?> target, final ObjectCloner cloner, final Object object, final boolean allowPassByReference) {
-        if (object == null) {
-            return null;
+    private Object[] cloneParameters(final Class<?>[] types, final CloningPlan.MethodPlan plan, final ClonerConfiguration config, final Object[] values) {
+        final CloningStrategy[] strategies = new CloningStrategy[values.length];
+        boolean marshal = false;
+        for (int i = 0; i < values.length; ++i) {
+            final Object value = values[i];
+            // don't clone primitives
+            if (value == null || types[i].isPrimitive() || (allowPassByReference && types[i].isAssignableFrom(value.getClass()))) {
+                strategies[i] = CloningStrategy.IMMUTABLE;
+            } else {
+                strategies[i] = plan.getParameterStrategy(i, value);
+                marshal |= (strategies[i] == CloningStrategy.CLONE);
+            }
         }
+        // If any parameter needs to be marshalled, clone all mutable parameters via the same cloner
+        // so that references shared between parameters are preserved
+        final ObjectCloner cloner = marshal ? createCloner(config) : null;
+        final Object[] parameters = new Object[values.length];
+        for (int i = 0; i < values.length; ++i) {
+            final Object value = values[i];
+            switch (strategies[i]) {
+                case IMMUTABLE: {
+                    parameters[i] = value;
+                    break;
+                }
+                case COPY: {
+                    if (!marshal) {
+                        parameters[i] = copy(values, parameters, i);
+                        break;
+                    }
+                    // Otherwise fall through
+                }
+                default: {
+                    parameters[i] = clone(cloner, value);
+                }
+            }
+        }
+        return parameters;
+    }
+
+    private static Object copy(final Object[] values, final Object[] copies, final int index) {
+        final Object value = values[index];
+        // Preserve references shared between parameters
+        for (int i = 0; i < index; ++i) {
+            if (values[i] == value) {
+                return copies[i];
+            }
+        }
+        return CloningStrategy.copy(value);
+    }
+
+    private Object cloneResult(final Class<?> target, final CloningStrategy strategy, final ClonerConfiguration config, final Object object) {
         // don't clone primitives
         if (target.isPrimitive()) {
             return object;
@@ -308,7 +365,17 @@ public class LocalEjbReceiver extends EJBReceiver implements Service<LocalEjbRec
         if (allowPassByReference && target.isAssignableFrom(object.getClass())) {
             return object;
         }
-        return clone(cloner, object);
+        switch (strategy) {
+            case IMMUTABLE: {
+                return object;
+            }
+            case COPY: {
+                return CloningStrategy.copy(object);
+            }
+            default: {
+                return clone(createCloner(config), object);
+            }
+        }
     }
 
     private static Object clone(final ObjectCloner cloner, final Object object) {
@@ -0,0 +1,66 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2015, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.jboss.as.ejb3.remote.protocol;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * An {@link InputStream} of a message that is only closed once every party that retained it has closed it.
+ * This allows a {@link MessageHandler} to continue reading a message on another thread, after the channel receiver
+ * that received the message has closed it.
+ */
+public class RetainableInputStream extends FilterInputStream {
+
+    private final AtomicInteger references = new AtomicInteger(1);
+
+    public RetainableInputStream(InputStream input) {
+        super(input);
+    }
+
+    /**
+     * Retains the specified stream, if it is retainable.
+     * @param input a message stream
+     * @return the retained stream, which must be closed by the caller, or null if the stream is not retainable
+     */
+    public static RetainableInputStream retain(InputStream input) {
+        return (input instanceof RetainableInputStream) ? ((RetainableInputStream) input).retain() : null;
+    }
+
+    /**
+     * Retains this stream, such that it will not be closed until an additional {@link #close()}.
+     * @return this stream
+     */
+    public RetainableInputStream retain() {
+        this.references.incrementAndGet();
+        return this;
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (this.references.decrementAndGet() == 0) {
+            super.close();
+        }
+    }
+}
@@ -22,11 +22,14 @@
 
 package org.jboss.as.ejb3.remote.protocol.versionone;
 
+import org.jboss.as.ejb3.remote.protocol.RetainableInputStream;
 import org.jboss.remoting3.Channel;
 import org.jboss.remoting3.MessageOutputStream;
 import org.jboss.remoting3.RemotingOptions;
+import org.xnio.IoUtils;
 
 import java.io.IOException;
+import java.io.InputStream;
 import java.util.concurrent.Semaphore;
 
 /**
@@ -37,11 +40,17 @@ public class ChannelAssociation {
     private final Channel channel;
 
     private static final int DEFAULT_MAX_OUTBOUND_MESSAGES = 80;
+    private static final int DEFAULT_MAX_INBOUND_MESSAGES = 80;
 
     // A semaphore which will be used to acquire a lock while writing out to a channel
     // to make sure that only a limited number of simultaneous writes are allowed
     private final Semaphore channelWriteSemaphore;
 
+    // A semaphore which limits the number of inbound messages that are retained until a worker thread reads them.
+    // The channel stops delivering messages once max-inbound-messages are open, so half of them are always left for
+    // messages that must not wait behind queued invocations, e.g. transaction completion or cancellation requests
+    private final Semaphore retainedMessageSemaphore;
+
     public ChannelAssociation(final Channel channel) {
         this.channel = channel;
 
@@ -51,6 +60,12 @@ public class ChannelAssociation {
             maxOutboundWrites = DEFAULT_MAX_OUTBOUND_MESSAGES;
         }
         this.channelWriteSemaphore = new Semaphore(maxOutboundWrites, true);
+
+        Integer maxInboundMessages = this.channel.getOption(RemotingOptions.MAX_INBOUND_MESSAGES);
+        if (maxInboundMessages == null) {
+            maxInboundMessages = DEFAULT_MAX_INBOUND_MESSAGES;
+        }
+        this.retainedMessageSemaphore = new Semaphore(maxInboundMessages / 2);
     }
 
     /**
@@ -88,6 +103,35 @@ public class ChannelAssociation {
         }
     }
 
+    /**
+     * Retains the specified inbound message of the {@link Channel} represented by this {@link ChannelAssociation},
+     * so that it can be read by another thread, after the channel receiver closed it. This method never blocks: if too
+     * many messages of the channel are already retained, the message is not retained.
+     *
+     * @param inputStream The inbound message
+     * @return the retained message, which must be released via {@link #releaseInboundMessage(RetainableInputStream)},
+     *         or null if the message could not be retained and must be read by the calling thread
+     */
+    public RetainableInputStream retainInboundMessage(final InputStream inputStream) {
+        if (!(inputStream instanceof RetainableInputStream) || !this.retainedMessageSemaphore.tryAcquire()) {
+            return null;
+        }
+        return ((RetainableInputStream) inputStream).retain();
+    }
+
+    /**
+     * Closes a previously retained inbound message and releases its permit.
+     *
+     * @param inputStream The retained inbound message
+     */
+    public void releaseInboundMessage(final RetainableInputStream inputStream) {
+        try {
+            IoUtils.safeClose(inputStream);
+        } finally {
+            this.retainedMessageSemaphore.release();
+        }
+    }
+
     public Channel getChannel() {
         return this.channel;
     }
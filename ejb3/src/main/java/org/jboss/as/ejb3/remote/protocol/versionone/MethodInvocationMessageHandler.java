@@ -24,6 +24,7 @@ package org.jboss.as.ejb3.remote.protocol.versionone;
 
 import org.jboss.as.ee.component.Component;
 import org.jboss.as.ee.component.ComponentView;
+import org.jboss.as.ee.component.ViewMethodIndex;
 import org.jboss.as.ee.component.interceptors.InvocationType;
 import org.jboss.as.ejb3.logging.EjbLogger;
 import org.jboss.as.ejb3.component.EJBComponentUnavailableException;
@@ -35,6 +36,7 @@ import org.jboss.as.ejb3.component.stateless.StatelessSessionComponent;
 import org.jboss.as.ejb3.deployment.DeploymentRepository;
 import org.jboss.as.ejb3.deployment.EjbDeploymentInformation;
 import org.jboss.as.ejb3.remote.RemoteAsyncInvocationCancelStatusService;
+import org.jboss.as.ejb3.remote.protocol.RetainableInputStream;
 import org.jboss.ejb.client.Affinity;
 import org.jboss.ejb.client.EJBClientInvocationContext;
 import org.jboss.ejb.client.EJBLocator;
@@ -94,13 +96,8 @@ public class MethodInvocationMessageHandler extends EJBIdentifierBasedMessageHan
         // read the method name
         final String methodName = input.readUTF();
         // method signature
-        String[] methodParamTypes = null;
         final String signature = input.readUTF();
-        if (signature.isEmpty()) {
-            methodParamTypes = new String[0];
-        } else {
-            methodParamTypes = signature.split(String.valueOf(METHOD_PARAM_TYPE_SEPARATOR));
-        }
+        final String[] methodParamTypes = signature.isEmpty() ? new String[0] : signature.split(String.valueOf(METHOD_PARAM_TYPE_SEPARATOR));
 
         // read the Locator
         // we use a mutable ClassResolver, so that we can switch to a different (and correct deployment CL)
@@ -125,8 +122,54 @@ public class MethodInvocationMessageHandler extends EJBIdentifierBasedMessageHan
             this.writeNoSuchEJBFailureMessage(channelAssociation, invocationId, appName, moduleName, distinctName, beanName, null);
             return;
         }
+        final RetainableInputStream retainedInputStream = channelAssociation.retainInboundMessage(inputStream);
+        if (retainedInputStream == null) {
+            // either the message is not retainable, or too many messages of this channel are already waiting for a worker thread
+            final Runnable runnable = this.readInvocation(channelAssociation, invocationId, methodName, methodParamTypes, appName, moduleName, distinctName, beanName, ejbDeploymentInformation, classResolver, unmarshaller);
+            if (runnable != null) {
+                // invoke the method and write out the response on a separate thread
+                executorService.submit(runnable);
+            }
+            return;
+        }
+        // read the rest of the invocation, i.e. the locator, the method parameters and the attachments, on a separate thread,
+        // so that their classes are resolved by that thread, and the message is held by the channel until then
+        final Runnable task = new Runnable() {
+            @Override
+            public void run() {
+                final Runnable runnable;
+                try {
+                    runnable = MethodInvocationMessageHandler.this.readInvocation(channelAssociation, invocationId, methodName, methodParamTypes, appName, moduleName, distinctName, beanName, ejbDeploymentInformation, classResolver, unmarshaller);
+                } catch (Throwable e) {
+                    EjbLogger.REMOTE_LOGGER.failedToReadMethodInvocation(e, invocationId, channelAssociation.getChannel());
+                    // no more messages can be sent or received on this channel
+                    IoUtils.safeClose(channelAssociation.getChannel());
+                    return;
+                } finally {
+                    channelAssociation.releaseInboundMessage(retainedInputStream);
+                }
+                if (runnable != null) {
+                    // invoke the method and write out the response
+                    runnable.run();
+                }
+            }
+        };
+        try {
+            executorService.submit(task);
+        } catch (RuntimeException e) {
+            channelAssociation.releaseInboundMessage(retainedInputStream);
+            throw e;
+        }
+    }
+
+    /**
+     * Reads the remainder of an invocation request.
+     * @return the task that invokes the method and writes out the response, or null if a failure response was written instead
+     */
+    private Runnable readInvocation(final ChannelAssociation channelAssociation, final short invocationId, final String methodName, final String[] methodParamTypes,
+                                    final String appName, final String moduleName, final String distinctName, final String beanName,
+                                    final EjbDeploymentInformation ejbDeploymentInformation, final ClassLoaderSwitchingClassResolver classResolver, final Unmarshaller unmarshaller) throws IOException {
         final ClassLoader tccl = WildFlySecurityManager.getCurrentContextClassLoaderPrivileged();
-        Runnable runnable = null;
         try {
             //set the correct TCCL for unmarshalling
             WildFlySecurityManager.setCurrentContextClassLoaderPrivileged(ejbDeploymentInformation.getDeploymentClassLoader());
@@ -144,13 +187,13 @@ public class MethodInvocationMessageHandler extends EJBIdentifierBasedMessageHan
             // Make sure it's a remote view
             if (!ejbDeploymentInformation.isRemoteView(viewClassName)) {
                 this.writeNoSuchEJBFailureMessage(channelAssociation, invocationId, appName, moduleName, distinctName, beanName, viewClassName);
-                return;
+                return null;
             }
             final ComponentView componentView = ejbDeploymentInformation.getView(viewClassName);
             final Method invokedMethod = this.findMethod(componentView, methodName, methodParamTypes);
             if (invokedMethod == null) {
                 this.writeNoSuchEJBMethodFailureMessage(channelAssociation, invocationId, appName, moduleName, distinctName, beanName, viewClassName, methodName, methodParamTypes);
-                return;
+                return null;
             }
 
             final Object[] methodParams = new Object[methodParamTypes.length];
@@ -162,7 +205,7 @@ public class MethodInvocationMessageHandler extends EJBIdentifierBasedMessageHan
                     } catch (Throwable e) {
                         // write out the failure
                         MethodInvocationMessageHandler.this.writeException(channelAssociation, MethodInvocationMessageHandler.this.marshallerFactory, invocationId, e, null);
-                        return;
+                        return null;
                     }
                 }
             }
@@ -173,12 +216,12 @@ public class MethodInvocationMessageHandler extends EJBIdentifierBasedMessageHan
             } catch (Throwable e) {
                 // write out the failure
                 MethodInvocationMessageHandler.this.writeException(channelAssociation, MethodInvocationMessageHandler.this.marshallerFactory, invocationId, e, null);
-                return;
+                return null;
             }
             // done with unmarshalling
             unmarshaller.finish();
 
-            runnable = new Runnable() {
+            return new Runnable() {
 
                 @Override
                 public void run() {
@@ -247,8 +290,6 @@ public class MethodInvocationMessageHandler extends EJBIdentifierBasedMessageHan
         } finally {
             WildFlySecurityManager.setCurrentContextClassLoaderPrivileged(tccl);
         }
-        // invoke the method and write out the response on a separate thread
-        executorService.submit(runnable);
     }
 
     private Affinity getWeakAffinity(final StatefulSessionComponent statefulSessionComponent, final StatefulEJBLocator<?> statefulEJBLocator) {
@@ -320,6 +361,11 @@ public class MethodInvocationMessageHandler extends EJBIdentifierBasedMessageHan
     }
 
     private Method findMethod(final ComponentView componentView, final String methodName, final String[] paramTypes) {
+        final ViewMethodIndex methodIndex = componentView.getPrivateData(ViewMethodIndex.class);
+        if (methodIndex != null) {
+            final int index = methodIndex.indexOf(methodName, paramTypes);
+            return (index >= 0) ? methodIndex.getMethod(index) : null;
+        }
         final Set<Method> viewMethods = componentView.getViewMethods();
         for (final Method method : viewMethods) {
             if (method.getName().equals(methodName)) {
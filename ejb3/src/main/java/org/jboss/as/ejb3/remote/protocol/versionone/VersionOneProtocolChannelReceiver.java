@@ -42,6 +42,7 @@ import org.jboss.as.ejb3.remote.EJBRemoteTransactionsRepository;
 import org.jboss.as.ejb3.remote.RegistryCollector;
 import org.jboss.as.ejb3.remote.RemoteAsyncInvocationCancelStatusService;
 import org.jboss.as.ejb3.remote.protocol.MessageHandler;
+import org.jboss.as.ejb3.remote.protocol.RetainableInputStream;
 import org.jboss.as.network.ClientMapping;
 import org.jboss.as.server.suspend.ServerActivity;
 import org.jboss.as.server.suspend.ServerActivityCallback;
@@ -153,8 +154,10 @@ public class VersionOneProtocolChannelReceiver implements Channel.Receiver, Depl
 
     @Override
     public void handleMessage(Channel channel, MessageInputStream messageInputStream) {
+        // message handlers may retain the stream to read the remainder of the message on another thread
+        final InputStream inputStream = new RetainableInputStream(messageInputStream);
         try {
-            this.processMessage(channel, messageInputStream);
+            this.processMessage(channel, inputStream);
             // enroll for next message (whenever it's available)
             channel.receiveMessage(this);
 
@@ -164,7 +167,7 @@ public class VersionOneProtocolChannelReceiver implements Channel.Receiver, Depl
             // no more messages can be sent or received on this channel
             IoUtils.safeClose(channel);
         } finally {
-            IoUtils.safeClose(messageInputStream);
+            IoUtils.safeClose(inputStream);
         }
     }
 
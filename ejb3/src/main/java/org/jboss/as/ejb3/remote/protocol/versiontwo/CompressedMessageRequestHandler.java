@@ -6,7 +6,9 @@ import java.util.zip.InflaterInputStream;
 
 import org.jboss.as.ejb3.logging.EjbLogger;
 import org.jboss.as.ejb3.remote.protocol.AbstractMessageHandler;
+import org.jboss.as.ejb3.remote.protocol.RetainableInputStream;
 import org.jboss.as.ejb3.remote.protocol.versionone.ChannelAssociation;
+import org.xnio.IoUtils;
 
 /**
  * A {@link org.jboss.as.ejb3.remote.protocol.MessageHandler} responsible for handling messages which have been compressed using the EJB protocol
@@ -24,9 +26,19 @@ class CompressedMessageRequestHandler extends AbstractMessageHandler {
     @Override
     public void processMessage(final ChannelAssociation channelAssociation, final InputStream inputStream) throws IOException {
         EjbLogger.EJB3_INVOCATION_LOGGER.trace("Received a compressed message stream");
-        // use an inflater inputstream to inflate the contents
-        final InputStream inflaterInputStream = new InflaterInputStream(inputStream);
-        // let the EJB protocol handler process the stream
-        this.ejbProtocolHandler.processMessage(channelAssociation.getChannel(), inflaterInputStream);
+        final RetainableInputStream retainedInputStream = RetainableInputStream.retain(inputStream);
+        if (retainedInputStream == null) {
+            // use an inflater inputstream to inflate the contents
+            this.ejbProtocolHandler.processMessage(channelAssociation.getChannel(), new InflaterInputStream(inputStream));
+            return;
+        }
+        // use a retainable inflater inputstream to inflate the contents, closing it releases the compressed stream
+        final InputStream inflaterInputStream = new RetainableInputStream(new InflaterInputStream(retainedInputStream));
+        try {
+            // let the EJB protocol handler process the stream
+            this.ejbProtocolHandler.processMessage(channelAssociation.getChannel(), inflaterInputStream);
+        } finally {
+            IoUtils.safeClose(inflaterInputStream);
+        }
     }
 }
@@ -0,0 +1,90 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2015, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.jboss.as.ejb3.subsystem;
+
+import java.util.concurrent.TimeUnit;
+
+import org.jboss.as.controller.AbstractWriteAttributeHandler;
+import org.jboss.as.controller.AttributeDefinition;
+import org.jboss.as.controller.OperationContext;
+import org.jboss.as.controller.OperationFailedException;
+import org.jboss.as.controller.PathAddress;
+import org.jboss.as.controller.descriptions.ModelDescriptionConstants;
+import org.jboss.as.ejb3.component.pool.AdaptivePoolConfig;
+import org.jboss.as.ejb3.component.pool.StrictMaxPoolConfigService;
+import org.jboss.as.ejb3.logging.EjbLogger;
+import org.jboss.dmr.ModelNode;
+import org.jboss.msc.service.ServiceController;
+import org.jboss.msc.service.ServiceName;
+import org.jboss.msc.service.ServiceRegistry;
+
+/**
+ * Handles the "write-attribute" operation for an adaptive-bean-instance-pool resource.
+ * Changes apply to pools created after the update.
+ */
+public class AdaptivePoolWriteHandler extends AbstractWriteAttributeHandler<Void> {
+
+    public static final AdaptivePoolWriteHandler INSTANCE = new AdaptivePoolWriteHandler();
+
+    private AdaptivePoolWriteHandler() {
+        super(AdaptivePoolResourceDefinition.ATTRIBUTES.values().toArray(new AttributeDefinition[AdaptivePoolResourceDefinition.ATTRIBUTES.size()]));
+    }
+
+    @Override
+    protected boolean applyUpdateToRuntime(OperationContext context, ModelNode operation, String attributeName,
+                                           ModelNode newValue, ModelNode currentValue, HandbackHolder<Void> handbackHolder) throws OperationFailedException {
+
+        final ModelNode model = context.readResource(PathAddress.EMPTY_ADDRESS).getModel();
+        applyModelToRuntime(context, operation, model);
+
+        return false;
+    }
+
+    private void applyModelToRuntime(OperationContext context, ModelNode operation, ModelNode model) throws OperationFailedException {
+
+        final String poolName = PathAddress.pathAddress(operation.get(ModelDescriptionConstants.OP_ADDR)).getLastElement().getValue();
+        final int minPoolSize = AdaptivePoolResourceDefinition.MIN_POOL_SIZE.resolveModelAttribute(context, model).asInt();
+        final int maxPoolSize = AdaptivePoolResourceDefinition.MAX_POOL_SIZE.resolveModelAttribute(context, model).asInt();
+        if (minPoolSize > maxPoolSize) {
+            throw EjbLogger.ROOT_LOGGER.invalidPoolSizeBounds(poolName, minPoolSize, maxPoolSize);
+        }
+        final ServiceName serviceName = StrictMaxPoolConfigService.EJB_POOL_CONFIG_BASE_SERVICE_NAME.append(poolName);
+        final ServiceRegistry registry = context.getServiceRegistry(true);
+        ServiceController<?> sc = registry.getService(serviceName);
+        if (sc != null) {
+            AdaptivePoolConfig config = (AdaptivePoolConfig) sc.getValue();
+            config.setMinPoolSize(minPoolSize);
+            config.setMaxPoolSize(maxPoolSize);
+            config.setTimeout(StrictMaxPoolResourceDefinition.INSTANCE_ACQUISITION_TIMEOUT.resolveModelAttribute(context, model).asLong());
+            config.setTimeoutUnit(TimeUnit.valueOf(StrictMaxPoolResourceDefinition.INSTANCE_ACQUISITION_TIMEOUT_UNIT.resolveModelAttribute(context, model).asString()));
+        }
+    }
+
+    @Override
+    protected void revertUpdateToRuntime(OperationContext context, ModelNode operation, String attributeName,
+                                         ModelNode valueToRestore, ModelNode valueToRevert, Void handback) throws OperationFailedException {
+        final ModelNode restored = context.readResource(PathAddress.EMPTY_ADDRESS).getModel().clone();
+        restored.get(attributeName).set(valueToRestore);
+        applyModelToRuntime(context, operation, restored);
+    }
+}
@@ -26,12 +26,17 @@ import java.util.Collections;
 import java.util.LinkedHashMap;
 import java.util.Map;
 
+import org.jboss.as.controller.AbstractRuntimeOnlyHandler;
 import org.jboss.as.controller.AttributeDefinition;
+import org.jboss.as.controller.OperationContext;
+import org.jboss.as.controller.OperationFailedException;
+import org.jboss.as.controller.PathAddress;
 import org.jboss.as.controller.ReloadRequiredWriteAttributeHandler;
 import org.jboss.as.controller.ServiceRemoveStepHandler;
 import org.jboss.as.controller.SimpleAttributeDefinition;
 import org.jboss.as.controller.SimpleAttributeDefinitionBuilder;
 import org.jboss.as.controller.SimpleResourceDefinition;
+import org.jboss.as.controller.descriptions.ModelDescriptionConstants;
 import org.jboss.as.controller.operations.validation.ModelTypeValidator;
 import org.jboss.as.controller.operations.validation.StringLengthValidator;
 import org.jboss.as.controller.registry.AttributeAccess;
@@ -40,8 +45,10 @@ import org.jboss.as.controller.transform.description.DiscardAttributeChecker;
 import org.jboss.as.controller.transform.description.RejectAttributeChecker;
 import org.jboss.as.controller.transform.description.ResourceTransformationDescriptionBuilder;
 import org.jboss.as.ejb3.timerservice.persistence.TimerPersistence;
+import org.jboss.as.ejb3.timerservice.persistence.database.DatabaseTimerPersistence;
 import org.jboss.dmr.ModelNode;
 import org.jboss.dmr.ModelType;
+import org.jboss.msc.service.ServiceController;
 
 /**
  * {@link org.jboss.as.controller.ResourceDefinition} for the databse data store resource.
@@ -49,8 +56,6 @@ import org.jboss.dmr.ModelType;
  */
 public class DatabaseDataStoreResourceDefinition extends SimpleResourceDefinition {
 
-    public static final DatabaseDataStoreResourceDefinition INSTANCE = new DatabaseDataStoreResourceDefinition();
-
     public static final SimpleAttributeDefinition DATASOURCE_JNDI_NAME =
             new SimpleAttributeDefinitionBuilder(EJB3SubsystemModel.DATASOURCE_JNDI_NAME, ModelType.STRING, false)
                     .setAllowExpression(true)
@@ -88,6 +93,30 @@ public class DatabaseDataStoreResourceDefinition extends SimpleResourceDefinitio
                     .setDefaultValue(new ModelNode(true))
                     .build();
 
+    static final SimpleAttributeDefinition STATEMENT_COUNT =
+            new SimpleAttributeDefinitionBuilder("statement-count", ModelType.LONG)
+                    .setUndefinedMetricValue(new ModelNode(0))
+                    .setFlags(AttributeAccess.Flag.STORAGE_RUNTIME)
+                    .build();
+
+    static final SimpleAttributeDefinition REFRESH_COUNT =
+            new SimpleAttributeDefinitionBuilder("refresh-count", ModelType.LONG)
+                    .setUndefinedMetricValue(new ModelNode(0))
+                    .setFlags(AttributeAccess.Flag.STORAGE_RUNTIME)
+                    .build();
+
+    static final SimpleAttributeDefinition AVERAGE_REFRESH_TIME =
+            new SimpleAttributeDefinitionBuilder("average-refresh-time", ModelType.LONG)
+                    .setUndefinedMetricValue(new ModelNode(0))
+                    .setFlags(AttributeAccess.Flag.STORAGE_RUNTIME)
+                    .build();
+
+    static final SimpleAttributeDefinition MAX_REFRESH_TIME =
+            new SimpleAttributeDefinitionBuilder("max-refresh-time", ModelType.LONG)
+                    .setUndefinedMetricValue(new ModelNode(0))
+                    .setFlags(AttributeAccess.Flag.STORAGE_RUNTIME)
+                    .build();
+
     public static final Map<String, AttributeDefinition> ATTRIBUTES ;
 
     static {
@@ -101,11 +130,14 @@ public class DatabaseDataStoreResourceDefinition extends SimpleResourceDefinitio
         ATTRIBUTES = Collections.unmodifiableMap(map);
     }
 
-    private DatabaseDataStoreResourceDefinition() {
+    private final boolean registerRuntimeOnly;
+
+    public DatabaseDataStoreResourceDefinition(final boolean registerRuntimeOnly) {
         super(EJB3SubsystemModel.DATABASE_DATA_STORE_PATH,
                 EJB3Extension.getResourceDescriptionResolver(EJB3SubsystemModel.DATABASE_DATA_STORE),
                 DatabaseDataStoreAdd.INSTANCE,
                 new ServiceRemoveStepHandler(TimerPersistence.SERVICE_NAME, DatabaseDataStoreAdd.INSTANCE));
+        this.registerRuntimeOnly = registerRuntimeOnly;
     }
 
     @Override
@@ -113,6 +145,12 @@ public class DatabaseDataStoreResourceDefinition extends SimpleResourceDefinitio
         for (AttributeDefinition attr : ATTRIBUTES.values()) {
             resourceRegistration.registerReadWriteAttribute(attr, null, new ReloadRequiredWriteAttributeHandler(attr));
         }
+        if (registerRuntimeOnly) {
+            final MetricsHandler handler = new MetricsHandler();
+            for (AttributeDefinition metric : new AttributeDefinition[] { STATEMENT_COUNT, REFRESH_COUNT, AVERAGE_REFRESH_TIME, MAX_REFRESH_TIME }) {
+                resourceRegistration.registerMetric(metric, handler);
+            }
+        }
     }
 
     static void registerTransformers1_3_0(ResourceTransformationDescriptionBuilder parent) {
@@ -122,4 +160,31 @@ public class DatabaseDataStoreResourceDefinition extends SimpleResourceDefinitio
                 .setDiscard(new DiscardAttributeChecker.DiscardAttributeValueChecker(new ModelNode(true)), ALLOW_EXECUTION)
                 .addRejectCheck(RejectAttributeChecker.DEFINED, REFRESH_INTERVAL, ALLOW_EXECUTION);
     }
+
+    /**
+     * Reads the metrics of the {@link DatabaseTimerPersistence} installed for a database data store.
+     */
+    private static class MetricsHandler extends AbstractRuntimeOnlyHandler {
+
+        @Override
+        protected void executeRuntimeStep(final OperationContext context, final ModelNode operation) throws OperationFailedException {
+            final String name = PathAddress.pathAddress(operation.require(ModelDescriptionConstants.OP_ADDR)).getLastElement().getValue();
+            final ServiceController<?> controller = context.getServiceRegistry(false).getService(TimerPersistence.SERVICE_NAME.append(name));
+            final DatabaseTimerPersistence persistence = (controller != null) && (controller.getState() == ServiceController.State.UP) ? (DatabaseTimerPersistence) controller.getValue() : null;
+            final String metric = operation.require(ModelDescriptionConstants.NAME).asString();
+            final ModelNode result = context.getResult();
+            if (persistence == null) {
+                result.set(0L);
+            } else if (STATEMENT_COUNT.getName().equals(metric)) {
+                result.set(persistence.getStatementCount());
+            } else if (REFRESH_COUNT.getName().equals(metric)) {
+                result.set(persistence.getRefreshCount());
+            } else if (AVERAGE_REFRESH_TIME.getName().equals(metric)) {
+                result.set(persistence.getAverageRefreshTime());
+            } else if (MAX_REFRESH_TIME.getName().equals(metric)) {
+                result.set(persistence.getMaxRefreshTime());
+            }
+            context.stepCompleted();
+        }
+    }
 }
@@ -60,11 +60,15 @@ public interface EJB3SubsystemModel {
     String ENABLE_STATISTICS = "enable-statistics";
 
     String FILE_DATA_STORE = "file-data-store";
+    String FORMAT = "format";
 
     String MAX_POOL_SIZE = "max-pool-size";
+    String MIN_POOL_SIZE = "min-pool-size";
     String DERIVE_SIZE = "derive-size";
 
     String STRICT_MAX_BEAN_INSTANCE_POOL = "strict-max-bean-instance-pool";
+    String STRIPED_BEAN_INSTANCE_POOL = "striped-bean-instance-pool";
+    String ADAPTIVE_BEAN_INSTANCE_POOL = "adaptive-bean-instance-pool";
 
     String MAX_THREADS = "max-threads";
     String KEEPALIVE_TIME = "keepalive-time";
@@ -91,6 +95,7 @@ public interface EJB3SubsystemModel {
     String TIMER_SERVICE = "timer-service";
     String THREAD_POOL = "thread-pool";
     String THREAD_POOL_NAME = "thread-pool-name";
+    String SCHEDULER_THREADS = "scheduler-threads";
     String DEFAULT = "default";
 
     String USE_QUALIFIED_NAME = "use-qualified-name";
@@ -98,6 +103,7 @@ public interface EJB3SubsystemModel {
 
     String CACHE = "cache";
     String PASSIVATION_STORE = "passivation-store";
+    String LOCAL_PASSIVATION_STORE = "local-passivation-store";
 
     String MDB_DELIVERY_GROUP="mdb-delivery-group";
     String MDB_DELVIERY_GROUP_ACTIVE = "active";
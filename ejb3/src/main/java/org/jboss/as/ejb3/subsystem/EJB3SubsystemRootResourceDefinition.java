@@ -255,13 +255,20 @@ public class EJB3SubsystemRootResourceDefinition extends SimpleResourceDefinitio
         // subsystem=ejb3/strict-max-bean-instance-pool=*
         subsystemRegistration.registerSubModel(StrictMaxPoolResourceDefinition.INSTANCE);
 
+        // subsystem=ejb3/striped-bean-instance-pool=*
+        subsystemRegistration.registerSubModel(StripedPoolResourceDefinition.INSTANCE);
+
+        // subsystem=ejb3/adaptive-bean-instance-pool=*
+        subsystemRegistration.registerSubModel(AdaptivePoolResourceDefinition.INSTANCE);
+
         subsystemRegistration.registerSubModel(CacheFactoryResourceDefinition.INSTANCE);
         subsystemRegistration.registerSubModel(PassivationStoreResourceDefinition.INSTANCE);
         subsystemRegistration.registerSubModel(FilePassivationStoreResourceDefinition.INSTANCE);
         subsystemRegistration.registerSubModel(ClusterPassivationStoreResourceDefinition.INSTANCE);
+        subsystemRegistration.registerSubModel(LocalPassivationStoreResourceDefinition.INSTANCE);
 
         // subsystem=ejb3/service=timerservice
-        subsystemRegistration.registerSubModel(new TimerServiceResourceDefinition(pathManager));
+        subsystemRegistration.registerSubModel(new TimerServiceResourceDefinition(pathManager, registerRuntimeOnly));
 
         // subsystem=ejb3/thread-pool=*
         subsystemRegistration.registerSubModel(UnboundedQueueThreadPoolResourceDefinition.create(EJB3SubsystemModel.THREAD_POOL,
@@ -309,6 +316,9 @@ public class EJB3SubsystemRootResourceDefinition extends SimpleResourceDefinitio
         EJB3RemoteResourceDefinition.registerTransformers_1_2_0_and_1_3_0(builder);
         MdbDeliveryGroupResourceDefinition.registerTransformers_1_2_0_and_1_3_0(builder);
         StrictMaxPoolResourceDefinition.registerTransformers_1_2_0_and_1_3_0(builder);
+        StripedPoolResourceDefinition.registerTransformers(builder);
+        AdaptivePoolResourceDefinition.registerTransformers(builder);
+        LocalPassivationStoreResourceDefinition.registerTransformers(builder);
         builder.rejectChildResource(PathElement.pathElement(EJB3SubsystemModel.REMOTING_PROFILE));
         if (version.equals(VERSION_1_2_1)) {
             TimerServiceResourceDefinition.registerTransformers_1_2_0(builder);
@@ -325,6 +335,10 @@ public class EJB3SubsystemRootResourceDefinition extends SimpleResourceDefinitio
         MdbDeliveryGroupResourceDefinition.registerTransformers_3_0(builder);
         EJB3RemoteResourceDefinition.registerTransformers_3_0(builder);
         StrictMaxPoolResourceDefinition.registerTransformers_3_0_0(builder);
+        StripedPoolResourceDefinition.registerTransformers(builder);
+        AdaptivePoolResourceDefinition.registerTransformers(builder);
+        LocalPassivationStoreResourceDefinition.registerTransformers(builder);
+        TimerServiceResourceDefinition.registerTransformers_3_0_0(builder);
         TransformationDescription.Tools.register(builder.build(), subsystemRegistration, VERSION_3_0_0);
     }
 
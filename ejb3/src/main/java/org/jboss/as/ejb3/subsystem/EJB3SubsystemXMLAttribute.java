@@ -54,6 +54,8 @@ public enum EJB3SubsystemXMLAttribute {
     ENABLE_BY_DEFAULT("enable-by-default"),
     EXCLUDE_LOCAL_RECEIVER("exclude-local-receiver"),
 
+    FORMAT("format"),
+
     @Deprecated GROUPS_PATH("groups-path"),
 
     @Deprecated IDLE_TIMEOUT("idle-timeout"),
@@ -69,6 +71,7 @@ public enum EJB3SubsystemXMLAttribute {
     MAX_SIZE("max-size"),
     DERIVE_SIZE("derive-size"),
     MAX_THREADS("max-threads"),
+    MIN_POOL_SIZE("min-pool-size"),
 
     NAME("name"),
 
@@ -86,6 +89,7 @@ public enum EJB3SubsystemXMLAttribute {
     RELATIVE_TO("relative-to"),
     RESOURCE_ADAPTER_NAME("resource-adapter-name"),
 
+    SCHEDULER_THREADS("scheduler-threads"),
     @Deprecated SESSIONS_PATH("sessions-path"),
     @Deprecated SUBDIRECTORY_COUNT("subdirectory-count"),
 
@@ -34,6 +34,7 @@ public enum EJB3SubsystemXMLElement {
     // must be first
     UNKNOWN(null),
 
+    ADAPTIVE_POOL("adaptive-pool"),
     ASYNC("async"),
 
     BEAN_INSTANCE_POOLS("bean-instance-pools"),
@@ -53,6 +54,8 @@ public enum EJB3SubsystemXMLElement {
     IIOP("iiop"),
     IN_VM_REMOTE_INTERFACE_INVOCATION("in-vm-remote-interface-invocation"),
 
+    LOCAL_PASSIVATION_STORE("local-passivation-store"),
+
     MDB("mdb"),
 
     POOLS("pools"),
@@ -86,6 +89,7 @@ public enum EJB3SubsystemXMLElement {
     STATELESS("stateless"),
     STATISTICS("statistics"),
     STRICT_MAX_POOL("strict-max-pool"),
+    STRIPED_POOL("striped-pool"),
 
     THREAD_POOL("thread-pool"),
     THREAD_POOLS("thread-pools"),
@@ -23,6 +23,7 @@
 package org.jboss.as.ejb3.subsystem;
 
 import org.jboss.as.controller.AttributeDefinition;
+import org.jboss.as.controller.SimpleAttributeDefinition;
 import org.jboss.as.controller.persistence.SubsystemMarshallingContext;
 import org.jboss.as.remoting.Attribute;
 import org.jboss.as.threads.ThreadsParser;
@@ -126,7 +127,8 @@ public class EJB3SubsystemXMLPersister implements XMLElementWriter<SubsystemMars
             writer.writeEndElement();
         }
         // write the pools element
-        if (model.hasDefined(EJB3SubsystemModel.STRICT_MAX_BEAN_INSTANCE_POOL)) {
+        if (model.hasDefined(EJB3SubsystemModel.STRICT_MAX_BEAN_INSTANCE_POOL) || model.hasDefined(EJB3SubsystemModel.STRIPED_BEAN_INSTANCE_POOL)
+                || model.hasDefined(EJB3SubsystemModel.ADAPTIVE_BEAN_INSTANCE_POOL)) {
             // <pools>
             writer.writeStartElement(EJB3SubsystemXMLElement.POOLS.getLocalName());
             // <bean-instance-pools>
@@ -151,13 +153,15 @@ public class EJB3SubsystemXMLPersister implements XMLElementWriter<SubsystemMars
         // write the passivation-stores element
         if (model.hasDefined(EJB3SubsystemModel.PASSIVATION_STORE)
                 || model.hasDefined(EJB3SubsystemModel.CLUSTER_PASSIVATION_STORE)
-                || model.hasDefined(EJB3SubsystemModel.FILE_PASSIVATION_STORE)) {
+                || model.hasDefined(EJB3SubsystemModel.FILE_PASSIVATION_STORE)
+                || model.hasDefined(EJB3SubsystemModel.LOCAL_PASSIVATION_STORE)) {
             // <passivation-stores>
             writer.writeStartElement(EJB3SubsystemXMLElement.PASSIVATION_STORES.getLocalName());
             // write the caches
             this.writePassivationStores(writer, model);
             this.writeFilePassivationStores(writer, model);
             this.writeClusterPassivationStores(writer, model);
+            this.writeLocalPassivationStores(writer, model);
             // </passivation-stores>
             writer.writeEndElement();
         }
@@ -414,6 +418,30 @@ public class EJB3SubsystemXMLPersister implements XMLElementWriter<SubsystemMars
                 writer.writeEndElement();
             }
         }
+        if (beanInstancePoolModelNode.hasDefined(EJB3SubsystemModel.STRIPED_BEAN_INSTANCE_POOL)) {
+            final List<Property> stripedPools = beanInstancePoolModelNode.get(EJB3SubsystemModel.STRIPED_BEAN_INSTANCE_POOL).asPropertyList();
+            for (Property property : stripedPools) {
+                // <striped-pool>
+                writer.writeStartElement(EJB3SubsystemXMLElement.STRIPED_POOL.getLocalName());
+                // contents of striped-pool, which shares the strict-max-pool attributes
+                this.writeStrictMaxPoolConfig(writer, property);
+                // </striped-pool>
+                writer.writeEndElement();
+            }
+        }
+        if (beanInstancePoolModelNode.hasDefined(EJB3SubsystemModel.ADAPTIVE_BEAN_INSTANCE_POOL)) {
+            final List<Property> adaptivePools = beanInstancePoolModelNode.get(EJB3SubsystemModel.ADAPTIVE_BEAN_INSTANCE_POOL).asPropertyList();
+            for (Property property : adaptivePools) {
+                // <adaptive-pool>
+                writer.writeStartElement(EJB3SubsystemXMLElement.ADAPTIVE_POOL.getLocalName());
+                writer.writeAttribute(EJB3SubsystemXMLAttribute.NAME.getLocalName(), property.getName());
+                for (SimpleAttributeDefinition attribute : AdaptivePoolResourceDefinition.ATTRIBUTES.values()) {
+                    attribute.marshallAsAttribute(property.getValue(), writer);
+                }
+                // </adaptive-pool>
+                writer.writeEndElement();
+            }
+        }
     }
 
     private void writeStrictMaxPoolConfig(final XMLExtendedStreamWriter writer, final Property strictMaxPoolModel) throws XMLStreamException {
@@ -455,6 +483,19 @@ public class EJB3SubsystemXMLPersister implements XMLElementWriter<SubsystemMars
         }
     }
 
+    private void writeLocalPassivationStores(XMLExtendedStreamWriter writer, ModelNode model) throws XMLStreamException {
+        if (model.hasDefined(EJB3SubsystemModel.LOCAL_PASSIVATION_STORE)) {
+            List<Property> stores = model.get(EJB3SubsystemModel.LOCAL_PASSIVATION_STORE).asPropertyList();
+            for (Property property : stores) {
+                writer.writeStartElement(EJB3SubsystemXMLElement.LOCAL_PASSIVATION_STORE.getLocalName());
+                ModelNode store = property.getValue();
+                writer.writeAttribute(EJB3SubsystemXMLAttribute.NAME.getLocalName(), property.getName());
+                PassivationStoreResourceDefinition.MAX_SIZE.marshallAsAttribute(store, writer);
+                writer.writeEndElement();
+            }
+        }
+    }
+
     /**
      * Persist as a passivation-store using relevant attributes
      */
@@ -505,6 +546,7 @@ public class EJB3SubsystemXMLPersister implements XMLElementWriter<SubsystemMars
 
         TimerServiceResourceDefinition.THREAD_POOL_NAME.marshallAsAttribute(timerServiceModel, writer);
         TimerServiceResourceDefinition.DEFAULT_DATA_STORE.marshallAsAttribute(timerServiceModel, writer);
+        TimerServiceResourceDefinition.SCHEDULER_THREADS.marshallAsAttribute(timerServiceModel, writer);
 
         writer.writeStartElement(EJB3SubsystemXMLElement.DATA_STORES.getLocalName());
         writeFileDataStores(writer, timerServiceModel);
@@ -539,6 +581,7 @@ public class EJB3SubsystemXMLPersister implements XMLElementWriter<SubsystemMars
                 writer.writeAttribute(EJB3SubsystemXMLAttribute.NAME.getLocalName(), property.getName());
                 FileDataStoreResourceDefinition.PATH.marshallAsAttribute(store, writer);
                 FileDataStoreResourceDefinition.RELATIVE_TO.marshallAsAttribute(store, writer);
+                FileDataStoreResourceDefinition.FORMAT.marshallAsAttribute(store, writer);
                 writer.writeEndElement();
             }
         }
@@ -37,6 +37,7 @@ import org.jboss.as.controller.services.path.PathManager;
 import org.jboss.as.controller.services.path.PathManagerService;
 import org.jboss.as.ejb3.timerservice.persistence.TimerPersistence;
 import org.jboss.as.ejb3.timerservice.persistence.filestore.FileTimerPersistence;
+import org.jboss.as.ejb3.timerservice.persistence.filestore.JournalFileTimerPersistence;
 import org.jboss.as.server.Services;
 import org.jboss.as.txn.service.TransactionManagerService;
 import org.jboss.as.txn.service.TransactionSynchronizationRegistryService;
@@ -71,9 +72,11 @@ public class FileDataStoreAdd extends AbstractAddStepHandler {
         final String path = pathNode.isDefined() ? pathNode.asString() : null;
         final ModelNode relativeToNode = FileDataStoreResourceDefinition.RELATIVE_TO.resolveModelAttribute(context, model);
         final String relativeTo = relativeToNode.isDefined() ? relativeToNode.asString() : null;
+        final FileDataStoreResourceDefinition.Format format = FileDataStoreResourceDefinition.Format.fromValue(FileDataStoreResourceDefinition.FORMAT.resolveModelAttribute(context, model).asString());
 
-
-        final FileTimerPersistence fileTimerPersistence = new FileTimerPersistence(true, path, relativeTo);
+        final FileTimerPersistence fileTimerPersistence = (format == FileDataStoreResourceDefinition.Format.JOURNAL)
+                ? new JournalFileTimerPersistence(true, path, relativeTo)
+                : new FileTimerPersistence(true, path, relativeTo);
         final PathAddress address = PathAddress.pathAddress(operation.get(OP_ADDR));
         final ServiceName serviceName = TimerPersistence.SERVICE_NAME.append(address.getLastElement().getValue());
         newControllers.add(context.getServiceTarget().addService(serviceName, fileTimerPersistence)
@@ -32,6 +32,7 @@ import org.jboss.as.controller.ServiceRemoveStepHandler;
 import org.jboss.as.controller.SimpleAttributeDefinition;
 import org.jboss.as.controller.SimpleAttributeDefinitionBuilder;
 import org.jboss.as.controller.SimpleResourceDefinition;
+import org.jboss.as.controller.operations.validation.EnumValidator;
 import org.jboss.as.controller.operations.validation.ModelTypeValidator;
 import org.jboss.as.controller.operations.validation.StringLengthValidator;
 import org.jboss.as.controller.registry.AttributeAccess;
@@ -39,7 +40,11 @@ import org.jboss.as.controller.registry.ManagementResourceRegistration;
 import org.jboss.as.controller.registry.OperationEntry;
 import org.jboss.as.controller.services.path.PathManager;
 import org.jboss.as.controller.services.path.ResolvePathHandler;
+import org.jboss.as.controller.transform.description.DiscardAttributeChecker;
+import org.jboss.as.controller.transform.description.RejectAttributeChecker;
+import org.jboss.as.controller.transform.description.ResourceTransformationDescriptionBuilder;
 import org.jboss.as.ejb3.timerservice.persistence.TimerPersistence;
+import org.jboss.dmr.ModelNode;
 import org.jboss.dmr.ModelType;
 
 /**
@@ -60,6 +65,14 @@ public class FileDataStoreResourceDefinition extends SimpleResourceDefinition {
                     .setFlags(AttributeAccess.Flag.RESTART_ALL_SERVICES)
                     .build();
 
+    public static final SimpleAttributeDefinition FORMAT =
+            new SimpleAttributeDefinitionBuilder(EJB3SubsystemModel.FORMAT, ModelType.STRING, true)
+                    .setDefaultValue(new ModelNode().set(Format.XML.toString()))
+                    .setAllowExpression(true)
+                    .setValidator(EnumValidator.create(Format.class, true, false))
+                    .setFlags(AttributeAccess.Flag.RESTART_ALL_SERVICES)
+                    .build();
+
     private final PathManager pathManager;
 
     public static final Map<String, AttributeDefinition> ATTRIBUTES;
@@ -68,6 +81,7 @@ public class FileDataStoreResourceDefinition extends SimpleResourceDefinition {
         Map<String, AttributeDefinition> map = new LinkedHashMap<String, AttributeDefinition>();
         map.put(PATH.getName(), PATH);
         map.put(RELATIVE_TO.getName(), RELATIVE_TO);
+        map.put(FORMAT.getName(), FORMAT);
 
         ATTRIBUTES = Collections.unmodifiableMap(map);
     }
@@ -98,4 +112,45 @@ public class FileDataStoreResourceDefinition extends SimpleResourceDefinition {
             resourceRegistration.registerOperationHandler(resolvePathHandler.getOperationDefinition(), resolvePathHandler);
         }
     }
+
+    static void registerTransformers(ResourceTransformationDescriptionBuilder timerService) {
+        ResourceTransformationDescriptionBuilder fileDataStore = timerService.addChildResource(EJB3SubsystemModel.FILE_DATA_STORE_PATH);
+        fileDataStore.getAttributeBuilder()
+                .setDiscard(new DiscardAttributeChecker.DiscardAttributeValueChecker(new ModelNode(Format.XML.toString())), FORMAT)
+                .addRejectCheck(RejectAttributeChecker.DEFINED, FORMAT);
+    }
+
+    /**
+     * The on-disk format of the timers held by a file data store.
+     */
+    enum Format {
+        /**
+         * One XML document per timer, rewritten on every change.
+         */
+        XML("xml"),
+        /**
+         * A segmented, binary, append-only journal shared by all timers of the store.
+         */
+        JOURNAL("journal");
+
+        private final String value;
+
+        Format(String value) {
+            this.value = value;
+        }
+
+        @Override
+        public String toString() {
+            return value;
+        }
+
+        public static Format fromValue(String value) {
+            for (Format format : values()) {
+                if (format.value.equals(value)) {
+                    return format;
+                }
+            }
+            return valueOf(value);
+        }
+    }
 }
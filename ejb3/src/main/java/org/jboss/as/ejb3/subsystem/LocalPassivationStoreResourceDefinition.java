@@ -0,0 +1,59 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2015, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.jboss.as.ejb3.subsystem;
+
+import org.jboss.as.controller.AttributeDefinition;
+import org.jboss.as.controller.PathElement;
+import org.jboss.as.controller.SimpleResourceDefinition;
+import org.jboss.as.controller.registry.ManagementResourceRegistration;
+import org.jboss.as.controller.registry.OperationEntry;
+import org.jboss.as.controller.transform.description.ResourceTransformationDescriptionBuilder;
+
+/**
+ * {@link org.jboss.as.controller.ResourceDefinition} for the local-passivation-store resource.
+ * A local passivation store passivates beans to the local file system, and so does not require a cache container.
+ */
+public class LocalPassivationStoreResourceDefinition extends SimpleResourceDefinition {
+
+    static final AttributeDefinition[] ATTRIBUTES = { PassivationStoreResourceDefinition.MAX_SIZE };
+
+    static final LocalPassivationStoreAdd ADD_HANDLER = new LocalPassivationStoreAdd(ATTRIBUTES);
+    static final PassivationStoreRemove REMOVE_HANDLER = new PassivationStoreRemove(ADD_HANDLER);
+    private static final PassivationStoreWriteHandler WRITE_HANDLER = new PassivationStoreWriteHandler(ATTRIBUTES);
+
+    static final LocalPassivationStoreResourceDefinition INSTANCE = new LocalPassivationStoreResourceDefinition();
+
+    private LocalPassivationStoreResourceDefinition() {
+        super(PathElement.pathElement(EJB3SubsystemModel.LOCAL_PASSIVATION_STORE), EJB3Extension.getResourceDescriptionResolver(EJB3SubsystemModel.LOCAL_PASSIVATION_STORE), ADD_HANDLER, REMOVE_HANDLER, OperationEntry.Flag.RESTART_NONE, OperationEntry.Flag.RESTART_RESOURCE_SERVICES);
+    }
+
+    @Override
+    public void registerAttributes(ManagementResourceRegistration resourceRegistration) {
+        for (AttributeDefinition definition: ATTRIBUTES) {
+            resourceRegistration.registerReadWriteAttribute(definition, null, WRITE_HANDLER);
+        }
+    }
+
+    static void registerTransformers(ResourceTransformationDescriptionBuilder parent) {
+        parent.rejectChildResource(INSTANCE.getPathElement());
+    }
+}
@@ -30,10 +30,12 @@ import org.jboss.as.controller.PathAddress;
 import org.jboss.as.controller.descriptions.ModelDescriptionConstants;
 import org.jboss.as.ejb3.cache.distributable.DistributableCacheFactoryBuilder;
 import org.jboss.as.ejb3.cache.distributable.DistributableCacheFactoryBuilderService;
+import org.jboss.as.ejb3.cache.local.LocalCacheFactoryBuilder;
 import org.jboss.dmr.ModelNode;
 import org.jboss.msc.service.ServiceController;
 import org.jboss.msc.service.ServiceName;
 import org.jboss.msc.service.ServiceRegistry;
+import org.wildfly.clustering.ejb.BeanPassivationConfiguration;
 
 /**
  * @author Paul Ferraro
@@ -64,16 +66,26 @@ public class PassivationStoreWriteHandler extends AbstractWriteAttributeHandler<
         ServiceRegistry registry = context.getServiceRegistry(true);
         ServiceController<?> service = registry.getService(serviceName);
         if (service != null) {
-            DistributableCacheFactoryBuilder<?, ?> builder = (DistributableCacheFactoryBuilder<?, ?>) service.getValue();
-            if (builder != null) {
+            BeanPassivationConfiguration config = getConfiguration(service.getValue());
+            if (config != null) {
                 if (this.maxSizeAttribute.getName().equals(attributeName)) {
                     int maxSize = this.maxSizeAttribute.resolveModelAttribute(context, model).asInt();
-                    builder.getConfiguration().setMaxSize(maxSize);
+                    config.setMaxSize(maxSize);
                 }
             }
         }
     }
 
+    private static BeanPassivationConfiguration getConfiguration(Object builder) {
+        if (builder instanceof DistributableCacheFactoryBuilder) {
+            return ((DistributableCacheFactoryBuilder<?, ?>) builder).getConfiguration();
+        }
+        if (builder instanceof LocalCacheFactoryBuilder) {
+            return ((LocalCacheFactoryBuilder<?, ?>) builder).getConfiguration();
+        }
+        return null;
+    }
+
     @Override
     protected void revertUpdateToRuntime(OperationContext context, ModelNode operation, String attributeName, ModelNode valueToRestore, ModelNode valueToRevert, Void handback) throws OperationFailedException {
         ModelNode restored = context.readResource(PathAddress.EMPTY_ADDRESS).getModel().clone();
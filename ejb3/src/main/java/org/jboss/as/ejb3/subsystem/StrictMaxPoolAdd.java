@@ -32,6 +32,7 @@ import org.jboss.as.controller.PathAddress;
 import org.jboss.as.controller.ServiceVerificationHandler;
 import org.jboss.as.controller.descriptions.ModelDescriptionConstants;
 import org.jboss.as.ejb3.component.pool.PoolConfig;
+import org.jboss.as.ejb3.component.pool.StrictMaxPoolConfig;
 import org.jboss.as.ejb3.component.pool.StrictMaxPoolConfigService;
 import org.jboss.dmr.ModelNode;
 import org.jboss.msc.service.ServiceBuilder;
@@ -86,7 +87,7 @@ public class StrictMaxPoolAdd extends AbstractAddStepHandler {
         final long timeout = StrictMaxPoolResourceDefinition.INSTANCE_ACQUISITION_TIMEOUT.resolveModelAttribute(context, strictMaxPoolModel).asLong();
         final String unit = StrictMaxPoolResourceDefinition.INSTANCE_ACQUISITION_TIMEOUT_UNIT.resolveModelAttribute(context, strictMaxPoolModel).asString();
         // create and install the service
-        final StrictMaxPoolConfigService poolConfigService = new StrictMaxPoolConfigService(poolName, maxPoolSize, derive, timeout, TimeUnit.valueOf(unit));
+        final StrictMaxPoolConfigService poolConfigService = new StrictMaxPoolConfigService(this.createPoolConfig(poolName, maxPoolSize, timeout, TimeUnit.valueOf(unit)), derive);
 
 
         final ServiceName serviceName = StrictMaxPoolConfigService.EJB_POOL_CONFIG_BASE_SERVICE_NAME.append(poolName);
@@ -103,4 +104,11 @@ public class StrictMaxPoolAdd extends AbstractAddStepHandler {
         return svcBuilder.install();
     }
 
+    /**
+     * Creates the pool configuration exposed by the installed pool config service.
+     */
+    protected StrictMaxPoolConfig createPoolConfig(String poolName, int maxPoolSize, long timeout, TimeUnit timeUnit) {
+        return new StrictMaxPoolConfig(poolName, maxPoolSize, timeout, timeUnit);
+    }
+
 }
@@ -34,6 +34,7 @@ import org.jboss.as.ejb3.deployment.processors.AroundTimeoutAnnotationParsingPro
 import org.jboss.as.ejb3.deployment.processors.TimerServiceDeploymentProcessor;
 import org.jboss.as.ejb3.deployment.processors.annotation.TimerServiceAnnotationProcessor;
 import org.jboss.as.ejb3.deployment.processors.merging.TimerMethodMergingProcessor;
+import org.jboss.as.ejb3.timerservice.TimerScheduler;
 import org.jboss.as.server.AbstractDeploymentChainStep;
 import org.jboss.as.server.DeploymentProcessorTarget;
 import org.jboss.as.server.deployment.Phase;
@@ -81,6 +82,8 @@ public class TimerServiceAdd extends AbstractBoottimeAddStepHandler {
         final String defaultDataStore = TimerServiceResourceDefinition.DEFAULT_DATA_STORE.resolveModelAttribute(context, model).asString();
         final String threadPoolName = TimerServiceResourceDefinition.THREAD_POOL_NAME.resolveModelAttribute(context, model).asString();
         final ServiceName threadPoolServiceName = EJB3SubsystemModel.BASE_THREAD_POOL_SERVICE_NAME.append(threadPoolName);
+        final ModelNode schedulerThreads = TimerServiceResourceDefinition.SCHEDULER_THREADS.resolveModelAttribute(context, model);
+        final int concurrency = schedulerThreads.isDefined() ? schedulerThreads.asInt() : Math.min(Runtime.getRuntime().availableProcessors(), 4);
 
         context.addStep(new AbstractDeploymentChainStep() {
             protected void execute(DeploymentProcessorTarget processorTarget) {
@@ -95,6 +98,8 @@ public class TimerServiceAdd extends AbstractBoottimeAddStepHandler {
 
         newControllers.add(context.getServiceTarget().addService(TimerServiceDeploymentProcessor.TIMER_SERVICE_NAME, new TimerValueService())
                 .install());
+        newControllers.add(context.getServiceTarget().addService(TimerServiceDeploymentProcessor.TIMER_SCHEDULER_SERVICE_NAME, new TimerSchedulerService(concurrency))
+                .install());
 
     }
 
@@ -118,4 +123,31 @@ public class TimerServiceAdd extends AbstractBoottimeAddStepHandler {
             return timer;
         }
     }
+
+    private static final class TimerSchedulerService implements Service<TimerScheduler> {
+
+        private final int concurrency;
+        private TimerScheduler scheduler;
+
+        TimerSchedulerService(int concurrency) {
+            this.concurrency = concurrency;
+        }
+
+        @Override
+        public synchronized void start(final StartContext context) throws StartException {
+            scheduler = new TimerScheduler(concurrency);
+            scheduler.start();
+        }
+
+        @Override
+        public synchronized void stop(final StopContext context) {
+            scheduler.stop();
+            scheduler = null;
+        }
+
+        @Override
+        public synchronized TimerScheduler getValue() throws IllegalStateException, IllegalArgumentException {
+            return scheduler;
+        }
+    }
 }
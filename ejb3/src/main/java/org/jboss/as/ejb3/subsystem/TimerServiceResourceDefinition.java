@@ -36,6 +36,7 @@ import org.jboss.as.controller.SimpleAttributeDefinition;
 import org.jboss.as.controller.SimpleAttributeDefinitionBuilder;
 import org.jboss.as.controller.SimpleResourceDefinition;
 import org.jboss.as.controller.descriptions.ModelDescriptionConstants;
+import org.jboss.as.controller.operations.validation.IntRangeValidator;
 import org.jboss.as.controller.registry.AttributeAccess;
 import org.jboss.as.controller.registry.ManagementResourceRegistration;
 import org.jboss.as.controller.registry.OperationEntry;
@@ -49,6 +50,7 @@ import org.jboss.as.controller.transform.ResourceTransformationContext;
 import org.jboss.as.controller.transform.TransformationContext;
 import org.jboss.as.controller.transform.TransformationTarget;
 import org.jboss.as.controller.transform.description.DiscardAttributeChecker;
+import org.jboss.as.controller.transform.description.RejectAttributeChecker;
 import org.jboss.as.controller.transform.description.ResourceTransformationDescriptionBuilder;
 import org.jboss.as.ejb3.logging.EjbLogger;
 import org.jboss.dmr.ModelNode;
@@ -73,24 +75,38 @@ public class TimerServiceResourceDefinition extends SimpleResourceDefinition {
                     //.setDefaultValue(new ModelNode("default-file-store")) //for backward compatibility!
                     .build();
 
+    /**
+     * The number of threads scheduling the timeouts of the timers, each thread scheduling a shard of the timers.
+     * If undefined, one thread per processor, up to 4.
+     */
+    static final SimpleAttributeDefinition SCHEDULER_THREADS =
+            new SimpleAttributeDefinitionBuilder(EJB3SubsystemModel.SCHEDULER_THREADS, ModelType.INT, true)
+                    .setAllowExpression(true)
+                    .setValidator(new IntRangeValidator(1, Integer.MAX_VALUE, true, true))
+                    .setFlags(AttributeAccess.Flag.RESTART_ALL_SERVICES)
+                    .build();
+
     public static final Map<String, AttributeDefinition> ATTRIBUTES ;
 
     private final PathManager pathManager;
+    private final boolean registerRuntimeOnly;
 
     static {
         Map<String, AttributeDefinition> map = new LinkedHashMap<String, AttributeDefinition>();
         map.put(THREAD_POOL_NAME.getName(), THREAD_POOL_NAME);
         map.put(DEFAULT_DATA_STORE.getName(), DEFAULT_DATA_STORE);
+        map.put(SCHEDULER_THREADS.getName(), SCHEDULER_THREADS);
 
         ATTRIBUTES = Collections.unmodifiableMap(map);
     }
 
-    public TimerServiceResourceDefinition(final PathManager pathManager) {
+    public TimerServiceResourceDefinition(final PathManager pathManager, final boolean registerRuntimeOnly) {
         super(EJB3SubsystemModel.TIMER_SERVICE_PATH,
                 EJB3Extension.getResourceDescriptionResolver(EJB3SubsystemModel.TIMER_SERVICE),
                 TimerServiceAdd.INSTANCE, ReloadRequiredRemoveStepHandler.INSTANCE,
                 OperationEntry.Flag.RESTART_ALL_SERVICES, OperationEntry.Flag.RESTART_ALL_SERVICES);
         this.pathManager = pathManager;
+        this.registerRuntimeOnly = registerRuntimeOnly;
     }
 
 
@@ -105,11 +121,12 @@ public class TimerServiceResourceDefinition extends SimpleResourceDefinition {
     public void registerChildren(final ManagementResourceRegistration resourceRegistration) {
         resourceRegistration.registerSubModel(new FileDataStoreResourceDefinition(pathManager));
 
-        resourceRegistration.registerSubModel(DatabaseDataStoreResourceDefinition.INSTANCE);
+        resourceRegistration.registerSubModel(new DatabaseDataStoreResourceDefinition(registerRuntimeOnly));
     }
 
     static void registerTransformers_1_2_0(ResourceTransformationDescriptionBuilder parent) {
         ResourceTransformationDescriptionBuilder timerService = parent.addChildResource(EJB3SubsystemModel.TIMER_SERVICE_PATH);
+        registerSchedulerThreadsTransformers(timerService);
         registerDataStoreTransformers(timerService);
     }
 
@@ -138,7 +155,22 @@ public class TimerServiceResourceDefinition extends SimpleResourceDefinition {
 
     public static void registerTransformers_1_3_0(ResourceTransformationDescriptionBuilder parent) {
         ResourceTransformationDescriptionBuilder timerService = parent.addChildResource(EJB3SubsystemModel.TIMER_SERVICE_PATH);
+        registerSchedulerThreadsTransformers(timerService);
         DatabaseDataStoreResourceDefinition.registerTransformers1_3_0(timerService);
+        FileDataStoreResourceDefinition.registerTransformers(timerService);
+    }
+
+    static void registerTransformers_3_0_0(ResourceTransformationDescriptionBuilder parent) {
+        ResourceTransformationDescriptionBuilder timerService = parent.addChildResource(EJB3SubsystemModel.TIMER_SERVICE_PATH);
+        registerSchedulerThreadsTransformers(timerService);
+        FileDataStoreResourceDefinition.registerTransformers(timerService);
+    }
+
+    private static void registerSchedulerThreadsTransformers(ResourceTransformationDescriptionBuilder timerService) {
+        timerService.getAttributeBuilder()
+                .setDiscard(DiscardAttributeChecker.UNDEFINED, SCHEDULER_THREADS)
+                .addRejectCheck(RejectAttributeChecker.DEFINED, SCHEDULER_THREADS)
+                .end();
     }
 
     private static class DataStoreTransformer implements CombinedTransformer {
@@ -152,7 +184,7 @@ public class TimerServiceResourceDefinition extends SimpleResourceDefinition {
             String defaultDataStore = original.getModel().get(DEFAULT_DATA_STORE.getName()).asString();
             boolean hasFileDataStore = original.hasChild(PathElement.pathElement(EJB3SubsystemModel.FILE_DATA_STORE_PATH.getKey(), defaultDataStore));
             if (original.getChildren(EJB3SubsystemModel.FILE_DATA_STORE).size() > 1 ||
-                    !hasFileDataStore){
+                    !hasFileDataStore || isJournal(operation)){
                 return new TransformedOperation(operation, new OperationRejectionPolicy() {
                     @Override
                     public boolean rejectOperation(ModelNode preparedResult) {
@@ -165,6 +197,7 @@ public class TimerServiceResourceDefinition extends SimpleResourceDefinition {
                     }
                 }, OperationResultTransformer.ORIGINAL_RESULT);
             }
+            operation.remove(EJB3SubsystemModel.FORMAT);
             operation.get(THREAD_POOL_NAME.getName()).set(original.getModel().get(THREAD_POOL_NAME.getName()));
             return new TransformedOperation(operation, OperationResultTransformer.ORIGINAL_RESULT);
         }
@@ -177,12 +210,18 @@ public class TimerServiceResourceDefinition extends SimpleResourceDefinition {
 
             ModelNode transformed = resource.getModel();
             transformed.remove(DEFAULT_DATA_STORE.getName());
+            if (transformed.hasDefined(SCHEDULER_THREADS.getName())) {
+                // Legacy servers cannot configure the threads of the timer scheduler
+                throw new OperationFailedException(EjbLogger.ROOT_LOGGER.untransformableTimerService(address));
+            }
+            transformed.remove(SCHEDULER_THREADS.getName());
             ModelNode fileStore = untransformedModel.get(EJB3SubsystemModel.FILE_DATA_STORE, defaultDataStore);
             if (!fileStore.isDefined()) {//happens where default is not file-store
                 rejectIncompatibleDataStores(context, address);
             } else if ((untransformedModel.hasDefined(EJB3SubsystemModel.DATABASE_DATA_STORE)
                             && untransformedModel.get(EJB3SubsystemModel.DATABASE_DATA_STORE).keys().size() > 0)
-                        || untransformedModel.get(EJB3SubsystemModel.FILE_DATA_STORE).keys().size() > 1) {
+                        || untransformedModel.get(EJB3SubsystemModel.FILE_DATA_STORE).keys().size() > 1
+                        || isJournal(fileStore)) {
                 rejectIncompatibleDataStores(context, address);
             }
 
@@ -194,6 +233,14 @@ public class TimerServiceResourceDefinition extends SimpleResourceDefinition {
             //do not process children!
         }
 
+        /**
+         * Legacy file data stores can only read the per-timer XML format, so anything else (including an expression) is rejected.
+         */
+        private static boolean isJournal(ModelNode fileStore) {
+            return fileStore.hasDefined(EJB3SubsystemModel.FORMAT)
+                    && !fileStore.get(EJB3SubsystemModel.FORMAT).equals(new ModelNode(FileDataStoreResourceDefinition.Format.XML.toString()));
+        }
+
         private void rejectIncompatibleDataStores(ResourceTransformationContext context, PathAddress address) throws OperationFailedException {
             TransformationTarget tgt = context.getTarget();
             throw new OperationFailedException(EjbLogger.ROOT_LOGGER.untransformableTimerService(address));
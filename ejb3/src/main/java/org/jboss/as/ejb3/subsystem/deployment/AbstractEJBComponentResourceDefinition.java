@@ -39,7 +39,10 @@ import org.jboss.as.controller.registry.AttributeAccess;
 import org.jboss.as.controller.registry.ManagementResourceRegistration;
 import org.jboss.as.ejb3.component.EJBComponent;
 import org.jboss.as.ejb3.component.invocationmetrics.InvocationMetrics;
+import org.jboss.as.ejb3.component.pool.PooledComponent;
 import org.jboss.as.ejb3.component.stateful.StatefulSessionComponent;
+import org.jboss.as.ejb3.pool.Pool;
+import org.jboss.as.ejb3.pool.adaptive.AdaptivePool;
 import org.jboss.as.ejb3.subsystem.EJB3Extension;
 import org.jboss.dmr.ModelNode;
 import org.jboss.dmr.ModelType;
@@ -128,6 +131,20 @@ public abstract class AbstractEJBComponentResourceDefinition extends SimpleResou
     public static final SimpleAttributeDefinition POOL_MAX_SIZE = new SimpleAttributeDefinitionBuilder("pool-max-size", ModelType.INT, false)
             .setFlags(AttributeAccess.Flag.STORAGE_RUNTIME).build();
 
+    // Adaptive pool attributes
+
+    private static final AttributeDefinition POOL_WAIT_HISTOGRAM = new SimpleAttributeDefinitionBuilder("pool-wait-histogram", ModelType.OBJECT, true)
+            .setFlags(AttributeAccess.Flag.STORAGE_RUNTIME)
+            .build();
+    private static final AttributeDefinition POOL_RESIZE_COUNT = new SimpleAttributeDefinitionBuilder("pool-resize-count", ModelType.LONG)
+            .setUndefinedMetricValue(new ModelNode(0))
+            .setFlags(AttributeAccess.Flag.STORAGE_RUNTIME)
+            .build();
+    private static final AttributeDefinition POOL_RESIZE_EVENTS = new PrimitiveListAttributeDefinition.Builder("pool-resize-events", ModelType.STRING)
+            .setAllowNull(true)
+            .setStorageRuntime()
+            .build();
+
     private final EJBComponentType componentType;
 
     public AbstractEJBComponentResourceDefinition(final EJBComponentType componentType) {
@@ -154,6 +171,30 @@ public abstract class AbstractEJBComponentResourceDefinition extends SimpleResou
             resourceRegistration.registerReadOnlyAttribute(POOL_REMOVE_COUNT, handler);
             resourceRegistration.registerReadOnlyAttribute(POOL_CURRENT_SIZE, handler);
             resourceRegistration.registerReadWriteAttribute(POOL_MAX_SIZE, handler, handler);
+            resourceRegistration.registerMetric(POOL_WAIT_HISTOGRAM, new AbstractAdaptivePoolMetricsHandler() {
+                @Override
+                protected void executeReadMetricStep(final OperationContext context, final ModelNode operation, final AdaptivePool<?> pool) {
+                    context.getResult().setEmptyObject();
+                    for (Map.Entry<String, Long> entry : pool.getWaitHistogram().getCounts().entrySet()) {
+                        context.getResult().get(entry.getKey()).set(entry.getValue());
+                    }
+                }
+            });
+            resourceRegistration.registerMetric(POOL_RESIZE_COUNT, new AbstractAdaptivePoolMetricsHandler() {
+                @Override
+                protected void executeReadMetricStep(final OperationContext context, final ModelNode operation, final AdaptivePool<?> pool) {
+                    context.getResult().set(pool.getResizeCount());
+                }
+            });
+            resourceRegistration.registerMetric(POOL_RESIZE_EVENTS, new AbstractAdaptivePoolMetricsHandler() {
+                @Override
+                protected void executeReadMetricStep(final OperationContext context, final ModelNode operation, final AdaptivePool<?> pool) {
+                    context.getResult().setEmptyList();
+                    for (AdaptivePool.ResizeEvent event : pool.getResizeEvents()) {
+                        context.getResult().add(event.toString());
+                    }
+                }
+            });
         }
 
         if (componentType.equals(EJBComponentType.STATEFUL)) {
@@ -217,6 +258,21 @@ public abstract class AbstractEJBComponentResourceDefinition extends SimpleResou
         });
     }
 
+    /**
+     * Reads a metric of the adaptive pool of a component. The metric is undefined if the component's pool is not adaptive.
+     */
+    private abstract static class AbstractAdaptivePoolMetricsHandler extends AbstractRuntimeMetricsHandler {
+        @Override
+        protected void executeReadMetricStep(final OperationContext context, final ModelNode operation, final EJBComponent component) throws OperationFailedException {
+            final Pool<?> pool = (component instanceof PooledComponent) ? ((PooledComponent<?>) component).getPool() : null;
+            if (pool instanceof AdaptivePool) {
+                this.executeReadMetricStep(context, operation, (AdaptivePool<?>) pool);
+            }
+        }
+
+        protected abstract void executeReadMetricStep(OperationContext context, ModelNode operation, AdaptivePool<?> pool);
+    }
+
     /* (non-Javadoc)
      * @see org.jboss.as.controller.SimpleResourceDefinition#registerChildren(org.jboss.as.controller.registry.ManagementResourceRegistration)
      */
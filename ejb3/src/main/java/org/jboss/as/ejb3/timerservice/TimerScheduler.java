@@ -0,0 +1,405 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2015, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.jboss.as.ejb3.timerservice;
+
+import static org.jboss.as.ejb3.logging.EjbLogger.ROOT_LOGGER;
+
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.PriorityQueue;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Schedules the timeouts of the EJB timers of the server.
+ * <p/>
+ * Unlike a {@link java.util.Timer}, whose single thread and priority queue are shared by every timer, tasks are sharded
+ * by key across a number of scheduling threads. Each scheduling thread keeps its tasks in a hashed timing wheel, whose
+ * buckets are linked lists of tasks, so scheduling and cancelling a task is a constant time operation, and a
+ * scheduling thread only ever contends with the threads scheduling tasks of the same shard.
+ * <p/>
+ * Tasks due beyond a revolution of the wheel, e.g. timers that expire in hours or days, are kept in an overflow queue
+ * ordered by time, and are only moved into the wheel once they are due within a revolution. The wheel therefore never
+ * holds a task that is not due on its next visit of that task's bucket, and a shard only wakes up for due tasks.
+ * <p/>
+ * Tasks are expected to only dispatch the timeout, e.g. onto an executor, since a slow task delays the other tasks of its
+ * shard.
+ */
+public class TimerScheduler {
+
+    private static final long DEFAULT_TICK = 1;
+    private static final int DEFAULT_WHEEL_SIZE = 4096;
+
+    private final Shard[] shards;
+    private final int mask;
+
+    public TimerScheduler(int concurrency) {
+        this(concurrency, DEFAULT_TICK, DEFAULT_WHEEL_SIZE);
+    }
+
+    /**
+     * @param concurrency the number of scheduling threads, rounded up to a power of 2
+     * @param tick the duration of a tick of the timing wheels, in ms
+     * @param wheelSize the number of buckets of the timing wheels, rounded up to a power of 2 multiple of 64
+     */
+    public TimerScheduler(int concurrency, long tick, int wheelSize) {
+        int count = (concurrency > 1) ? Integer.highestOneBit(concurrency - 1) << 1 : 1;
+        int buckets = (wheelSize > Long.SIZE) ? Integer.highestOneBit(wheelSize - 1) << 1 : Long.SIZE;
+        this.mask = count - 1;
+        this.shards = new Shard[count];
+        for (int i = 0; i < count; ++i) {
+            this.shards[i] = new Shard(i, Math.max(tick, 1), buckets);
+        }
+    }
+
+    public synchronized void start() {
+        for (Shard shard : this.shards) {
+            shard.start();
+        }
+    }
+
+    /**
+     * Stops the scheduling threads. Scheduled tasks are discarded.
+     */
+    public synchronized void stop() {
+        for (Shard shard : this.shards) {
+            shard.stop();
+        }
+    }
+
+    /**
+     * Schedules the specified task to run once, after the specified delay.
+     *
+     * @param task the task to schedule
+     * @param delay the delay, in ms, before the task runs
+     */
+    public void schedule(Task task, long delay) {
+        this.schedule(task, delay, 0);
+    }
+
+    /**
+     * Schedules the specified task to run repeatedly, first after the specified delay, then at the specified period.
+     * Executions are scheduled relative to the scheduled time of the first execution, so a late execution does not delay
+     * the subsequent ones.
+     *
+     * @param task the task to schedule
+     * @param delay the delay, in ms, before the first execution of the task
+     * @param period the period, in ms, between subsequent executions of the task
+     */
+    public void scheduleAtFixedRate(Task task, long delay, long period) {
+        if (period <= 0) {
+            throw new IllegalArgumentException(Long.toString(period));
+        }
+        this.schedule(task, delay, period);
+    }
+
+    private void schedule(Task task, long delay, long period) {
+        task.time = System.currentTimeMillis() + Math.max(delay, 0);
+        task.period = period;
+        this.shards[spread(task.key.hashCode()) & this.mask].add(task);
+    }
+
+    private static int spread(int hash) {
+        int h = hash * 0x9E3779B9;
+        return h ^ (h >>> 16);
+    }
+
+    /**
+     * A task scheduled by a {@link TimerScheduler}. A task can only be scheduled once.
+     */
+    public abstract static class Task {
+        final Object key;
+        private volatile boolean cancelled = false;
+        // The following fields are only accessed by the thread of the shard of the task, once scheduled
+        long time;
+        long period;
+        long tick;
+        Task next;
+
+        /**
+         * @param key the key used to select the shard of this task
+         */
+        protected Task(Object key) {
+            this.key = key;
+        }
+
+        /**
+         * Runs this task.
+         *
+         * @param scheduledTime the time, in ms, this execution of the task was scheduled for
+         */
+        protected abstract void run(long scheduledTime);
+
+        /**
+         * Cancels this task. The task is removed from its timing wheel lazily, by the thread of its shard.
+         *
+         * @return false if this task was already cancelled, true otherwise
+         */
+        public boolean cancel() {
+            boolean result = !this.cancelled;
+            this.cancelled = true;
+            return result;
+        }
+
+        public boolean isCancelled() {
+            return this.cancelled;
+        }
+    }
+
+    private static class Shard implements Runnable {
+        private static final Comparator<Task> TICK_COMPARATOR = new Comparator<Task>() {
+            @Override
+            public int compare(Task task1, Task task2) {
+                return Long.compare(task1.tick, task2.tick);
+            }
+        };
+
+        private final int index;
+        private final long tick;
+        private final int mask;
+        private final int shift;
+        private final Task[] buckets;
+        /**
+         * One bit per non-empty bucket, so that the next tick to process can be found without visiting the buckets.
+         */
+        private final long[] occupied;
+        /**
+         * Tasks scheduled by other threads, waiting to be added to the wheel by the thread of this shard.
+         */
+        private final Queue<Task> added = new ConcurrentLinkedQueue<Task>();
+        /**
+         * Tasks due beyond a revolution of the wheel, ordered by tick. Only accessed by the thread of this shard.
+         */
+        private final Queue<Task> overflow = new PriorityQueue<Task>(64, TICK_COMPARATOR);
+        /**
+         * The time, in ms, the thread of this shard will next wake up at, or {@link Long#MAX_VALUE} if it is waiting for a task.
+         */
+        private volatile long wakeUp = Long.MAX_VALUE;
+        private volatile boolean running = false;
+        private volatile Thread thread;
+        /**
+         * The last processed tick. Only accessed by the thread of this shard.
+         */
+        private long current;
+
+        Shard(int index, long tick, int size) {
+            this.index = index;
+            this.tick = tick;
+            this.mask = size - 1;
+            this.shift = Integer.numberOfTrailingZeros(size);
+            this.buckets = new Task[size];
+            this.occupied = new long[size / Long.SIZE];
+        }
+
+        void start() {
+            this.running = true;
+            Thread thread = new Thread(this, "EJB timer scheduler - " + (this.index + 1));
+            thread.setDaemon(true);
+            this.thread = thread;
+            thread.start();
+        }
+
+        void stop() {
+            this.running = false;
+            Thread thread = this.thread;
+            if (thread != null) {
+                LockSupport.unpark(thread);
+                this.thread = null;
+            }
+        }
+
+        void add(Task task) {
+            this.added.add(task);
+            // Wake up the thread if it would otherwise sleep past the time of the task
+            if (task.time < this.wakeUp) {
+                Thread thread = this.thread;
+                if (thread != null) {
+                    LockSupport.unpark(thread);
+                }
+            }
+        }
+
+        @Override
+        public void run() {
+            this.current = Math.floorDiv(System.currentTimeMillis(), this.tick);
+            try {
+                while (this.running) {
+                    for (Task task = this.added.poll(); task != null; task = this.added.poll()) {
+                        this.insert(task);
+                    }
+                    long now = Math.floorDiv(System.currentTimeMillis(), this.tick);
+                    if (now > this.current) {
+                        this.expire(now);
+                    }
+                    long next = this.next();
+                    if (next == Long.MAX_VALUE) {
+                        this.wakeUp = Long.MAX_VALUE;
+                        // Tasks added after draining the queue, but before the wake up time was published, are seen here
+                        if (this.added.isEmpty()) {
+                            LockSupport.park(this);
+                        }
+                    } else {
+                        long wakeUp = next * this.tick;
+                        this.wakeUp = wakeUp;
+                        if (this.added.isEmpty()) {
+                            long delay = wakeUp - System.currentTimeMillis();
+                            if (delay > 0) {
+                                LockSupport.parkNanos(this, TimeUnit.MILLISECONDS.toNanos(delay));
+                            }
+                        }
+                    }
+                }
+            } finally {
+                this.added.clear();
+                this.overflow.clear();
+                for (int i = 0; i < this.buckets.length; ++i) {
+                    this.buckets[i] = null;
+                }
+                for (int i = 0; i < this.occupied.length; ++i) {
+                    this.occupied[i] = 0L;
+                }
+            }
+        }
+
+        private void insert(Task task) {
+            // Tasks due now, or in the past, run on the next tick
+            task.tick = Math.max(Math.floorDiv(task.time, this.tick), this.current + 1);
+            if (task.tick - this.current > this.buckets.length) {
+                this.overflow.add(task);
+                return;
+            }
+            int bucket = (int) task.tick & this.mask;
+            task.next = this.buckets[bucket];
+            this.buckets[bucket] = task;
+            this.occupied[bucket >>> 6] |= 1L << bucket;
+        }
+
+        /**
+         * Runs the tasks due on the ticks following the last processed tick, up to and including the specified tick.
+         */
+        private void expire(long now) {
+            Task rescheduled = null;
+            if (now - this.current >= this.buckets.length) {
+                // The clock jumped by more than a revolution of the wheel, so every bucket is due
+                for (int bucket = 0; bucket < this.buckets.length; ++bucket) {
+                    rescheduled = this.expire(bucket, now, rescheduled);
+                }
+            } else {
+                for (long tick = this.current + 1; tick <= now; ++tick) {
+                    rescheduled = this.expire((int) tick & this.mask, now, rescheduled);
+                }
+            }
+            if ((now >>> this.shift) != (this.current >>> this.shift)) {
+                // Once per revolution, drop the cancelled tasks of the overflow, rather than retaining them until they are due
+                Iterator<Task> tasks = this.overflow.iterator();
+                while (tasks.hasNext()) {
+                    if (tasks.next().isCancelled()) {
+                        tasks.remove();
+                    }
+                }
+            }
+            this.current = now;
+            while (rescheduled != null) {
+                Task next = rescheduled.next;
+                this.insert(rescheduled);
+                rescheduled = next;
+            }
+            // Move the tasks of the overflow that are now due within a revolution into the wheel
+            for (Task task = this.overflow.peek(); (task != null) && (task.tick - now <= this.buckets.length); task = this.overflow.peek()) {
+                this.overflow.poll();
+                if (!task.isCancelled()) {
+                    this.insert(task);
+                }
+            }
+        }
+
+        private Task expire(int bucket, long now, Task rescheduled) {
+            if ((this.occupied[bucket >>> 6] & (1L << bucket)) == 0) {
+                return rescheduled;
+            }
+            Task previous = null;
+            Task task = this.buckets[bucket];
+            while (task != null) {
+                Task next = task.next;
+                if (task.isCancelled() || (task.tick <= now)) {
+                    // Unlink the task
+                    if (previous == null) {
+                        this.buckets[bucket] = next;
+                    } else {
+                        previous.next = next;
+                    }
+                    task.next = null;
+                    if (!task.isCancelled()) {
+                        try {
+                            task.run(task.time);
+                        } catch (Throwable e) {
+                            ROOT_LOGGER.timerSchedulerTaskFailed(e, task.key);
+                        }
+                        if ((task.period > 0) && !task.isCancelled()) {
+                            task.time += task.period;
+                            task.next = rescheduled;
+                            rescheduled = task;
+                        }
+                    }
+                } else {
+                    previous = task;
+                }
+                task = next;
+            }
+            if (this.buckets[bucket] == null) {
+                this.occupied[bucket >>> 6] &= ~(1L << bucket);
+            }
+            return rescheduled;
+        }
+
+        /**
+         * Returns the next tick whose bucket is not empty, or at which the first task of the overflow is due within a
+         * revolution, or {@link Long#MAX_VALUE} if there is no task.
+         */
+        private long next() {
+            long next = this.nextBucket();
+            Task task = this.overflow.peek();
+            return (task != null) ? Math.min(next, Math.max(task.tick - this.buckets.length, this.current + 1)) : next;
+        }
+
+        /**
+         * Returns the next tick whose bucket is not empty, or {@link Long#MAX_VALUE} if the wheel is empty.
+         */
+        private long nextBucket() {
+            int start = (int) (this.current + 1) & this.mask;
+            int words = this.occupied.length;
+            int word = start >>> 6;
+            // Bits of the first word at or above the start bucket
+            long bits = this.occupied[word] & (-1L << start);
+            for (int i = 0; i <= words; ++i) {
+                if (bits != 0) {
+                    int bucket = (((word + i) % words) << 6) + Long.numberOfTrailingZeros(bits);
+                    return this.current + 1 + ((bucket - start) & this.mask);
+                }
+                bits = this.occupied[(word + i + 1) % words];
+            }
+            return Long.MAX_VALUE;
+        }
+    }
+}
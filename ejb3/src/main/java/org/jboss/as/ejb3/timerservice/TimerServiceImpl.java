@@ -37,6 +37,7 @@ import java.util.Map;
 import java.util.Set;
 import java.util.UUID;
 import java.util.concurrent.ExecutorService;
+import java.util.concurrent.atomic.AtomicLong;
 
 import javax.ejb.EJBException;
 import javax.ejb.ScheduleExpression;
@@ -101,7 +102,7 @@ public class TimerServiceImpl implements TimerService, Service<TimerService> {
 
     private final InjectedValue<ExecutorService> executorServiceInjectedValue = new InjectedValue<ExecutorService>();
 
-    private final InjectedValue<java.util.Timer> timerInjectedValue = new InjectedValue<java.util.Timer>();
+    private final InjectedValue<TimerScheduler> timerSchedulerInjectedValue = new InjectedValue<TimerScheduler>();
 
     private final InjectedValue<TimedObjectInvoker> timedObjectInvoker = new InjectedValue<TimedObjectInvoker>();
 
@@ -123,7 +124,14 @@ public class TimerServiceImpl implements TimerService, Service<TimerService> {
     /**
      * Holds the {@link java.util.concurrent.Future} of each of the timer tasks that have been scheduled
      */
-    private final Map<String, java.util.TimerTask> scheduledTimerFutures = new HashMap<String, java.util.TimerTask>();
+    private final Map<String, Task> scheduledTimerFutures = new HashMap<String, Task>();
+
+    /**
+     * The number of timeouts dispatched, and the total and maximum lag, in ms, between their scheduled and actual start
+     */
+    private final AtomicLong timeoutCount = new AtomicLong();
+    private final AtomicLong totalSchedulingLag = new AtomicLong();
+    private final AtomicLong maxSchedulingLag = new AtomicLong();
 
     /**
      * Key that is used to store timers that are waiting on transaction completion in the transaction local
@@ -211,7 +219,6 @@ public class TimerServiceImpl implements TimerService, Service<TimerService> {
         this.transactionManager = null;
         IoUtils.safeClose(listenerHandle);
         listenerHandle = null;
-        timerInjectedValue.getValue().purge(); //WFLY-3823
     }
 
 
@@ -882,18 +889,18 @@ public class TimerServiceImpl implements TimerService, Service<TimerService> {
                 delay = 0;
             }
             long intervalDuration = timer.getInterval();
-            final Task task = new Task(timerTask, ejbComponentInjectedValue.getValue().getControlPoint());
+            final Task task = new Task(timer.getId(), timerTask, ejbComponentInjectedValue.getValue().getControlPoint());
             if (intervalDuration > 0) {
                 ROOT_LOGGER.debugv("Scheduling timer {0} at fixed rate, starting at {1} milliseconds from now with repeated interval={2}",
                         timer, delay, intervalDuration);
                 // schedule the task
-                this.timerInjectedValue.getValue().scheduleAtFixedRate(task, delay, intervalDuration);
+                this.timerSchedulerInjectedValue.getValue().scheduleAtFixedRate(task, delay, intervalDuration);
                 // maintain it in timerservice for future use (like cancellation)
                 this.scheduledTimerFutures.put(timer.getId(), task);
             } else {
                 ROOT_LOGGER.debugv("Scheduling a single action timer {0} starting at {1} milliseconds from now", timer, delay);
                 // schedule the task
-                this.timerInjectedValue.getValue().schedule(task, delay);
+                this.timerSchedulerInjectedValue.getValue().schedule(task, delay);
                 // maintain it in timerservice for future use (like cancellation)
                 this.scheduledTimerFutures.put(timer.getId(), task);
 
@@ -908,7 +915,7 @@ public class TimerServiceImpl implements TimerService, Service<TimerService> {
      */
     protected void cancelTimeout(final TimerImpl timer) {
         synchronized (this.scheduledTimerFutures) {
-            java.util.TimerTask timerTask = this.scheduledTimerFutures.remove(timer.getId());
+            Task timerTask = this.scheduledTimerFutures.remove(timer.getId());
             if (timerTask != null) {
                 timerTask.cancel();
             }
@@ -1073,8 +1080,35 @@ public class TimerServiceImpl implements TimerService, Service<TimerService> {
         return executorServiceInjectedValue;
     }
 
-    public InjectedValue<java.util.Timer> getTimerInjectedValue() {
-        return timerInjectedValue;
+    public InjectedValue<TimerScheduler> getTimerSchedulerInjectedValue() {
+        return timerSchedulerInjectedValue;
+    }
+
+    /**
+     * Returns the average lag, in ms, between the time the timeouts of this timer service were scheduled for and the time
+     * they actually started.
+     */
+    public long getAverageSchedulingLag() {
+        long count = this.timeoutCount.get();
+        return (count > 0) ? this.totalSchedulingLag.get() / count : 0;
+    }
+
+    /**
+     * Returns the maximum lag, in ms, between the time a timeout of this timer service was scheduled for and the time it
+     * actually started.
+     */
+    public long getMaxSchedulingLag() {
+        return this.maxSchedulingLag.get();
+    }
+
+    private void recordSchedulingLag(long scheduledTime) {
+        long lag = Math.max(System.currentTimeMillis() - scheduledTime, 0);
+        this.timeoutCount.incrementAndGet();
+        this.totalSchedulingLag.addAndGet(lag);
+        long max = this.maxSchedulingLag.get();
+        while ((lag > max) && !this.maxSchedulingLag.compareAndSet(max, lag)) {
+            max = this.maxSchedulingLag.get();
+        }
     }
 
     public InjectedValue<TimerPersistence> getTimerPersistence() {
@@ -1191,7 +1225,7 @@ public class TimerServiceImpl implements TimerService, Service<TimerService> {
         }
     }
 
-    private class Task extends java.util.TimerTask {
+    private class Task extends TimerScheduler.Task {
 
         private final TimerTask<?> delegate;
         private final ControlPoint controlPoint;
@@ -1201,23 +1235,31 @@ public class TimerServiceImpl implements TimerService, Service<TimerService> {
          */
         private volatile boolean queued = false;
 
-        public Task(final TimerTask<?> delegate, ControlPoint controlPoint) {
+        public Task(final String timerId, final TimerTask<?> delegate, ControlPoint controlPoint) {
+            super(timerId);
             this.delegate = delegate;
             this.controlPoint = controlPoint;
         }
 
         @Override
-        public void run() {
+        protected void run(final long scheduledTime) {
             final ExecutorService executor = executorServiceInjectedValue.getOptionalValue();
             if (executor != null) {
                 if(controlPoint == null) {
-                    executor.submit(delegate);
+                    executor.submit(new Runnable() {
+                        @Override
+                        public void run() {
+                            recordSchedulingLag(scheduledTime);
+                            delegate.run();
+                        }
+                    });
                 } else if(!queued) {
                     queued = true;
                     controlPoint.queueTask(new Runnable() {
                         @Override
                         public void run() {
                             queued = false;
+                            recordSchedulingLag(scheduledTime);
                             delegate.run();
                         }
                     }, executor, -1, null, false);
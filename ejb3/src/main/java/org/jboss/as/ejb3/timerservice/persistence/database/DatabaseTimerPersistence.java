@@ -43,22 +43,29 @@ import java.util.Collections;
 import java.util.Date;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Properties;
 import java.util.Set;
 import java.util.Timer;
 import java.util.TimerTask;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
 
 import javax.sql.DataSource;
 import javax.transaction.HeuristicMixedException;
 import javax.transaction.HeuristicRollbackException;
 import javax.transaction.NotSupportedException;
 import javax.transaction.RollbackException;
+import javax.transaction.Status;
+import javax.transaction.Synchronization;
 import javax.transaction.SystemException;
 import javax.transaction.TransactionManager;
+import javax.transaction.TransactionSynchronizationRegistry;
 
+import org.jboss.as.ejb3.component.stateful.CurrentSynchronizationCallback;
 import org.jboss.as.ejb3.logging.EjbLogger;
 import org.jboss.as.ejb3.timerservice.CalendarTimer;
 import org.jboss.as.ejb3.timerservice.TimerImpl;
@@ -98,6 +105,7 @@ public class DatabaseTimerPersistence implements TimerPersistence, Service<Datab
     private final Map<String, TimerChangeListener> changeListeners = Collections.synchronizedMap(new HashMap<String, TimerChangeListener>());
 
     private final InjectedValue<java.util.Timer> timerInjectedValue = new InjectedValue<java.util.Timer>();
+    private final InjectedValue<TransactionSynchronizationRegistry> transactionSynchronizationRegistry = new InjectedValue<TransactionSynchronizationRegistry>();
 
     private final Map<String, Set<String>> knownTimerIds = new HashMap<>();
 
@@ -120,15 +128,27 @@ public class DatabaseTimerPersistence implements TimerPersistence, Service<Datab
     private MarshallingConfiguration configuration;
     private RefreshTask refreshTask;
 
+    /** Number of statements (or batches of statements) executed by this node*/
+    private final AtomicLong statementCount = new AtomicLong();
+    /** Number of refreshes completed by this node, and the total and maximum time they took in nanoseconds*/
+    private final AtomicLong refreshCount = new AtomicLong();
+    private final AtomicLong refreshTime = new AtomicLong();
+    private final AtomicLong maxRefreshTime = new AtomicLong();
+
     /** Names for the different SQL commands stored in the properties*/
     private static final String CREATE_TABLE = "create-table";
     private static final String CREATE_TIMER = "create-timer";
     private static final String UPDATE_TIMER = "update-timer";
     private static final String LOAD_ALL_TIMERS = "load-all-timers";
+    private static final String LOAD_TIMER_IDS = "load-timer-ids";
     private static final String LOAD_TIMER = "load-timer";
+    private static final String LOAD_TIMERS = "load-timers";
     private static final String DELETE_TIMER = "delete-timer";
     private static final String UPDATE_RUNNING = "update-running";
 
+    /** Maximum number of timer ids bound to a single load-timers statement*/
+    private static final int MAX_IDS_PER_SELECT = 100;
+
     public DatabaseTimerPersistence(final String database, String partition, String nodeName, int refreshInterval, boolean allowExecution) {
         this.database = database;
         this.partition = partition;
@@ -302,6 +322,20 @@ public class DatabaseTimerPersistence implements TimerPersistence, Service<Datab
         }
     }
 
+    /**
+     * Returns the load-timers statement with one parameter for each of the given number of timer ids.
+     */
+    private String loadTimers(final int ids) {
+        final StringBuilder parameters = new StringBuilder(ids * 2);
+        for (int i = 0; i < ids; ++i) {
+            if (i > 0) {
+                parameters.append(',');
+            }
+            parameters.append('?');
+        }
+        return String.format(sql(LOAD_TIMERS), parameters);
+    }
+
     private String sql(final String key) {
         if (database != null) {
             String result = sql.getProperty(key + "." + database);
@@ -314,69 +348,64 @@ public class DatabaseTimerPersistence implements TimerPersistence, Service<Datab
 
     @Override
     public void addTimer(final TimerImpl timerEntity) {
-        String createTimer = sql(CREATE_TIMER);
-        Connection connection = null;
-        PreparedStatement statement = null;
-        ResultSet resultSet = null;
-        try {
-            synchronized (this) {
-                knownTimerIds.get(timerEntity.getTimedObjectId()).add(timerEntity.getId());
-            }
-            connection = dataSource.getConnection();
-            statement = connection.prepareStatement(createTimer);
-            statementParameters(timerEntity, statement);
-            statement.execute();
-        } catch (SQLException e) {
-            throw new RuntimeException(e);
-        } finally {
-            safeClose(resultSet);
-            safeClose(statement);
-            safeClose(connection);
+        synchronized (this) {
+            knownTimerIds.get(timerEntity.getTimedObjectId()).add(timerEntity.getId());
         }
+        write(timerEntity, true);
     }
 
     @Override
     public void persistTimer(final TimerImpl timerEntity) {
-        Connection connection = null;
-        PreparedStatement statement = null;
-        ResultSet resultSet = null;
-        try {
-            connection = dataSource.getConnection();
+        synchronized (this) {
             if (timerEntity.getState() == TimerState.CANCELED ||
                     timerEntity.getState() == TimerState.EXPIRED) {
-                String deleteTimer = sql(DELETE_TIMER);
-                statement = connection.prepareStatement(deleteTimer);
-                statement.setString(1, timerEntity.getTimedObjectId());
-                statement.setString(2, timerEntity.getId());
-                statement.setString(3, partition);
-                statement.execute();
-                synchronized (this) {
-                    knownTimerIds.get(timerEntity.getTimedObjectId()).remove(timerEntity.getId());
-                }
+                knownTimerIds.get(timerEntity.getTimedObjectId()).remove(timerEntity.getId());
             } else {
-                synchronized (this) {
-                    knownTimerIds.get(timerEntity.getTimedObjectId()).add(timerEntity.getId());
-                }
-                String updateTimer = sql(UPDATE_TIMER);
-                statement = connection.prepareStatement(updateTimer);
-                statement.setTimestamp(1, timestamp(timerEntity.getNextExpiration()));
-                statement.setTimestamp(2, timestamp(timerEntity.getPreviousRun()));
-                statement.setString(3, timerEntity.getState().name());
-                setNodeName(timerEntity.getState(), statement, 4);
-                // WHERE CLAUSE
-                statement.setString(5, timerEntity.getTimedObjectId());
-                statement.setString(6, timerEntity.getId());
-                statement.setString(7, partition);
-                statement.setString(8, nodeName);   // only persist if this node or empty
-                statement.execute();
+                knownTimerIds.get(timerEntity.getTimedObjectId()).add(timerEntity.getId());
             }
-        } catch (SQLException e) {
-            throw new RuntimeException(e);
-        } finally {
-            safeClose(resultSet);
-            safeClose(statement);
-            safeClose(connection);
         }
+        write(timerEntity, false);
+    }
+
+    /**
+     * Writes the current state of a timer. Within a transaction the write is deferred to the batch of that transaction,
+     * which is executed before the transaction completes, otherwise it is executed straight away.
+     */
+    private void write(final TimerImpl timerEntity, final boolean newTimer) {
+        Batch batch = currentBatch();
+        if (batch == null) {
+            batch = new Batch();
+            batch.add(timerEntity, newTimer);
+            batch.execute();
+        } else {
+            batch.add(timerEntity, newTimer);
+        }
+    }
+
+    /**
+     * Returns the batch of the current transaction, creating it if necessary, or null if there is no transaction
+     * that can still be joined.
+     */
+    private Batch currentBatch() {
+        final TransactionSynchronizationRegistry registry = transactionSynchronizationRegistry.getOptionalValue();
+        if (registry == null || registry.getTransactionStatus() != Status.STATUS_ACTIVE
+                || CurrentSynchronizationCallback.get() == CurrentSynchronizationCallback.CallbackType.BEFORE_COMPLETION) {
+            return null;
+        }
+        Batch batch = (Batch) registry.getResource(this);
+        if (batch == null) {
+            batch = new Batch();
+            try {
+                registry.registerInterposedSynchronization(batch);
+            } catch (IllegalStateException e) {
+                // The transaction is already completing
+                return null;
+            }
+            registry.putResource(this, batch);
+        } else if (batch.executed) {
+            return null;
+        }
+        return batch;
     }
 
     @Override
@@ -408,6 +437,7 @@ public class DatabaseTimerPersistence implements TimerPersistence, Service<Datab
             }
             tm.begin();
             int affected = statement.executeUpdate();
+            statementCount.incrementAndGet();
             tm.commit();
             return affected == 1;
         } catch (SQLException e) {
@@ -452,6 +482,7 @@ public class DatabaseTimerPersistence implements TimerPersistence, Service<Datab
             statement.setString(1, timedObjectId);
             statement.setString(2, partition);
             resultSet = statement.executeQuery();
+            statementCount.incrementAndGet();
             final List<Holder> timers = new ArrayList<>();
             while (resultSet.next()) {
                 try {
@@ -711,6 +742,39 @@ public class DatabaseTimerPersistence implements TimerPersistence, Service<Datab
         return timerInjectedValue;
     }
 
+    public InjectedValue<TransactionSynchronizationRegistry> getTransactionSynchronizationRegistry() {
+        return transactionSynchronizationRegistry;
+    }
+
+    /**
+     * @return the number of statements, or batches of statements, this node has executed against the timer table
+     */
+    public long getStatementCount() {
+        return statementCount.get();
+    }
+
+    /**
+     * @return the number of refreshes of the timers from the database this node has completed
+     */
+    public long getRefreshCount() {
+        return refreshCount.get();
+    }
+
+    /**
+     * @return the average time in milliseconds a refresh of the timers from the database took
+     */
+    public long getAverageRefreshTime() {
+        final long count = refreshCount.get();
+        return (count > 0) ? TimeUnit.NANOSECONDS.toMillis(refreshTime.get() / count) : 0;
+    }
+
+    /**
+     * @return the longest time in milliseconds a refresh of the timers from the database took
+     */
+    public long getMaxRefreshTime() {
+        return TimeUnit.NANOSECONDS.toMillis(maxRefreshTime.get());
+    }
+
     private static void safeClose(final Closeable resource) {
         try {
             if (resource != null) {
@@ -759,6 +823,7 @@ public class DatabaseTimerPersistence implements TimerPersistence, Service<Datab
         public void run() {
             if (running.compareAndSet(false, true)) {
                 try {
+                    final long start = System.nanoTime();
                     Set<String> timedObjects;
                     synchronized (DatabaseTimerPersistence.this) {
                         timedObjects = new HashSet<>(knownTimerIds.keySet());
@@ -772,30 +837,57 @@ public class DatabaseTimerPersistence implements TimerPersistence, Service<Datab
                         synchronized (DatabaseTimerPersistence.this) {
                             existing = new HashSet<>(knownTimerIds.get(timedObjectId));
                         }
-                        String loadTimer = sql(LOAD_ALL_TIMERS);
                         Connection connection = null;
-                        PreparedStatement statement = null;
-                        ResultSet resultSet = null;
                         try {
                             connection = dataSource.getConnection();
-                            statement = connection.prepareStatement(loadTimer);
-                            statement.setString(1, timedObjectId);
-                            statement.setString(2, partition);
-                            resultSet = statement.executeQuery();
-                            while (resultSet.next()) {
-                                try {
+                            // Only the ids are compared, the rows of the timers this node does not know yet are then loaded together
+                            final List<String> added = new ArrayList<>();
+                            PreparedStatement statement = connection.prepareStatement(sql(LOAD_TIMER_IDS));
+                            ResultSet resultSet = null;
+                            try {
+                                statement.setString(1, timedObjectId);
+                                statement.setString(2, partition);
+                                resultSet = statement.executeQuery();
+                                statementCount.incrementAndGet();
+                                while (resultSet.next()) {
                                     String id = resultSet.getString(1);
                                     if (!existing.remove(id)) {
-                                        synchronized (DatabaseTimerPersistence.this) {
-                                            knownTimerIds.get(timedObjectId).add(id);
-                                        }
-                                        final Holder holder = timerFromResult(resultSet, listener.getTimerService());
-                                        if(holder != null) {
-                                            listener.timerAdded(holder.timer);
+                                        added.add(id);
+                                    }
+                                }
+                            } finally {
+                                safeClose(resultSet);
+                                safeClose(statement);
+                            }
+                            for (int from = 0; from < added.size(); from += MAX_IDS_PER_SELECT) {
+                                final List<String> ids = added.subList(from, Math.min(from + MAX_IDS_PER_SELECT, added.size()));
+                                statement = connection.prepareStatement(loadTimers(ids.size()));
+                                resultSet = null;
+                                try {
+                                    statement.setString(1, timedObjectId);
+                                    statement.setString(2, partition);
+                                    for (int i = 0; i < ids.size(); ++i) {
+                                        statement.setString(i + 3, ids.get(i));
+                                    }
+                                    resultSet = statement.executeQuery();
+                                    statementCount.incrementAndGet();
+                                    while (resultSet.next()) {
+                                        final String id = resultSet.getString(1);
+                                        try {
+                                            synchronized (DatabaseTimerPersistence.this) {
+                                                knownTimerIds.get(timedObjectId).add(id);
+                                            }
+                                            final Holder holder = timerFromResult(resultSet, listener.getTimerService());
+                                            if (holder != null) {
+                                                listener.timerAdded(holder.timer);
+                                            }
+                                        } catch (Exception e) {
+                                            EjbLogger.ROOT_LOGGER.timerReinstatementFailed(timedObjectId, id, e);
                                         }
                                     }
-                                } catch (Exception e) {
-                                    EjbLogger.ROOT_LOGGER.timerReinstatementFailed(resultSet.getString(2), resultSet.getString(1), e);
+                                } finally {
+                                    safeClose(resultSet);
+                                    safeClose(statement);
                                 }
                             }
 
@@ -809,11 +901,17 @@ public class DatabaseTimerPersistence implements TimerPersistence, Service<Datab
                         } catch (SQLException e) {
                             EjbLogger.ROOT_LOGGER.failedToRefreshTimers(timedObjectId);
                         } finally {
-                            safeClose(resultSet);
-                            safeClose(statement);
                             safeClose(connection);
                         }
                     }
+                    final long time = System.nanoTime() - start;
+                    refreshCount.incrementAndGet();
+                    refreshTime.addAndGet(time);
+                    for (long max = maxRefreshTime.get(); time > max; max = maxRefreshTime.get()) {
+                        if (maxRefreshTime.compareAndSet(max, time)) {
+                            break;
+                        }
+                    }
                 } finally {
                     running.set(false);
                 }
@@ -823,6 +921,119 @@ public class DatabaseTimerPersistence implements TimerPersistence, Service<Datab
     }
 
 
+    /**
+     * The timer writes of a transaction. Successive writes of the same timer are coalesced into one, and the remaining
+     * writes are sent to the database as a single JDBC batch per kind of statement before the transaction completes.
+     */
+    private final class Batch implements Synchronization {
+
+        private final Map<String, Write> writes = new LinkedHashMap<>();
+        private volatile boolean executed;
+
+        void add(final TimerImpl timer, final boolean newTimer) {
+            final Write previous = writes.get(timer.getId());
+            // a timer created by this transaction has not been inserted yet, whatever was written to it since
+            writes.put(timer.getId(), new Write(timer, newTimer || (previous != null && previous.newTimer)));
+        }
+
+        void execute() {
+            executed = true;
+            if (writes.isEmpty()) {
+                return;
+            }
+            Connection connection = null;
+            PreparedStatement delete = null;
+            PreparedStatement insert = null;
+            PreparedStatement update = null;
+            try {
+                connection = dataSource.getConnection();
+                for (Write write : writes.values()) {
+                    if (write.state == TimerState.CANCELED || write.state == TimerState.EXPIRED) {
+                        if (write.newTimer) {
+                            // never reached the database
+                            continue;
+                        }
+                        if (delete == null) {
+                            delete = connection.prepareStatement(sql(DELETE_TIMER));
+                        }
+                        delete.setString(1, write.timer.getTimedObjectId());
+                        delete.setString(2, write.timer.getId());
+                        delete.setString(3, partition);
+                        delete.addBatch();
+                    } else if (write.newTimer) {
+                        if (insert == null) {
+                            insert = connection.prepareStatement(sql(CREATE_TIMER));
+                        }
+                        statementParameters(write.timer, insert);
+                        insert.addBatch();
+                    } else {
+                        if (update == null) {
+                            update = connection.prepareStatement(sql(UPDATE_TIMER));
+                        }
+                        update.setTimestamp(1, timestamp(write.nextExpiration));
+                        update.setTimestamp(2, timestamp(write.previousRun));
+                        update.setString(3, write.state.name());
+                        setNodeName(write.state, update, 4);
+                        // WHERE CLAUSE
+                        update.setString(5, write.timer.getTimedObjectId());
+                        update.setString(6, write.timer.getId());
+                        update.setString(7, partition);
+                        update.setString(8, nodeName);   // only persist if this node or empty
+                        update.addBatch();
+                    }
+                }
+                executeBatch(delete);
+                executeBatch(insert);
+                executeBatch(update);
+            } catch (SQLException e) {
+                throw new RuntimeException(e);
+            } finally {
+                safeClose(delete);
+                safeClose(insert);
+                safeClose(update);
+                safeClose(connection);
+            }
+        }
+
+        private void executeBatch(final PreparedStatement statement) throws SQLException {
+            if (statement != null) {
+                statement.executeBatch();
+                statementCount.incrementAndGet();
+            }
+        }
+
+        @Override
+        public void beforeCompletion() {
+            execute();
+        }
+
+        @Override
+        public void afterCompletion(final int status) {
+            // nothing of a rolled back transaction may be written later on
+            executed = true;
+            writes.clear();
+        }
+    }
+
+    /**
+     * The state of a timer at the time it was written.
+     */
+    private static final class Write {
+        final TimerImpl timer;
+        final boolean newTimer;
+        final TimerState state;
+        final Date nextExpiration;
+        final Date previousRun;
+
+        Write(final TimerImpl timer, final boolean newTimer) {
+            this.timer = timer;
+            this.newTimer = newTimer;
+            this.state = timer.getState();
+            this.nextExpiration = timer.getNextExpiration();
+            this.previousRun = timer.getPreviousRun();
+        }
+    }
+
     static final class Holder {
         final TimerImpl timer;
         final boolean requiresReset;
@@ -35,6 +35,7 @@ import org.jboss.marshalling.river.RiverMarshallerFactory;
 import org.jboss.modules.ModuleLoader;
 import org.jboss.msc.service.Service;
 import org.jboss.msc.service.StartContext;
+import org.jboss.msc.service.StartException;
 import org.jboss.msc.service.StopContext;
 import org.jboss.msc.value.InjectedValue;
 import org.jboss.staxmapper.XMLExtendedStreamWriter;
@@ -110,7 +111,7 @@ public class FileTimerPersistence implements TimerPersistence, Service<FileTimer
     }
 
     @Override
-    public void start(final StartContext context) {
+    public void start(final StartContext context) throws StartException {
         if (WildFlySecurityManager.isChecking()) {
             WildFlySecurityManager.doUnchecked(new PrivilegedAction<Void>() {
                 public Void run() {
@@ -239,6 +240,7 @@ public class FileTimerPersistence implements TimerPersistence, Service<FileTimer
             throw new RuntimeException(e);
         } finally {
             lock.unlock();
+            sync();
         }
     }
 
@@ -281,6 +283,7 @@ public class FileTimerPersistence implements TimerPersistence, Service<FileTimer
             return entities;
         } finally {
             lock.unlock();
+            sync();
         }
     }
 
@@ -330,11 +333,18 @@ public class FileTimerPersistence implements TimerPersistence, Service<FileTimer
      * @param timedObjectId The timed object id
      * @return The timers for the object
      */
-    private Map<String, TimerImpl> getTimers(final String timedObjectId, final TimerServiceImpl timerService) {
+    protected Map<String, TimerImpl> getTimers(final String timedObjectId, final TimerServiceImpl timerService) {
         return loadTimersFromFile(timedObjectId, timerService);
     }
 
-    private Map<String, TimerImpl> loadTimersFromFile(String timedObjectId, TimerServiceImpl timerService) {
+    /**
+     * Loads the timers of a timed object from its per-timer XML files, converting any legacy timers first.
+     * Should be called under lock
+     *
+     * @param timedObjectId The timed object id
+     * @return The timers for the object
+     */
+    protected Map<String, TimerImpl> loadTimersFromFile(String timedObjectId, TimerServiceImpl timerService) {
         Map<String, TimerImpl> timers = new HashMap<>();
         String directory = getDirectory(timedObjectId);
 
@@ -408,7 +418,7 @@ public class FileTimerPersistence implements TimerPersistence, Service<FileTimer
      * @param timedObjectId The timed object
      * @return The directory
      */
-    private String getDirectory(String timedObjectId) {
+    protected String getDirectory(String timedObjectId) {
         String dirName = directories.get(timedObjectId);
         if (dirName == null) {
             dirName = baseDir.getAbsolutePath() + File.separator + timedObjectId.replace(File.separator, "-");
@@ -470,6 +480,7 @@ public class FileTimerPersistence implements TimerPersistence, Service<FileTimer
                         }
                     } finally {
                         lock.unlock();
+                        sync();
                     }
                     return null;
                 }
@@ -479,7 +490,13 @@ public class FileTimerPersistence implements TimerPersistence, Service<FileTimer
 
     }
 
-    private void writeFile(TimerImpl timer) {
+    /**
+     * Writes the current state of a timer to the store, removing it if it has been cancelled or has expired.
+     * Should be called under lock
+     *
+     * @param timer The timer
+     */
+    protected void writeFile(TimerImpl timer) {
         final File file = fileName(timer.getTimedObjectId(), timer.getId());
 
         //if the timer is expired or cancelled delete the file
@@ -523,6 +540,26 @@ public class FileTimerPersistence implements TimerPersistence, Service<FileTimer
         return pathManager;
     }
 
+    /**
+     * Makes the writes of the current thread durable. Called after the lock of the timed object is released, so that
+     * other threads are not blocked while the writes are forced. The XML files are not forced, so this does nothing
+     * by default.
+     */
+    protected void sync() {
+    }
+
+    protected File getBaseDir() {
+        return baseDir;
+    }
+
+    protected MarshallerFactory getMarshallerFactory() {
+        return factory;
+    }
+
+    protected MarshallingConfiguration getMarshallingConfiguration() {
+        return configuration;
+    }
+
     private void setIfSupported(final XMLInputFactory inputFactory, final String property, final Object value) {
         if (inputFactory.isPropertySupported(property)) {
             inputFactory.setProperty(property, value);
@@ -0,0 +1,214 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2015, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.jboss.as.ejb3.timerservice.persistence.filestore;
+
+import static org.jboss.as.ejb3.logging.EjbLogger.ROOT_LOGGER;
+
+import java.io.File;
+import java.io.IOException;
+import java.security.PrivilegedAction;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import org.jboss.as.ejb3.timerservice.TimerImpl;
+import org.jboss.as.ejb3.timerservice.TimerServiceImpl;
+import org.jboss.as.ejb3.timerservice.TimerState;
+import org.jboss.msc.service.StartContext;
+import org.jboss.msc.service.StartException;
+import org.jboss.msc.service.StopContext;
+import org.wildfly.security.manager.WildFlySecurityManager;
+
+/**
+ * File based persistent timer store that appends timer changes to a {@link TimerJournal}, rather than rewriting one XML
+ * file per timer. The timers of a timed object are rebuilt from the journal the first time they are loaded, and are
+ * then kept in memory until the timed object is undeployed.
+ * <p/>
+ * Timers of a timed object that are still stored as XML (or in the legacy format) are imported into the journal the
+ * first time they are loaded, after which their files are deleted.
+ */
+public class JournalFileTimerPersistence extends FileTimerPersistence {
+
+    static final String JOURNAL_DIRECTORY = "timer-journal";
+
+    private final ConcurrentMap<String, Map<String, TimerImpl>> timers = new ConcurrentHashMap<String, Map<String, TimerImpl>>();
+    private volatile TimerJournal journal;
+    private volatile EjbTimerBinaryCodec codec;
+    /**
+     * The most recent journal ticket written by the current thread, which is synced once the lock is released.
+     */
+    private final ThreadLocal<Long> unsynced = new ThreadLocal<Long>();
+
+    public JournalFileTimerPersistence(final boolean createIfNotExists, final String path, final String pathRelativeTo) {
+        super(createIfNotExists, path, pathRelativeTo);
+    }
+
+    @Override
+    public void start(final StartContext context) throws StartException {
+        super.start(context);
+        final TimerJournal journal = new TimerJournal(new File(this.getBaseDir(), JOURNAL_DIRECTORY));
+        try {
+            if (WildFlySecurityManager.isChecking()) {
+                final IOException exception = WildFlySecurityManager.doUnchecked(new PrivilegedAction<IOException>() {
+                    @Override
+                    public IOException run() {
+                        try {
+                            journal.open();
+                            return null;
+                        } catch (IOException e) {
+                            return e;
+                        }
+                    }
+                });
+                if (exception != null) {
+                    throw exception;
+                }
+            } else {
+                journal.open();
+            }
+        } catch (IOException e) {
+            super.stop(null);
+            throw new StartException(e);
+        }
+        this.codec = new EjbTimerBinaryCodec(this.getMarshallerFactory(), this.getMarshallingConfiguration());
+        this.journal = journal;
+    }
+
+    @Override
+    public void stop(final StopContext context) {
+        this.timers.clear();
+        if (this.journal != null) {
+            try {
+                this.journal.close();
+            } catch (IOException e) {
+                ROOT_LOGGER.failToCloseFile(e);
+            }
+        }
+        this.journal = null;
+        this.codec = null;
+        super.stop(context);
+    }
+
+    @Override
+    public void timerUndeployed(final String timedObjectId) {
+        this.timers.remove(timedObjectId);
+        super.timerUndeployed(timedObjectId);
+    }
+
+    /**
+     * Returns the cached timers of a timed object, replaying them from the journal if necessary.
+     * Changes made by the caller to the returned map are retained, as they are with every write to the journal.
+     */
+    @Override
+    protected Map<String, TimerImpl> getTimers(final String timedObjectId, final TimerServiceImpl timerService) {
+        Map<String, TimerImpl> timers = this.timers.get(timedObjectId);
+        if (timers == null) {
+            timers = new HashMap<String, TimerImpl>();
+            final ClassLoader classLoader = timerService.getTimedObjectInvoker().getValue().getClassLoader();
+            for (Map.Entry<String, byte[]> entry : this.journal.get(timedObjectId).entrySet()) {
+                try {
+                    final TimerImpl timer = this.codec.decode(entry.getValue(), timerService, classLoader);
+                    if (timer != null) {
+                        timers.put(timer.getId(), timer);
+                    }
+                } catch (IOException | RuntimeException e) {
+                    ROOT_LOGGER.timerReinstatementFailed(timedObjectId, entry.getKey(), e);
+                }
+            }
+            this.migrate(timedObjectId, timerService, timers);
+            this.timers.put(timedObjectId, timers);
+        }
+        return timers;
+    }
+
+    @Override
+    protected void writeFile(final TimerImpl timer) {
+        try {
+            final long ticket;
+            if (timer.getState() == TimerState.CANCELED || timer.getState() == TimerState.EXPIRED) {
+                ticket = this.journal.remove(timer.getTimedObjectId(), timer.getId());
+            } else {
+                final byte[] bytes;
+                try {
+                    bytes = this.codec.encode(timer);
+                } catch (IOException e) {
+                    ROOT_LOGGER.failedToPersistTimer(timer, e);
+                    return;
+                }
+                ticket = this.journal.put(timer.getTimedObjectId(), timer.getId(), bytes);
+            }
+            // Tickets only increase, so syncing the last one covers every earlier write
+            this.unsynced.set(ticket);
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    @Override
+    protected void sync() {
+        final Long ticket = this.unsynced.get();
+        if (ticket != null) {
+            this.unsynced.remove();
+            try {
+                this.journal.sync(ticket);
+            } catch (IOException e) {
+                throw new RuntimeException(e);
+            }
+        }
+    }
+
+    /**
+     * Imports the timers of a timed object that are still stored in its XML (or legacy) directory, then deletes their files.
+     * Timers already present in the journal take precedence, as they are more recent than any file left behind by an
+     * interrupted migration.
+     */
+    private void migrate(final String timedObjectId, final TimerServiceImpl timerService, final Map<String, TimerImpl> timers) {
+        final File directory = new File(this.getBaseDir(), timedObjectId.replace(File.separator, "-"));
+        if (!directory.isDirectory()) {
+            return;
+        }
+        final Map<String, TimerImpl> migrated = this.loadTimersFromFile(timedObjectId, timerService);
+        int count = 0;
+        for (TimerImpl timer : migrated.values()) {
+            if (!timers.containsKey(timer.getId())) {
+                this.writeFile(timer);
+                timers.put(timer.getId(), timer);
+                count += 1;
+            }
+        }
+        // The files must not be deleted before their timers are durable. This happens once per timed object, so it is
+        // the only sync made under lock.
+        this.sync();
+        final File[] files = directory.listFiles();
+        if (files != null) {
+            for (File file : files) {
+                if (file.getName().endsWith(".xml") && !file.delete()) {
+                    ROOT_LOGGER.timerStoreFileNotDeleted(file);
+                }
+            }
+        }
+        if (count > 0) {
+            ROOT_LOGGER.timersMigratedToJournal(count, timedObjectId, directory);
+        }
+    }
+}
@@ -0,0 +1,450 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2015, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.jboss.as.ejb3.timerservice.persistence.filestore;
+
+import static org.jboss.as.ejb3.logging.EjbLogger.ROOT_LOGGER;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.zip.CRC32;
+
+/**
+ * A segmented, append-only journal of persistent timer state.
+ * <p/>
+ * Every change is appended to the active segment as a checksummed record holding either the latest serialized state of
+ * a timer or a removal marker. The latest state of every live timer is indexed in memory, so the segments are only read
+ * when the journal is opened, by replaying them in order. Replaying a segment stops at its first torn or corrupt record,
+ * which can only be the tail of a write interrupted by a crash.
+ * <p/>
+ * Appends are made durable by {@link #sync(long)}, which commits concurrent callers as a group: the first caller to find
+ * its record unsynced forces the active segment on behalf of every record appended so far, while the others wait for it.
+ * <p/>
+ * Once superseded records outweigh the live ones, the journal is compacted by writing the live records into a new
+ * segment and deleting every older segment.
+ */
+public class TimerJournal implements Closeable {
+
+    public static final long DEFAULT_SEGMENT_SIZE = 4 * 1024 * 1024;
+
+    static final String SEGMENT_PREFIX = "journal-";
+    static final String SEGMENT_SUFFIX = ".log";
+
+    private static final byte PUT = 1;
+    private static final byte REMOVE = 2;
+    /**
+     * Each record is prefixed by the length and the CRC-32 of its body.
+     */
+    private static final int HEADER_SIZE = 8;
+
+    private final File directory;
+    private final long segmentSize;
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition syncCompleted = this.lock.newCondition();
+    // The following fields are guarded by the lock
+    private final Map<String, Map<String, Entry>> live = new HashMap<>();
+    private final List<File> sealedSegments = new ArrayList<>();
+    private FileChannel channel;
+    private File activeSegment;
+    private long activeSequence;
+    private long activeSize;
+    private boolean rollRequired;
+    private long liveBytes;
+    private long totalBytes;
+    private long appended;
+    private long synced;
+    private boolean syncing;
+
+    public TimerJournal(File directory) {
+        this(directory, DEFAULT_SEGMENT_SIZE);
+    }
+
+    public TimerJournal(File directory, long segmentSize) {
+        this.directory = directory;
+        this.segmentSize = segmentSize;
+    }
+
+    /**
+     * Replays the existing segments of this journal and opens a new active segment.
+     */
+    public void open() throws IOException {
+        this.lock.lock();
+        try {
+            if (!this.directory.isDirectory() && !this.directory.mkdirs()) {
+                throw ROOT_LOGGER.failToCreateTimerFileStoreDir(this.directory);
+            }
+            for (Map.Entry<Long, File> segment : this.listSegments().entrySet()) {
+                this.replay(segment.getValue());
+                this.sealedSegments.add(segment.getValue());
+                this.activeSequence = segment.getKey();
+            }
+            this.openSegment();
+            if (this.isCompactionRequired()) {
+                this.compact();
+            }
+        } finally {
+            this.lock.unlock();
+        }
+    }
+
+    /**
+     * Waits for any sync in progress, then forces and closes the active segment.
+     */
+    @Override
+    public void close() throws IOException {
+        this.lock.lock();
+        try {
+            this.awaitSyncIdle();
+            if (this.channel != null) {
+                try {
+                    this.channel.force(false);
+                    this.synced = this.appended;
+                    this.syncCompleted.signalAll();
+                } finally {
+                    this.channel.close();
+                    this.channel = null;
+                }
+                // Do not leave an empty segment behind for every restart
+                if (this.activeSize == 0) {
+                    this.activeSegment.delete();
+                }
+            }
+            this.live.clear();
+            this.sealedSegments.clear();
+            this.liveBytes = 0;
+            this.totalBytes = 0;
+        } finally {
+            this.lock.unlock();
+        }
+    }
+
+    /**
+     * Returns the latest state of every live timer of the specified group.
+     *
+     * @param group a timed object id
+     * @return a map of timer id to serialized timer
+     */
+    public Map<String, byte[]> get(String group) {
+        this.lock.lock();
+        try {
+            Map<String, Entry> entries = this.live.get(group);
+            if (entries == null) {
+                return Collections.emptyMap();
+            }
+            Map<String, byte[]> result = new HashMap<>();
+            for (Map.Entry<String, Entry> entry : entries.entrySet()) {
+                result.put(entry.getKey(), entry.getValue().payload);
+            }
+            return result;
+        } finally {
+            this.lock.unlock();
+        }
+    }
+
+    /**
+     * Appends the latest state of a timer. The record is not durable until {@link #sync(long)} returns for the returned ticket.
+     *
+     * @return a ticket identifying the appended record
+     */
+    public long put(String group, String key, byte[] payload) throws IOException {
+        return this.append(PUT, group, key, payload);
+    }
+
+    /**
+     * Appends the removal of a timer. The record is not durable until {@link #sync(long)} returns for the returned ticket.
+     *
+     * @return a ticket identifying the appended record
+     */
+    public long remove(String group, String key) throws IOException {
+        return this.append(REMOVE, group, key, null);
+    }
+
+    /**
+     * Blocks until the record identified by the specified ticket, and every record appended before it, is durable.
+     */
+    public void sync(long ticket) throws IOException {
+        this.lock.lock();
+        try {
+            while (this.synced < ticket) {
+                if (this.syncing) {
+                    this.syncCompleted.awaitUninterruptibly();
+                    continue;
+                }
+                FileChannel channel = this.getChannel();
+                long target = this.appended;
+                boolean forced = false;
+                this.syncing = true;
+                // Force outside of the lock, so that other threads can append records to be committed by the next sync
+                this.lock.unlock();
+                try {
+                    channel.force(false);
+                    forced = true;
+                } finally {
+                    this.lock.lock();
+                    this.syncing = false;
+                    if (forced && (target > this.synced)) {
+                        this.synced = target;
+                    }
+                    this.syncCompleted.signalAll();
+                }
+            }
+        } finally {
+            this.lock.unlock();
+        }
+    }
+
+    private long append(byte type, String group, String key, byte[] payload) throws IOException {
+        byte[] record = encode(type, group, key, payload);
+        this.lock.lock();
+        try {
+            FileChannel channel = this.getChannel();
+            if (this.rollRequired || (this.activeSize >= this.segmentSize)) {
+                this.awaitSyncIdle();
+                channel = this.getChannel();
+                if (this.rollRequired || (this.activeSize >= this.segmentSize)) {
+                    this.sealActiveSegment();
+                    this.openSegment();
+                    channel = this.channel;
+                }
+            }
+            ByteBuffer buffer = ByteBuffer.wrap(record);
+            try {
+                while (buffer.hasRemaining()) {
+                    channel.write(buffer);
+                }
+            } catch (IOException e) {
+                // Never append after a partially written record, as replay would stop there
+                this.rollRequired = true;
+                throw e;
+            }
+            this.activeSize += record.length;
+            this.totalBytes += record.length;
+            this.apply(type, group, key, payload, record.length);
+            long ticket = ++this.appended;
+            if (this.isCompactionRequired()) {
+                this.awaitSyncIdle();
+                if ((this.channel != null) && this.isCompactionRequired()) {
+                    this.compact();
+                }
+            }
+            return ticket;
+        } finally {
+            this.lock.unlock();
+        }
+    }
+
+    private void apply(byte type, String group, String key, byte[] payload, int size) {
+        Map<String, Entry> entries = this.live.get(group);
+        Entry previous = null;
+        if (type == PUT) {
+            if (entries == null) {
+                entries = new HashMap<>();
+                this.live.put(group, entries);
+            }
+            previous = entries.put(key, new Entry(payload, size));
+            this.liveBytes += size;
+        } else if (entries != null) {
+            previous = entries.remove(key);
+            if (entries.isEmpty()) {
+                this.live.remove(group);
+            }
+        }
+        if (previous != null) {
+            this.liveBytes -= previous.size;
+        }
+    }
+
+    private boolean isCompactionRequired() {
+        long garbage = this.totalBytes - this.liveBytes;
+        return (garbage > this.liveBytes) && (garbage > this.segmentSize);
+    }
+
+    /**
+     * Writes every live record into a new segment, then deletes all older segments.
+     * Records in the new segment supersede those of any older segment left behind by a crash.
+     */
+    private void compact() throws IOException {
+        this.sealActiveSegment();
+        this.openSegment();
+        this.rollRequired = true;
+        long size = 0;
+        for (Map.Entry<String, Map<String, Entry>> group : this.live.entrySet()) {
+            for (Map.Entry<String, Entry> entry : group.getValue().entrySet()) {
+                ByteBuffer buffer = ByteBuffer.wrap(encode(PUT, group.getKey(), entry.getKey(), entry.getValue().payload));
+                while (buffer.hasRemaining()) {
+                    this.channel.write(buffer);
+                }
+                size += entry.getValue().size;
+            }
+        }
+        this.channel.force(false);
+        this.rollRequired = false;
+        for (File segment : this.sealedSegments) {
+            if (!segment.delete()) {
+                ROOT_LOGGER.timerStoreFileNotDeleted(segment);
+            }
+        }
+        this.sealedSegments.clear();
+        this.activeSize = size;
+        this.totalBytes = size;
+        this.liveBytes = size;
+    }
+
+    private void sealActiveSegment() throws IOException {
+        try {
+            this.channel.force(false);
+            this.synced = this.appended;
+            this.syncCompleted.signalAll();
+        } finally {
+            this.channel.close();
+            this.channel = null;
+        }
+        this.sealedSegments.add(this.activeSegment);
+    }
+
+    private void openSegment() throws IOException {
+        this.activeSequence += 1;
+        this.activeSegment = new File(this.directory, SEGMENT_PREFIX + this.activeSequence + SEGMENT_SUFFIX);
+        this.channel = FileChannel.open(this.activeSegment.toPath(), StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+        this.activeSize = 0;
+        this.rollRequired = false;
+    }
+
+    private FileChannel getChannel() {
+        if (this.channel == null) {
+            throw new IllegalStateException(this.directory.getPath());
+        }
+        return this.channel;
+    }
+
+    private void awaitSyncIdle() {
+        while (this.syncing) {
+            this.syncCompleted.awaitUninterruptibly();
+        }
+    }
+
+    private Map<Long, File> listSegments() {
+        Map<Long, File> segments = new TreeMap<>();
+        File[] files = this.directory.listFiles();
+        if (files != null) {
+            for (File file : files) {
+                String name = file.getName();
+                if (name.startsWith(SEGMENT_PREFIX) && name.endsWith(SEGMENT_SUFFIX)) {
+                    try {
+                        segments.put(Long.valueOf(name.substring(SEGMENT_PREFIX.length(), name.length() - SEGMENT_SUFFIX.length())), file);
+                    } catch (NumberFormatException e) {
+                        // Not a segment
+                    }
+                }
+            }
+        }
+        return segments;
+    }
+
+    private void replay(File segment) throws IOException {
+        long length = segment.length();
+        long position = 0;
+        try (DataInputStream input = new DataInputStream(new BufferedInputStream(new FileInputStream(segment)))) {
+            while (length - position >= HEADER_SIZE) {
+                int size = input.readInt();
+                int checksum = input.readInt();
+                if ((size <= 0) || (size > length - position - HEADER_SIZE)) {
+                    break;
+                }
+                byte[] body = new byte[size];
+                input.readFully(body);
+                CRC32 crc = new CRC32();
+                crc.update(body, 0, size);
+                if ((int) crc.getValue() != checksum) {
+                    break;
+                }
+                DataInputStream record = new DataInputStream(new ByteArrayInputStream(body));
+                byte type = record.readByte();
+                String group = record.readUTF();
+                String key = record.readUTF();
+                byte[] payload = null;
+                if (type == PUT) {
+                    payload = new byte[record.available()];
+                    record.readFully(payload);
+                }
+                this.apply(type, group, key, payload, HEADER_SIZE + size);
+                position += HEADER_SIZE + size;
+            }
+        }
+        if (position < length) {
+            ROOT_LOGGER.timerJournalTruncated(segment, position);
+            // Drop the torn tail, so that it is only reported once
+            try (FileChannel channel = FileChannel.open(segment.toPath(), StandardOpenOption.WRITE)) {
+                channel.truncate(position);
+                channel.force(false);
+            }
+        }
+        this.totalBytes += position;
+    }
+
+    private static byte[] encode(byte type, String group, String key, byte[] payload) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        DataOutputStream output = new DataOutputStream(bytes);
+        // Reserve space for the header
+        output.writeLong(0L);
+        output.writeByte(type);
+        output.writeUTF(group);
+        output.writeUTF(key);
+        if (payload != null) {
+            output.write(payload);
+        }
+        output.flush();
+        byte[] record = bytes.toByteArray();
+        CRC32 crc = new CRC32();
+        crc.update(record, HEADER_SIZE, record.length - HEADER_SIZE);
+        ByteBuffer.wrap(record).putInt(record.length - HEADER_SIZE).putInt((int) crc.getValue());
+        return record;
+    }
+
+    private static class Entry {
+        final byte[] payload;
+        final int size;
+
+        Entry(byte[] payload, int size) {
+            this.payload = payload;
+            this.size = size;
+        }
+    }
+}
@@ -103,6 +103,11 @@ public class CalendarBasedTimeout {
      */
     private TimeZone timezone;
 
+    /**
+     * The attributes of the schedule expression compiled into bit sets, from which the timeouts are computed
+     */
+    private CompiledSchedule compiledSchedule;
+
     /**
      * Creates a {@link CalendarBasedTimeout} from the passed <code>schedule</code>.
      * <p>
@@ -153,6 +158,8 @@ public class CalendarBasedTimeout {
             this.timezone = TimeZone.getDefault();
         }
 
+        this.compiledSchedule = new CompiledSchedule(this.second, this.minute, this.hour, this.dayOfWeek, this.dayOfMonth, this.month, this.year, this.timezone);
+
         // Now that we have parsed the values from the ScheduleExpression,
         // determine and set the first timeout (relative to the current time)
         // of this CalendarBasedTimeout
@@ -199,39 +206,22 @@ public class CalendarBasedTimeout {
         if (this.noMoreTimeouts(currentCal)) {
             return null;
         }
-        Calendar nextCal = (Calendar) currentCal.clone();
-        nextCal.setTimeZone(this.timezone);
-        Date start = this.scheduleExpression.getStart();
-        if (start != null && currentCal.getTime().before(start)) {
-            nextCal.setTime(start);
+        final long current = currentCal.getTimeInMillis();
+        final Date start = this.scheduleExpression.getStart();
+        final long from;
+        if (start != null && current < start.getTime()) {
+            from = Math.floorDiv(start.getTime(), 1000L);
         } else {
-            if (increment) {
-                // increment the current second by 1
-                nextCal.add(Calendar.SECOND, 1);
-            }
-        }
-        nextCal.add(Calendar.MILLISECOND, -nextCal.get(Calendar.MILLISECOND));
-        nextCal.setFirstDayOfWeek(Calendar.SUNDAY);
-
-        nextCal = this.computeNextTime(nextCal);
-        if (nextCal == null) {
-            return null;
-        }
-
-        nextCal = this.computeNextMonth(nextCal);
-        if (nextCal == null) {
-            return null;
+            // increment the current second by 1, if required, and drop the milliseconds
+            from = Math.floorDiv(current, 1000L) + (increment ? 1 : 0);
         }
-
-        nextCal = this.computeNextDate(nextCal);
-        if (nextCal == null) {
-            return null;
-        }
-
-        nextCal = this.computeNextYear(nextCal);
-        if (nextCal == null) {
+        final long next = this.compiledSchedule.getNextTimeout(from);
+        if (next < 0) {
             return null;
         }
+        Calendar nextCal = new GregorianCalendar(this.timezone);
+        nextCal.setFirstDayOfWeek(Calendar.SUNDAY);
+        nextCal.setTimeInMillis(next * 1000L);
 
         // one final check
         if (this.noMoreTimeouts(nextCal)) {
@@ -240,253 +230,6 @@ public class CalendarBasedTimeout {
         return nextCal;
     }
 
-    private Calendar computeNextTime(Calendar nextCal) {
-        int currentSecond = nextCal.get(Calendar.SECOND);
-        int currentMinute = nextCal.get(Calendar.MINUTE);
-        int currentHour = nextCal.get(Calendar.HOUR_OF_DAY);
-        final int currentTimeInSeconds = currentHour*3600 + currentMinute*60 + currentSecond;
-
-        // compute next second
-        Integer nextSecond = this.second.getNextMatch(currentSecond);
-        if (nextSecond == null) {
-            return null;
-        }
-        // compute next minute
-        if (nextSecond < currentSecond) {
-            currentMinute++;
-        }
-        Integer nextMinute = this.minute.getNextMatch(currentMinute < 60 ? currentMinute : 0);
-        if (nextMinute == null) {
-            return null;
-        }
-        // compute next hour
-        if (nextMinute < currentMinute) {
-            currentHour++;
-        }
-        Integer nextHour = this.hour.getNextMatch(currentHour < 24 ? currentHour : 0);
-        if (nextHour == null) {
-            return null;
-        }
-
-        final int nextTimeInSeconds = nextHour*3600 + nextMinute*60 + nextSecond;
-        if (nextTimeInSeconds == currentTimeInSeconds) {
-            // no change in time
-            return nextCal;
-        }
-        // time change
-        if (nextTimeInSeconds < currentTimeInSeconds) {
-            // advance to next day
-            nextCal.add(Calendar.DATE, 1);
-        }
-        setTime(nextCal, nextHour, nextMinute, nextSecond);
-
-        return nextCal;
-    }
-
-    private Calendar computeNextDayOfWeek(Calendar nextCal) {
-        Integer nextDayOfWeek = this.dayOfWeek.getNextMatch(nextCal);
-
-        if (nextDayOfWeek == null) {
-            return null;
-        }
-        int currentDayOfWeek = nextCal.get(Calendar.DAY_OF_WEEK);
-        // if the current day-of-week is a match, then nothing else to
-        // do. Just return back the calendar
-        if (currentDayOfWeek == nextDayOfWeek) {
-            return nextCal;
-        }
-        int currentMonth = nextCal.get(Calendar.MONTH);
-
-        // At this point, a suitable "next" day-of-week has been identified.
-        // There can be 2 cases
-        // 1) The "next" day-of-week is greater than the current day-of-week : This
-        // implies that the next day-of-week is within the "current" week.
-        // 2) The "next" day-of-week is lesser than the current day-of-week : This implies
-        // that the next day-of-week is in the next week (i.e. current week needs to
-        // be advanced to next week).
-        if (nextDayOfWeek < currentDayOfWeek) {
-            // advance one week
-            nextCal.add(Calendar.WEEK_OF_MONTH, 1);
-        }
-        // set the chosen day of week
-        nextCal.set(Calendar.DAY_OF_WEEK, nextDayOfWeek);
-        // since we are moving to a different day-of-week (as compared to the current day-of-week),
-        // we should reset the second, minute and hour appropriately, to their first possible
-        // values
-        resetTimeToFirstValues(nextCal);
-
-        if (nextCal.get(Calendar.MONTH) != currentMonth) {
-            nextCal = computeNextMonth(nextCal);
-        }
-        return nextCal;
-    }
-
-    private Calendar computeNextMonth(Calendar nextCal) {
-        Integer nextMonth = this.month.getNextMatch(nextCal);
-
-        if (nextMonth == null) {
-            return null;
-        }
-        int currentMonth = nextCal.get(Calendar.MONTH);
-        // if the current month is a match, then nothing else to
-        // do. Just return back the calendar
-        if (currentMonth == nextMonth) {
-            return nextCal;
-        }
-
-        // At this point, a suitable "next" month has been identified.
-        // There can be 2 cases
-        // 1) The "next" month is greater than the current month : This
-        // implies that the next month is within the "current" year.
-        // 2) The "next" month is lesser than the current month : This implies
-        // that the next month is in the next year (i.e. current year needs to
-        // be advanced to next year).
-        if (nextMonth < currentMonth) {
-            // advance to next year
-            nextCal.add(Calendar.YEAR, 1);
-        }
-        // set the chosen month
-        nextCal.set(Calendar.MONTH, nextMonth);
-        // since we are moving to a different month (as compared to the current month),
-        // we should reset the second, minute, hour, day-of-week and dayofmonth appropriately, to their first possible
-        // values
-        nextCal.set(Calendar.DAY_OF_WEEK, this.dayOfWeek.getFirst());
-        nextCal.set(Calendar.DAY_OF_MONTH, 1);
-        resetTimeToFirstValues(nextCal);
-
-        return nextCal;
-    }
-
-    private Calendar computeNextDate(Calendar nextCal) {
-        if (this.isDayOfMonthWildcard()) {
-            return this.computeNextDayOfWeek(nextCal);
-        }
-
-        if (this.isDayOfWeekWildcard()) {
-            return this.computeNextDayOfMonth(nextCal);
-        }
-
-        // both day-of-month and day-of-week are *non-wildcards*
-        Calendar nextDayOfMonthCal = this.computeNextDayOfMonth((Calendar) nextCal.clone());
-        Calendar nextDayOfWeekCal = this.computeNextDayOfWeek((Calendar) nextCal.clone());
-
-        if (nextDayOfMonthCal == null) {
-            return nextDayOfWeekCal;
-        }
-        if (nextDayOfWeekCal == null) {
-            return nextDayOfMonthCal;
-        }
-
-        return nextDayOfWeekCal.getTime().before(nextDayOfMonthCal.getTime()) ? nextDayOfWeekCal : nextDayOfMonthCal;
-    }
-
-    private Calendar computeNextDayOfMonth(Calendar nextCal) {
-        Integer nextDayOfMonth = this.dayOfMonth.getNextMatch(nextCal);
-
-        if (nextDayOfMonth == null) {
-            return null;
-        }
-        int currentDayOfMonth = nextCal.get(Calendar.DAY_OF_MONTH);
-        // if the current day-of-month is a match, then nothing else to
-        // do. Just return back the calendar
-        if (currentDayOfMonth == nextDayOfMonth) {
-            return nextCal;
-        }
-
-        if (nextDayOfMonth > currentDayOfMonth) {
-            if (this.monthHasDate(nextCal, nextDayOfMonth)) {
-                // set the chosen day-of-month
-                nextCal.set(Calendar.DAY_OF_MONTH, nextDayOfMonth);
-                // since we are moving to a different day-of-month (as compared to the current day-of-month),
-                // we should reset the second, minute and hour appropriately, to their first possible
-                // values
-                resetTimeToFirstValues(nextCal);
-
-            } else {
-                nextCal = this.advanceTillMonthHasDate(nextCal, nextDayOfMonth);
-            }
-        } else {
-            // since the next day is before the current day we need to shift to the next month
-            nextCal.add(Calendar.MONTH, 1);
-            // also we need to reset the time
-            resetTimeToFirstValues(nextCal);
-            nextCal = this.computeNextMonth(nextCal);
-            if (nextCal == null) {
-                return null;
-            }
-            nextDayOfMonth = this.dayOfMonth.getFirstMatch(nextCal);
-            if (nextDayOfMonth == null) {
-                return null;
-            }
-            // make sure the month can handle the date
-            nextCal = this.advanceTillMonthHasDate(nextCal, nextDayOfMonth);
-        }
-        return nextCal;
-    }
-
-    private Calendar computeNextYear(Calendar nextCal) {
-        Integer nextYear = this.year.getNextMatch(nextCal);
-
-        if (nextYear == null || nextYear > Year.MAX_YEAR) {
-            return null;
-        }
-        int currentYear = nextCal.get(Calendar.YEAR);
-        // if the current year is a match, then nothing else to
-        // do. Just return back the calendar
-        if (currentYear == nextYear) {
-            return nextCal;
-        }
-        // If the next year is lesser than the current year, then
-        // we have no more timeouts for the calendar expression
-        if (nextYear < currentYear) {
-            return null;
-        }
-
-        // at this point we have chosen a year which is greater than the current
-        // year.
-        // set the chosen year
-        nextCal.set(Calendar.YEAR, nextYear);
-        // since we are moving to a different year (as compared to the current year),
-        // we should reset all other calendar attribute expressions appropriately, to their first possible
-        // values
-        nextCal.set(Calendar.MONTH, this.month.getFirstMatch());
-        nextCal.set(Calendar.DAY_OF_MONTH, 1);
-        resetTimeToFirstValues(nextCal);
-
-        // recompute date
-        nextCal = this.computeNextDate(nextCal);
-
-        return nextCal;
-    }
-
-    private Calendar advanceTillMonthHasDate(Calendar cal, Integer date) {
-        resetTimeToFirstValues(cal);
-
-        // make sure the month can handle the date
-        while (monthHasDate(cal, date) == false) {
-            if (cal.get(Calendar.YEAR) > Year.MAX_YEAR) {
-                return null;
-            }
-            // this month can't handle the date, so advance month to next month
-            // and get the next suitable matching month
-            cal.add(Calendar.MONTH, 1);
-            cal = this.computeNextMonth(cal);
-            if (cal == null) {
-                return null;
-            }
-            date = this.dayOfMonth.getFirstMatch(cal);
-            if (date == null) {
-                return null;
-            }
-        }
-        cal.set(Calendar.DAY_OF_MONTH, date);
-        return cal;
-    }
-
-    private boolean monthHasDate(Calendar cal, int date) {
-        return date <= cal.getActualMaximum(Calendar.DAY_OF_MONTH);
-    }
-
     private boolean isAfterEnd(Calendar cal) {
         Date end = this.scheduleExpression.getEnd();
         if (end == null) {
@@ -503,14 +246,6 @@ public class CalendarBasedTimeout {
         return false;
     }
 
-    private boolean isDayOfWeekWildcard() {
-        return this.scheduleExpression.getDayOfWeek().equals("*");
-    }
-
-    private boolean isDayOfMonthWildcard() {
-        return this.scheduleExpression.getDayOfMonth().equals("*");
-    }
-
     private void nullCheckScheduleAttributes(ScheduleExpression schedule) {
         if (schedule.getSecond() == null) {
             throw EjbLogger.ROOT_LOGGER.invalidScheduleExpressionSecond(schedule);
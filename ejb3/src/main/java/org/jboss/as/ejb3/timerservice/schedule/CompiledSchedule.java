@@ -0,0 +1,450 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2015, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.jboss.as.ejb3.timerservice.schedule;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+import java.time.zone.ZoneOffsetTransition;
+import java.time.zone.ZoneRules;
+import java.util.Calendar;
+import java.util.GregorianCalendar;
+import java.util.SortedSet;
+import java.util.TimeZone;
+
+import org.jboss.as.ejb3.timerservice.schedule.attribute.DayOfMonth;
+import org.jboss.as.ejb3.timerservice.schedule.attribute.DayOfWeek;
+import org.jboss.as.ejb3.timerservice.schedule.attribute.Hour;
+import org.jboss.as.ejb3.timerservice.schedule.attribute.IntegerBasedExpression;
+import org.jboss.as.ejb3.timerservice.schedule.attribute.Minute;
+import org.jboss.as.ejb3.timerservice.schedule.attribute.Month;
+import org.jboss.as.ejb3.timerservice.schedule.attribute.Second;
+import org.jboss.as.ejb3.timerservice.schedule.attribute.Year;
+
+/**
+ * The parsed attributes of a schedule expression compiled into bit sets, one per second, minute, hour, day of month,
+ * month and day of week, from which the next timeout is computed by bit arithmetic on the local date and time.
+ * <p>
+ * Computing a timeout does not allocate, except when the relative days of month of a new month have to be resolved,
+ * or when the computed local date and time is close to, or beyond, the next offset transition of the time zone.
+ * Local date and times are mapped to instants via {@link ZoneRules}: a time in a gap is moved forward by the length of
+ * the gap, and a time in an overlap keeps the offset of the time the search started from, if valid.
+ * </p>
+ */
+final class CompiledSchedule {
+
+    private static final int SECONDS_PER_DAY = 86400;
+    private static final long ALL = -1L;
+
+    private final long seconds;
+    private final long minutes;
+    private final long hours;
+    private final int months;
+    /**
+     * Bit n is set if day of week n (0 being Sunday) matches, or 0 if day of week is a wildcard.
+     */
+    private final int daysOfWeek;
+    /**
+     * The days of a month matched by the day of week expression, indexed by the day of week of the first of the month.
+     */
+    private final int[] daysOfWeekByFirstDay;
+    /**
+     * Bit n is set if day n of any month matches, or 0 if day of month is a wildcard.
+     */
+    private final int daysOfMonth;
+    /**
+     * The day of month expression, if it has relative values, otherwise null.
+     */
+    private final DayOfMonth relativeDaysOfMonth;
+    /**
+     * The sorted matching years, or null if year is a wildcard.
+     */
+    private final int[] years;
+
+    private final TimeZone timezone;
+    private final ZoneRules rules;
+    /**
+     * The fixed offset of the time zone in seconds, or {@link Integer#MIN_VALUE} if the time zone has transitions.
+     */
+    private final int fixedOffset;
+
+    /**
+     * The period between two offset transitions most recently used.
+     */
+    private volatile Period period;
+    /**
+     * The relative days of month most recently resolved: the month (year * 12 + month) in the high 32 bits,
+     * the days in the low 32 bits.
+     */
+    private volatile long resolvedDaysOfMonth = -1L;
+
+    CompiledSchedule(Second second, Minute minute, Hour hour, DayOfWeek dayOfWeek, DayOfMonth dayOfMonth, Month month, Year year, TimeZone timezone) {
+        this.seconds = mask(second, 0, 59);
+        this.minutes = mask(minute, 0, 59);
+        this.hours = mask(hour, 0, 23);
+        this.months = (int) mask(month, 1, 12);
+        if (dayOfWeek.isWildcard()) {
+            this.daysOfWeek = 0;
+        } else {
+            int days = 0;
+            for (int day : dayOfWeek.getAbsoluteValues()) {
+                // 7 is an alias for Sunday
+                days |= 1 << (day % 7);
+            }
+            this.daysOfWeek = days;
+        }
+        this.daysOfWeekByFirstDay = new int[7];
+        for (int first = 0; first < 7; ++first) {
+            int days = 0;
+            for (int day = 1; day <= 31; ++day) {
+                if ((this.daysOfWeek & (1 << ((first + day - 1) % 7))) != 0) {
+                    days |= 1 << day;
+                }
+            }
+            this.daysOfWeekByFirstDay[first] = days;
+        }
+        if (dayOfMonth.isWildcard()) {
+            this.daysOfMonth = 0;
+            this.relativeDaysOfMonth = null;
+        } else {
+            this.daysOfMonth = (int) mask(dayOfMonth, 1, 31);
+            this.relativeDaysOfMonth = dayOfMonth.hasRelativeDayOfMonth() ? dayOfMonth : null;
+        }
+        if (year.isWildcard()) {
+            this.years = null;
+        } else {
+            SortedSet<Integer> values = year.getAbsoluteValues();
+            this.years = new int[values.size()];
+            int i = 0;
+            for (int value : values) {
+                this.years[i++] = value;
+            }
+        }
+        this.timezone = timezone;
+        this.rules = timezone.toZoneId().getRules();
+        this.fixedOffset = this.rules.isFixedOffset() ? this.rules.getOffset(Instant.EPOCH).getTotalSeconds() : Integer.MIN_VALUE;
+    }
+
+    /**
+     * Returns the first time matched by this schedule at or after the passed time.
+     *
+     * @param epochSecond the time, in seconds since the epoch, from which to start searching
+     * @return the matched time in seconds since the epoch, or -1 if no time up to {@link Year#MAX_YEAR} matches
+     */
+    long getNextTimeout(final long epochSecond) {
+        final int offset = this.offset(epochSecond);
+        final long local = epochSecond + offset;
+        long day = Math.floorDiv(local, SECONDS_PER_DAY);
+        int time = (int) (local - day * SECONDS_PER_DAY);
+        while (true) {
+            final int date = civil(day);
+            final int year = date >>> 9;
+            final int month = (date >>> 5) & 0xf;
+            final int dayOfMonth = date & 0x1f;
+            if (year > Year.MAX_YEAR) {
+                return -1;
+            }
+            if (this.years != null) {
+                final int nextYear = this.nextYear(year);
+                if (nextYear < 0) {
+                    return -1;
+                }
+                if (nextYear != year) {
+                    day = epochDay(nextYear, 1, 1);
+                    time = 0;
+                    continue;
+                }
+            }
+            if ((this.months & (1 << month)) == 0) {
+                final int nextMonth = next(this.months, month + 1);
+                day = (nextMonth < 0) ? epochDay(year + 1, 1, 1) : epochDay(year, nextMonth, 1);
+                time = 0;
+                continue;
+            }
+            final int nextDayOfMonth = next(this.days(year, month, day - dayOfMonth + 1), dayOfMonth);
+            if (nextDayOfMonth < 0) {
+                day += lengthOfMonth(year, month) - dayOfMonth + 1;
+                time = 0;
+                continue;
+            }
+            if (nextDayOfMonth != dayOfMonth) {
+                day += nextDayOfMonth - dayOfMonth;
+                time = 0;
+            }
+            final int nextTime = this.nextTime(time);
+            if (nextTime < 0) {
+                day += 1;
+                time = 0;
+                continue;
+            }
+            final long result = this.toEpochSecond(day * SECONDS_PER_DAY + nextTime, offset);
+            if (result >= epochSecond) {
+                return result;
+            }
+            // Only possible if a transition moved the matched local time before the start, so keep searching after it
+            if (nextTime + 1 < SECONDS_PER_DAY) {
+                time = nextTime + 1;
+            } else {
+                day += 1;
+                time = 0;
+            }
+        }
+    }
+
+    /**
+     * Returns the first second of the day, at or after the passed one, matched by the second, minute and hour
+     * expressions, or -1 if none.
+     */
+    private int nextTime(final int time) {
+        final int hour = time / 3600;
+        final int minute = (time / 60) % 60;
+        final int second = time % 60;
+        if ((this.hours & (1L << hour)) != 0) {
+            if ((this.minutes & (1L << minute)) != 0) {
+                final int nextSecond = next(this.seconds, second);
+                if (nextSecond >= 0) {
+                    return time - second + nextSecond;
+                }
+            }
+            final int nextMinute = next(this.minutes, minute + 1);
+            if (nextMinute >= 0) {
+                return hour * 3600 + nextMinute * 60 + Long.numberOfTrailingZeros(this.seconds);
+            }
+        }
+        final int nextHour = next(this.hours, hour + 1);
+        if (nextHour < 0) {
+            return -1;
+        }
+        return nextHour * 3600 + Long.numberOfTrailingZeros(this.minutes) * 60 + Long.numberOfTrailingZeros(this.seconds);
+    }
+
+    /**
+     * Returns the days of the passed month matched by the day of month and day of week expressions.
+     * As per the specification, if both are defined, a day matching either of them matches.
+     */
+    private int days(final int year, final int month, final long firstDay) {
+        final int length = lengthOfMonth(year, month);
+        final int valid = (int) ((1L << (length + 1)) - 2);
+        if (this.daysOfMonth == 0 && this.relativeDaysOfMonth == null && this.daysOfWeek == 0) {
+            return valid;
+        }
+        int days = this.daysOfMonth;
+        if (this.relativeDaysOfMonth != null) {
+            days |= this.resolveRelativeDaysOfMonth(year, month);
+        }
+        if (this.daysOfWeek != 0) {
+            // 1970-01-01 was a Thursday
+            days |= this.daysOfWeekByFirstDay[(int) Math.floorMod(firstDay + 4, 7)];
+        }
+        return days & valid;
+    }
+
+    private int resolveRelativeDaysOfMonth(final int year, final int month) {
+        final long key = (long) (year * 12 + month) << 32;
+        final long resolved = this.resolvedDaysOfMonth;
+        if ((resolved & 0xffffffff00000000L) == key) {
+            return (int) resolved;
+        }
+        final Calendar calendar = new GregorianCalendar(this.timezone);
+        calendar.clear();
+        calendar.set(year, month - 1, 1);
+        int days = 0;
+        for (int day : this.relativeDaysOfMonth.getEligibleDaysOfMonth(calendar)) {
+            if (day > 0 && day <= 31) {
+                days |= 1 << day;
+            }
+        }
+        this.resolvedDaysOfMonth = key | (days & 0xffffffffL);
+        return days;
+    }
+
+    private int nextYear(final int year) {
+        for (int candidate : this.years) {
+            if (candidate >= year) {
+                return candidate;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Returns the offset of the time zone, in seconds, at the passed instant.
+     */
+    private int offset(final long epochSecond) {
+        if (this.fixedOffset != Integer.MIN_VALUE) {
+            return this.fixedOffset;
+        }
+        return this.period(epochSecond).offset;
+    }
+
+    /**
+     * Converts a local date and time, in seconds since the local epoch, to an instant.
+     *
+     * @param preferredOffset the offset to use if the local date and time is in an overlap and the offset is valid
+     */
+    private long toEpochSecond(final long local, final int preferredOffset) {
+        if (this.fixedOffset != Integer.MIN_VALUE) {
+            return local - this.fixedOffset;
+        }
+        Period period = this.period;
+        if (period == null || !period.contains(local - period.offset)) {
+            period = this.period(local - ((period != null) ? period.offset : preferredOffset));
+        }
+        if (period.isUnique(local)) {
+            return local - period.offset;
+        }
+        // Close to a transition
+        final LocalDateTime dateTime = LocalDateTime.ofEpochSecond(local, 0, ZoneOffset.UTC);
+        return ZonedDateTime.ofLocal(dateTime, this.timezone.toZoneId(), ZoneOffset.ofTotalSeconds(preferredOffset)).toEpochSecond();
+    }
+
+    private Period period(final long epochSecond) {
+        final Period period = this.period;
+        if (period != null && period.contains(epochSecond)) {
+            return period;
+        }
+        final Instant instant = Instant.ofEpochSecond(epochSecond);
+        final int offset = this.rules.getOffset(instant).getTotalSeconds();
+        final ZoneOffsetTransition previous = this.rules.previousTransition(instant.plusSeconds(1));
+        final ZoneOffsetTransition next = this.rules.nextTransition(instant);
+        final Period result = new Period(
+                (previous != null) ? previous.toEpochSecond() : Long.MIN_VALUE,
+                (next != null) ? next.toEpochSecond() : Long.MAX_VALUE,
+                offset,
+                (previous != null) ? previous.getOffsetBefore().getTotalSeconds() : offset,
+                (next != null) ? next.getOffsetAfter().getTotalSeconds() : offset);
+        this.period = result;
+        return result;
+    }
+
+    /**
+     * Returns the values matched by the passed expression, between <code>min</code> and <code>max</code>, as a bit set.
+     */
+    private static long mask(final IntegerBasedExpression expression, final int min, final int max) {
+        if (expression.isWildcard()) {
+            return (ALL << min) & (ALL >>> (63 - max));
+        }
+        long mask = 0;
+        for (int value : expression.getAbsoluteValues()) {
+            if (value >= min && value <= max) {
+                mask |= 1L << value;
+            }
+        }
+        return mask;
+    }
+
+    /**
+     * Returns the index of the first bit set at or after <code>from</code>, or -1 if none.
+     */
+    private static int next(final long mask, final int from) {
+        if (from >= 64) {
+            return -1;
+        }
+        final long remaining = mask & (ALL << from);
+        return (remaining == 0) ? -1 : Long.numberOfTrailingZeros(remaining);
+    }
+
+    private static int next(final int days, final int from) {
+        return next(days & 0xffffffffL, from);
+    }
+
+    static boolean isLeapYear(final int year) {
+        return ((year & 3) == 0) && ((year % 100) != 0 || (year % 400) == 0);
+    }
+
+    static int lengthOfMonth(final int year, final int month) {
+        switch (month) {
+            case 2:
+                return isLeapYear(year) ? 29 : 28;
+            case 4:
+            case 6:
+            case 9:
+            case 11:
+                return 30;
+            default:
+                return 31;
+        }
+    }
+
+    /**
+     * Returns the number of days since 1970-01-01 of the passed date of the proleptic Gregorian calendar.
+     */
+    static long epochDay(final int year, final int month, final int day) {
+        final int y = (month <= 2) ? year - 1 : year;
+        final int era = Math.floorDiv(y, 400);
+        final int yearOfEra = y - era * 400;
+        final int dayOfYear = (153 * (month + ((month > 2) ? -3 : 9)) + 2) / 5 + day - 1;
+        final int dayOfEra = yearOfEra * 365 + yearOfEra / 4 - yearOfEra / 100 + dayOfYear;
+        return era * 146097L + dayOfEra - 719468;
+    }
+
+    /**
+     * Returns the date of the proleptic Gregorian calendar of the passed number of days since 1970-01-01,
+     * packed as <code>year &lt;&lt; 9 | month &lt;&lt; 5 | day</code>.
+     */
+    static int civil(final long epochDay) {
+        final long z = epochDay + 719468;
+        final long era = Math.floorDiv(z, 146097);
+        final int dayOfEra = (int) (z - era * 146097);
+        final int yearOfEra = (dayOfEra - dayOfEra / 1460 + dayOfEra / 36524 - dayOfEra / 146096) / 365;
+        final int dayOfYear = dayOfEra - (365 * yearOfEra + yearOfEra / 4 - yearOfEra / 100);
+        final int mp = (5 * dayOfYear + 2) / 153;
+        final int day = dayOfYear - (153 * mp + 2) / 5 + 1;
+        final int month = (mp < 10) ? mp + 3 : mp - 9;
+        final int year = (int) (yearOfEra + era * 400) + ((month <= 2) ? 1 : 0);
+        return (year << 9) | (month << 5) | day;
+    }
+
+    /**
+     * A period of time, between two offset transitions, during which the offset of the time zone is constant.
+     */
+    private static final class Period {
+        final long from;
+        final long to;
+        final int offset;
+        final int offsetBefore;
+        final int offsetAfter;
+
+        Period(long from, long to, int offset, int offsetBefore, int offsetAfter) {
+            this.from = from;
+            this.to = to;
+            this.offset = offset;
+            this.offsetBefore = offsetBefore;
+            this.offsetAfter = offsetAfter;
+        }
+
+        boolean contains(long epochSecond) {
+            return epochSecond >= this.from && epochSecond < this.to;
+        }
+
+        /**
+         * Returns true if the passed local date and time, in seconds since the local epoch, maps to exactly one instant,
+         * which is within this period.
+         */
+        boolean isUnique(long local) {
+            return this.contains(local - this.offset)
+                    && (this.from == Long.MIN_VALUE || local - this.offsetBefore >= this.from)
+                    && (this.to == Long.MAX_VALUE || local - this.offsetAfter < this.to);
+        }
+    }
+}
@@ -189,14 +189,22 @@ public class DayOfMonth extends IntegerBasedExpression {
         super.assertValid(value);
     }
 
-    private boolean hasRelativeDayOfMonth() {
+    /**
+     * Returns true if the days matched by this expression depend on the month they are evaluated against,
+     * e.g. "Last" or "2nd Fri".
+     */
+    public boolean hasRelativeDayOfMonth() {
         if (this.relativeValues.isEmpty()) {
             return false;
         }
         return true;
     }
 
-    private SortedSet<Integer> getEligibleDaysOfMonth(Calendar cal) {
+    /**
+     * Returns the days of the month of the passed {@link Calendar} matched by this expression.
+     * Only meaningful if this expression is not a wildcard.
+     */
+    public SortedSet<Integer> getEligibleDaysOfMonth(Calendar cal) {
         if (this.hasRelativeDayOfMonth() == false) {
             return this.absoluteValues;
         }
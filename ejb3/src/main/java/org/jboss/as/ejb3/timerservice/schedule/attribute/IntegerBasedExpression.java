@@ -30,6 +30,7 @@ import org.jboss.as.ejb3.timerservice.schedule.value.ScheduleExpressionType;
 import org.jboss.as.ejb3.timerservice.schedule.value.ScheduleValue;
 import org.jboss.as.ejb3.timerservice.schedule.value.SingleValue;
 
+import java.util.Collections;
 import java.util.HashSet;
 import java.util.Set;
 import java.util.SortedSet;
@@ -211,6 +212,21 @@ public abstract class IntegerBasedExpression {
         }
     }
 
+    /**
+     * Returns true if this expression is a wildcard, i.e. it matches every possible value of its attribute.
+     */
+    public boolean isWildcard() {
+        return this.scheduleExpressionType == ScheduleExpressionType.WILDCARD;
+    }
+
+    /**
+     * Returns the values matched by this expression which do not depend on the date they are evaluated against.
+     * The returned set is empty for a wildcard.
+     */
+    public SortedSet<Integer> getAbsoluteValues() {
+        return Collections.unmodifiableSortedSet(this.absoluteValues);
+    }
+
     public abstract boolean isRelativeValue(String value);
 
 }
@@ -0,0 +1,280 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2015, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.jboss.as.ejb3.cache.local;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import org.jboss.as.ejb3.cache.Cache;
+import org.jboss.as.ejb3.cache.Identifiable;
+import org.jboss.as.ejb3.cache.StatefulObjectFactory;
+import org.jboss.as.ejb3.component.stateful.StatefulTimeoutInfo;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.wildfly.clustering.ejb.BeanPassivationConfiguration;
+import org.wildfly.clustering.ejb.IdentifierFactory;
+import org.wildfly.clustering.ejb.PassivationListener;
+
+/**
+ * Unit test for the passivation behavior of {@link LocalCache}.
+ */
+public class LocalCacheTestCase {
+
+    private final Set<UUID> destroyed = ConcurrentHashMap.newKeySet();
+    private final List<UUID> passivated = new CopyOnWriteArrayList<>();
+    private final List<UUID> activated = new CopyOnWriteArrayList<>();
+    private final Map<UUID, Bean> stored = new ConcurrentHashMap<>();
+    private final StatefulObjectFactory<Bean> factory = new StatefulObjectFactory<Bean>() {
+        @Override
+        public Bean createInstance() {
+            return new Bean(UUID.randomUUID());
+        }
+
+        @Override
+        public void destroyInstance(Bean instance) {
+            LocalCacheTestCase.this.destroyed.add(instance.getId());
+        }
+    };
+    private final PassivationListener<Bean> listener = new PassivationListener<Bean>() {
+        @Override
+        public void prePassivate(Bean bean) {
+            LocalCacheTestCase.this.passivated.add(bean.getId());
+        }
+
+        @Override
+        public void postActivate(Bean bean) {
+            LocalCacheTestCase.this.activated.add(bean.getId());
+        }
+    };
+    private final BeanStore<UUID, Bean> store = new BeanStore<UUID, Bean>() {
+        @Override
+        public void start() {
+        }
+
+        @Override
+        public void stop() {
+            LocalCacheTestCase.this.stored.clear();
+        }
+
+        @Override
+        public void store(UUID id, Bean bean) {
+            LocalCacheTestCase.this.stored.put(id, bean);
+        }
+
+        @Override
+        public Bean load(UUID id) {
+            return LocalCacheTestCase.this.stored.remove(id);
+        }
+
+        @Override
+        public void remove(UUID id) {
+            LocalCacheTestCase.this.stored.remove(id);
+        }
+    };
+    private final IdentifierFactory<UUID> identifierFactory = new IdentifierFactory<UUID>() {
+        @Override
+        public UUID createIdentifier() {
+            return UUID.randomUUID();
+        }
+    };
+    private ScheduledExecutorService executor;
+
+    @Before
+    public void init() {
+        this.executor = Executors.newSingleThreadScheduledExecutor();
+    }
+
+    @After
+    public void destroy() {
+        this.executor.shutdownNow();
+    }
+
+    private Cache<UUID, Bean> createCache(final int maxSize, long timeout, TimeUnit unit) {
+        BeanPassivationConfiguration config = new BeanPassivationConfiguration() {
+            @Override
+            public int getMaxSize() {
+                return maxSize;
+            }
+
+            @Override
+            public void setMaxSize(int size) {
+                throw new UnsupportedOperationException();
+            }
+        };
+        Cache<UUID, Bean> cache = new LocalCache<>(this.factory, this.listener, this.identifierFactory, this.store, config, new StatefulTimeoutInfo(timeout, unit), null, this.executor);
+        cache.start();
+        return cache;
+    }
+
+    @Test
+    public void passivateLeastRecentlyUsed() {
+        Cache<UUID, Bean> cache = this.createCache(2, -1, TimeUnit.MILLISECONDS);
+        UUID first = cache.create().getId();
+        UUID second = cache.create().getId();
+        // Make the first bean the most recently used
+        cache.release(cache.get(first));
+        assertTrue(this.passivated.isEmpty());
+
+        UUID third = cache.create().getId();
+        assertEquals(1, this.passivated.size());
+        assertEquals(second, this.passivated.get(0));
+        assertTrue(this.stored.containsKey(second));
+        assertEquals(2, cache.getCacheSize());
+        assertEquals(1, cache.getPassivatedCount());
+        assertEquals(3, cache.getTotalSize());
+        assertTrue(cache.contains(second));
+
+        // Activation on demand passivates the least recently used of the remaining beans
+        Bean bean = cache.get(second);
+        assertNotNull(bean);
+        assertEquals(second, bean.getId());
+        assertEquals(1, this.activated.size());
+        assertFalse(this.stored.containsKey(second));
+        cache.release(bean);
+        assertEquals(2, this.passivated.size());
+        assertEquals(first, this.passivated.get(1));
+        assertTrue(this.stored.containsKey(first));
+        assertFalse(this.stored.containsKey(third));
+        cache.stop();
+    }
+
+    @Test
+    public void inUseNeverPassivates() {
+        Cache<UUID, Bean> cache = this.createCache(1, -1, TimeUnit.MILLISECONDS);
+        UUID first = cache.create().getId();
+        Bean bean = cache.get(first);
+        UUID second = cache.create().getId();
+        // The first bean is in use, so only the second bean can be passivated
+        assertEquals(1, this.passivated.size());
+        assertEquals(second, this.passivated.get(0));
+        assertSame(bean, cache.get(first));
+        cache.release(bean);
+        cache.release(bean);
+        cache.stop();
+    }
+
+    @Test
+    public void removePassivated() {
+        Cache<UUID, Bean> cache = this.createCache(1, -1, TimeUnit.MILLISECONDS);
+        UUID first = cache.create().getId();
+        cache.create();
+        cache.release(cache.get(cache.create().getId()));
+        assertTrue(this.stored.containsKey(first));
+
+        // Removal activates the bean, so that it can be destroyed
+        cache.remove(first);
+        assertFalse(cache.contains(first));
+        assertFalse(this.stored.containsKey(first));
+        assertTrue(this.activated.contains(first));
+        assertTrue(this.destroyed.contains(first));
+        cache.stop();
+    }
+
+    @Test
+    public void expirePassivated() throws InterruptedException {
+        Cache<UUID, Bean> cache = this.createCache(1, 50, TimeUnit.MILLISECONDS);
+        UUID first = cache.create().getId();
+        cache.release(cache.get(first));
+        UUID second = cache.create().getId();
+        assertTrue(this.stored.containsKey(first));
+
+        long deadline = System.currentTimeMillis() + 5000;
+        // The expiration task removes the bean from the cache before removing it from the store
+        while ((cache.contains(first) || this.stored.containsKey(first)) && (System.currentTimeMillis() < deadline)) {
+            Thread.sleep(10);
+        }
+        assertFalse(cache.contains(first));
+        assertFalse(this.stored.containsKey(first));
+        assertEquals(0, cache.getPassivatedCount());
+        // A bean that expires while passivated is discarded without activation
+        assertFalse(this.activated.contains(first));
+        assertTrue(cache.contains(second));
+        cache.stop();
+    }
+
+    @Test
+    public void concurrentAccess() throws Exception {
+        int maxSize = 4;
+        Cache<UUID, Bean> cache = this.createCache(maxSize, -1, TimeUnit.MILLISECONDS);
+        List<UUID> ids = new ArrayList<>();
+        for (int i = 0; i < 16; ++i) {
+            ids.add(cache.create().getId());
+        }
+        ExecutorService service = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int i = 0; i < 8; ++i) {
+                int offset = i;
+                futures.add(service.submit(() -> {
+                    for (int j = 0; j < 1000; ++j) {
+                        UUID id = ids.get((offset + j) % ids.size());
+                        Bean bean = cache.get(id);
+                        assertNotNull(bean);
+                        assertEquals(id, bean.getId());
+                        cache.release(bean);
+                    }
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } finally {
+            service.shutdownNow();
+        }
+        // Once every bean is released, no bean may remain in memory in excess of the max size
+        assertTrue(cache.getCacheSize() <= maxSize);
+        assertEquals(ids.size(), cache.getCacheSize() + cache.getPassivatedCount());
+        assertEquals(ids.size(), cache.getTotalSize());
+        assertEquals(cache.getPassivatedCount(), this.stored.size());
+        cache.stop();
+    }
+
+    static class Bean implements Identifiable<UUID> {
+        private final UUID id;
+
+        Bean(UUID id) {
+            this.id = id;
+        }
+
+        @Override
+        public UUID getId() {
+            return this.id;
+        }
+    }
+}
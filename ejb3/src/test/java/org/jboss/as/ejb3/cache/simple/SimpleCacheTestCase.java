@@ -0,0 +1,164 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2015, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.jboss.as.ejb3.cache.simple;
+
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import org.jboss.as.ejb3.cache.Cache;
+import org.jboss.as.ejb3.cache.Identifiable;
+import org.jboss.as.ejb3.cache.StatefulObjectFactory;
+import org.jboss.as.ejb3.component.stateful.StatefulTimeoutInfo;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.wildfly.clustering.ejb.IdentifierFactory;
+
+/**
+ * Unit test for the expiration behavior of {@link SimpleCache}.
+ */
+public class SimpleCacheTestCase {
+
+    private final Set<UUID> destroyed = ConcurrentHashMap.newKeySet();
+    private final StatefulObjectFactory<Bean> factory = new StatefulObjectFactory<Bean>() {
+        @Override
+        public Bean createInstance() {
+            return new Bean(UUID.randomUUID());
+        }
+
+        @Override
+        public void destroyInstance(Bean instance) {
+            SimpleCacheTestCase.this.destroyed.add(instance.getId());
+        }
+    };
+    private final IdentifierFactory<UUID> identifierFactory = new IdentifierFactory<UUID>() {
+        @Override
+        public UUID createIdentifier() {
+            return UUID.randomUUID();
+        }
+    };
+    private ScheduledExecutorService executor;
+
+    @Before
+    public void init() {
+        this.executor = Executors.newSingleThreadScheduledExecutor();
+    }
+
+    @After
+    public void destroy() {
+        this.executor.shutdownNow();
+    }
+
+    private Cache<UUID, Bean> createCache(long timeout, TimeUnit unit) {
+        Cache<UUID, Bean> cache = new SimpleCache<>(this.factory, this.identifierFactory, new StatefulTimeoutInfo(timeout, unit), null, this.executor);
+        cache.start();
+        return cache;
+    }
+
+    @Test
+    public void expire() throws InterruptedException {
+        Cache<UUID, Bean> cache = this.createCache(50, TimeUnit.MILLISECONDS);
+        UUID id = cache.create().getId();
+        cache.release(cache.get(id));
+        assertTrue(cache.contains(id));
+
+        long deadline = System.currentTimeMillis() + 5000;
+        while (cache.contains(id) && (System.currentTimeMillis() < deadline)) {
+            Thread.sleep(10);
+        }
+        assertFalse(cache.contains(id));
+        assertNull(cache.get(id));
+        assertTrue(this.destroyed.contains(id));
+        cache.stop();
+    }
+
+    @Test
+    public void touchDefersExpiration() throws InterruptedException {
+        Cache<UUID, Bean> cache = this.createCache(200, TimeUnit.MILLISECONDS);
+        UUID id = cache.create().getId();
+        for (int i = 0; i < 12; ++i) {
+            Bean bean = cache.get(id);
+            assertNotNull(bean);
+            cache.release(bean);
+            Thread.sleep(50);
+        }
+        assertTrue(cache.contains(id));
+        assertFalse(this.destroyed.contains(id));
+        cache.stop();
+        assertTrue(this.destroyed.contains(id));
+    }
+
+    @Test
+    public void inUseNeverExpires() throws InterruptedException {
+        Cache<UUID, Bean> cache = this.createCache(20, TimeUnit.MILLISECONDS);
+        UUID id = cache.create().getId();
+        // Release once to put the entry in the wheel, then use it again
+        cache.release(cache.get(id));
+        Bean bean = cache.get(id);
+        Thread.sleep(200);
+        assertTrue(cache.contains(id));
+        cache.release(bean);
+        cache.stop();
+    }
+
+    @Test
+    public void zeroTimeout() {
+        Cache<UUID, Bean> cache = this.createCache(0, TimeUnit.MILLISECONDS);
+        UUID id = cache.create().getId();
+        cache.release(cache.get(id));
+        assertFalse(cache.contains(id));
+        assertTrue(this.destroyed.contains(id));
+        cache.stop();
+    }
+
+    @Test
+    public void negativeTimeout() throws InterruptedException {
+        Cache<UUID, Bean> cache = this.createCache(-1, TimeUnit.MILLISECONDS);
+        UUID id = cache.create().getId();
+        cache.release(cache.get(id));
+        Thread.sleep(50);
+        assertTrue(cache.contains(id));
+        cache.stop();
+    }
+
+    static class Bean implements Identifiable<UUID> {
+        private final UUID id;
+
+        Bean(UUID id) {
+            this.id = id;
+        }
+
+        @Override
+        public UUID getId() {
+            return this.id;
+        }
+    }
+}
@@ -0,0 +1,184 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2015, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.jboss.as.ejb3.pool.adaptive;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import org.jboss.as.ejb3.pool.common.MockBean;
+import org.jboss.as.ejb3.pool.common.MockFactory;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Unit test for {@link AdaptivePool}.
+ */
+public class AdaptivePoolUnitTestCase {
+
+    @Before
+    public void setUp() {
+        MockBean.reset();
+    }
+
+    @Test
+    public void startAtMaxSize() {
+        AdaptivePool<MockBean> pool = new AdaptivePool<MockBean>(new MockFactory(), 1, 4, 1, TimeUnit.SECONDS);
+        pool.start();
+        assertEquals(4, pool.getMaxSize());
+
+        // A burst on a cold pool is served without waiting
+        MockBean[] beans = new MockBean[4];
+        for (int i = 0; i < beans.length; i++) {
+            beans[i] = pool.get();
+        }
+        for (MockBean bean : beans) {
+            pool.release(bean);
+        }
+        assertEquals(0, pool.getResizeCount());
+        // Acquisitions that did not wait are not recorded
+        assertEquals(0, waits(pool));
+
+        pool.stop();
+        assertEquals(MockBean.getPostConstructs(), MockBean.getPreDestroys());
+    }
+
+    @Test
+    public void growAndShrink() throws Exception {
+        // Evaluate the size of the pool on every acquisition
+        final AdaptivePool<MockBean> pool = new AdaptivePool<MockBean>(new MockFactory(), 1, 4, 1, 5, TimeUnit.SECONDS, 0);
+        pool.start();
+        assertEquals(1, pool.getMaxSize());
+
+        MockBean bean = pool.get();
+
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        MockBean waited;
+        try {
+            // This acquisition has to wait, so the pool should grow without anything being released
+            waited = executor.submit(pool::get).get(5, TimeUnit.SECONDS);
+        } finally {
+            executor.shutdown();
+        }
+        assertEquals(2, pool.getMaxSize());
+        assertEquals(1, pool.getResizeCount());
+        assertEquals(1, waits(pool));
+
+        pool.release(waited);
+        pool.release(bean);
+        pool.setMaxSize(4);
+        assertEquals(2, pool.getResizeCount());
+        // The previous window had a wait, so the pool can not shrink yet
+        pool.release(pool.get());
+        assertEquals(4, pool.getMaxSize());
+        // Nothing waited, and most permits are unused, so the pool should shrink
+        bean = pool.get();
+        assertEquals(3, pool.getMaxSize());
+        assertEquals(3, pool.getResizeCount());
+        assertEquals(3, pool.getResizeEvents().size());
+        pool.release(bean);
+
+        pool.stop();
+        assertEquals(MockBean.getPostConstructs(), MockBean.getPreDestroys());
+    }
+
+    @Test
+    public void growByBacklog() throws Exception {
+        // The waiters would time out if the pool grew by a single instance per interval
+        final AdaptivePool<MockBean> pool = new AdaptivePool<MockBean>(new MockFactory(), 1, 16, 1, 500, TimeUnit.MILLISECONDS, TimeUnit.MILLISECONDS.toNanos(100));
+        pool.start();
+
+        MockBean bean = pool.get();
+        int callers = 8;
+        ExecutorService executor = Executors.newFixedThreadPool(callers);
+        try {
+            List<Future<MockBean>> futures = new ArrayList<>(callers);
+            for (int i = 0; i < callers; i++) {
+                futures.add(executor.submit(pool::get));
+            }
+            for (Future<MockBean> future : futures) {
+                assertNotNull(future.get(5, TimeUnit.SECONDS));
+            }
+        } finally {
+            executor.shutdown();
+        }
+        assertTrue(pool.getMaxSize() > callers);
+        assertTrue(pool.getMaxSize() <= 16);
+        assertEquals(callers, waits(pool));
+        pool.release(bean);
+    }
+
+    @Test
+    public void setMaxSize() {
+        AdaptivePool<MockBean> pool = new AdaptivePool<MockBean>(new MockFactory(), 2, 8, 1, TimeUnit.SECONDS);
+        pool.start();
+
+        pool.setMaxSize(100);
+        assertEquals(8, pool.getMaxSize());
+        assertEquals(8, pool.getAvailableCount());
+
+        MockBean[] beans = new MockBean[8];
+        for (int i = 0; i < beans.length; i++) {
+            beans[i] = pool.get();
+        }
+        for (MockBean bean : beans) {
+            pool.release(bean);
+        }
+        assertEquals(8, pool.getCurrentSize());
+
+        // Shrinking destroys surplus idle instances
+        pool.setMaxSize(0);
+        assertEquals(2, pool.getMaxSize());
+        assertEquals(2, pool.getAvailableCount());
+        assertEquals(2, pool.getCurrentSize());
+
+        pool.stop();
+        assertEquals(8, MockBean.getPostConstructs());
+        assertEquals(8, MockBean.getPreDestroys());
+    }
+
+    private static long waits(AdaptivePool<?> pool) {
+        long waits = 0;
+        for (long count : pool.getWaitHistogram().getCounts().values()) {
+            waits += count;
+        }
+        return waits;
+    }
+
+    @Test
+    public void histogramBuckets() {
+        assertEquals(0, WaitHistogram.bucket(0));
+        assertEquals(1, WaitHistogram.bucket(1));
+        assertEquals(2, WaitHistogram.bucket(2));
+        assertEquals(2, WaitHistogram.bucket(3));
+        assertEquals(3, WaitHistogram.bucket(4));
+        assertEquals(WaitHistogram.BUCKETS - 1, WaitHistogram.bucket(Long.MAX_VALUE));
+        assertTrue(new WaitHistogram().getCounts().size() == WaitHistogram.BUCKETS);
+    }
+}
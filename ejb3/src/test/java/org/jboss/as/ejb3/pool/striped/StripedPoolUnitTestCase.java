@@ -0,0 +1,166 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2015, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.jboss.as.ejb3.pool.striped;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.jboss.as.ejb3.logging.EjbLogger;
+import org.jboss.as.ejb3.pool.Pool;
+import org.jboss.as.ejb3.pool.common.MockBean;
+import org.jboss.as.ejb3.pool.common.MockFactory;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Unit test for {@link StripedPool}.
+ */
+public class StripedPoolUnitTestCase {
+
+    @Before
+    public void setUp() {
+        MockBean.reset();
+    }
+
+    @Test
+    public void getAndRelease() {
+        Pool<MockBean> pool = new StripedPool<MockBean>(new MockFactory(), 10, 1, TimeUnit.SECONDS, 4);
+        pool.start();
+
+        MockBean[] beans = new MockBean[10];
+        for (int i = 0; i < beans.length; i++) {
+            beans[i] = pool.get();
+        }
+        assertEquals(0, pool.getAvailableCount());
+
+        for (int i = 0; i < beans.length; i++) {
+            pool.release(beans[i]);
+            beans[i] = null;
+        }
+        assertEquals(10, pool.getAvailableCount());
+
+        pool.stop();
+
+        assertEquals(10, MockBean.getPostConstructs());
+        assertEquals(10, MockBean.getPreDestroys());
+    }
+
+    @Test
+    public void tooMany() {
+        // More stripes than permits, so that most stripes start out empty
+        Pool<MockBean> pool = new StripedPool<MockBean>(new MockFactory(), 3, 1, TimeUnit.SECONDS, 8);
+        pool.start();
+
+        List<MockBean> beans = new ArrayList<MockBean>();
+        for (int i = 0; i < 3; i++) {
+            beans.add(pool.get());
+        }
+
+        try {
+            pool.get();
+            fail("should have thrown an exception");
+        } catch (Exception e) {
+            assertEquals(EjbLogger.ROOT_LOGGER.failedToAcquirePermit(1, TimeUnit.SECONDS).getMessage(), e.getMessage());
+        }
+
+        // A discarded instance frees its permit
+        pool.discard(beans.remove(0));
+        beans.add(pool.get());
+
+        for (MockBean bean : beans) {
+            pool.release(bean);
+        }
+
+        pool.stop();
+
+        assertEquals(4, MockBean.getPostConstructs());
+        assertEquals(4, MockBean.getPreDestroys());
+    }
+
+    /**
+     * More threads than the pool size.
+     */
+    @Test
+    public void multiThread() throws Exception {
+        final Pool<MockBean> pool = new StripedPool<MockBean>(new MockFactory(), 10, 60, TimeUnit.SECONDS, 4);
+        pool.start();
+
+        final AtomicInteger used = new AtomicInteger(0);
+        final AtomicInteger active = new AtomicInteger(0);
+        final AtomicInteger maxActive = new AtomicInteger(0);
+        final CountDownLatch start = new CountDownLatch(1);
+
+        Callable<Void> task = new Callable<Void>() {
+            @Override
+            public Void call() throws Exception {
+                start.await();
+                for (int i = 0; i < 100; i++) {
+                    MockBean bean = pool.get();
+                    int current = active.incrementAndGet();
+                    int max = maxActive.get();
+                    while (current > max && !maxActive.compareAndSet(max, current)) {
+                        max = maxActive.get();
+                    }
+                    Thread.yield();
+                    active.decrementAndGet();
+                    pool.release(bean);
+                    used.incrementAndGet();
+                }
+                return null;
+            }
+        };
+
+        ExecutorService service = Executors.newFixedThreadPool(20);
+        try {
+            List<Future<Void>> results = new ArrayList<Future<Void>>();
+            for (int i = 0; i < 20; i++) {
+                results.add(service.submit(task));
+            }
+            start.countDown();
+
+            for (Future<Void> result : results) {
+                result.get(60, TimeUnit.SECONDS);
+            }
+        } finally {
+            service.shutdown();
+        }
+
+        pool.stop();
+
+        assertEquals(2000, used.get());
+        assertTrue(maxActive.get() <= 10);
+        assertEquals(10, pool.getAvailableCount());
+        assertTrue(MockBean.getPostConstructs() <= 10);
+        assertEquals(MockBean.getPostConstructs(), MockBean.getPreDestroys());
+    }
+}
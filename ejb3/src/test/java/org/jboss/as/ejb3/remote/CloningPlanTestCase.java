@@ -0,0 +1,110 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2015, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.jboss.as.ejb3.remote;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertNull;
+
+import java.lang.reflect.Method;
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Test;
+
+/**
+ * Unit test for {@link CloningPlan}.
+ */
+public class CloningPlanTestCase {
+
+    public interface View {
+        String echo(String value, int count, Object any, Number number, byte[] bytes, List<String> list);
+
+        Object any();
+
+        long count();
+    }
+
+    @Test
+    public void declaredTypes() throws NoSuchMethodException {
+        CloningPlan plan = new CloningPlan(Arrays.asList(View.class.getMethods()));
+        CloningPlan.MethodPlan echo = plan.getMethodPlan(View.class.getMethod("echo", String.class, int.class, Object.class, Number.class, byte[].class, List.class));
+
+        assertEquals(CloningStrategy.IMMUTABLE, echo.getParameterStrategy(0, "value"));
+        assertEquals(CloningStrategy.IMMUTABLE, echo.getParameterStrategy(1, 1));
+        assertEquals(CloningStrategy.COPY, echo.getParameterStrategy(4, new byte[0]));
+        assertEquals(CloningStrategy.IMMUTABLE, echo.getResultStrategy("value"));
+
+        // Non-final declared types are classified per value
+        assertEquals(CloningStrategy.IMMUTABLE, echo.getParameterStrategy(2, "value"));
+        assertEquals(CloningStrategy.COPY, echo.getParameterStrategy(2, new Date()));
+        assertEquals(CloningStrategy.CLONE, echo.getParameterStrategy(2, new ArrayList<String>()));
+        assertEquals(CloningStrategy.IMMUTABLE, echo.getParameterStrategy(3, BigInteger.ONE));
+        assertEquals(CloningStrategy.CLONE, echo.getParameterStrategy(3, new BigInteger("1") { }));
+        assertEquals(CloningStrategy.CLONE, echo.getParameterStrategy(5, new ArrayList<String>()));
+
+        CloningPlan.MethodPlan any = plan.getMethodPlan(View.class.getMethod("any"));
+        assertEquals(CloningStrategy.IMMUTABLE, any.getResultStrategy(TimeUnit.SECONDS));
+        assertEquals(CloningStrategy.CLONE, any.getResultStrategy(new Object[] { "value" }));
+        assertEquals(CloningStrategy.COPY, any.getResultStrategy(new String[] { "value" }));
+        assertEquals(CloningStrategy.CLONE, any.getResultStrategy(new Number[] { 1 }));
+        assertEquals(CloningStrategy.CLONE, any.getResultStrategy(new Date[] { new Date() }));
+
+        assertEquals(CloningStrategy.IMMUTABLE, plan.getMethodPlan(View.class.getMethod("count")).getResultStrategy(1L));
+
+        // Unknown methods are classified per value
+        CloningPlan.MethodPlan unknown = plan.getMethodPlan(Object.class.getMethod("equals", Object.class));
+        assertEquals(CloningStrategy.IMMUTABLE, unknown.getParameterStrategy(0, "value"));
+        assertEquals(CloningStrategy.CLONE, unknown.getParameterStrategy(0, this));
+    }
+
+    @Test
+    public void deploymentClasses() {
+        assertEquals(CloningStrategy.CLONE, CloningStrategy.forClass(View.class));
+        assertEquals(CloningStrategy.CLONE, CloningStrategy.forClass(CloningPlanTestCase[].class));
+        assertEquals(CloningStrategy.CLONE, CloningStrategy.forClass(CloningStrategy.class));
+        assertNull(CloningStrategy.forDeclaredType(View.class));
+    }
+
+    @Test
+    public void copy() {
+        byte[] bytes = new byte[] { 1, 2, 3 };
+        byte[] bytesCopy = (byte[]) CloningStrategy.copy(bytes);
+        assertNotSame(bytes, bytesCopy);
+        assertArrayEquals(bytes, bytesCopy);
+
+        String[] strings = new String[] { "a", "b" };
+        String[] stringsCopy = (String[]) CloningStrategy.copy(strings);
+        assertNotSame(strings, stringsCopy);
+        assertArrayEquals(strings, stringsCopy);
+
+        Date date = new Date();
+        Date dateCopy = (Date) CloningStrategy.copy(date);
+        assertNotSame(date, dateCopy);
+        assertEquals(date, dateCopy);
+    }
+}
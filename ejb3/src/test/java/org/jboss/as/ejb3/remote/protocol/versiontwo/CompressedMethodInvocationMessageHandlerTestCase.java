@@ -1,10 +1,14 @@
 package org.jboss.as.ejb3.remote.protocol.versiontwo;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
 
+import java.io.ByteArrayInputStream;
 import java.io.ByteArrayOutputStream;
 import java.io.DataOutput;
 import java.io.DataOutputStream;
+import java.io.FilterInputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
@@ -24,6 +28,7 @@ import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Future;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 import org.jboss.as.ee.component.ComponentView;
 import org.jboss.as.ejb3.deployment.DeploymentModuleIdentifier;
@@ -32,6 +37,7 @@ import org.jboss.as.ejb3.deployment.EjbDeploymentInformation;
 import org.jboss.as.ejb3.deployment.ModuleDeployment;
 import org.jboss.as.ejb3.remote.CompressedMethodsInformation;
 import org.jboss.as.ejb3.remote.CompressionHintViewConfigurator;
+import org.jboss.as.ejb3.remote.protocol.RetainableInputStream;
 import org.jboss.as.ejb3.remote.protocol.versionone.ChannelAssociation;
 import org.jboss.ejb.client.EJBLocator;
 import org.jboss.ejb.client.StatelessEJBLocator;
@@ -47,8 +53,10 @@ import org.jboss.msc.value.InjectedValue;
 import org.jboss.msc.value.Value;
 import org.jboss.remoting3.Channel;
 import org.jboss.remoting3.MessageOutputStream;
+import org.jboss.remoting3.RemotingOptions;
 import org.junit.Before;
 import org.junit.Test;
+import org.mockito.ArgumentCaptor;
 import org.mockito.Mockito;
 
 /**
@@ -93,6 +101,84 @@ public class CompressedMethodInvocationMessageHandlerTestCase {
         assertEquals(UNCOMPRESSED_HEADER, outputBytes[0]);
     }
 
+    @Test
+    public void testUnmarshallingOnExecutor() throws Exception {
+        final ExecutorService executor = Mockito.mock(ExecutorService.class);
+        final CompressedMethodInvocationMessageHandler deferringHandler = new CompressedMethodInvocationMessageHandler(createDeploymentRepository(RemoteCompressingBean.class, RemoteNotCompressingBean.class),
+                marshallerFactory, executor, null);
+
+        final PipedOutputStream pos = new PipedOutputStream();
+        final DataOutputStream dataOutput = new DataOutputStream(pos);
+        final InputStream inputStream = new RetainableInputStream(new PipedInputStream(pos));
+        final ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        final ChannelAssociation channelAssociation = createChannelAssociation(outputStream);
+
+        writeInvocationRequest(dataOutput, RemoteNotCompressingBean.class, "echoWithoutCompressionHint");
+        deferringHandler.processMessage(channelAssociation, inputStream);
+        // the channel receiver closes the message once the handler returns
+        inputStream.close();
+
+        final ArgumentCaptor<Runnable> task = ArgumentCaptor.forClass(Runnable.class);
+        Mockito.verify(executor).submit(task.capture());
+        assertEquals(0, outputStream.size());
+
+        // the rest of the message is read when the executor runs the task
+        task.getValue().run();
+        assertEquals(UNCOMPRESSED_HEADER, outputStream.toByteArray()[0]);
+    }
+
+    @Test
+    public void testRetainedMessagesBounded() throws Exception {
+        final ExecutorService executor = Mockito.mock(ExecutorService.class);
+        final CompressedMethodInvocationMessageHandler deferringHandler = new CompressedMethodInvocationMessageHandler(createDeploymentRepository(RemoteCompressingBean.class, RemoteNotCompressingBean.class),
+                marshallerFactory, executor, null);
+        final ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        // at most half of the inbound messages of a channel are retained
+        final ChannelAssociation channelAssociation = createChannelAssociation(outputStream, 4);
+
+        final AtomicBoolean first = receiveInvocationRequest(deferringHandler, channelAssociation);
+        final AtomicBoolean second = receiveInvocationRequest(deferringHandler, channelAssociation);
+        assertFalse(first.get());
+        assertFalse(second.get());
+
+        // the next message is read synchronously, so that the channel keeps delivering messages
+        final AtomicBoolean third = receiveInvocationRequest(deferringHandler, channelAssociation);
+        assertTrue(third.get());
+
+        final ArgumentCaptor<Runnable> tasks = ArgumentCaptor.forClass(Runnable.class);
+        Mockito.verify(executor, Mockito.times(3)).submit(tasks.capture());
+        assertEquals(0, outputStream.size());
+
+        // reading a retained message releases it, so that the next message is retained again
+        tasks.getAllValues().get(0).run();
+        assertTrue(first.get());
+        assertEquals(UNCOMPRESSED_HEADER, outputStream.toByteArray()[0]);
+        final AtomicBoolean fourth = receiveInvocationRequest(deferringHandler, channelAssociation);
+        assertFalse(fourth.get());
+        assertFalse(second.get());
+    }
+
+    /**
+     * Passes an invocation request to the specified handler, as the channel receiver would.
+     * @return a flag indicating whether the underlying message was closed
+     */
+    private AtomicBoolean receiveInvocationRequest(CompressedMethodInvocationMessageHandler handler, ChannelAssociation channelAssociation) throws Exception {
+        final ByteArrayOutputStream request = new ByteArrayOutputStream();
+        writeInvocationRequest(new DataOutputStream(request), RemoteNotCompressingBean.class, "echoWithoutCompressionHint");
+        final AtomicBoolean closed = new AtomicBoolean();
+        final InputStream inputStream = new RetainableInputStream(new FilterInputStream(new ByteArrayInputStream(request.toByteArray())) {
+            @Override
+            public void close() throws IOException {
+                closed.set(true);
+                super.close();
+            }
+        });
+        handler.processMessage(channelAssociation, inputStream);
+        // the channel receiver closes the message once the handler returns
+        inputStream.close();
+        return closed;
+    }
+
     private byte[] callMessageInvocationHandler(Class remoteInterface, String methodName) throws Exception {
         // prepare input stream
         final PipedOutputStream pos = new PipedOutputStream();
@@ -162,7 +248,12 @@ public class CompressedMethodInvocationMessageHandlerTestCase {
     }
 
     private ChannelAssociation createChannelAssociation(ByteArrayOutputStream outputStream) throws Exception {
+        return createChannelAssociation(outputStream, null);
+    }
+
+    private ChannelAssociation createChannelAssociation(ByteArrayOutputStream outputStream, Integer maxInboundMessages) throws Exception {
         final Channel channel = Mockito.mock(Channel.class);
+        Mockito.when(channel.getOption(RemotingOptions.MAX_INBOUND_MESSAGES)).thenReturn(maxInboundMessages);
         final ChannelAssociation channelAssociation = new ChannelAssociation(channel);
 
         final MessageOutputStream messageOutputStream = new MockedMessageOutputStream(outputStream);
@@ -196,6 +287,7 @@ public class CompressedMethodInvocationMessageHandlerTestCase {
         // deployment repository
         final DeploymentRepository deploymentRepository = Mockito.mock(DeploymentRepository.class);
         Mockito.when(deploymentRepository.getStartedModules()).thenReturn(modules);
+        Mockito.when(deploymentRepository.getStartedModule(identifier)).thenReturn(deployment);
         return deploymentRepository;
     }
 
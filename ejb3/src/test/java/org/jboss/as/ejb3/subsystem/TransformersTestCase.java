@@ -225,6 +225,9 @@ public class TransformersTestCase extends AbstractSubsystemBaseTest {
             // discard new attributes default-sfsb-passivation-disabled-cache, disable-default-ejb-permissions
             config.addFailedAttribute(subsystemAddress, chainedConfig);
 
+            // reject the attribute 'scheduler-threads' from resource /subsystem=ejb3/service=timer-service
+            config.addFailedAttribute(subsystemAddress.append(EJB3SubsystemModel.TIMER_SERVICE_PATH), new FailedOperationTransformationConfig.NewAttributesConfig(TimerServiceResourceDefinition.SCHEDULER_THREADS));
+
             // reject the attributes allow execution, refresh interval from resource /subsystem=ejb3/service=timer-service/database-data-store=*
             PathAddress databaseDataStore = subsystemAddress.append(EJB3SubsystemModel.TIMER_SERVICE_PATH, EJB3SubsystemModel.DATABASE_DATA_STORE_PATH);
             // config.addFailedAttribute(databaseDataStore, new FailedOperationTransformationConfig.NewAttributesConfig(DatabaseDataStoreResourceDefinition.ALLOW_EXECUTION, DatabaseDataStoreResourceDefinition.REFRESH_INTERVAL));
@@ -589,6 +589,111 @@ public class CalendarBasedTimeoutTestCase {
         Assert.assertEquals(second, firstTimeout.get(Calendar.SECOND));
     }
 
+    /**
+     * Moving to a later hour must restart the minutes and seconds from their first values.
+     */
+    @Test
+    public void testNextHourResetsMinuteAndSecond() {
+        TimeZone timeZone = TimeZone.getTimeZone("UTC");
+        Calendar current = new GregorianCalendar(timeZone);
+        current.clear();
+        current.set(2015, Calendar.MARCH, 4, 3, 51, 49);
+
+        ScheduleExpression expression = new ScheduleExpression().timezone(timeZone.getID()).hour("*/6").minute("0,30").second("*/5");
+
+        Calendar nextTimeout = new CalendarBasedTimeout(expression).getNextTimeout(current);
+        Assert.assertNotNull(nextTimeout);
+        Assert.assertEquals(4, nextTimeout.get(Calendar.DAY_OF_MONTH));
+        Assert.assertEquals(6, nextTimeout.get(Calendar.HOUR_OF_DAY));
+        Assert.assertEquals(0, nextTimeout.get(Calendar.MINUTE));
+        Assert.assertEquals(0, nextTimeout.get(Calendar.SECOND));
+    }
+
+    /**
+     * If both day-of-month and day-of-week are specified, a day matching either of them matches.
+     */
+    @Test
+    public void testDayOfMonthOrDayOfWeek() {
+        TimeZone timeZone = TimeZone.getTimeZone("Europe/Berlin");
+        Calendar current = new GregorianCalendar(timeZone);
+        current.clear();
+        current.set(2027, Calendar.DECEMBER, 26, 23, 0, 59);
+
+        ScheduleExpression expression = new ScheduleExpression().timezone(timeZone.getID()).year("2026-2028").month("12").dayOfMonth("15").dayOfWeek("Sun").hour("23").minute("0").second("59");
+
+        Calendar nextTimeout = new CalendarBasedTimeout(expression).getNextTimeout(current);
+        Assert.assertNotNull(nextTimeout);
+        Assert.assertEquals(2028, nextTimeout.get(Calendar.YEAR));
+        Assert.assertEquals(Calendar.DECEMBER, nextTimeout.get(Calendar.MONTH));
+        // the first Sunday of December 2028
+        Assert.assertEquals(3, nextTimeout.get(Calendar.DAY_OF_MONTH));
+        Assert.assertEquals(23, nextTimeout.get(Calendar.HOUR_OF_DAY));
+    }
+
+    @Test
+    public void testRelativeDayOfMonth() {
+        TimeZone timeZone = TimeZone.getTimeZone("UTC");
+        Calendar current = new GregorianCalendar(timeZone);
+        current.clear();
+        current.set(2015, Calendar.JANUARY, 31, 0, 0, 0);
+
+        ScheduleExpression expression = new ScheduleExpression().timezone(timeZone.getID()).dayOfMonth("Last Fri").hour("12").minute("0").second("0");
+        CalendarBasedTimeout calendarTimeout = new CalendarBasedTimeout(expression);
+
+        int[] expectedDays = { 27, 27, 24, 29, 26 };
+        for (int i = 0; i < expectedDays.length; ++i) {
+            current = calendarTimeout.getNextTimeout(current);
+            Assert.assertNotNull(current);
+            Assert.assertEquals(Calendar.FEBRUARY + i, current.get(Calendar.MONTH));
+            Assert.assertEquals(expectedDays[i], current.get(Calendar.DAY_OF_MONTH));
+            Assert.assertEquals(Calendar.FRIDAY, current.get(Calendar.DAY_OF_WEEK));
+        }
+    }
+
+    /**
+     * A year without the requested date has no timeout.
+     */
+    @Test
+    public void testNoMatchingDate() {
+        ScheduleExpression expression = new ScheduleExpression().timezone("UTC").year("2030").month("Feb").dayOfMonth("29").hour("12");
+
+        CalendarBasedTimeout calendarTimeout = new CalendarBasedTimeout(expression);
+        Assert.assertNull(calendarTimeout.getFirstTimeout());
+        Assert.assertNull(calendarTimeout.getNextTimeout());
+    }
+
+    /**
+     * Times skipped by a daylight saving transition are moved forward by the length of the gap, and times repeated by
+     * a transition only match once.
+     */
+    @Test
+    public void testDaylightSavingTransitions() {
+        TimeZone timeZone = TimeZone.getTimeZone("America/New_York");
+        ScheduleExpression expression = new ScheduleExpression().timezone(timeZone.getID()).hour("1-3").minute("30").second("0");
+        CalendarBasedTimeout calendarTimeout = new CalendarBasedTimeout(expression);
+
+        // 2015-03-08 02:00 EST was followed by 03:00 EDT
+        Calendar current = new GregorianCalendar(timeZone);
+        current.clear();
+        current.set(2015, Calendar.MARCH, 8, 1, 30, 0);
+        Calendar nextTimeout = calendarTimeout.getNextTimeout(current);
+        Assert.assertEquals(3600 * 1000L, nextTimeout.getTimeInMillis() - current.getTimeInMillis());
+        Assert.assertEquals(3, nextTimeout.get(Calendar.HOUR_OF_DAY));
+        Assert.assertEquals(30, nextTimeout.get(Calendar.MINUTE));
+
+        // 2015-11-01 02:00 EDT was followed by 01:00 EST
+        current.clear();
+        current.set(2015, Calendar.NOVEMBER, 1, 0, 0, 0);
+        List<Long> timeouts = new ArrayList<Long>();
+        for (nextTimeout = calendarTimeout.getNextTimeout(current); nextTimeout.get(Calendar.DAY_OF_MONTH) == 1; nextTimeout = calendarTimeout.getNextTimeout(nextTimeout)) {
+            timeouts.add(nextTimeout.getTimeInMillis());
+        }
+        // 01:30 EDT, 02:30 EST and 03:30 EST
+        Assert.assertEquals(3, timeouts.size());
+        Assert.assertEquals(2 * 3600 * 1000L, timeouts.get(1) - timeouts.get(0));
+        Assert.assertEquals(3600 * 1000L, timeouts.get(2) - timeouts.get(1));
+    }
+
     private ScheduleExpression getTimezoneSpecificScheduleExpression() {
         ScheduleExpression scheduleExpression = new ScheduleExpression().timezone(this.timezone.getID());
         GregorianCalendar start = new GregorianCalendar(this.timezone);
@@ -0,0 +1,247 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2015, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.jboss.as.ejb3.timerservice;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Unit test for {@link TimerScheduler}.
+ */
+public class TimerSchedulerTestCase {
+
+    private TimerScheduler scheduler;
+
+    @Before
+    public void init() {
+        // A small wheel, so that tasks span several revolutions
+        this.scheduler = new TimerScheduler(2, 1, 64);
+        this.scheduler.start();
+    }
+
+    @After
+    public void destroy() {
+        this.scheduler.stop();
+    }
+
+    @Test
+    public void schedule() throws InterruptedException {
+        final List<Long> lags = Collections.synchronizedList(new ArrayList<Long>());
+        final CountDownLatch latch = new CountDownLatch(20);
+        for (int i = 0; i < 20; ++i) {
+            this.scheduler.schedule(new TimerScheduler.Task("timer-" + i) {
+                @Override
+                protected void run(long scheduledTime) {
+                    lags.add(System.currentTimeMillis() - scheduledTime);
+                    latch.countDown();
+                }
+            }, i * 10);
+        }
+        assertTrue(latch.await(5, TimeUnit.SECONDS));
+        for (long lag : lags) {
+            // Never early
+            assertTrue(Long.toString(lag), lag >= 0);
+        }
+    }
+
+    @Test
+    public void scheduleInPast() throws InterruptedException {
+        final CountDownLatch latch = new CountDownLatch(1);
+        this.scheduler.schedule(new TimerScheduler.Task("past") {
+            @Override
+            protected void run(long scheduledTime) {
+                latch.countDown();
+            }
+        }, -1000);
+        assertTrue(latch.await(5, TimeUnit.SECONDS));
+    }
+
+    @Test
+    public void scheduleAfterSeveralRevolutions() throws InterruptedException {
+        final CountDownLatch latch = new CountDownLatch(1);
+        final long start = System.currentTimeMillis();
+        final long[] fired = new long[1];
+        this.scheduler.schedule(new TimerScheduler.Task("late") {
+            @Override
+            protected void run(long scheduledTime) {
+                fired[0] = System.currentTimeMillis();
+                latch.countDown();
+            }
+        }, 200);
+        assertTrue(latch.await(5, TimeUnit.SECONDS));
+        assertTrue(fired[0] - start >= 200);
+    }
+
+    @Test
+    public void scheduleBeyondRevolution() throws InterruptedException {
+        final long[] delays = new long[] { 300, 150, 450, 100, 70 };
+        final List<Long> scheduledTimes = Collections.synchronizedList(new ArrayList<Long>());
+        final List<Long> lags = Collections.synchronizedList(new ArrayList<Long>());
+        final CountDownLatch latch = new CountDownLatch(delays.length);
+        for (long delay : delays) {
+            // Use the same key, so that every task goes through the overflow of the same thread
+            this.scheduler.schedule(new TimerScheduler.Task("key") {
+                @Override
+                protected void run(long scheduledTime) {
+                    scheduledTimes.add(scheduledTime);
+                    lags.add(System.currentTimeMillis() - scheduledTime);
+                    latch.countDown();
+                }
+            }, delay);
+        }
+        assertTrue(latch.await(5, TimeUnit.SECONDS));
+        for (int i = 1; i < delays.length; ++i) {
+            assertTrue(scheduledTimes.get(i) >= scheduledTimes.get(i - 1));
+        }
+        for (long lag : lags) {
+            // Never early
+            assertTrue(Long.toString(lag), lag >= 0);
+        }
+    }
+
+    @Test
+    public void scheduleAtFixedRateBeyondRevolution() throws InterruptedException {
+        final CountDownLatch latch = new CountDownLatch(3);
+        final List<Long> lags = Collections.synchronizedList(new ArrayList<Long>());
+        final List<Long> scheduledTimes = Collections.synchronizedList(new ArrayList<Long>());
+        TimerScheduler.Task task = new TimerScheduler.Task("fixed-rate") {
+            @Override
+            protected void run(long scheduledTime) {
+                lags.add(System.currentTimeMillis() - scheduledTime);
+                scheduledTimes.add(scheduledTime);
+                latch.countDown();
+            }
+        };
+        this.scheduler.scheduleAtFixedRate(task, 100, 100);
+        assertTrue(latch.await(5, TimeUnit.SECONDS));
+        task.cancel();
+        for (int i = 1; i < 3; ++i) {
+            assertEquals(100L, scheduledTimes.get(i) - scheduledTimes.get(i - 1));
+        }
+        for (long lag : lags.subList(0, 3)) {
+            assertTrue(Long.toString(lag), lag >= 0);
+        }
+    }
+
+    @Test
+    public void cancelBeyondRevolution() throws InterruptedException {
+        final AtomicInteger count = new AtomicInteger();
+        final CountDownLatch latch = new CountDownLatch(1);
+        TimerScheduler.Task cancelled = new TimerScheduler.Task("key") {
+            @Override
+            protected void run(long scheduledTime) {
+                count.incrementAndGet();
+            }
+        };
+        this.scheduler.schedule(cancelled, 150);
+        this.scheduler.schedule(new TimerScheduler.Task("key") {
+            @Override
+            protected void run(long scheduledTime) {
+                latch.countDown();
+            }
+        }, 300);
+        Thread.sleep(20);
+        assertTrue(cancelled.cancel());
+        assertTrue(latch.await(5, TimeUnit.SECONDS));
+        assertEquals(0, count.get());
+    }
+
+    @Test
+    public void scheduleAtFixedRate() throws InterruptedException {
+        final AtomicInteger count = new AtomicInteger();
+        final CountDownLatch latch = new CountDownLatch(5);
+        final List<Long> scheduledTimes = Collections.synchronizedList(new ArrayList<Long>());
+        TimerScheduler.Task task = new TimerScheduler.Task("fixed-rate") {
+            @Override
+            protected void run(long scheduledTime) {
+                scheduledTimes.add(scheduledTime);
+                count.incrementAndGet();
+                latch.countDown();
+            }
+        };
+        this.scheduler.scheduleAtFixedRate(task, 0, 20);
+        assertTrue(latch.await(5, TimeUnit.SECONDS));
+        assertTrue(task.cancel());
+        assertFalse(task.cancel());
+        // Executions are relative to the first scheduled time
+        for (int i = 1; i < 5; ++i) {
+            assertEquals(20L, scheduledTimes.get(i) - scheduledTimes.get(i - 1));
+        }
+        int executions = count.get();
+        Thread.sleep(100);
+        // At most one execution could have been in progress while cancelling
+        assertTrue(count.get() <= executions + 1);
+    }
+
+    @Test
+    public void cancel() throws InterruptedException {
+        final AtomicInteger count = new AtomicInteger();
+        final CountDownLatch latch = new CountDownLatch(1);
+        TimerScheduler.Task cancelled = new TimerScheduler.Task("cancelled") {
+            @Override
+            protected void run(long scheduledTime) {
+                count.incrementAndGet();
+            }
+        };
+        this.scheduler.schedule(cancelled, 50);
+        this.scheduler.schedule(new TimerScheduler.Task("other") {
+            @Override
+            protected void run(long scheduledTime) {
+                latch.countDown();
+            }
+        }, 100);
+        assertTrue(cancelled.cancel());
+        assertTrue(latch.await(5, TimeUnit.SECONDS));
+        assertEquals(0, count.get());
+    }
+
+    @Test
+    public void failingTask() throws InterruptedException {
+        final CountDownLatch latch = new CountDownLatch(1);
+        // Use the same key, so that both tasks are scheduled by the same thread
+        this.scheduler.schedule(new TimerScheduler.Task("key") {
+            @Override
+            protected void run(long scheduledTime) {
+                throw new IllegalStateException();
+            }
+        }, 0);
+        this.scheduler.schedule(new TimerScheduler.Task("key") {
+            @Override
+            protected void run(long scheduledTime) {
+                latch.countDown();
+            }
+        }, 20);
+        assertTrue(latch.await(5, TimeUnit.SECONDS));
+    }
+}
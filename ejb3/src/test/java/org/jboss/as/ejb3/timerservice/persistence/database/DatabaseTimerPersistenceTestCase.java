@@ -0,0 +1,402 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2015, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.jboss.as.ejb3.timerservice.persistence.database;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.anyLong;
+import static org.mockito.Matchers.anyString;
+import static org.mockito.Matchers.eq;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.io.InputStream;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.Timer;
+import java.util.TimerTask;
+
+import javax.sql.DataSource;
+import javax.transaction.Status;
+import javax.transaction.Synchronization;
+import javax.transaction.TransactionSynchronizationRegistry;
+
+import org.jboss.as.ejb3.timerservice.TimerImpl;
+import org.jboss.as.ejb3.timerservice.TimerServiceImpl;
+import org.jboss.as.ejb3.timerservice.TimerState;
+import org.jboss.as.ejb3.timerservice.persistence.TimerPersistence.TimerChangeListener;
+import org.jboss.as.ejb3.timerservice.spi.TimedObjectInvoker;
+import org.jboss.as.naming.ManagedReference;
+import org.jboss.as.naming.ManagedReferenceFactory;
+import org.jboss.modules.ModuleLoader;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InOrder;
+import org.mockito.invocation.InvocationOnMock;
+import org.mockito.stubbing.Answer;
+
+/**
+ * Unit test for the transactional write batches and the incremental refresh of {@link DatabaseTimerPersistence}.
+ */
+public class DatabaseTimerPersistenceTestCase {
+
+    private static final String TIMED_OBJECT_ID = "timed-object";
+    private static final String PARTITION = "partition";
+
+    private final Map<String, PreparedStatement> statements = new HashMap<>();
+    private final List<String> prepared = new ArrayList<>();
+    private final TestTransactionSynchronizationRegistry registry = new TestTransactionSynchronizationRegistry();
+    private final Timer timer = mock(Timer.class);
+    private Properties sql;
+    private ResultSet empty;
+    private TimerServiceImpl timerService;
+    private DatabaseTimerPersistence persistence;
+
+    @Before
+    public void init() throws Exception {
+        this.sql = new Properties();
+        try (InputStream input = this.getClass().getClassLoader().getResourceAsStream("timer-sql.properties")) {
+            this.sql.load(input);
+        }
+        this.empty = mock(ResultSet.class);
+        Connection connection = mock(Connection.class);
+        when(connection.getTransactionIsolation()).thenReturn(Connection.TRANSACTION_READ_COMMITTED);
+        when(connection.prepareStatement(anyString())).thenAnswer(new Answer<PreparedStatement>() {
+            @Override
+            public PreparedStatement answer(InvocationOnMock invocation) throws SQLException {
+                String statement = (String) invocation.getArguments()[0];
+                prepared.add(statement);
+                return statement(statement);
+            }
+        });
+        DataSource dataSource = mock(DataSource.class);
+        when(dataSource.getConnection()).thenReturn(connection);
+        ManagedReference reference = mock(ManagedReference.class);
+        when(reference.getInstance()).thenReturn(dataSource);
+        ManagedReferenceFactory factory = mock(ManagedReferenceFactory.class);
+        when(factory.getReference()).thenReturn(reference);
+
+        TimedObjectInvoker invoker = mock(TimedObjectInvoker.class);
+        when(invoker.getTimedObjectId()).thenReturn(TIMED_OBJECT_ID);
+        this.timerService = mock(TimerServiceImpl.class);
+        when(this.timerService.getInvoker()).thenReturn(invoker);
+
+        this.persistence = new DatabaseTimerPersistence("h2", PARTITION, "node", 1000, true);
+        this.persistence.getDataSourceInjectedValue().inject(factory);
+        this.persistence.getModuleLoader().inject(mock(ModuleLoader.class));
+        this.persistence.getTimerInjectedValue().inject(this.timer);
+        this.persistence.getTransactionSynchronizationRegistry().inject(this.registry);
+        this.persistence.start(null);
+        this.persistence.loadActiveTimers(TIMED_OBJECT_ID, this.timerService);
+        this.prepared.clear();
+    }
+
+    @Test
+    public void writeOutsideTransaction() throws SQLException {
+        long statements = this.persistence.getStatementCount();
+        this.persistence.addTimer(this.timer("a"));
+
+        PreparedStatement insert = this.statement(this.sql.getProperty("create-timer"));
+        verify(insert).addBatch();
+        verify(insert).executeBatch();
+        assertEquals(statements + 1, this.persistence.getStatementCount());
+    }
+
+    @Test
+    public void flushBeforeCompletion() throws SQLException {
+        TimerImpl existing = this.timer("a");
+        this.persistence.addTimer(existing);
+        TimerImpl cancelled = this.timer("b");
+        this.persistence.addTimer(cancelled);
+        this.prepared.clear();
+        long statements = this.persistence.getStatementCount();
+
+        this.registry.begin();
+        this.persistence.addTimer(this.timer("c"));
+        existing.setTimerState(TimerState.ACTIVE);
+        this.persistence.persistTimer(existing);
+        cancelled.setTimerState(TimerState.CANCELED);
+        this.persistence.persistTimer(cancelled);
+        assertTrue(this.prepared.isEmpty());
+
+        this.registry.commit();
+
+        PreparedStatement delete = this.statement(this.sql.getProperty("delete-timer"));
+        PreparedStatement insert = this.statement(this.sql.getProperty("create-timer"));
+        PreparedStatement update = this.statement(this.sql.getProperty("update-timer"));
+        InOrder order = inOrder(delete, insert, update);
+        order.verify(delete).executeBatch();
+        order.verify(insert).executeBatch();
+        order.verify(update).executeBatch();
+        // one batch per kind of statement
+        assertEquals(statements + 3, this.persistence.getStatementCount());
+    }
+
+    @Test
+    public void coalesce() throws SQLException {
+        this.persistence.addTimer(this.timer("updated"));
+        this.persistence.addTimer(this.timer("deleted"));
+        PreparedStatement insert = this.statement(this.sql.getProperty("create-timer"));
+        verify(insert, times(2)).addBatch();
+        this.prepared.clear();
+        long statements = this.persistence.getStatementCount();
+
+        this.registry.begin();
+        // created and modified: a single insert
+        TimerImpl created = this.timer("created");
+        this.persistence.addTimer(created);
+        created.setTimerState(TimerState.ACTIVE);
+        this.persistence.persistTimer(created);
+        // created and cancelled: nothing
+        TimerImpl transientTimer = this.timer("transient");
+        this.persistence.addTimer(transientTimer);
+        transientTimer.setTimerState(TimerState.CANCELED);
+        this.persistence.persistTimer(transientTimer);
+        // updated twice: a single update with the last state
+        TimerImpl updated = this.timer("updated");
+        updated.setTimerState(TimerState.IN_TIMEOUT);
+        this.persistence.persistTimer(updated);
+        Date next = new Date(System.currentTimeMillis() + 60000L);
+        updated.setNextTimeout(next);
+        updated.setTimerState(TimerState.ACTIVE);
+        this.persistence.persistTimer(updated);
+        // updated then cancelled: a single delete
+        TimerImpl deleted = this.timer("deleted");
+        deleted.setTimerState(TimerState.ACTIVE);
+        this.persistence.persistTimer(deleted);
+        deleted.setTimerState(TimerState.CANCELED);
+        this.persistence.persistTimer(deleted);
+        this.registry.commit();
+
+        verify(insert, times(3)).addBatch();
+        verify(insert, times(1)).setString(1, "created");
+        verify(insert, never()).setString(1, "transient");
+
+        PreparedStatement update = this.statement(this.sql.getProperty("update-timer"));
+        verify(update, times(1)).addBatch();
+        verify(update).setTimestamp(1, new Timestamp(next.getTime()));
+        verify(update).setString(3, TimerState.ACTIVE.name());
+        verify(update).setString(6, "updated");
+
+        PreparedStatement delete = this.statement(this.sql.getProperty("delete-timer"));
+        verify(delete, times(1)).addBatch();
+        verify(delete).setString(2, "deleted");
+
+        assertEquals(statements + 3, this.persistence.getStatementCount());
+    }
+
+    @Test
+    public void rollback() throws SQLException {
+        long statements = this.persistence.getStatementCount();
+
+        this.registry.begin();
+        this.persistence.addTimer(this.timer("a"));
+        TimerImpl timer = this.timer("b");
+        timer.setTimerState(TimerState.ACTIVE);
+        this.persistence.persistTimer(timer);
+        this.registry.rollback();
+
+        assertTrue(this.prepared.isEmpty());
+        assertEquals(statements, this.persistence.getStatementCount());
+    }
+
+    @Test
+    public void refresh() throws Exception {
+        this.persistence.addTimer(this.timer("known"));
+        this.persistence.addTimer(this.timer("removed"));
+        TimerChangeListener listener = mock(TimerChangeListener.class);
+        when(listener.getTimerService()).thenReturn(this.timerService);
+        this.persistence.registerChangeListener(TIMED_OBJECT_ID, listener);
+
+        PreparedStatement selectIds = this.statement(this.sql.getProperty("load-timer-ids"));
+        ResultSet ids = rows("known", "added-1", "added-2");
+        when(selectIds.executeQuery()).thenReturn(ids);
+        ResultSet rows = rows("added-1", "added-2");
+        when(rows.getString(2)).thenReturn(TIMED_OBJECT_ID);
+        when(rows.getString(9)).thenReturn(TimerState.ACTIVE.name());
+        String loadTimers = String.format(this.sql.getProperty("load-timers"), "?,?");
+        PreparedStatement select = this.statement(loadTimers);
+        when(select.executeQuery()).thenReturn(rows);
+        this.prepared.clear();
+
+        ArgumentCaptor<TimerTask> task = ArgumentCaptor.forClass(TimerTask.class);
+        verify(this.timer).schedule(task.capture(), anyLong(), anyLong());
+        task.getValue().run();
+
+        // the rows of both new timers are loaded with one statement
+        assertEquals(2, this.prepared.size());
+        assertEquals(this.sql.getProperty("load-timer-ids"), this.prepared.get(0));
+        assertEquals(loadTimers, this.prepared.get(1));
+        verify(select).setString(3, "added-1");
+        verify(select).setString(4, "added-2");
+        ArgumentCaptor<TimerImpl> added = ArgumentCaptor.forClass(TimerImpl.class);
+        verify(listener, times(2)).timerAdded(added.capture());
+        assertEquals("added-1", added.getAllValues().get(0).getId());
+        assertEquals("added-2", added.getAllValues().get(1).getId());
+        verify(listener).timerRemoved("removed");
+        verify(listener, never()).timerRemoved("known");
+        assertEquals(1, this.persistence.getRefreshCount());
+
+        // nothing is loaded if no timer was added
+        ids = rows("known", "added-1", "added-2");
+        when(selectIds.executeQuery()).thenReturn(ids);
+        this.prepared.clear();
+        task.getValue().run();
+        assertEquals(Collections.singletonList(this.sql.getProperty("load-timer-ids")), this.prepared);
+        verify(listener, times(2)).timerAdded(any(TimerImpl.class));
+        assertFalse(this.persistence.getMaxRefreshTime() < this.persistence.getAverageRefreshTime());
+        assertEquals(2, this.persistence.getRefreshCount());
+        verify(listener, never()).timerRemoved(eq("added-1"));
+    }
+
+    private PreparedStatement statement(String sql) throws SQLException {
+        PreparedStatement statement = this.statements.get(sql);
+        if (statement == null) {
+            statement = mock(PreparedStatement.class);
+            when(statement.executeQuery()).thenReturn(this.empty);
+            this.statements.put(sql, statement);
+        }
+        return statement;
+    }
+
+    /**
+     * Creates a result set of the given timer ids, as the first column of its rows.
+     */
+    private static ResultSet rows(final String... ids) throws SQLException {
+        final ResultSet rows = mock(ResultSet.class);
+        final int[] row = new int[] { -1 };
+        when(rows.next()).thenAnswer(new Answer<Boolean>() {
+            @Override
+            public Boolean answer(InvocationOnMock invocation) {
+                return ++row[0] < ids.length;
+            }
+        });
+        when(rows.getString(1)).thenAnswer(new Answer<String>() {
+            @Override
+            public String answer(InvocationOnMock invocation) {
+                return ids[row[0]];
+            }
+        });
+        return rows;
+    }
+
+    private TimerImpl timer(String id) {
+        return TimerImpl.builder()
+                .setId(id)
+                .setTimedObjectId(TIMED_OBJECT_ID)
+                .setInitialDate(new Date(System.currentTimeMillis() + 60000L))
+                .setTimerState(TimerState.CREATED)
+                .setPersistent(true)
+                .setNewTimer(true)
+                .build(this.timerService);
+    }
+
+    /**
+     * Single threaded registry of a transaction that can be started, committed and rolled back by the test.
+     */
+    static class TestTransactionSynchronizationRegistry implements TransactionSynchronizationRegistry {
+        private final Map<Object, Object> resources = new HashMap<>();
+        private final List<Synchronization> synchronizations = new ArrayList<>();
+        private int status = Status.STATUS_NO_TRANSACTION;
+
+        void begin() {
+            this.status = Status.STATUS_ACTIVE;
+        }
+
+        void commit() {
+            this.status = Status.STATUS_PREPARING;
+            for (Synchronization synchronization : this.synchronizations) {
+                synchronization.beforeCompletion();
+            }
+            this.complete(Status.STATUS_COMMITTED);
+        }
+
+        void rollback() {
+            this.complete(Status.STATUS_ROLLEDBACK);
+        }
+
+        private void complete(int status) {
+            this.status = status;
+            for (Synchronization synchronization : this.synchronizations) {
+                synchronization.afterCompletion(status);
+            }
+            this.synchronizations.clear();
+            this.resources.clear();
+            this.status = Status.STATUS_NO_TRANSACTION;
+        }
+
+        @Override
+        public Object getTransactionKey() {
+            return (this.status == Status.STATUS_NO_TRANSACTION) ? null : this;
+        }
+
+        @Override
+        public void putResource(Object key, Object value) {
+            this.resources.put(key, value);
+        }
+
+        @Override
+        public Object getResource(Object key) {
+            return this.resources.get(key);
+        }
+
+        @Override
+        public void registerInterposedSynchronization(Synchronization synchronization) {
+            if (this.status != Status.STATUS_ACTIVE) {
+                throw new IllegalStateException();
+            }
+            this.synchronizations.add(synchronization);
+        }
+
+        @Override
+        public int getTransactionStatus() {
+            return this.status;
+        }
+
+        @Override
+        public void setRollbackOnly() {
+            this.status = Status.STATUS_MARKED_ROLLBACK;
+        }
+
+        @Override
+        public boolean getRollbackOnly() {
+            return this.status == Status.STATUS_MARKED_ROLLBACK;
+        }
+    }
+}
@@ -0,0 +1,298 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2015, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.jboss.as.ejb3.timerservice.persistence.filestore;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Matchers.any;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.io.File;
+import java.io.FilenameFilter;
+import java.nio.file.Files;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import javax.transaction.Status;
+import javax.transaction.Synchronization;
+import javax.transaction.TransactionManager;
+import javax.transaction.TransactionSynchronizationRegistry;
+
+import org.jboss.as.controller.services.path.PathManager;
+import org.jboss.as.ejb3.timerservice.TimerImpl;
+import org.jboss.as.ejb3.timerservice.TimerServiceImpl;
+import org.jboss.as.ejb3.timerservice.TimerState;
+import org.jboss.as.ejb3.timerservice.spi.TimedObjectInvoker;
+import org.jboss.modules.ModuleLoader;
+import org.jboss.msc.value.InjectedValue;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.invocation.InvocationOnMock;
+import org.mockito.stubbing.Answer;
+
+/**
+ * Unit test for {@link JournalFileTimerPersistence}, including the migration of timers from the per-timer XML files of
+ * {@link FileTimerPersistence}.
+ */
+public class JournalFileTimerPersistenceTestCase {
+
+    private static final String TIMED_OBJECT_ID = "timed-object";
+
+    private final TransactionManager transactionManager = mock(TransactionManager.class);
+    private final TransactionSynchronizationRegistry registry = mock(TransactionSynchronizationRegistry.class);
+    private final Map<Object, Object> resources = new HashMap<>();
+    private File directory;
+    private TimerServiceImpl timerService;
+
+    @Before
+    public void init() throws Exception {
+        this.directory = Files.createTempDirectory("timer-store").toFile();
+        when(this.transactionManager.getStatus()).thenReturn(Status.STATUS_NO_TRANSACTION);
+        when(this.registry.getResource(any())).thenAnswer(new Answer<Object>() {
+            @Override
+            public Object answer(InvocationOnMock invocation) {
+                return resources.get(invocation.getArguments()[0]);
+            }
+        });
+        doAnswer(new Answer<Void>() {
+            @Override
+            public Void answer(InvocationOnMock invocation) {
+                resources.put(invocation.getArguments()[0], invocation.getArguments()[1]);
+                return null;
+            }
+        }).when(this.registry).putResource(any(), any());
+
+        TimedObjectInvoker invoker = mock(TimedObjectInvoker.class);
+        when(invoker.getTimedObjectId()).thenReturn(TIMED_OBJECT_ID);
+        when(invoker.getClassLoader()).thenReturn(this.getClass().getClassLoader());
+        InjectedValue<TimedObjectInvoker> invokerValue = new InjectedValue<>();
+        invokerValue.inject(invoker);
+        this.timerService = mock(TimerServiceImpl.class);
+        when(this.timerService.getInvoker()).thenReturn(invoker);
+        when(this.timerService.getTimedObjectInvoker()).thenReturn(invokerValue);
+    }
+
+    @After
+    public void destroy() {
+        delete(this.directory);
+    }
+
+    @Test
+    public void reload() throws Exception {
+        Date initialDate = new Date(System.currentTimeMillis() + 60000L);
+        FileTimerPersistence persistence = this.start(new JournalFileTimerPersistence(true, this.directory.getAbsolutePath(), null));
+        assertTrue(persistence.loadActiveTimers(TIMED_OBJECT_ID, this.timerService).isEmpty());
+        persistence.addTimer(this.timer("a", initialDate));
+        TimerImpl cancelled = this.timer("b", initialDate);
+        persistence.addTimer(cancelled);
+        cancelled.setTimerState(TimerState.CANCELED);
+        persistence.persistTimer(cancelled);
+        assertEquals(1, persistence.loadActiveTimers(TIMED_OBJECT_ID, this.timerService).size());
+        persistence.stop(null);
+
+        persistence = this.start(new JournalFileTimerPersistence(true, this.directory.getAbsolutePath(), null));
+        List<TimerImpl> timers = persistence.loadActiveTimers(TIMED_OBJECT_ID, this.timerService);
+        assertEquals(1, timers.size());
+        assertEquals("a", timers.get(0).getId());
+        assertEquals(initialDate, timers.get(0).getInitialExpiration());
+        persistence.stop(null);
+    }
+
+    @Test
+    public void syncOutsideLock() throws Exception {
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            LockCheckingPersistence persistence = new LockCheckingPersistence(this.directory, executor, this.timerService);
+            this.start(persistence);
+            persistence.loadActiveTimers(TIMED_OBJECT_ID, this.timerService);
+            persistence.addTimer(this.timer("a", new Date(System.currentTimeMillis() + 60000L)));
+            TimerImpl timer = persistence.loadActiveTimers(TIMED_OBJECT_ID, this.timerService).get(0);
+            timer.setTimerState(TimerState.ACTIVE);
+            persistence.persistTimer(timer);
+            assertTrue(persistence.checked > 0);
+            persistence.stop(null);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    public void commit() throws Exception {
+        FileTimerPersistence persistence = this.start(new JournalFileTimerPersistence(true, this.directory.getAbsolutePath(), null));
+        persistence.loadActiveTimers(TIMED_OBJECT_ID, this.timerService);
+
+        when(this.transactionManager.getStatus()).thenReturn(Status.STATUS_ACTIVE);
+        persistence.addTimer(this.timer("a", new Date(System.currentTimeMillis() + 60000L)));
+        ArgumentCaptor<Synchronization> synchronization = ArgumentCaptor.forClass(Synchronization.class);
+        verify(this.registry).registerInterposedSynchronization(synchronization.capture());
+        when(this.transactionManager.getStatus()).thenReturn(Status.STATUS_NO_TRANSACTION);
+        assertTrue(persistence.loadActiveTimers(TIMED_OBJECT_ID, this.timerService).isEmpty());
+
+        synchronization.getValue().beforeCompletion();
+        synchronization.getValue().afterCompletion(Status.STATUS_COMMITTED);
+        persistence.stop(null);
+
+        persistence = this.start(new JournalFileTimerPersistence(true, this.directory.getAbsolutePath(), null));
+        assertEquals(1, persistence.loadActiveTimers(TIMED_OBJECT_ID, this.timerService).size());
+        persistence.stop(null);
+    }
+
+    @Test
+    public void migrate() throws Exception {
+        Date initialDate = new Date(System.currentTimeMillis() + 60000L);
+        FileTimerPersistence persistence = this.start(new FileTimerPersistence(true, this.directory.getAbsolutePath(), null));
+        persistence.loadActiveTimers(TIMED_OBJECT_ID, this.timerService);
+        persistence.addTimer(this.timer("a", initialDate));
+        persistence.addTimer(this.timer("b", initialDate));
+        persistence.stop(null);
+        File timers = new File(this.directory, TIMED_OBJECT_ID);
+        assertEquals(2, xmlFiles(timers).length);
+
+        persistence = this.start(new JournalFileTimerPersistence(true, this.directory.getAbsolutePath(), null));
+        assertEquals(2, persistence.loadActiveTimers(TIMED_OBJECT_ID, this.timerService).size());
+        assertEquals(0, xmlFiles(timers).length);
+        persistence.stop(null);
+
+        // Migrated timers are now read from the journal
+        persistence = this.start(new JournalFileTimerPersistence(true, this.directory.getAbsolutePath(), null));
+        List<TimerImpl> migrated = persistence.loadActiveTimers(TIMED_OBJECT_ID, this.timerService);
+        assertEquals(2, migrated.size());
+        for (TimerImpl timer : migrated) {
+            assertEquals(initialDate, timer.getInitialExpiration());
+        }
+        persistence.stop(null);
+    }
+
+    @Test
+    public void journalTakesPrecedence() throws Exception {
+        Date initialDate = new Date(System.currentTimeMillis() + 60000L);
+        Date journalDate = new Date(initialDate.getTime() + 60000L);
+        FileTimerPersistence persistence = this.start(new JournalFileTimerPersistence(true, this.directory.getAbsolutePath(), null));
+        persistence.loadActiveTimers(TIMED_OBJECT_ID, this.timerService);
+        persistence.addTimer(this.timer("a", journalDate));
+        persistence.stop(null);
+
+        // A file left behind by an interrupted migration
+        persistence = this.start(new FileTimerPersistence(true, this.directory.getAbsolutePath(), null));
+        persistence.loadActiveTimers(TIMED_OBJECT_ID, this.timerService);
+        persistence.addTimer(this.timer("a", initialDate));
+        persistence.stop(null);
+
+        persistence = this.start(new JournalFileTimerPersistence(true, this.directory.getAbsolutePath(), null));
+        List<TimerImpl> timers = persistence.loadActiveTimers(TIMED_OBJECT_ID, this.timerService);
+        assertEquals(1, timers.size());
+        assertEquals(journalDate, timers.get(0).getInitialExpiration());
+        assertEquals(0, xmlFiles(new File(this.directory, TIMED_OBJECT_ID)).length);
+        persistence.stop(null);
+    }
+
+    private FileTimerPersistence start(FileTimerPersistence persistence) throws Exception {
+        PathManager pathManager = mock(PathManager.class);
+        when(pathManager.resolveRelativePathEntry(this.directory.getAbsolutePath(), null)).thenReturn(this.directory.getAbsolutePath());
+        persistence.getPathManager().inject(pathManager);
+        persistence.getModuleLoader().inject(mock(ModuleLoader.class));
+        persistence.getTransactionManager().inject(this.transactionManager);
+        persistence.getTransactionSynchronizationRegistry().inject(this.registry);
+        persistence.start(null);
+        return persistence;
+    }
+
+    private TimerImpl timer(String id, Date initialDate) {
+        return TimerImpl.builder()
+                .setId(id)
+                .setTimedObjectId(TIMED_OBJECT_ID)
+                .setInitialDate(initialDate)
+                .setRepeatInterval(1000L)
+                .setTimerState(TimerState.CREATED)
+                .setPersistent(true)
+                .setNewTimer(true)
+                .build(this.timerService);
+    }
+
+    private static File[] xmlFiles(File directory) {
+        File[] files = directory.listFiles(new FilenameFilter() {
+            @Override
+            public boolean accept(File dir, String name) {
+                return name.endsWith(".xml");
+            }
+        });
+        return (files != null) ? files : new File[0];
+    }
+
+    private static void delete(File file) {
+        File[] files = file.listFiles();
+        if (files != null) {
+            for (File child : files) {
+                delete(child);
+            }
+        }
+        file.delete();
+    }
+
+    /**
+     * Verifies that the lock of the timed object is free whenever the journal is synced, by loading its timers from
+     * another thread.
+     */
+    private static class LockCheckingPersistence extends JournalFileTimerPersistence {
+        private final ExecutorService executor;
+        private final TimerServiceImpl timerService;
+        private final Thread owner = Thread.currentThread();
+        volatile int checked = 0;
+
+        LockCheckingPersistence(File directory, ExecutorService executor, TimerServiceImpl timerService) {
+            super(true, directory.getAbsolutePath(), null);
+            this.executor = executor;
+            this.timerService = timerService;
+        }
+
+        @Override
+        protected void sync() {
+            if (Thread.currentThread() == this.owner) {
+                try {
+                    this.executor.submit(new Callable<List<TimerImpl>>() {
+                        @Override
+                        public List<TimerImpl> call() {
+                            return loadActiveTimers(TIMED_OBJECT_ID, LockCheckingPersistence.this.timerService);
+                        }
+                    }).get(5, TimeUnit.SECONDS);
+                } catch (InterruptedException | ExecutionException | TimeoutException e) {
+                    throw new AssertionError(e);
+                }
+                this.checked += 1;
+            }
+            super.sync();
+        }
+    }
+}
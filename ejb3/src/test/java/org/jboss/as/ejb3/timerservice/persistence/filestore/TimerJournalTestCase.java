@@ -0,0 +1,209 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2015, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.jboss.as.ejb3.timerservice.persistence.filestore;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Unit test for {@link TimerJournal}.
+ */
+public class TimerJournalTestCase {
+
+    private File directory;
+
+    @Before
+    public void init() throws IOException {
+        this.directory = Files.createTempDirectory("timer-journal").toFile();
+    }
+
+    @After
+    public void destroy() {
+        File[] files = this.directory.listFiles();
+        if (files != null) {
+            for (File file : files) {
+                file.delete();
+            }
+        }
+        this.directory.delete();
+    }
+
+    @Test
+    public void replay() throws IOException {
+        TimerJournal journal = new TimerJournal(this.directory);
+        journal.open();
+        journal.put("a", "1", bytes("a1"));
+        journal.put("a", "2", bytes("a2"));
+        journal.put("b", "1", bytes("b1"));
+        journal.put("a", "1", bytes("a1'"));
+        journal.sync(journal.remove("a", "2"));
+        journal.close();
+
+        journal = new TimerJournal(this.directory);
+        journal.open();
+        try {
+            Map<String, byte[]> a = journal.get("a");
+            assertEquals(1, a.size());
+            assertArrayEquals(bytes("a1'"), a.get("1"));
+            Map<String, byte[]> b = journal.get("b");
+            assertEquals(1, b.size());
+            assertArrayEquals(bytes("b1"), b.get("1"));
+            assertTrue(journal.get("c").isEmpty());
+        } finally {
+            journal.close();
+        }
+    }
+
+    @Test
+    public void groupCommit() throws Exception {
+        final TimerJournal journal = new TimerJournal(this.directory);
+        journal.open();
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<Void>> futures = new ArrayList<>();
+            for (int i = 0; i < 8; ++i) {
+                final String group = Integer.toString(i);
+                futures.add(executor.submit(new Callable<Void>() {
+                    @Override
+                    public Void call() throws IOException {
+                        for (int j = 0; j < 50; ++j) {
+                            String key = Integer.toString(j);
+                            journal.sync(journal.put(group, key, bytes(group + key)));
+                        }
+                        return null;
+                    }
+                }));
+            }
+            for (Future<Void> future : futures) {
+                future.get();
+            }
+        } finally {
+            executor.shutdown();
+            journal.close();
+        }
+
+        TimerJournal replayed = new TimerJournal(this.directory);
+        replayed.open();
+        try {
+            for (int i = 0; i < 8; ++i) {
+                Map<String, byte[]> timers = replayed.get(Integer.toString(i));
+                assertEquals(50, timers.size());
+                assertArrayEquals(bytes(i + "49"), timers.get("49"));
+            }
+        } finally {
+            replayed.close();
+        }
+    }
+
+    @Test
+    public void compaction() throws IOException {
+        TimerJournal journal = new TimerJournal(this.directory, 256);
+        journal.open();
+        journal.put("a", "live", bytes("live"));
+        for (int i = 0; i < 1000; ++i) {
+            journal.put("a", "overwritten", bytes("value-" + i));
+        }
+        journal.sync(journal.remove("a", "overwritten"));
+        journal.close();
+
+        // Superseded records are discarded, so the journal is bounded by the live records and the segment size
+        assertTrue(this.segments().length < 5);
+        long size = 0;
+        for (File segment : this.segments()) {
+            size += segment.length();
+        }
+        assertTrue(size < 1024);
+
+        journal = new TimerJournal(this.directory, 256);
+        journal.open();
+        try {
+            Map<String, byte[]> timers = journal.get("a");
+            assertEquals(1, timers.size());
+            assertArrayEquals(bytes("live"), timers.get("live"));
+        } finally {
+            journal.close();
+        }
+    }
+
+    @Test
+    public void tornTail() throws IOException {
+        TimerJournal journal = new TimerJournal(this.directory);
+        journal.open();
+        journal.put("a", "1", bytes("first"));
+        journal.sync(journal.put("a", "2", bytes("second")));
+        journal.close();
+
+        // Simulate a crash in the middle of writing the last record
+        File[] segments = this.segments();
+        assertEquals(1, segments.length);
+        try (RandomAccessFile file = new RandomAccessFile(segments[0], "rw")) {
+            file.setLength(file.length() - 3);
+        }
+
+        journal = new TimerJournal(this.directory);
+        journal.open();
+        Map<String, byte[]> timers = journal.get("a");
+        assertEquals(1, timers.size());
+        assertArrayEquals(bytes("first"), timers.get("1"));
+        assertFalse(timers.containsKey("2"));
+        // Records appended after a torn segment must survive the next replay
+        journal.sync(journal.put("a", "3", bytes("third")));
+        journal.close();
+
+        journal = new TimerJournal(this.directory);
+        journal.open();
+        try {
+            timers = journal.get("a");
+            assertEquals(2, timers.size());
+            assertArrayEquals(bytes("third"), timers.get("3"));
+        } finally {
+            journal.close();
+        }
+    }
+
+    private File[] segments() {
+        return this.directory.listFiles((dir, name) -> name.startsWith(TimerJournal.SEGMENT_PREFIX) && name.endsWith(TimerJournal.SEGMENT_SUFFIX) && new File(dir, name).length() > 0);
+    }
+
+    private static byte[] bytes(String value) {
+        return value.getBytes(StandardCharsets.UTF_8);
+    }
+}
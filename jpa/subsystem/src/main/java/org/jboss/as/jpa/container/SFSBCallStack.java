@@ -22,9 +22,12 @@
 
 package org.jboss.as.jpa.container;
 
-import java.util.ArrayList;
+import java.util.AbstractList;
+import java.util.Arrays;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.RandomAccess;
 
 import org.jboss.as.jpa.messages.JpaLogger;
 
@@ -101,7 +104,7 @@ public class SFSBCallStack {
      *
      * @return call stack (may be empty but never null)
      */
-    public static ArrayList<Map<String, ExtendedEntityManager>> currentSFSBCallStack() {
+    public static List<Map<String, ExtendedEntityManager>> currentSFSBCallStack() {
         return CURRENT.get().invocationStack;
     }
 
@@ -111,11 +114,7 @@ public class SFSBCallStack {
      * @return
      */
     public static Map<String, ExtendedEntityManager> currentSFSBCallStackInvocation() {
-        ArrayList<Map<String, ExtendedEntityManager>> stack = CURRENT.get().invocationStack;
-        if ( stack != null && stack.size() > 0) {
-            return stack.get(stack.size() - 1);
-        }
-        return null;
+        return CURRENT.get().invocationStack.peek();
     }
 
     /**
@@ -124,7 +123,7 @@ public class SFSBCallStack {
      * @param entityManagers the entity manager map
      */
     public static void pushCall(Map<String, ExtendedEntityManager> entityManagers) {
-        currentSFSBCallStack().add(entityManagers);
+        CURRENT.get().invocationStack.push(entityManagers);
 
         if (entityManagers != null) {
             /**
@@ -149,10 +148,7 @@ public class SFSBCallStack {
      * @return the entity manager map
      */
     public static Map<String, ExtendedEntityManager> popCall() {
-        ArrayList<Map<String, ExtendedEntityManager>> stack = currentSFSBCallStack();
-        Map<String, ExtendedEntityManager> result = stack.remove(stack.size() - 1);
-        stack.trimToSize();
-        return result;
+        return CURRENT.get().invocationStack.pop();
     }
 
     /**
@@ -161,12 +157,7 @@ public class SFSBCallStack {
      * @return the entity manager map
      */
     static Map<String, ExtendedEntityManager> getCurrentCall() {
-        ArrayList<Map<String, ExtendedEntityManager>> stack = currentSFSBCallStack();
-        Map<String, ExtendedEntityManager> result = null;
-        if (stack != null) {
-            result = stack.get(stack.size() - 1);
-        }
-        return result;
+        return CURRENT.get().invocationStack.peek();
     }
 
 
@@ -174,7 +165,7 @@ public class SFSBCallStack {
         /**
          * Each thread will have its own list of SFSB invocations in progress.
          */
-        private ArrayList<Map<String, ExtendedEntityManager>> invocationStack = new ArrayList<Map<String, ExtendedEntityManager>>();
+        private final InvocationStack invocationStack = new InvocationStack();
 
         /**
          * During SFSB creation, track the injected extended persistence contexts
@@ -189,4 +180,51 @@ public class SFSBCallStack {
         private int creationBeanNestingLevel = 0;
     }
 
+    /**
+     * Array based stack of the SFSB invocations in progress on a thread, indexed from the outermost invocation.
+     * The array is kept between invocations, so that pushing and popping an invocation does not allocate.
+     */
+    private static class InvocationStack extends AbstractList<Map<String, ExtendedEntityManager>> implements RandomAccess {
+        private static final int INITIAL_CAPACITY = 8;
+        // Release the array of an unusually deep call stack once the thread returns to the top level
+        private static final int MAX_RETAINED_CAPACITY = 64;
+
+        @SuppressWarnings("unchecked")
+        private Map<String, ExtendedEntityManager>[] calls = new Map[INITIAL_CAPACITY];
+        private int depth = 0;
+
+        void push(Map<String, ExtendedEntityManager> entityManagers) {
+            if (depth == calls.length) {
+                calls = Arrays.copyOf(calls, depth << 1);
+            }
+            calls[depth++] = entityManagers;
+        }
+
+        @SuppressWarnings("unchecked")
+        Map<String, ExtendedEntityManager> pop() {
+            Map<String, ExtendedEntityManager> result = calls[--depth];
+            calls[depth] = null;
+            if (depth == 0 && calls.length > MAX_RETAINED_CAPACITY) {
+                calls = new Map[INITIAL_CAPACITY];
+            }
+            return result;
+        }
+
+        Map<String, ExtendedEntityManager> peek() {
+            return (depth > 0) ? calls[depth - 1] : null;
+        }
+
+        @Override
+        public Map<String, ExtendedEntityManager> get(int index) {
+            if (index >= depth) {
+                throw new IndexOutOfBoundsException(Integer.toString(index));
+            }
+            return calls[index];
+        }
+
+        @Override
+        public int size() {
+            return depth;
+        }
+    }
 }
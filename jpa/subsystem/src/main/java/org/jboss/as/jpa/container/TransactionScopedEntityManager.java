@@ -32,6 +32,8 @@ import java.util.Map;
 import javax.persistence.EntityManager;
 import javax.persistence.EntityManagerFactory;
 import javax.persistence.SynchronizationType;
+import javax.transaction.Synchronization;
+import javax.transaction.Transaction;
 import javax.transaction.TransactionManager;
 import javax.transaction.TransactionSynchronizationRegistry;
 
@@ -66,6 +68,8 @@ public class TransactionScopedEntityManager extends AbstractEntityManager implem
     private transient TransactionSynchronizationRegistry transactionSynchronizationRegistry;
     private transient TransactionManager transactionManager;
     private transient Boolean deferDetach;
+    // entity manager of the transaction each thread last used this entity manager in, saves a registry lookup per invocation
+    private transient ThreadLocal<TransactionEntityManager> transactionEntityManager = new ThreadLocal<>();
 
     public TransactionScopedEntityManager(String puScopedName, Map properties, EntityManagerFactory emf, SynchronizationType synchronizationType, TransactionSynchronizationRegistry transactionSynchronizationRegistry, TransactionManager transactionManager) {
         this.puScopedName = puScopedName;
@@ -79,12 +83,10 @@ public class TransactionScopedEntityManager extends AbstractEntityManager implem
     @Override
     protected EntityManager getEntityManager() {
         EntityManager entityManager;
-        boolean isInTx;
+        Transaction transaction = TransactionUtil.getTransaction(transactionManager);
 
-        isInTx = TransactionUtil.isInTx(transactionManager);
-
-        if (isInTx) {
-            entityManager = getOrCreateTransactionScopedEntityManager(emf, puScopedName, properties, synchronizationType);
+        if (TransactionUtil.isInTx(transaction)) {
+            entityManager = getOrCreateTransactionScopedEntityManager(transaction, emf, puScopedName, properties, synchronizationType);
         } else {
             entityManager = NonTxEmCloser.get(puScopedName);
             if (entityManager == null) {
@@ -123,6 +125,7 @@ public class TransactionScopedEntityManager extends AbstractEntityManager implem
         transactionSynchronizationRegistry = (TransactionSynchronizationRegistry) currentServiceContainer().getService(TransactionSynchronizationRegistryService.SERVICE_NAME).getValue();
 
         emf = persistenceUnitService.getEntityManagerFactory();
+        transactionEntityManager = new ThreadLocal<>();
     }
 
     private static ServiceContainer currentServiceContainer() {
@@ -141,6 +144,7 @@ public class TransactionScopedEntityManager extends AbstractEntityManager implem
      * get or create a Transactional entity manager.
      * Only call while a transaction is active in the current thread.
      *
+     * @param transaction the active transaction
      * @param emf
      * @param scopedPuName
      * @param properties
@@ -148,16 +152,24 @@ public class TransactionScopedEntityManager extends AbstractEntityManager implem
      * @return
      */
     private EntityManager getOrCreateTransactionScopedEntityManager(
+            final Transaction transaction,
             final EntityManagerFactory emf,
             final String scopedPuName,
             final Map properties,
             final SynchronizationType synchronizationType) {
+        TransactionEntityManager cached = transactionEntityManager.get();
+        if (cached != null && cached.transaction == transaction) {
+            EntityManager entityManager = cached.entityManager;
+            if (entityManager != null) {
+                return entityManager;
+            }
+        }
         EntityManager entityManager = TransactionUtil.getTransactionScopedEntityManager(puScopedName, transactionSynchronizationRegistry);
         if (entityManager == null) {
             entityManager = createEntityManager(emf, properties, synchronizationType);
             if (ROOT_LOGGER.isDebugEnabled()) {
                 ROOT_LOGGER.debugf("%s: created entity manager session %s", TransactionUtil.getEntityManagerDetails(entityManager, scopedPuName),
-                        TransactionUtil.getTransaction(transactionManager).toString());
+                        transaction.toString());
             }
             TransactionUtil.registerSynchronization(entityManager, scopedPuName, transactionSynchronizationRegistry, transactionManager);
             TransactionUtil.putEntityManagerInTransactionRegistry(scopedPuName, entityManager, transactionSynchronizationRegistry);
@@ -166,9 +178,17 @@ public class TransactionScopedEntityManager extends AbstractEntityManager implem
             testForMixedSynchronizationTypes(entityManager, puScopedName, synchronizationType);
             if (ROOT_LOGGER.isDebugEnabled()) {
                 ROOT_LOGGER.debugf("%s: reuse entity manager session already in tx %s", TransactionUtil.getEntityManagerDetails(entityManager, scopedPuName),
-                        TransactionUtil.getTransaction(transactionManager).toString());
+                        transaction.toString());
             }
         }
+        cached = new TransactionEntityManager(transaction, entityManager);
+        try {
+            transactionSynchronizationRegistry.registerInterposedSynchronization(cached);
+            transactionEntityManager.set(cached);
+        } catch (IllegalStateException e) {
+            // the transaction is completing, so the entity manager is not worth remembering
+            transactionEntityManager.remove();
+        }
         return entityManager;
     }
 
@@ -209,4 +229,28 @@ public class TransactionScopedEntityManager extends AbstractEntityManager implem
             throw JpaLogger.ROOT_LOGGER.badSynchronizationTypeCombination(scopedPuName);
         }
     }
+
+    /**
+     * The entity manager associated with a transaction, compared by identity.  Both are forgotten once the transaction
+     * completes, so that a thread does not keep them reachable until it next uses this entity manager.
+     */
+    private static final class TransactionEntityManager implements Synchronization {
+        volatile Transaction transaction;
+        volatile EntityManager entityManager;
+
+        TransactionEntityManager(Transaction transaction, EntityManager entityManager) {
+            this.transaction = transaction;
+            this.entityManager = entityManager;
+        }
+
+        @Override
+        public void beforeCompletion() {
+        }
+
+        @Override
+        public void afterCompletion(int status) {
+            transaction = null;
+            entityManager = null;
+        }
+    }
 }
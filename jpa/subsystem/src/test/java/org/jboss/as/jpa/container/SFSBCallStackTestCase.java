@@ -0,0 +1,123 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2015, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.jboss.as.jpa.container;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.After;
+import org.junit.Test;
+
+/**
+ * Unit test for the invocation stack of {@link SFSBCallStack}.
+ */
+public class SFSBCallStackTestCase {
+
+    @After
+    public void destroy() {
+        while (!SFSBCallStack.currentSFSBCallStack().isEmpty()) {
+            SFSBCallStack.popCall();
+        }
+    }
+
+    @Test
+    public void pushAndPop() {
+        List<Map<String, ExtendedEntityManager>> stack = SFSBCallStack.currentSFSBCallStack();
+        assertTrue(stack.isEmpty());
+        assertNull(SFSBCallStack.currentSFSBCallStackInvocation());
+
+        Map<String, ExtendedEntityManager> outer = new HashMap<>();
+        Map<String, ExtendedEntityManager> inner = new HashMap<>();
+        SFSBCallStack.pushCall(outer);
+        SFSBCallStack.pushCall(null);
+        SFSBCallStack.pushCall(inner);
+
+        // the list is a live view, indexed from the outermost invocation
+        assertEquals(3, stack.size());
+        assertSame(outer, stack.get(0));
+        assertNull(stack.get(1));
+        assertSame(inner, stack.get(2));
+        assertSame(inner, SFSBCallStack.currentSFSBCallStackInvocation());
+        assertSame(inner, SFSBCallStack.getCurrentCall());
+        try {
+            stack.get(3);
+            fail();
+        } catch (IndexOutOfBoundsException e) {
+            // expected
+        }
+
+        assertSame(inner, SFSBCallStack.popCall());
+        assertNull(SFSBCallStack.popCall());
+        assertEquals(1, stack.size());
+        assertSame(outer, SFSBCallStack.currentSFSBCallStackInvocation());
+        assertSame(outer, SFSBCallStack.popCall());
+        assertTrue(stack.isEmpty());
+        assertNull(SFSBCallStack.currentSFSBCallStackInvocation());
+    }
+
+    @Test
+    public void deepStack() {
+        List<Map<String, ExtendedEntityManager>> calls = new ArrayList<>();
+        // deeper than the retained capacity, so that the stack grows and is then released
+        for (int i = 0; i < 100; ++i) {
+            Map<String, ExtendedEntityManager> call = new HashMap<>();
+            calls.add(call);
+            SFSBCallStack.pushCall(call);
+        }
+        assertEquals(calls, SFSBCallStack.currentSFSBCallStack());
+        for (int i = calls.size() - 1; i >= 0; --i) {
+            assertSame(calls.get(i), SFSBCallStack.popCall());
+        }
+        assertTrue(SFSBCallStack.currentSFSBCallStack().isEmpty());
+
+        // the stack can be reused once its array was released
+        Map<String, ExtendedEntityManager> call = new HashMap<>();
+        SFSBCallStack.pushCall(call);
+        assertSame(call, SFSBCallStack.currentSFSBCallStackInvocation());
+        assertSame(call, SFSBCallStack.popCall());
+    }
+
+    @Test
+    public void perThread() throws InterruptedException {
+        Map<String, ExtendedEntityManager> call = new HashMap<>();
+        SFSBCallStack.pushCall(call);
+        final List<Map<String, ExtendedEntityManager>> other = new ArrayList<>();
+        Thread thread = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                other.addAll(SFSBCallStack.currentSFSBCallStack());
+            }
+        });
+        thread.start();
+        thread.join();
+        assertTrue(other.isEmpty());
+        assertSame(call, SFSBCallStack.popCall());
+    }
+}
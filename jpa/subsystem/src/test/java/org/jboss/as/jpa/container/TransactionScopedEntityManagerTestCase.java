@@ -0,0 +1,366 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2015, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.jboss.as.jpa.container;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+import java.lang.ref.WeakReference;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.persistence.EntityManager;
+import javax.persistence.EntityManagerFactory;
+import javax.persistence.SynchronizationType;
+import javax.transaction.Status;
+import javax.transaction.Synchronization;
+import javax.transaction.Transaction;
+import javax.transaction.TransactionManager;
+import javax.transaction.TransactionSynchronizationRegistry;
+import javax.transaction.xa.XAResource;
+
+import org.jboss.tm.listener.EventType;
+import org.jboss.tm.listener.TransactionListener;
+import org.jboss.tm.listener.TransactionListenerRegistry;
+import org.junit.Test;
+
+/**
+ * Unit test for the caching of the entity manager of the current transaction by {@link TransactionScopedEntityManager}.
+ */
+public class TransactionScopedEntityManagerTestCase {
+
+    private static final String PERSISTENCE_UNIT = "test.jar#pu";
+
+    private final TestTransactionManager transactionManager = new TestTransactionManager();
+    private final TestTransactionSynchronizationRegistry registry = new TestTransactionSynchronizationRegistry(this.transactionManager);
+    private final AtomicInteger created = new AtomicInteger();
+    private final EntityManagerFactory factory = (EntityManagerFactory) Proxy.newProxyInstance(this.getClass().getClassLoader(), new Class<?>[] { EntityManagerFactory.class }, new InvocationHandler() {
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) {
+            if (method.getName().equals("createEntityManager")) {
+                created.incrementAndGet();
+                return entityManager();
+            }
+            return object(proxy, method, args);
+        }
+    });
+
+    @Test
+    public void lookupOncePerTransaction() throws Exception {
+        TransactionScopedEntityManager entityManager = this.entityManager(SynchronizationType.SYNCHRONIZED);
+
+        this.transactionManager.begin();
+        EntityManager first = entityManager.getEntityManager();
+        assertSame(first, entityManager.getEntityManager());
+        assertSame(first, entityManager.getEntityManager());
+        assertEquals(1, this.registry.lookups.get());
+        assertEquals(1, this.created.get());
+        this.transactionManager.commit();
+
+        // a new transaction gets a new entity manager
+        this.transactionManager.begin();
+        EntityManager second = entityManager.getEntityManager();
+        assertNotSame(first, second);
+        assertSame(second, entityManager.getEntityManager());
+        assertEquals(2, this.registry.lookups.get());
+        assertEquals(2, this.created.get());
+        this.transactionManager.commit();
+    }
+
+    @Test
+    public void sharedWithinTransaction() throws Exception {
+        TransactionScopedEntityManager entityManager = this.entityManager(SynchronizationType.SYNCHRONIZED);
+        TransactionScopedEntityManager other = this.entityManager(SynchronizationType.SYNCHRONIZED);
+
+        this.transactionManager.begin();
+        EntityManager underlying = entityManager.getEntityManager();
+        assertSame(underlying, other.getEntityManager());
+        assertSame(underlying, other.getEntityManager());
+        assertEquals(1, this.created.get());
+        assertEquals(2, this.registry.lookups.get());
+        this.transactionManager.commit();
+    }
+
+    @Test
+    public void concurrentTransactions() throws Exception {
+        final TransactionScopedEntityManager entityManager = this.entityManager(SynchronizationType.SYNCHRONIZED);
+        final int threads = 2;
+        final CyclicBarrier barrier = new CyclicBarrier(threads);
+        Callable<Void> task = new Callable<Void>() {
+            @Override
+            public Void call() throws Exception {
+                transactionManager.begin();
+                try {
+                    EntityManager underlying = entityManager.getEntityManager();
+                    for (int i = 0; i < 100; ++i) {
+                        // interleave the invocations of both transactions
+                        barrier.await(5, TimeUnit.SECONDS);
+                        assertSame(underlying, entityManager.getEntityManager());
+                    }
+                } finally {
+                    transactionManager.commit();
+                }
+                return null;
+            }
+        };
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            List<Future<Void>> futures = new ArrayList<>(threads);
+            for (int i = 0; i < threads; ++i) {
+                futures.add(executor.submit(task));
+            }
+            for (Future<Void> future : futures) {
+                future.get(30, TimeUnit.SECONDS);
+            }
+        } finally {
+            executor.shutdown();
+        }
+        // neither transaction evicted the entity manager of the other
+        assertEquals(threads, this.registry.lookups.get());
+        assertEquals(threads, this.created.get());
+    }
+
+    @Test
+    public void forgetOnCompletion() throws Exception {
+        TransactionScopedEntityManager entityManager = this.entityManager(SynchronizationType.SYNCHRONIZED);
+
+        this.transactionManager.begin();
+        WeakReference<Transaction> transaction = new WeakReference<>(this.transactionManager.getTransaction());
+        WeakReference<EntityManager> underlying = new WeakReference<>(entityManager.getEntityManager());
+        this.transactionManager.commit();
+
+        // the thread local of the entity manager must not keep the completed transaction reachable
+        for (int i = 0; (i < 10) && ((transaction.get() != null) || (underlying.get() != null)); ++i) {
+            System.gc();
+            Thread.sleep(10);
+        }
+        assertNull(transaction.get());
+        assertNull(underlying.get());
+    }
+
+    private TransactionScopedEntityManager entityManager(SynchronizationType type) {
+        return new TransactionScopedEntityManager(PERSISTENCE_UNIT, null, this.factory, type, this.registry, this.transactionManager);
+    }
+
+    private static EntityManager entityManager() {
+        return (EntityManager) Proxy.newProxyInstance(TransactionScopedEntityManagerTestCase.class.getClassLoader(), new Class<?>[] { EntityManager.class }, new InvocationHandler() {
+            @Override
+            public Object invoke(Object proxy, Method method, Object[] args) {
+                return object(proxy, method, args);
+            }
+        });
+    }
+
+    static Object object(Object proxy, Method method, Object[] args) {
+        switch (method.getName()) {
+            case "equals":
+                return proxy == args[0];
+            case "hashCode":
+                return System.identityHashCode(proxy);
+            case "toString":
+                return method.getDeclaringClass().getSimpleName() + "@" + System.identityHashCode(proxy);
+            default:
+                return null;
+        }
+    }
+
+    /**
+     * Transaction whose synchronizations and resources are kept by the test registry.
+     */
+    static class TestTransaction implements Transaction {
+        final Map<Object, Object> resources = new HashMap<>();
+        final List<Synchronization> synchronizations = new ArrayList<>();
+        volatile int status = Status.STATUS_ACTIVE;
+
+        void complete(int status) {
+            for (Synchronization synchronization : this.synchronizations) {
+                synchronization.beforeCompletion();
+            }
+            this.status = status;
+            for (Synchronization synchronization : this.synchronizations) {
+                synchronization.afterCompletion(status);
+            }
+            this.synchronizations.clear();
+            this.resources.clear();
+        }
+
+        @Override
+        public void commit() {
+            this.complete(Status.STATUS_COMMITTED);
+        }
+
+        @Override
+        public void rollback() {
+            this.complete(Status.STATUS_ROLLEDBACK);
+        }
+
+        @Override
+        public boolean delistResource(XAResource resource, int flag) {
+            return false;
+        }
+
+        @Override
+        public boolean enlistResource(XAResource resource) {
+            return false;
+        }
+
+        @Override
+        public int getStatus() {
+            return this.status;
+        }
+
+        @Override
+        public void registerSynchronization(Synchronization synchronization) {
+            this.synchronizations.add(synchronization);
+        }
+
+        @Override
+        public void setRollbackOnly() {
+            this.status = Status.STATUS_MARKED_ROLLBACK;
+        }
+    }
+
+    /**
+     * Transaction manager associating a {@link TestTransaction} with the current thread.
+     */
+    static class TestTransactionManager implements TransactionManager, TransactionListenerRegistry {
+        private final ThreadLocal<TestTransaction> current = new ThreadLocal<>();
+
+        @Override
+        public void begin() {
+            this.current.set(new TestTransaction());
+        }
+
+        @Override
+        public void commit() {
+            TestTransaction transaction = this.current.get();
+            this.current.remove();
+            transaction.commit();
+        }
+
+        @Override
+        public void rollback() {
+            TestTransaction transaction = this.current.get();
+            this.current.remove();
+            transaction.rollback();
+        }
+
+        @Override
+        public int getStatus() {
+            TestTransaction transaction = this.current.get();
+            return (transaction != null) ? transaction.getStatus() : Status.STATUS_NO_TRANSACTION;
+        }
+
+        @Override
+        public TestTransaction getTransaction() {
+            return this.current.get();
+        }
+
+        @Override
+        public void resume(Transaction transaction) {
+            this.current.set((TestTransaction) transaction);
+        }
+
+        @Override
+        public void setRollbackOnly() {
+            this.current.get().setRollbackOnly();
+        }
+
+        @Override
+        public void setTransactionTimeout(int seconds) {
+        }
+
+        @Override
+        public Transaction suspend() {
+            TestTransaction transaction = this.current.get();
+            this.current.remove();
+            return transaction;
+        }
+
+        @Override
+        public void addListener(Transaction transaction, TransactionListener listener, EnumSet<EventType> types) {
+        }
+    }
+
+    /**
+     * Registry of the transaction of the current thread, counting resource lookups.
+     */
+    static class TestTransactionSynchronizationRegistry implements TransactionSynchronizationRegistry {
+        final AtomicInteger lookups = new AtomicInteger();
+        private final TestTransactionManager transactionManager;
+
+        TestTransactionSynchronizationRegistry(TestTransactionManager transactionManager) {
+            this.transactionManager = transactionManager;
+        }
+
+        @Override
+        public Object getTransactionKey() {
+            return this.transactionManager.getTransaction();
+        }
+
+        @Override
+        public void putResource(Object key, Object value) {
+            this.transactionManager.getTransaction().resources.put(key, value);
+        }
+
+        @Override
+        public Object getResource(Object key) {
+            this.lookups.incrementAndGet();
+            return this.transactionManager.getTransaction().resources.get(key);
+        }
+
+        @Override
+        public void registerInterposedSynchronization(Synchronization synchronization) {
+            this.transactionManager.getTransaction().registerSynchronization(synchronization);
+        }
+
+        @Override
+        public int getTransactionStatus() {
+            return this.transactionManager.getStatus();
+        }
+
+        @Override
+        public void setRollbackOnly() {
+            this.transactionManager.setRollbackOnly();
+        }
+
+        @Override
+        public boolean getRollbackOnly() {
+            return this.getTransactionStatus() == Status.STATUS_MARKED_ROLLBACK;
+        }
+    }
+}
@@ -39,7 +39,9 @@ import org.jboss.modcluster.load.metric.impl.SendTrafficLoadMetric;
 import org.wildfly.extension.undertow.deployment.UndertowAttachments;
 import org.wildfly.mod_cluster.undertow.metric.BytesReceivedHttpHandler;
 import org.wildfly.mod_cluster.undertow.metric.BytesSentHttpHandler;
+import org.wildfly.mod_cluster.undertow.metric.LatencyLoadMetric;
 import org.wildfly.mod_cluster.undertow.metric.RequestCountHttpHandler;
+import org.wildfly.mod_cluster.undertow.metric.RequestLatencyHttpHandler;
 import org.wildfly.mod_cluster.undertow.metric.RunningRequestsHttpHandler;
 
 /**
@@ -52,6 +54,7 @@ import org.wildfly.mod_cluster.undertow.metric.RunningRequestsHttpHandler;
  * <li>{@link org.wildfly.mod_cluster.undertow.metric.RunningRequestsHttpHandler}</li>
  * <li>{@link org.wildfly.mod_cluster.undertow.metric.BytesReceivedHttpHandler}</li>
  * <li>{@link org.wildfly.mod_cluster.undertow.metric.BytesSentHttpHandler}</li>
+ * <li>{@link org.wildfly.mod_cluster.undertow.metric.RequestLatencyHttpHandler}</li>
  * </ul>
  *
  * @author Radoslav Husar
@@ -113,6 +116,16 @@ public class ModClusterUndertowDeploymentProcessor implements DeploymentUnitProc
             });
         }
 
+        // Request latency wrapping
+        if (isMetricEnabled(LatencyLoadMetric.class)) {
+            deploymentUnit.addToAttachmentList(UndertowAttachments.UNDERTOW_OUTER_HANDLER_CHAIN_WRAPPERS, new HandlerWrapper() {
+                @Override
+                public HttpHandler wrap(final HttpHandler handler) {
+                    return new RequestLatencyHttpHandler(handler);
+                }
+            });
+        }
+
     }
 
     @Override
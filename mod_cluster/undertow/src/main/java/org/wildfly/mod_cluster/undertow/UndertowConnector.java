@@ -28,10 +28,7 @@ import org.jboss.modcluster.container.Connector;
 import org.wildfly.extension.undertow.ListenerService;
 import org.wildfly.extension.undertow.AjpListenerService;
 import org.wildfly.extension.undertow.HttpListenerService;
-import org.wildfly.mod_cluster.undertow.metric.BytesReceivedStreamSourceConduit;
-import org.wildfly.mod_cluster.undertow.metric.BytesSentStreamSinkConduit;
-import org.wildfly.mod_cluster.undertow.metric.RequestCountHttpHandler;
-import org.wildfly.mod_cluster.undertow.metric.RunningRequestsHttpHandler;
+import org.wildfly.mod_cluster.undertow.metric.ListenerMetrics;
 
 /**
  * Adapts {@link org.wildfly.extension.undertow.ListenerService} to a {@link Connector}.
@@ -97,35 +94,42 @@ public class UndertowConnector implements Connector {
     }
 
     /**
-     * @return int number of <em>running requests</em> on all connectors as opposed to busy threads
+     * @return int number of <em>running requests</em> on this listener as opposed to busy threads
      */
     @Override
     public int getBusyThreads() {
-        return RunningRequestsHttpHandler.getRunningRequestCount();
+        return this.getMetrics().getRunningRequestCount();
     }
 
     /**
-     * @return long number of bytes sent on all connectors
+     * @return long number of bytes sent on this listener
      */
     @Override
     public long getBytesSent() {
-        return BytesSentStreamSinkConduit.getBytesSent();
+        return this.getMetrics().getBytesSent();
     }
 
     /**
-     * @return long number of bytes received on all listeners without HTTP request size itself
+     * @return long number of bytes received on this listener without HTTP request size itself
      */
     @Override
     public long getBytesReceived() {
-        return BytesReceivedStreamSourceConduit.getBytesReceived();
+        return this.getMetrics().getBytesReceived();
     }
 
     /**
-     * @return long number of requests on all listeners as opposed to only this 'connector'
+     * @return long number of requests on this listener
      */
     @Override
     public long getRequestCount() {
-        return RequestCountHttpHandler.getRequestCount();
+        return this.getMetrics().getRequestCount();
+    }
+
+    /**
+     * @return the metrics recorded for this listener
+     */
+    public ListenerMetrics getMetrics() {
+        return ListenerMetrics.forPort(this.getPort());
     }
 
     @Override
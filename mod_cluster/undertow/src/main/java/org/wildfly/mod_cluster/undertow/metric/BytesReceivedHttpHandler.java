@@ -52,7 +52,7 @@ public class BytesReceivedHttpHandler implements HttpHandler {
         exchange.addRequestWrapper(new ConduitWrapper<StreamSourceConduit>() {
             @Override
             public StreamSourceConduit wrap(ConduitFactory<StreamSourceConduit> factory, HttpServerExchange exchange) {
-                return new BytesReceivedStreamSourceConduit(factory.create());
+                return new BytesReceivedStreamSourceConduit(factory.create(), ListenerMetrics.forExchange(exchange));
             }
         });
 
@@ -25,7 +25,6 @@ package org.wildfly.mod_cluster.undertow.metric;
 import java.io.IOException;
 import java.nio.ByteBuffer;
 import java.nio.channels.FileChannel;
-import java.util.concurrent.atomic.LongAdder;
 
 import org.xnio.channels.StreamSinkChannel;
 import org.xnio.conduits.AbstractSourceConduit;
@@ -42,49 +41,56 @@ import org.xnio.conduits.StreamSourceConduit;
 public class BytesReceivedStreamSourceConduit extends AbstractSourceConduit implements StreamSourceConduit {
 
     private final StreamSourceConduit next;
-    private static final LongAdder bytesReceived = new LongAdder();
+    private final ListenerMetrics metrics;
 
-    public BytesReceivedStreamSourceConduit(StreamSourceConduit next) {
+    public BytesReceivedStreamSourceConduit(StreamSourceConduit next, ListenerMetrics metrics) {
         super(next);
         this.next = next;
+        this.metrics = metrics;
     }
 
-    public BytesReceivedStreamSourceConduit(StreamSourceConduit next, long alreadyReceivedBytes) {
-        super(next);
-        this.next = next;
-        bytesReceived.add(alreadyReceivedBytes);
+    public BytesReceivedStreamSourceConduit(StreamSourceConduit next, ListenerMetrics metrics, long alreadyReceivedBytes) {
+        this(next, metrics);
+        metrics.bytesReceived(alreadyReceivedBytes);
     }
 
     @Override
     public long transferTo(long position, long count, FileChannel target) throws IOException {
         long bytes = next.transferTo(position, count, target);
-        bytesReceived.add(bytes);
+        metrics.bytesReceived(bytes);
         return bytes;
     }
 
     @Override
     public long transferTo(long count, ByteBuffer throughBuffer, StreamSinkChannel target) throws IOException {
         long bytes = next.transferTo(count, throughBuffer, target);
-        bytesReceived.add(bytes);
+        metrics.bytesReceived(bytes);
         return bytes;
     }
 
     @Override
     public int read(ByteBuffer dst) throws IOException {
         int bytes = next.read(dst);
-        bytesReceived.add(bytes);
+        metrics.bytesReceived(bytes);
         return bytes;
     }
 
     @Override
     public long read(ByteBuffer[] dsts, int offs, int len) throws IOException {
         long bytes = next.read(dsts, offs, len);
-        bytesReceived.add(bytes);
+        metrics.bytesReceived(bytes);
         return bytes;
     }
 
+    /**
+     * @return long number of bytes received on all listeners
+     */
     public static long getBytesReceived() {
-        return bytesReceived.longValue();
+        long bytes = 0;
+        for (ListenerMetrics metrics : ListenerMetrics.all()) {
+            bytes += metrics.getBytesReceived();
+        }
+        return bytes;
     }
 }
 
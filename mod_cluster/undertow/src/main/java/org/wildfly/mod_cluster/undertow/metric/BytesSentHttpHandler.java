@@ -52,7 +52,7 @@ public class BytesSentHttpHandler implements HttpHandler {
         exchange.addResponseWrapper(new ConduitWrapper<StreamSinkConduit>() {
             @Override
             public StreamSinkConduit wrap(ConduitFactory<StreamSinkConduit> factory, HttpServerExchange exchange) {
-                return new BytesSentStreamSinkConduit(factory.create());
+                return new BytesSentStreamSinkConduit(factory.create(), ListenerMetrics.forExchange(exchange));
             }
         });
 
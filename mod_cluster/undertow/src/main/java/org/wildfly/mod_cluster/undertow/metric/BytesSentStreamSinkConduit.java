@@ -25,7 +25,6 @@ package org.wildfly.mod_cluster.undertow.metric;
 import java.io.IOException;
 import java.nio.ByteBuffer;
 import java.nio.channels.FileChannel;
-import java.util.concurrent.atomic.LongAdder;
 
 import org.xnio.channels.StreamSourceChannel;
 import org.xnio.conduits.AbstractSinkConduit;
@@ -42,17 +41,18 @@ import org.xnio.conduits.StreamSinkConduit;
 public class BytesSentStreamSinkConduit extends AbstractSinkConduit implements StreamSinkConduit {
 
     private final StreamSinkConduit next;
-    private static final LongAdder bytesSent = new LongAdder();
+    private final ListenerMetrics metrics;
 
-    public BytesSentStreamSinkConduit(StreamSinkConduit next) {
+    public BytesSentStreamSinkConduit(StreamSinkConduit next, ListenerMetrics metrics) {
         super(next);
         this.next = next;
+        this.metrics = metrics;
     }
 
     @Override
     public long transferFrom(FileChannel src, long position, long count) throws IOException {
         long bytes = next.transferFrom(src, position, count);
-        bytesSent.add(bytes);
+        metrics.bytesSent(bytes);
         return bytes;
     }
 
@@ -60,7 +60,7 @@ public class BytesSentStreamSinkConduit extends AbstractSinkConduit implements S
     @Override
     public long transferFrom(StreamSourceChannel source, long count, ByteBuffer throughBuffer) throws IOException {
         long bytes = next.transferFrom(source, count, throughBuffer);
-        bytesSent.add(bytes);
+        metrics.bytesSent(bytes);
         return bytes;
     }
 
@@ -68,7 +68,7 @@ public class BytesSentStreamSinkConduit extends AbstractSinkConduit implements S
     @Override
     public int write(ByteBuffer src) throws IOException {
         int bytes = next.write(src);
-        bytesSent.add(bytes);
+        metrics.bytesSent(bytes);
         return bytes;
     }
 
@@ -76,25 +76,32 @@ public class BytesSentStreamSinkConduit extends AbstractSinkConduit implements S
     @Override
     public long write(ByteBuffer[] srcs, int offs, int len) throws IOException {
         long bytes = next.write(srcs, offs, len);
-        bytesSent.add(bytes);
+        metrics.bytesSent(bytes);
         return bytes;
     }
 
     @Override
     public int writeFinal(ByteBuffer src) throws IOException {
         int bytes = next.writeFinal(src);
-        bytesSent.add(bytes);
+        metrics.bytesSent(bytes);
         return bytes;
     }
 
     @Override
     public long writeFinal(ByteBuffer[] srcs, int offset, int length) throws IOException {
         long bytes = next.writeFinal(srcs, offset, length);
-        bytesSent.add(bytes);
+        metrics.bytesSent(bytes);
         return bytes;
     }
 
+    /**
+     * @return long number of bytes sent on all listeners
+     */
     public static long getBytesSent() {
-        return bytesSent.longValue();
+        long bytes = 0;
+        for (ListenerMetrics metrics : ListenerMetrics.all()) {
+            bytes += metrics.getBytesSent();
+        }
+        return bytes;
     }
 }
@@ -0,0 +1,69 @@
+/**
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2015, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.wildfly.mod_cluster.undertow.metric;
+
+import java.util.concurrent.TimeUnit;
+
+import org.jboss.modcluster.container.Connector;
+import org.jboss.modcluster.container.Engine;
+import org.jboss.modcluster.load.metric.impl.AbstractLoadMetric;
+
+/**
+ * {@link org.jboss.modcluster.load.metric.LoadMetric} that reports the recent latency of requests, so that traffic is
+ * steered away from a node that is pausing or saturated before its request counts show it.
+ * The load is the given percentile (99th by default) of the latency, in seconds, of the requests completed within the
+ * last {@value ListenerMetrics#WINDOW_SECONDS} seconds, on the slowest listener of the engine.
+ * With the default capacity of 1, a node is considered fully loaded once this latency reaches 1 second.
+ * <p/>
+ * Configured as a custom load metric, e.g.
+ * <pre>
+ * &lt;custom-load-metric class="org.wildfly.mod_cluster.undertow.metric.LatencyLoadMetric"&gt;
+ *     &lt;property name="percentile" value="99"/&gt;
+ * &lt;/custom-load-metric&gt;
+ * </pre>
+ *
+ * @since 10.0
+ */
+public class LatencyLoadMetric extends AbstractLoadMetric {
+
+    public static final double DEFAULT_PERCENTILE = 99;
+
+    private volatile double percentile = DEFAULT_PERCENTILE;
+
+    public double getPercentile() {
+        return this.percentile;
+    }
+
+    public void setPercentile(double percentile) {
+        this.percentile = percentile;
+    }
+
+    @Override
+    public double getLoad(Engine engine) throws Exception {
+        long latency = 0;
+        for (Connector connector : engine.getConnectors()) {
+            latency = Math.max(latency, ListenerMetrics.forPort(connector.getPort()).getLatency(this.percentile, TimeUnit.MICROSECONDS));
+        }
+        return latency / (double) TimeUnit.SECONDS.toMicros(1);
+    }
+}
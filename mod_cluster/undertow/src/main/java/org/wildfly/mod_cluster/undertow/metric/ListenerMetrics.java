@@ -0,0 +1,189 @@
+/**
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2015, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.wildfly.mod_cluster.undertow.metric;
+
+import java.net.InetSocketAddress;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+import io.undertow.server.HttpServerExchange;
+import io.undertow.server.ServerConnection;
+import io.undertow.util.AttachmentKey;
+
+/**
+ * Metrics of a single listener, identified by the local port of its connections.
+ * Besides the cumulative counters reported to the balancer, keeps sliding windows over the last
+ * {@value #WINDOW_SECONDS} seconds, the default status interval, from which rates and latency percentiles are derived.
+ *
+ * @since 10.0
+ */
+public class ListenerMetrics {
+
+    static final int WINDOW_SECONDS = 10;
+    private static final long HIGHEST_TRACKABLE_LATENCY = TimeUnit.MINUTES.toMicros(1);
+
+    private static final ConcurrentMap<Integer, ListenerMetrics> metrics = new ConcurrentHashMap<>();
+    private static final AttachmentKey<ListenerMetrics> METRICS_KEY = AttachmentKey.create(ListenerMetrics.class);
+
+    private final LongAdder requestCount = new LongAdder();
+    private final LongAdder runningCount = new LongAdder();
+    private final LongAdder bytesSent = new LongAdder();
+    private final LongAdder bytesReceived = new LongAdder();
+    private final SlidingWindowHistogram requests = new SlidingWindowHistogram(WINDOW_SECONDS, WINDOW_SECONDS, TimeUnit.SECONDS);
+    private final SlidingWindowHistogram latency = new SlidingWindowHistogram(WINDOW_SECONDS, WINDOW_SECONDS, TimeUnit.SECONDS, HIGHEST_TRACKABLE_LATENCY);
+    private final SlidingWindowHistogram sent = new SlidingWindowHistogram(WINDOW_SECONDS, WINDOW_SECONDS, TimeUnit.SECONDS);
+    private final SlidingWindowHistogram received = new SlidingWindowHistogram(WINDOW_SECONDS, WINDOW_SECONDS, TimeUnit.SECONDS);
+
+    /**
+     * @param port local port of a listener
+     * @return the metrics of the listener bound to the specified port
+     */
+    public static ListenerMetrics forPort(int port) {
+        ListenerMetrics result = metrics.get(port);
+        if (result == null) {
+            ListenerMetrics newMetrics = new ListenerMetrics();
+            result = metrics.putIfAbsent(port, newMetrics);
+            if (result == null) {
+                result = newMetrics;
+            }
+        }
+        return result;
+    }
+
+    /**
+     * @param exchange an exchange
+     * @return the metrics of the listener that accepted the connection of the specified exchange
+     */
+    public static ListenerMetrics forExchange(HttpServerExchange exchange) {
+        // Resolve the listener once per connection rather than once per request
+        ServerConnection connection = exchange.getConnection();
+        ListenerMetrics result = connection.getAttachment(METRICS_KEY);
+        if (result == null) {
+            InetSocketAddress address = connection.getLocalAddress(InetSocketAddress.class);
+            result = forPort((address != null) ? address.getPort() : -1);
+            connection.putAttachment(METRICS_KEY, result);
+        }
+        return result;
+    }
+
+    static Iterable<ListenerMetrics> all() {
+        return metrics.values();
+    }
+
+    void requestStarted() {
+        this.requestCount.increment();
+        this.requests.record(1);
+    }
+
+    void requestRunning() {
+        this.runningCount.increment();
+    }
+
+    void requestCompleted() {
+        this.runningCount.decrement();
+    }
+
+    void requestLatency(long nanos) {
+        this.latency.record(TimeUnit.NANOSECONDS.toMicros(nanos));
+    }
+
+    void bytesSent(long bytes) {
+        if (bytes > 0) {
+            this.bytesSent.add(bytes);
+            this.sent.record(bytes);
+        }
+    }
+
+    void bytesReceived(long bytes) {
+        if (bytes > 0) {
+            this.bytesReceived.add(bytes);
+            this.received.record(bytes);
+        }
+    }
+
+    /**
+     * @return number of requests received by this listener
+     */
+    public long getRequestCount() {
+        return this.requestCount.sum();
+    }
+
+    /**
+     * @return number of requests of this listener currently running
+     */
+    public int getRunningRequestCount() {
+        return this.runningCount.intValue();
+    }
+
+    /**
+     * @return number of bytes sent by this listener
+     */
+    public long getBytesSent() {
+        return this.bytesSent.sum();
+    }
+
+    /**
+     * @return number of bytes received by this listener
+     */
+    public long getBytesReceived() {
+        return this.bytesReceived.sum();
+    }
+
+    /**
+     * @return average number of requests per second received by this listener within the window
+     */
+    public double getRequestRate() {
+        return rate(this.requests.getCount());
+    }
+
+    /**
+     * @return average number of bytes per second sent by this listener within the window
+     */
+    public double getBytesSentRate() {
+        return rate(this.sent.getSum());
+    }
+
+    /**
+     * @return average number of bytes per second received by this listener within the window
+     */
+    public double getBytesReceivedRate() {
+        return rate(this.received.getSum());
+    }
+
+    /**
+     * Estimates the latency below which the specified percentage of the requests completed within the window fall.
+     *
+     * @param percentile a percentile, e.g. 99
+     * @param unit       the unit of the returned latency
+     * @return the estimated latency, or 0 if no request completed within the window
+     */
+    public long getLatency(double percentile, TimeUnit unit) {
+        return unit.convert(this.latency.getValueAtPercentile(percentile), TimeUnit.MICROSECONDS);
+    }
+
+    private static double rate(long value) {
+        return value / (double) WINDOW_SECONDS;
+    }
+}
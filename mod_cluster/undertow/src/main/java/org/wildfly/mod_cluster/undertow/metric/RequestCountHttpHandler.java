@@ -22,13 +22,11 @@
 
 package org.wildfly.mod_cluster.undertow.metric;
 
-import java.util.concurrent.atomic.LongAdder;
-
 import io.undertow.server.HttpHandler;
 import io.undertow.server.HttpServerExchange;
 
 /**
- * {@link HttpHandler} that counts number of incoming requests.
+ * {@link HttpHandler} that counts number of incoming requests per listener.
  *
  * @author Radoslav Husar
  * @version Aug 2013
@@ -37,7 +35,6 @@ import io.undertow.server.HttpServerExchange;
 public class RequestCountHttpHandler implements HttpHandler {
 
     private final HttpHandler wrappedHandler;
-    private static final LongAdder requestCount = new LongAdder();
 
     public RequestCountHttpHandler(final HttpHandler handler) {
         this.wrappedHandler = handler;
@@ -47,7 +44,7 @@ public class RequestCountHttpHandler implements HttpHandler {
     public void handleRequest(HttpServerExchange httpServerExchange) throws Exception {
 
         // Count incoming request
-        requestCount.increment();
+        ListenerMetrics.forExchange(httpServerExchange).requestStarted();
 
         // Proceed
         wrappedHandler.handleRequest(httpServerExchange);
@@ -57,6 +54,10 @@ public class RequestCountHttpHandler implements HttpHandler {
      * @return long value of all incoming requests on all connectors
      */
     public static long getRequestCount() {
-        return requestCount.longValue();
+        long count = 0;
+        for (ListenerMetrics metrics : ListenerMetrics.all()) {
+            count += metrics.getRequestCount();
+        }
+        return count;
     }
 }
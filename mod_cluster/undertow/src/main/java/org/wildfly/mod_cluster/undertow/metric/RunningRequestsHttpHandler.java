@@ -22,8 +22,6 @@
 
 package org.wildfly.mod_cluster.undertow.metric;
 
-import java.util.concurrent.atomic.LongAdder;
-
 import io.undertow.server.ExchangeCompletionListener;
 import io.undertow.server.HttpHandler;
 import io.undertow.server.HttpServerExchange;
@@ -38,8 +36,6 @@ import io.undertow.server.HttpServerExchange;
  */
 public class RunningRequestsHttpHandler implements HttpHandler {
 
-    private static final LongAdder runningCount = new LongAdder();
-
     private final HttpHandler wrappedHandler;
 
     public RunningRequestsHttpHandler(final HttpHandler handler) {
@@ -54,12 +50,13 @@ public class RunningRequestsHttpHandler implements HttpHandler {
      */
     @Override
     public void handleRequest(HttpServerExchange exchange) throws Exception {
-        runningCount.increment();
+        final ListenerMetrics metrics = ListenerMetrics.forExchange(exchange);
+        metrics.requestRunning();
 
         exchange.addExchangeCompleteListener(new ExchangeCompletionListener() {
             @Override
             public void exchangeEvent(HttpServerExchange exchange, NextListener nextListener) {
-                runningCount.decrement();
+                metrics.requestCompleted();
 
                 // Proceed to next listener must be called!
                 nextListener.proceed();
@@ -69,8 +66,15 @@ public class RunningRequestsHttpHandler implements HttpHandler {
         wrappedHandler.handleRequest(exchange);
     }
 
+    /**
+     * @return int number of running requests on all listeners
+     */
     public static int getRunningRequestCount() {
-        return runningCount.intValue();
+        int count = 0;
+        for (ListenerMetrics metrics : ListenerMetrics.all()) {
+            count += metrics.getRunningRequestCount();
+        }
+        return count;
     }
 
 }
@@ -0,0 +1,227 @@
+/**
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2015, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.wildfly.mod_cluster.undertow.metric;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Records values over a sliding time window, e.g. the last 10 seconds.
+ * The window is a ring buffer of slices, each covering a fixed duration. Once a slice falls out of the window, it is
+ * replaced by the first value recorded for a newer slice, so that recording never blocks nor iterates over the window.
+ * <p/>
+ * Optionally tracks the distribution of the recorded values in log-linear buckets, from which percentiles are
+ * estimated with a relative error of at most 12.5%.
+ *
+ * @since 10.0
+ */
+public class SlidingWindowHistogram {
+
+    // Each power of 2 is divided into 2^SUB_BUCKET_BITS linear buckets
+    private static final int SUB_BUCKET_BITS = 3;
+    private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+
+    private final AtomicReferenceArray<Slice> slices;
+    private final long sliceNanos;
+    private final long highestTrackableValue;
+    private final int buckets;
+
+    /**
+     * Creates a sliding window that only tracks the count and sum of the recorded values.
+     *
+     * @param slices   number of slices of the window
+     * @param duration duration of the whole window
+     * @param unit     unit of the duration
+     */
+    public SlidingWindowHistogram(int slices, long duration, TimeUnit unit) {
+        this(slices, duration, unit, 0);
+    }
+
+    /**
+     * Creates a sliding window that also tracks the distribution of the recorded values.
+     *
+     * @param slices                number of slices of the window
+     * @param duration              duration of the whole window
+     * @param unit                  unit of the duration
+     * @param highestTrackableValue larger values are recorded as this value, or 0 to not track the distribution
+     */
+    public SlidingWindowHistogram(int slices, long duration, TimeUnit unit, long highestTrackableValue) {
+        this.slices = new AtomicReferenceArray<>(slices);
+        this.sliceNanos = Math.max(unit.toNanos(duration) / slices, 1);
+        this.highestTrackableValue = highestTrackableValue;
+        this.buckets = (highestTrackableValue > 0) ? bucket(highestTrackableValue) + 1 : 0;
+    }
+
+    /**
+     * Records the specified non-negative value.
+     *
+     * @param value a value
+     */
+    public void record(long value) {
+        this.record(value, System.nanoTime());
+    }
+
+    void record(long value, long nanoTime) {
+        Slice slice = this.slice(this.epoch(nanoTime));
+        slice.count.increment();
+        slice.sum.add(value);
+        if (slice.buckets != null) {
+            slice.buckets.incrementAndGet(bucket(Math.min(value, this.highestTrackableValue)));
+        }
+    }
+
+    /**
+     * @return the number of values recorded within the window
+     */
+    public long getCount() {
+        return this.getCount(System.nanoTime());
+    }
+
+    long getCount(long nanoTime) {
+        long count = 0;
+        long epoch = this.epoch(nanoTime);
+        for (int i = 0; i < this.slices.length(); ++i) {
+            Slice slice = this.slices.get(i);
+            if (this.isWithinWindow(slice, epoch)) {
+                count += slice.count.sum();
+            }
+        }
+        return count;
+    }
+
+    /**
+     * @return the sum of the values recorded within the window
+     */
+    public long getSum() {
+        return this.getSum(System.nanoTime());
+    }
+
+    long getSum(long nanoTime) {
+        long sum = 0;
+        long epoch = this.epoch(nanoTime);
+        for (int i = 0; i < this.slices.length(); ++i) {
+            Slice slice = this.slices.get(i);
+            if (this.isWithinWindow(slice, epoch)) {
+                sum += slice.sum.sum();
+            }
+        }
+        return sum;
+    }
+
+    /**
+     * Estimates the value below which the specified percentage of the values recorded within the window fall.
+     *
+     * @param percentile a percentile, e.g. 99
+     * @return the estimated value, or 0 if no values were recorded within the window or the distribution is not tracked
+     */
+    public long getValueAtPercentile(double percentile) {
+        return this.getValueAtPercentile(percentile, System.nanoTime());
+    }
+
+    long getValueAtPercentile(double percentile, long nanoTime) {
+        if (this.buckets == 0) return 0;
+        long[] counts = new long[this.buckets];
+        long total = 0;
+        long epoch = this.epoch(nanoTime);
+        for (int i = 0; i < this.slices.length(); ++i) {
+            Slice slice = this.slices.get(i);
+            if (this.isWithinWindow(slice, epoch)) {
+                for (int j = 0; j < this.buckets; ++j) {
+                    long count = slice.buckets.get(j);
+                    counts[j] += count;
+                    total += count;
+                }
+            }
+        }
+        if (total == 0) return 0;
+        long rank = Math.max((long) Math.ceil(total * Math.min(percentile, 100d) / 100d), 1);
+        long seen = 0;
+        for (int i = 0; i < this.buckets; ++i) {
+            seen += counts[i];
+            if (seen >= rank) {
+                return Math.min(highestValue(i), this.highestTrackableValue);
+            }
+        }
+        return this.highestTrackableValue;
+    }
+
+    /**
+     * @return the duration of the window in the specified unit
+     */
+    public long getDuration(TimeUnit unit) {
+        return unit.convert(this.sliceNanos * this.slices.length(), TimeUnit.NANOSECONDS);
+    }
+
+    private boolean isWithinWindow(Slice slice, long epoch) {
+        return (slice != null) && (slice.epoch <= epoch) && (slice.epoch > epoch - this.slices.length());
+    }
+
+    private long epoch(long nanoTime) {
+        // System.nanoTime() has an arbitrary origin, so may be negative
+        return Math.floorDiv(nanoTime, this.sliceNanos);
+    }
+
+    private Slice slice(long epoch) {
+        int index = (int) Math.floorMod(epoch, (long) this.slices.length());
+        Slice slice = this.slices.get(index);
+        while ((slice == null) || (slice.epoch < epoch)) {
+            // Replace the expired slice, rather than clearing it, so that concurrent recordings are not lost
+            Slice newSlice = new Slice(epoch, this.buckets);
+            if (this.slices.compareAndSet(index, slice, newSlice)) {
+                return newSlice;
+            }
+            slice = this.slices.get(index);
+        }
+        // If this thread was preempted long enough for its slice to have been replaced by a newer one, the value is
+        // recorded in the newer slice
+        return slice;
+    }
+
+    static int bucket(long value) {
+        if (value < SUB_BUCKETS) return (int) value;
+        int exponent = 63 - Long.numberOfLeadingZeros(value);
+        int shift = exponent - SUB_BUCKET_BITS;
+        return ((shift + 1) << SUB_BUCKET_BITS) | (int) ((value >>> shift) & (SUB_BUCKETS - 1));
+    }
+
+    static long highestValue(int bucket) {
+        if (bucket < SUB_BUCKETS) return bucket;
+        int shift = (bucket >>> SUB_BUCKET_BITS) - 1;
+        long lowestValue = ((long) (SUB_BUCKETS | (bucket & (SUB_BUCKETS - 1)))) << shift;
+        return lowestValue + (1L << shift) - 1;
+    }
+
+    private static class Slice {
+        final long epoch;
+        final LongAdder count = new LongAdder();
+        final LongAdder sum = new LongAdder();
+        final AtomicLongArray buckets;
+
+        Slice(long epoch, int buckets) {
+            this.epoch = epoch;
+            this.buckets = (buckets > 0) ? new AtomicLongArray(buckets) : null;
+        }
+    }
+}
@@ -0,0 +1,135 @@
+/**
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2015, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.wildfly.mod_cluster.undertow.metric;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Test;
+
+/**
+ * @since 10.0
+ */
+public class SlidingWindowHistogramTestCase {
+
+    private static final long SECOND = TimeUnit.SECONDS.toNanos(1);
+
+    @Test
+    public void bucket() {
+        long previous = -1;
+        for (int bucket = 0; bucket < SlidingWindowHistogram.bucket(1L << 40); ++bucket) {
+            long highest = SlidingWindowHistogram.highestValue(bucket);
+            assertEquals(bucket, SlidingWindowHistogram.bucket(previous + 1));
+            assertEquals(bucket, SlidingWindowHistogram.bucket(highest));
+            // Relative error of at most 12.5%
+            assertTrue(highest - (previous + 1) <= (previous + 1) / 8);
+            previous = highest;
+        }
+    }
+
+    @Test
+    public void percentile() {
+        SlidingWindowHistogram histogram = new SlidingWindowHistogram(10, 10, TimeUnit.SECONDS, 1000000);
+        long now = 100 * SECOND;
+        assertEquals(0, histogram.getValueAtPercentile(99, now));
+
+        for (int i = 1; i <= 1000; ++i) {
+            histogram.record(i, now);
+        }
+        assertEquals(1000, histogram.getCount(now));
+        assertEquals(500500, histogram.getSum(now));
+        assertWithinError(500, histogram.getValueAtPercentile(50, now));
+        assertWithinError(990, histogram.getValueAtPercentile(99, now));
+        assertWithinError(1000, histogram.getValueAtPercentile(100, now));
+
+        // Values beyond the highest trackable value are clamped
+        histogram.record(Long.MAX_VALUE / 2, now);
+        assertEquals(1000000, histogram.getValueAtPercentile(100, now));
+    }
+
+    @Test
+    public void slide() {
+        SlidingWindowHistogram histogram = new SlidingWindowHistogram(10, 10, TimeUnit.SECONDS, 1000000);
+        long start = 100 * SECOND;
+        histogram.record(1000, start);
+        for (int i = 1; i < 10; ++i) {
+            histogram.record(10, start + i * SECOND);
+        }
+        assertEquals(10, histogram.getCount(start + 9 * SECOND));
+        assertWithinError(1000, histogram.getValueAtPercentile(100, start + 9 * SECOND));
+
+        // The slow value leaves the window
+        assertEquals(9, histogram.getCount(start + 10 * SECOND));
+        assertEquals(10, histogram.getValueAtPercentile(100, start + 10 * SECOND));
+
+        // Recording into an expired slice replaces it
+        histogram.record(20, start + 10 * SECOND);
+        assertEquals(10, histogram.getCount(start + 10 * SECOND));
+        assertEquals(110, histogram.getSum(start + 10 * SECOND));
+
+        // Everything leaves the window
+        assertEquals(0, histogram.getCount(start + 30 * SECOND));
+        assertEquals(0, histogram.getValueAtPercentile(99, start + 30 * SECOND));
+    }
+
+    @Test
+    public void negativeClock() {
+        // System.nanoTime() may be negative, and may cross 0 while recording
+        SlidingWindowHistogram histogram = new SlidingWindowHistogram(10, 10, TimeUnit.SECONDS, 1000000);
+        long start = -5 * SECOND - 1;
+        for (int i = 0; i < 10; ++i) {
+            histogram.record(10, start + i * SECOND);
+        }
+        assertEquals(10, histogram.getCount(start + 9 * SECOND));
+        assertEquals(100, histogram.getSum(start + 9 * SECOND));
+
+        // Slices either side of 0 are distinct
+        histogram.record(1000, start + 10 * SECOND);
+        assertEquals(10, histogram.getCount(start + 10 * SECOND));
+        assertEquals(1090, histogram.getSum(start + 10 * SECOND));
+        assertWithinError(1000, histogram.getValueAtPercentile(100, start + 10 * SECOND));
+
+        SlidingWindowHistogram counter = new SlidingWindowHistogram(7, 7, TimeUnit.SECONDS);
+        counter.record(1, Long.MIN_VALUE);
+        assertEquals(1, counter.getCount(Long.MIN_VALUE));
+    }
+
+    @Test
+    public void counter() {
+        SlidingWindowHistogram counter = new SlidingWindowHistogram(10, 10, TimeUnit.SECONDS);
+        long now = 100 * SECOND;
+        counter.record(100, now);
+        counter.record(200, now + SECOND);
+        assertEquals(2, counter.getCount(now + SECOND));
+        assertEquals(300, counter.getSum(now + SECOND));
+        assertEquals(0, counter.getValueAtPercentile(99, now + SECOND));
+        assertEquals(10, counter.getDuration(TimeUnit.SECONDS));
+    }
+
+    private static void assertWithinError(long expected, long actual) {
+        assertTrue(actual + " < " + expected, actual >= expected);
+        assertTrue(actual + " > " + expected, actual <= expected + expected / 8);
+    }
+}
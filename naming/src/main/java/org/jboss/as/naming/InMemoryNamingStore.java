@@ -36,6 +36,7 @@ import java.util.Collections;
 import java.util.Hashtable;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.atomic.AtomicReferenceFieldUpdater;
 import java.util.concurrent.locks.ReentrantLock;
 
@@ -58,6 +59,10 @@ import org.jboss.as.naming.logging.NamingLogger;
  * In-memory implementation of the NamingStore.  The backing for the entries is a basic tree structure with either context
  * nodes or binding nodes.  The context nodes are allowed to have children and can be represented by a NamingContext.  A
  * binding node is only allowed to have a normal object binding.
+ * <p>
+ * Every node of the tree is also indexed by its full name, so that lookups of a bound name resolve via a single hash
+ * lookup rather than walking the tree component by component.  The tree remains authoritative: lookups of names that
+ * are not indexed, such as names resolving beyond a binding node, or names that are not bound, walk the tree.
  *
  * @author John E. Bailey
  */
@@ -66,6 +71,9 @@ public class InMemoryNamingStore implements WritableNamingStore {
     /* The root node of the tree.  Represents a JNDI name of "" */
     private final ContextNode root = new ContextNode(null, null, new CompositeName(), new NamingContext(this, null));
 
+    /* Every node of the tree, other than the root, indexed by its full name */
+    private final Map<Name, TreeNode> index = new ConcurrentHashMap<Name, TreeNode>();
+
     /* Naming Event Coordinator */
     private final NamingEventCoordinator eventCoordinator;
 
@@ -186,6 +194,10 @@ public class InMemoryNamingStore implements WritableNamingStore {
             final Name emptyName = new CompositeName("");
             return new NamingContext(emptyName, this, new Hashtable<String, Object>());
         }
+        final TreeNode node = index.get(name);
+        if (node != null) {
+            return node.binding.getObject();
+        }
         return root.accept(new LookupVisitor(name));
     }
 
@@ -235,6 +247,7 @@ public class InMemoryNamingStore implements WritableNamingStore {
         writeLock.lock();
         try {
             root.clear();
+            index.clear();
         } finally {
             writeLock.unlock();
         }
@@ -287,6 +300,8 @@ public class InMemoryNamingStore implements WritableNamingStore {
     private abstract class TreeNode {
         protected final Name fullName;
         protected final Binding binding;
+        /* The key of this node in the index, a copy of its name, since the name may be owned by the caller */
+        private volatile Name indexName;
 
         private TreeNode(final Name fullName, final Binding binding) {
             this.fullName = fullName;
@@ -294,6 +309,21 @@ public class InMemoryNamingStore implements WritableNamingStore {
         }
 
         protected abstract <T> T accept(NodeVisitor<T> visitor) throws NamingException;
+
+        /* Adds this node to the index */
+        protected void index() {
+            final Name name = (Name) fullName.clone();
+            indexName = name;
+            index.put(name, this);
+        }
+
+        /* Removes this node, and any nodes beneath it, from the index */
+        protected void unindex() {
+            final Name name = indexName;
+            if (name != null) {
+                index.remove(name, this);
+            }
+        }
     }
 
     private static final AtomicMapFieldUpdater<ContextNode, String, TreeNode> childrenUpdater = AtomicMapFieldUpdater.newMapUpdater(AtomicReferenceFieldUpdater.newUpdater(ContextNode.class, Map.class, "children"));
@@ -313,10 +343,16 @@ public class InMemoryNamingStore implements WritableNamingStore {
             if (childrenUpdater.putIfAbsent(this, childName, childNode) != null) {
                 throw nameAlreadyBoundException(fullName.add(childName));
             }
+            childNode.index();
         }
 
         private TreeNode replaceChild(final String childName, final TreeNode childNode) throws NamingException {
-            return childrenUpdater.put(this, childName, childNode);
+            final TreeNode previous = childrenUpdater.put(this, childName, childNode);
+            if (previous != null) {
+                previous.unindex();
+            }
+            childNode.index();
+            return previous;
         }
 
         private TreeNode removeChild(final String childName) throws NameNotFoundException {
@@ -324,8 +360,11 @@ public class InMemoryNamingStore implements WritableNamingStore {
             if (old == null) {
                 throw nameNotFoundException(childName, fullName);
             }
+            old.unindex();
             if(parentNode != null && children.isEmpty()) {
-                childrenUpdater.remove(parentNode, name);
+                if (childrenUpdater.remove(parentNode, name) != null) {
+                    unindex();
+                }
             }
             return old;
         }
@@ -340,7 +379,19 @@ public class InMemoryNamingStore implements WritableNamingStore {
 
         public TreeNode addOrGetChild(final String childName, final TreeNode childNode) {
             TreeNode appearing = childrenUpdater.putIfAbsent(this, childName, childNode);
-            return appearing == null ? childNode : appearing;
+            if (appearing == null) {
+                childNode.index();
+                return childNode;
+            }
+            return appearing;
+        }
+
+        @Override
+        protected void unindex() {
+            super.unindex();
+            for (TreeNode child : children.values()) {
+                child.unindex();
+            }
         }
     }
 
@@ -265,4 +265,26 @@ public class InMemoryNamingStoreTestCase {
             fail("Should have throw name not found exception");
         } catch (NameNotFoundException expected){}
     }
+
+    @Test
+    public void testUnbindContextRemovesDescendants() throws Exception {
+        final Name name = new CompositeName("test/context/item");
+        final Object object = new Object();
+        nameStore.bind(name, object);
+        // The store must not depend on the caller keeping the name intact
+        name.add("mutated");
+
+        assertEquals(object, nameStore.lookup(new CompositeName("test/context/item")));
+
+        nameStore.unbind(new CompositeName("test/context"));
+
+        try {
+            nameStore.lookup(new CompositeName("test/context/item"));
+            fail("Should have throw name not found exception");
+        } catch (NameNotFoundException expected){}
+
+        final Object rebound = new Object();
+        nameStore.bind(new CompositeName("test/context/item"), rebound);
+        assertEquals(rebound, nameStore.lookup(new CompositeName("test/context/item")));
+    }
 }
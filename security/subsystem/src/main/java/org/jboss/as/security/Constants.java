@@ -43,6 +43,11 @@ public interface Constants {
     String AUTHENTICATION_MANAGER_CLASS_NAME = "authentication-manager-class-name";
     String AUTHORIZATION = "authorization";
     String AUTHORIZATION_MANAGER_CLASS_NAME = "authorization-manager-class-name";
+    String CACHE_EVICTION_COUNT = "cache-eviction-count";
+    String CACHE_HIT_COUNT = "cache-hit-count";
+    String CACHE_LIFESPAN = "cache-lifespan";
+    String CACHE_MAX_SIZE = "cache-max-size";
+    String CACHE_MISS_COUNT = "cache-miss-count";
     String CACHE_TYPE = "cache-type";
     String CIPHER_SUITES = "cipher-suites";
     String CLASSIC = "classic";
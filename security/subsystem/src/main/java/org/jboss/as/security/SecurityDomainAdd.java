@@ -129,6 +129,8 @@ class SecurityDomainAdd extends AbstractAddStepHandler {
 
     protected void populateModel(ModelNode operation, ModelNode model) throws OperationFailedException {
         SecurityDomainResourceDefinition.CACHE_TYPE.validateAndSet(operation, model);
+        SecurityDomainResourceDefinition.CACHE_MAX_SIZE.validateAndSet(operation, model);
+        SecurityDomainResourceDefinition.CACHE_LIFESPAN.validateAndSet(operation, model);
     }
 
     protected void performRuntime(OperationContext context, ModelNode operation, final ModelNode model) {
@@ -151,9 +153,11 @@ class SecurityDomainAdd extends AbstractAddStepHandler {
         final ApplicationPolicy applicationPolicy = createApplicationPolicy(context, securityDomain, model);
         final JSSESecurityDomain jsseSecurityDomain = createJSSESecurityDomain(context, securityDomain, model);
         final String cacheType = getAuthenticationCacheType(model);
+        final int cacheMaxSize = SecurityDomainResourceDefinition.CACHE_MAX_SIZE.resolveModelAttribute(context, model).asInt();
+        final ModelNode cacheLifespan = SecurityDomainResourceDefinition.CACHE_LIFESPAN.resolveModelAttribute(context, model);
 
         final SecurityDomainService securityDomainService = new SecurityDomainService(securityDomain,
-                applicationPolicy, jsseSecurityDomain, cacheType);
+                applicationPolicy, jsseSecurityDomain, cacheType, cacheMaxSize, cacheLifespan.isDefined() ? cacheLifespan.asLong() : 0);
         final ServiceTarget target = context.getServiceTarget();
         ServiceBuilder<SecurityDomainContext> builder = target
                 .addService(SecurityDomainService.SERVICE_NAME.append(securityDomain), securityDomainService)
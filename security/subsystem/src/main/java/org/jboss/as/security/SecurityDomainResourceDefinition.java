@@ -22,11 +22,13 @@
 package org.jboss.as.security;
 
 import static java.util.concurrent.TimeUnit.MILLISECONDS;
+import static org.jboss.as.controller.descriptions.ModelDescriptionConstants.NAME;
 import static org.jboss.as.controller.descriptions.ModelDescriptionConstants.OP_ADDR;
 
 import java.security.Principal;
 import java.util.Arrays;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
 
 import org.jboss.as.controller.AbstractRuntimeOnlyHandler;
@@ -43,10 +45,14 @@ import org.jboss.as.controller.access.constraint.ApplicationTypeConfig;
 import org.jboss.as.controller.access.management.AccessConstraintDefinition;
 import org.jboss.as.controller.access.management.ApplicationTypeAccessConstraintDefinition;
 import org.jboss.as.controller.access.management.SensitiveTargetAccessConstraintDefinition;
+import org.jboss.as.controller.client.helpers.MeasurementUnit;
 import org.jboss.as.controller.operations.common.Util;
+import org.jboss.as.controller.operations.validation.IntRangeValidator;
+import org.jboss.as.controller.operations.validation.LongRangeValidator;
 import org.jboss.as.controller.registry.ManagementResourceRegistration;
 import org.jboss.as.controller.registry.OperationEntry;
 import org.jboss.as.security.logging.SecurityLogger;
+import org.jboss.as.security.org.jboss.as.security.lru.TinyLFUCache;
 import org.jboss.as.security.plugins.SecurityDomainContext;
 import org.jboss.as.security.service.SecurityDomainService;
 import org.jboss.dmr.ModelNode;
@@ -64,7 +70,31 @@ class SecurityDomainResourceDefinition extends SimpleResourceDefinition {
 
     public static final SimpleAttributeDefinition CACHE_TYPE = new SimpleAttributeDefinitionBuilder(Constants.CACHE_TYPE, ModelType.STRING, true)
             .setAllowExpression(true)
-            .setAllowedValues("default", "infinispan")
+            .setAllowedValues("default", "infinispan", "tinylfu")
+            .build();
+
+    public static final SimpleAttributeDefinition CACHE_MAX_SIZE = new SimpleAttributeDefinitionBuilder(Constants.CACHE_MAX_SIZE, ModelType.INT, true)
+            .setAllowExpression(true)
+            .setDefaultValue(new ModelNode(1000))
+            .setValidator(new IntRangeValidator(1, Integer.MAX_VALUE, true, true))
+            .build();
+
+    public static final SimpleAttributeDefinition CACHE_LIFESPAN = new SimpleAttributeDefinitionBuilder(Constants.CACHE_LIFESPAN, ModelType.LONG, true)
+            .setAllowExpression(true)
+            .setMeasurementUnit(MeasurementUnit.MILLISECONDS)
+            .setValidator(new LongRangeValidator(1, Long.MAX_VALUE, true, true))
+            .build();
+
+    static final SimpleAttributeDefinition CACHE_HIT_COUNT = new SimpleAttributeDefinitionBuilder(Constants.CACHE_HIT_COUNT, ModelType.LONG, true)
+            .setStorageRuntime()
+            .build();
+
+    static final SimpleAttributeDefinition CACHE_MISS_COUNT = new SimpleAttributeDefinitionBuilder(Constants.CACHE_MISS_COUNT, ModelType.LONG, true)
+            .setStorageRuntime()
+            .build();
+
+    static final SimpleAttributeDefinition CACHE_EVICTION_COUNT = new SimpleAttributeDefinitionBuilder(Constants.CACHE_EVICTION_COUNT, ModelType.LONG, true)
+            .setStorageRuntime()
             .build();
 
     private final boolean registerRuntimeOnly;
@@ -84,6 +114,14 @@ class SecurityDomainResourceDefinition extends SimpleResourceDefinition {
     @Override
     public void registerAttributes(final ManagementResourceRegistration resourceRegistration) {
         resourceRegistration.registerReadWriteAttribute(CACHE_TYPE, null, new SecurityDomainReloadWriteHandler(CACHE_TYPE));
+        resourceRegistration.registerReadWriteAttribute(CACHE_MAX_SIZE, null, new SecurityDomainReloadWriteHandler(CACHE_MAX_SIZE));
+        resourceRegistration.registerReadWriteAttribute(CACHE_LIFESPAN, null, new SecurityDomainReloadWriteHandler(CACHE_LIFESPAN));
+
+        if (registerRuntimeOnly) {
+            resourceRegistration.registerMetric(CACHE_HIT_COUNT, CacheStatisticsHandler.INSTANCE);
+            resourceRegistration.registerMetric(CACHE_MISS_COUNT, CacheStatisticsHandler.INSTANCE);
+            resourceRegistration.registerMetric(CACHE_EVICTION_COUNT, CacheStatisticsHandler.INSTANCE);
+        }
     }
 
     @Override
@@ -190,6 +228,40 @@ class SecurityDomainResourceDefinition extends SimpleResourceDefinition {
         }
     }
 
+    /**
+     * Reads the statistics of a 'tinylfu' authentication cache. Other cache types have undefined statistics.
+     */
+    static final class CacheStatisticsHandler extends AbstractRuntimeOnlyHandler {
+        static final CacheStatisticsHandler INSTANCE = new CacheStatisticsHandler();
+
+        @Override
+        protected void executeRuntimeStep(OperationContext context, ModelNode operation) throws OperationFailedException {
+            PathAddress address = PathAddress.pathAddress(operation.require(OP_ADDR));
+            final String securityDomain = address.getLastElement().getValue();
+            final String name = operation.require(NAME).asString();
+
+            ServiceController<?> controller = context.getServiceRegistry(false).getService(SecurityDomainService.SERVICE_NAME.append(securityDomain));
+            if ((controller != null) && (controller.getState() == ServiceController.State.UP)) {
+                Map<Principal, ?> cache = ((SecurityDomainService) controller.getService()).getAuthenticationCache();
+                if (cache instanceof TinyLFUCache) {
+                    TinyLFUCache<?, ?> tinyLFUCache = (TinyLFUCache<?, ?>) cache;
+                    switch (name) {
+                        case Constants.CACHE_HIT_COUNT:
+                            context.getResult().set(tinyLFUCache.getHitCount());
+                            break;
+                        case Constants.CACHE_MISS_COUNT:
+                            context.getResult().set(tinyLFUCache.getMissCount());
+                            break;
+                        case Constants.CACHE_EVICTION_COUNT:
+                            context.getResult().set(tinyLFUCache.getEvictionCount());
+                            break;
+                    }
+                }
+            }
+            context.completeStep(OperationContext.RollbackHandler.NOOP_ROLLBACK_HANDLER);
+        }
+    }
+
     /**
      * Wait for the required service to start up and fail otherwise. This method is necessary when a runtime operation
      * uses a service that might have been created within a composite operation.
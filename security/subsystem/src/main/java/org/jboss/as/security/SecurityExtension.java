@@ -164,6 +164,7 @@ import org.jboss.msc.service.ServiceName;
         builder.getAttributeBuilder().addRejectCheck(RejectAttributeChecker.SIMPLE_EXPRESSIONS, SecuritySubsystemRootResourceDefinition.DEEP_COPY_SUBJECT_MODE);
         final ResourceTransformationDescriptionBuilder securityDomain = builder.addChildResource(SECURITY_DOMAIN_PATH);
         securityDomain.getAttributeBuilder().addRejectCheck(RejectAttributeChecker.SIMPLE_EXPRESSIONS, SecurityDomainResourceDefinition.CACHE_TYPE).end();
+        rejectAuthenticationCacheAttributes(securityDomain);
 
         final ModulesToAttributeTransformer authClassicLoginModule = new ModulesToAttributeTransformer(Constants.LOGIN_MODULE, Constants.LOGIN_MODULES);
         registerModuleTransformer(securityDomain, PATH_CLASSIC_AUTHENTICATION, authClassicLoginModule,
@@ -226,6 +227,7 @@ import org.jboss.msc.service.ServiceName;
         ResourceTransformationDescriptionBuilder builder = TransformationDescriptionBuilder.Factory.createSubsystemInstance();
 
         ResourceTransformationDescriptionBuilder securityDomain = builder.addChildResource(SECURITY_DOMAIN_PATH);
+        rejectAuthenticationCacheAttributes(securityDomain);
 
         // Transform any add op that includes the module list attribute into a compsosite of an add w/o that + write-attribute
         AttributeToModulesTransformer loginModule = new AttributeToModulesTransformer(Constants.LOGIN_MODULES);
@@ -256,6 +258,14 @@ import org.jboss.msc.service.ServiceName;
         TransformationDescription.Tools.register(builder.build(), subsystemRegistration, ModelVersion.create(1, 2, 0));
     }
 
+    private static void rejectAuthenticationCacheAttributes(ResourceTransformationDescriptionBuilder securityDomain) {
+        // the tinylfu cache type and the cache size and lifespan are not recognized prior to the 1.3.0 version of the subsystem.
+        securityDomain.getAttributeBuilder()
+                .addRejectCheck(new RejectAttributeChecker.SimpleRejectAttributeChecker(new ModelNode("tinylfu")), SecurityDomainResourceDefinition.CACHE_TYPE)
+                .addRejectCheck(RejectAttributeChecker.DEFINED, SecurityDomainResourceDefinition.CACHE_MAX_SIZE, SecurityDomainResourceDefinition.CACHE_LIFESPAN)
+                .end();
+    }
+
     private ResourceTransformationDescriptionBuilder registerModuleTransformer(final ResourceTransformationDescriptionBuilder parent, final PathElement childPath,
                                                                                final ModulesToAttributeTransformer transformer, final ChildResourceTransformersRegistrar childRegistrar) {
         final OperationTransformer addOrWriteTransformer = new OperationTransformer() {
@@ -0,0 +1,584 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2015 Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package org.jboss.as.security.org.jboss.as.security.lru;
+
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * A non-blocking cache where entries are indexed by a key, whose eviction policy favors frequently used entries.
+ * <p/>
+ * <p>Eviction follows a W-TinyLFU approach: new entries enter a small LRU admission window. Entries leaving the
+ * window are only admitted into the main space, which is a segmented LRU, if their estimated frequency is higher than
+ * that of the entry the main space would otherwise evict. Frequencies are estimated by a {@link FrequencySketch}, which
+ * also remembers keys that are no longer cached. Consequently, a burst of keys that are used only once cannot flush
+ * the frequently used entries from the cache.</p>
+ * <p/>
+ * <p>Reads and writes never block on the eviction policy: they are recorded in buffers, which are replayed against
+ * the policy by whichever thread manages to acquire the eviction lock. Reads are recorded in a lossy buffer, so
+ * that reads of a popular entry do not contend with each other.</p>
+ * <p/>
+ * <p>Entries may optionally expire once a lifespan has elapsed since they were last written. Expired entries are
+ * removed when next accessed, or when evicted.</p>
+ */
+public class TinyLFUCache<K, V> extends AbstractMap<K, V> implements ConcurrentMap<K, V> {
+    private static final int READ_BUFFER_SIZE = 128;
+    private static final int READ_BUFFER_MASK = READ_BUFFER_SIZE - 1;
+    private static final int READ_BUFFER_THRESHOLD = READ_BUFFER_SIZE / 4;
+    private static final int WINDOW_PERCENTAGE = 1;
+    private static final int PROTECTED_PERCENTAGE = 80;
+
+    /**
+     * Max active entries that are present in the cache.
+     */
+    private final int maxEntries;
+    private final long lifespanNanos;
+
+    private final ConcurrentHashMap<K, Node<K, V>> cache = new ConcurrentHashMap<>();
+    private final RemoveCallback<K, V> removeCallback;
+
+    private final AtomicReferenceArray<Node<K, V>> readBuffer = new AtomicReferenceArray<>(READ_BUFFER_SIZE);
+    private final AtomicLong readBufferWriteCount = new AtomicLong();
+    private volatile long readBufferReadCount;
+    private final Queue<Runnable> writeBuffer = new ConcurrentLinkedQueue<>();
+
+    // Guarded by evictionLock
+    private final Lock evictionLock = new ReentrantLock();
+    private final FrequencySketch sketch;
+    private final AccessOrderDeque<K, V> window = new AccessOrderDeque<>();
+    private final AccessOrderDeque<K, V> probation = new AccessOrderDeque<>();
+    private final AccessOrderDeque<K, V> protectedSegment = new AccessOrderDeque<>();
+    private final int maxWindow;
+    private final int maxProtected;
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    public TinyLFUCache(int maxEntries) {
+        this(maxEntries, 0, TimeUnit.MILLISECONDS, null);
+    }
+
+    public TinyLFUCache(int maxEntries, long lifespan, TimeUnit unit, RemoveCallback<K, V> removeCallback) {
+        this.maxEntries = Math.max(maxEntries, 1);
+        this.lifespanNanos = (lifespan > 0) ? unit.toNanos(lifespan) : 0;
+        this.removeCallback = removeCallback;
+        this.sketch = new FrequencySketch(this.maxEntries);
+        this.maxWindow = Math.max(this.maxEntries * WINDOW_PERCENTAGE / 100, 1);
+        this.maxProtected = (this.maxEntries - this.maxWindow) * PROTECTED_PERCENTAGE / 100;
+    }
+
+    /**
+     * Returns the number of lookups that found a live entry.
+     */
+    public long getHitCount() {
+        return this.hits.sum();
+    }
+
+    /**
+     * Returns the number of lookups that found no entry, or an expired entry.
+     */
+    public long getMissCount() {
+        return this.misses.sum();
+    }
+
+    /**
+     * Returns the number of entries removed because the cache was out of capacity, or because their lifespan elapsed.
+     */
+    public long getEvictionCount() {
+        return this.evictions.sum();
+    }
+
+    @Override
+    public V get(Object key) {
+        Node<K, V> node = this.cache.get(key);
+        if (node == null) {
+            this.misses.increment();
+            return null;
+        }
+        if (this.isExpired(node, System.nanoTime())) {
+            this.misses.increment();
+            this.expire(node);
+            return null;
+        }
+        this.hits.increment();
+        this.afterRead(node);
+        return node.value;
+    }
+
+    @Override
+    public boolean containsKey(Object key) {
+        Node<K, V> node = this.cache.get(key);
+        return (node != null) && !this.isExpired(node, System.nanoTime());
+    }
+
+    @Override
+    public V put(K key, V value) {
+        return this.put(key, value, false);
+    }
+
+    @Override
+    public V putIfAbsent(K key, V value) {
+        return this.put(key, value, true);
+    }
+
+    private V put(K key, V value, boolean ifAbsent) {
+        Objects.requireNonNull(value);
+        long now = System.nanoTime();
+        while (true) {
+            Node<K, V> node = this.cache.get(key);
+            if (node == null) {
+                Node<K, V> newNode = new Node<>(key, value, now);
+                node = this.cache.putIfAbsent(key, newNode);
+                if (node == null) {
+                    this.afterWrite(() -> this.onAdd(newNode));
+                    return null;
+                }
+            }
+            if (this.isExpired(node, now)) {
+                this.expire(node);
+                continue;
+            }
+            if (ifAbsent) {
+                this.afterRead(node);
+                return node.value;
+            }
+            V old = null;
+            synchronized (node) {
+                if (node.alive) {
+                    old = node.value;
+                    node.value = value;
+                    node.writeTime = now;
+                }
+            }
+            if (old != null) {
+                this.afterRead(node);
+                return old;
+            }
+        }
+    }
+
+    @Override
+    public V replace(K key, V newValue) {
+        Objects.requireNonNull(newValue);
+        long now = System.nanoTime();
+        Node<K, V> node = this.cache.get(key);
+        if ((node == null) || this.isExpired(node, now)) {
+            return null;
+        }
+        V old;
+        synchronized (node) {
+            if (!node.alive) {
+                return null;
+            }
+            old = node.value;
+            node.value = newValue;
+            node.writeTime = now;
+        }
+        this.afterRead(node);
+        this.notifyRemoval(key, old);
+        return old;
+    }
+
+    @Override
+    public boolean replace(K key, V oldValue, V newValue) {
+        Objects.requireNonNull(newValue);
+        long now = System.nanoTime();
+        Node<K, V> node = this.cache.get(key);
+        if ((node == null) || this.isExpired(node, now)) {
+            return false;
+        }
+        synchronized (node) {
+            if (!node.alive || !node.value.equals(oldValue)) {
+                return false;
+            }
+            node.value = newValue;
+            node.writeTime = now;
+        }
+        this.afterRead(node);
+        this.notifyRemoval(key, oldValue);
+        return true;
+    }
+
+    @Override
+    public V remove(Object key) {
+        Node<K, V> node = this.cache.remove(key);
+        if (node == null) {
+            return null;
+        }
+        V value = this.retire(node);
+        this.notifyRemoval(node.key, value);
+        return this.isExpired(node, System.nanoTime()) ? null : value;
+    }
+
+    @Override
+    public boolean remove(Object key, Object value) {
+        Node<K, V> node = this.cache.get(key);
+        if ((node == null) || this.isExpired(node, System.nanoTime())) {
+            return false;
+        }
+        synchronized (node) {
+            if (!node.alive || !node.value.equals(value) || !this.cache.remove(key, node)) {
+                return false;
+            }
+        }
+        this.notifyRemoval(node.key, this.retire(node));
+        return true;
+    }
+
+    @Override
+    public void clear() {
+        for (K key : this.cache.keySet()) {
+            this.remove(key);
+        }
+    }
+
+    @Override
+    public int size() {
+        return this.cache.size();
+    }
+
+    @Override
+    public Set<Entry<K, V>> entrySet() {
+        return new EntrySet();
+    }
+
+    private boolean isExpired(Node<K, V> node, long now) {
+        return (this.lifespanNanos > 0) && (now - node.writeTime >= this.lifespanNanos);
+    }
+
+    private void expire(Node<K, V> node) {
+        if (this.cache.remove(node.key, node)) {
+            this.evictions.increment();
+            this.notifyRemoval(node.key, this.retire(node));
+        }
+    }
+
+    /**
+     * Marks a node that was removed from the cache as dead, and schedules its removal from the eviction policy.
+     * @return the final value of the node
+     */
+    private V retire(Node<K, V> node) {
+        V value;
+        synchronized (node) {
+            node.alive = false;
+            value = node.value;
+        }
+        this.afterWrite(() -> this.onRemove(node));
+        return value;
+    }
+
+    private void notifyRemoval(K key, V value) {
+        if (this.removeCallback != null) {
+            this.removeCallback.afterRemove(key, value);
+        }
+    }
+
+    private void afterRead(Node<K, V> node) {
+        long count = this.readBufferWriteCount.get();
+        long pending = count - this.readBufferReadCount;
+        // If the buffer is full, the read is simply not recorded
+        if ((pending < READ_BUFFER_SIZE) && this.readBufferWriteCount.compareAndSet(count, count + 1)) {
+            this.readBuffer.lazySet((int) count & READ_BUFFER_MASK, node);
+        }
+        if (pending >= READ_BUFFER_THRESHOLD) {
+            this.drain();
+        }
+    }
+
+    private void afterWrite(Runnable task) {
+        this.writeBuffer.add(task);
+        this.drain();
+    }
+
+    private void drain() {
+        // If another thread holds the lock, it will either replay our task, or will retry after releasing the lock
+        do {
+            if (!this.evictionLock.tryLock()) {
+                return;
+            }
+            try {
+                this.maintain();
+            } finally {
+                this.evictionLock.unlock();
+            }
+        } while (!this.writeBuffer.isEmpty());
+    }
+
+    // Requires evictionLock
+    private void maintain() {
+        long read = this.readBufferReadCount;
+        long write = this.readBufferWriteCount.get();
+        while (read < write) {
+            int index = (int) read & READ_BUFFER_MASK;
+            Node<K, V> node = this.readBuffer.get(index);
+            if (node == null) {
+                // Not yet published
+                break;
+            }
+            this.readBuffer.lazySet(index, null);
+            this.onAccess(node);
+            read += 1;
+        }
+        this.readBufferReadCount = read;
+
+        Runnable task = this.writeBuffer.poll();
+        while (task != null) {
+            task.run();
+            task = this.writeBuffer.poll();
+        }
+
+        this.evict();
+    }
+
+    // Requires evictionLock
+    private void onAdd(Node<K, V> node) {
+        this.sketch.increment(node.key);
+        if (node.alive) {
+            this.window.addLast(node);
+        }
+    }
+
+    // Requires evictionLock
+    private void onAccess(Node<K, V> node) {
+        this.sketch.increment(node.key);
+        AccessOrderDeque<K, V> queue = node.queue;
+        if (queue == this.probation) {
+            // Promote to the protected segment, demoting its least recently used entries if necessary
+            this.probation.remove(node);
+            this.protectedSegment.addLast(node);
+            while (this.protectedSegment.size > this.maxProtected) {
+                Node<K, V> demoted = this.protectedSegment.head;
+                this.protectedSegment.remove(demoted);
+                this.probation.addLast(demoted);
+            }
+        } else if (queue != null) {
+            queue.moveToLast(node);
+        }
+    }
+
+    // Requires evictionLock
+    private void onRemove(Node<K, V> node) {
+        if (node.queue != null) {
+            node.queue.remove(node);
+        }
+    }
+
+    // Requires evictionLock
+    private void evict() {
+        // Entries overflowing the window become candidates for the main space, at the tail of the probation segment
+        while (this.window.size > this.maxWindow) {
+            Node<K, V> candidate = this.window.head;
+            this.window.remove(candidate);
+            this.probation.addLast(candidate);
+        }
+        while (this.window.size + this.probation.size + this.protectedSegment.size > this.maxEntries) {
+            Node<K, V> victim = this.probation.head;
+            Node<K, V> candidate = this.probation.tail;
+            if (victim == null) {
+                victim = (this.protectedSegment.head != null) ? this.protectedSegment.head : this.window.head;
+                candidate = victim;
+            }
+            // Admit the candidate only if it is more popular than the victim
+            this.evict((candidate == victim) || (this.sketch.frequency(candidate.key) > this.sketch.frequency(victim.key)) ? victim : candidate);
+        }
+    }
+
+    // Requires evictionLock
+    private void evict(Node<K, V> node) {
+        node.queue.remove(node);
+        if (this.cache.remove(node.key, node)) {
+            V value;
+            synchronized (node) {
+                node.alive = false;
+                value = node.value;
+            }
+            this.evictions.increment();
+            this.notifyRemoval(node.key, value);
+        }
+    }
+
+    static final class Node<K, V> {
+        final K key;
+        volatile V value;
+        volatile long writeTime;
+        volatile boolean alive = true;
+
+        // Guarded by evictionLock
+        AccessOrderDeque<K, V> queue;
+        Node<K, V> previous;
+        Node<K, V> next;
+
+        Node(K key, V value, long writeTime) {
+            this.key = key;
+            this.value = value;
+            this.writeTime = writeTime;
+        }
+
+        public String toString() {
+            return key.toString();
+        }
+    }
+
+    /**
+     * A doubly linked list of nodes, ordered from least to most recently used, supporting constant time removal.
+     */
+    private static final class AccessOrderDeque<K, V> {
+        Node<K, V> head;
+        Node<K, V> tail;
+        int size;
+
+        void addLast(Node<K, V> node) {
+            node.queue = this;
+            node.previous = this.tail;
+            node.next = null;
+            if (this.tail == null) {
+                this.head = node;
+            } else {
+                this.tail.next = node;
+            }
+            this.tail = node;
+            this.size += 1;
+        }
+
+        void remove(Node<K, V> node) {
+            if (node.previous == null) {
+                this.head = node.next;
+            } else {
+                node.previous.next = node.next;
+            }
+            if (node.next == null) {
+                this.tail = node.previous;
+            } else {
+                node.next.previous = node.previous;
+            }
+            node.queue = null;
+            node.previous = null;
+            node.next = null;
+            this.size -= 1;
+        }
+
+        void moveToLast(Node<K, V> node) {
+            if (node != this.tail) {
+                this.remove(node);
+                this.addLast(node);
+            }
+        }
+    }
+
+    private class EntrySet extends AbstractSet<Entry<K, V>> {
+
+        @Override
+        public Iterator<Entry<K, V>> iterator() {
+            return new EntryIterator(TinyLFUCache.this.cache.values().iterator());
+        }
+
+        @Override
+        public int size() {
+            return TinyLFUCache.this.size();
+        }
+
+        @Override
+        public boolean contains(Object o) {
+            if (!(o instanceof Entry))
+                return false;
+            Entry<?, ?> e = (Entry<?, ?>) o;
+            Node<K, V> node = TinyLFUCache.this.cache.get(e.getKey());
+            return (node != null) && !TinyLFUCache.this.isExpired(node, System.nanoTime()) && node.value.equals(e.getValue());
+        }
+
+        @Override
+        public boolean remove(Object o) {
+            if (!(o instanceof Entry))
+                return false;
+            Entry<?, ?> e = (Entry<?, ?>) o;
+            return TinyLFUCache.this.remove(e.getKey(), e.getValue());
+        }
+
+        @Override
+        public void clear() {
+            TinyLFUCache.this.clear();
+        }
+    }
+
+    private class EntryIterator implements Iterator<Entry<K, V>> {
+        private final Iterator<Node<K, V>> nodes;
+        private final long now = System.nanoTime();
+        private Node<K, V> next;
+        private Node<K, V> last;
+
+        EntryIterator(Iterator<Node<K, V>> nodes) {
+            this.nodes = nodes;
+        }
+
+        @Override
+        public boolean hasNext() {
+            // Skip expired entries
+            while ((this.next == null) && this.nodes.hasNext()) {
+                Node<K, V> node = this.nodes.next();
+                if (!TinyLFUCache.this.isExpired(node, this.now)) {
+                    this.next = node;
+                }
+            }
+            return this.next != null;
+        }
+
+        @Override
+        public Entry<K, V> next() {
+            if (!this.hasNext()) {
+                throw new NoSuchElementException();
+            }
+            this.last = this.next;
+            this.next = null;
+            final K key = this.last.key;
+            return new SimpleEntry<K, V>(key, this.last.value) {
+                private static final long serialVersionUID = 1L;
+
+                @Override
+                public V setValue(V value) {
+                    TinyLFUCache.this.put(key, value);
+                    return super.setValue(value);
+                }
+            };
+        }
+
+        @Override
+        public void remove() {
+            if (this.last == null) {
+                throw new IllegalStateException("next() not called");
+            }
+            TinyLFUCache.this.remove(this.last.key);
+            this.last = null;
+        }
+    }
+}
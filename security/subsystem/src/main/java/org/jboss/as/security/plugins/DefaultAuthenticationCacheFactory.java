@@ -36,13 +36,27 @@ import org.jboss.security.authentication.JBossCachedAuthenticationManager.Domain
  */
 public class DefaultAuthenticationCacheFactory implements AuthenticationCacheFactory {
 
+    private final int maxSize;
+
+    public DefaultAuthenticationCacheFactory() {
+        this(1000);
+    }
+
+    /**
+     *
+     * @param maxSize the maximum number of principals held by the cache
+     */
+    public DefaultAuthenticationCacheFactory(int maxSize) {
+        this.maxSize = maxSize;
+    }
+
     /**
      * Returns a default cache implementation
      *
      * @return cache implementation
      */
     public ConcurrentMap<Principal, DomainInfo> getCache() {
-        ConcurrentMap<Principal, DomainInfo> map = new LRUCache<>(1000,  new RemoveCallback<Principal, DomainInfo>() {
+        ConcurrentMap<Principal, DomainInfo> map = new LRUCache<>(maxSize,  new RemoveCallback<Principal, DomainInfo>() {
             @Override
             public void afterRemove(Principal key, DomainInfo value) {
                 if (value != null) {
@@ -0,0 +1,66 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2015, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.jboss.as.security.plugins;
+
+import java.security.Principal;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+
+import org.jboss.as.security.org.jboss.as.security.lru.RemoveCallback;
+import org.jboss.as.security.org.jboss.as.security.lru.TinyLFUCache;
+import org.jboss.security.authentication.JBossCachedAuthenticationManager.DomainInfo;
+
+/**
+ * Factory that creates frequency-aware {@code ConcurrentMap}s for authentication cache, which resist being flushed by
+ * bursts of principals that authenticate only once.
+ */
+public class TinyLFUAuthenticationCacheFactory implements AuthenticationCacheFactory {
+
+    private final int maxSize;
+    private final long lifespan;
+
+    /**
+     *
+     * @param maxSize the maximum number of principals held by the cache
+     * @param lifespan the number of milliseconds a principal remains cached after it was last cached, or 0 if principals never expire
+     */
+    public TinyLFUAuthenticationCacheFactory(int maxSize, long lifespan) {
+        this.maxSize = maxSize;
+        this.lifespan = lifespan;
+    }
+
+    /**
+     * Returns a frequency-aware cache implementation
+     *
+     * @return cache implementation
+     */
+    public ConcurrentMap<Principal, DomainInfo> getCache() {
+        return new TinyLFUCache<>(maxSize, lifespan, TimeUnit.MILLISECONDS, new RemoveCallback<Principal, DomainInfo>() {
+            @Override
+            public void afterRemove(Principal key, DomainInfo value) {
+                if (value != null) {
+                    value.logout();
+                }
+            }
+        });
+    }
+}
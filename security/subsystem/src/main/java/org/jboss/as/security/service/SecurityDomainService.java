@@ -22,6 +22,9 @@
 
 package org.jboss.as.security.service;
 
+import java.security.Principal;
+import java.util.concurrent.ConcurrentMap;
+
 import javax.security.auth.login.Configuration;
 
 import org.jboss.as.security.SecurityExtension;
@@ -31,6 +34,7 @@ import org.jboss.as.security.plugins.DefaultAuthenticationCacheFactory;
 import org.jboss.as.security.plugins.InfinispanAuthenticationCacheFactory;
 import org.jboss.as.security.plugins.JNDIBasedSecurityManagement;
 import org.jboss.as.security.plugins.SecurityDomainContext;
+import org.jboss.as.security.plugins.TinyLFUAuthenticationCacheFactory;
 import org.jboss.msc.inject.Injector;
 import org.jboss.msc.service.Service;
 import org.jboss.msc.service.ServiceName;
@@ -40,6 +44,7 @@ import org.jboss.msc.service.StopContext;
 import org.jboss.msc.value.InjectedValue;
 import org.jboss.security.ISecurityManagement;
 import org.jboss.security.JSSESecurityDomain;
+import org.jboss.security.authentication.JBossCachedAuthenticationManager.DomainInfo;
 import org.jboss.security.config.ApplicationPolicy;
 import org.jboss.security.config.ApplicationPolicyRegistration;
 
@@ -68,12 +73,20 @@ public class SecurityDomainService implements Service<SecurityDomainContext> {
 
     private final String cacheType;
 
+    private final int cacheMaxSize;
+
+    private final long cacheLifespan;
+
+    private volatile ConcurrentMap<Principal, DomainInfo> authenticationCache;
+
     public SecurityDomainService(String name, ApplicationPolicy applicationPolicy, JSSESecurityDomain jsseSecurityDomain,
-            String cacheType) {
+            String cacheType, int cacheMaxSize, long cacheLifespan) {
         this.name = name;
         this.applicationPolicy = applicationPolicy;
         this.jsseSecurityDomain = jsseSecurityDomain;
         this.cacheType = cacheType;
+        this.cacheMaxSize = cacheMaxSize;
+        this.cacheLifespan = cacheLifespan;
     }
 
     /** {@inheritDoc} */
@@ -86,14 +99,15 @@ public class SecurityDomainService implements Service<SecurityDomainContext> {
             applicationPolicyRegistration.addApplicationPolicy(applicationPolicy.getName(), applicationPolicy);
         }
         final JNDIBasedSecurityManagement securityManagement = (JNDIBasedSecurityManagement) securityManagementValue.getValue();
-        AuthenticationCacheFactory cacheFactory = null;
-        if ("infinispan".equals(cacheType)) {
-            cacheFactory = new InfinispanAuthenticationCacheFactory(cacheManagerValue.getValue(), name);
-        } else if ("default".equals(cacheType)) {
-            cacheFactory = new DefaultAuthenticationCacheFactory();
-        }
+        final AuthenticationCacheFactory cacheFactory = createAuthenticationCacheFactory();
+        authenticationCache = null;
         try {
-            securityDomainContext = securityManagement.createSecurityDomainContext(name, cacheFactory);
+            securityDomainContext = securityManagement.createSecurityDomainContext(name, (cacheFactory != null) ? () -> {
+                // Only created if the authentication manager is cacheable, and retained so that its statistics can be exposed
+                final ConcurrentMap<Principal, DomainInfo> cache = cacheFactory.getCache();
+                authenticationCache = cache;
+                return cache;
+            } : null);
         } catch (Exception e) {
             throw SecurityLogger.ROOT_LOGGER.unableToStartException("SecurityDomainService", e);
         }
@@ -108,18 +122,39 @@ public class SecurityDomainService implements Service<SecurityDomainContext> {
         securityManagement.getSecurityManagerMap().put(name, securityDomainContext);
     }
 
+    private AuthenticationCacheFactory createAuthenticationCacheFactory() {
+        if ("infinispan".equals(cacheType)) {
+            return new InfinispanAuthenticationCacheFactory(cacheManagerValue.getValue(), name);
+        } else if ("default".equals(cacheType)) {
+            return new DefaultAuthenticationCacheFactory(cacheMaxSize);
+        } else if ("tinylfu".equals(cacheType)) {
+            return new TinyLFUAuthenticationCacheFactory(cacheMaxSize, cacheLifespan);
+        }
+        return null;
+    }
+
     /** {@inheritDoc} */
     @Override
     public void stop(StopContext context) {
         SecurityLogger.ROOT_LOGGER.debugf("Stopping security domain service %s", name);
         final JNDIBasedSecurityManagement securityManagement = (JNDIBasedSecurityManagement) securityManagementValue.getValue();
         securityManagement.removeSecurityDomain(name);
+        authenticationCache = null;
         // TODO clear auth cache?
         final ApplicationPolicyRegistration applicationPolicyRegistration = (ApplicationPolicyRegistration) configurationValue
                 .getValue();
         applicationPolicyRegistration.removeApplicationPolicy(name);
     }
 
+    /**
+     * Returns the authentication cache of this security domain, if any.
+     *
+     * @return an authentication cache, or null if this security domain does not cache authentications
+     */
+    public ConcurrentMap<Principal, DomainInfo> getAuthenticationCache() {
+        return authenticationCache;
+    }
+
     /** {@inheritDoc} */
     @Override
     public SecurityDomainContext getValue() throws IllegalStateException, IllegalArgumentException {
@@ -43,6 +43,7 @@ import org.jboss.as.controller.RunningMode;
 import org.jboss.as.controller.operations.common.Util;
 import org.jboss.as.controller.operations.global.ReadResourceHandler;
 import org.jboss.as.model.test.FailedOperationTransformationConfig;
+import org.jboss.as.model.test.FailedOperationTransformationConfig.AttributesPathAddressConfig;
 import org.jboss.as.model.test.FailedOperationTransformationConfig.ChainedConfig;
 import org.jboss.as.model.test.FailedOperationTransformationConfig.NewAttributesConfig;
 import org.jboss.as.model.test.FailedOperationTransformationConfig.RejectExpressionsConfig;
@@ -179,6 +180,11 @@ public class SecurityDomainModelv12UnitTestCase extends AbstractSubsystemBaseTes
         testRejectedTransformers_1_1_0(ModelTestControllerVersion.V7_1_3_FINAL);
     }
 
+    @Test
+    public void testRejectedTransformers720() throws Exception {
+        testRejectedTransformers_1_2_0(ModelTestControllerVersion.V7_2_0_FINAL);
+    }
+
     @Test
     public void testTransformers720() throws Exception {
         testTransformers_1_2_x(ModelTestControllerVersion.V7_2_0_FINAL, 0);
@@ -252,6 +258,25 @@ public class SecurityDomainModelv12UnitTestCase extends AbstractSubsystemBaseTes
 
     }
 
+    private void testRejectedTransformers_1_2_0(ModelTestControllerVersion controllerVersion) throws Exception {
+        ModelVersion modelVersion = ModelVersion.create(1, 2, 0);
+        KernelServicesBuilder builder = createKernelServicesBuilder(AdditionalInitialization.MANAGEMENT);
+
+        builder.createLegacyKernelServicesBuilder(null, controllerVersion, modelVersion)
+                .addMavenResourceURL("org.jboss.as:jboss-as-security:" + controllerVersion.getMavenGavVersion())
+                .dontPersistXml();
+
+        KernelServices mainServices = builder.build();
+        Assert.assertTrue(mainServices.isSuccessfulBoot());
+        Assert.assertTrue(mainServices.getLegacyServices(modelVersion).isSuccessfulBoot());
+        ModelTestUtils.checkFailedTransformedBootOperations(
+                mainServices,
+                modelVersion,
+                builder.parseXml(readResource("securitysubsystemv12.xml")),
+                getConfig_1_2_0()
+        );
+    }
+
     private void testResourceTransformers_1_1_0(ModelTestControllerVersion controllerVersion) throws Exception {
         ModelVersion modelVersion = ModelVersion.create(1, 1, 0);
         KernelServicesBuilder builder = createKernelServicesBuilder(AdditionalInitialization.MANAGEMENT)
@@ -719,9 +744,35 @@ public class SecurityDomainModelv12UnitTestCase extends AbstractSubsystemBaseTes
                     .addConfig(new NewAttributesConfig(Constants.MODULE))
                     .build());
 
+        addAuthenticationCacheConfig(config, subsystemAddress);
+
         return config;
     }
 
+    private FailedOperationTransformationConfig getConfig_1_2_0() {
+        PathAddress subsystemAddress = PathAddress.pathAddress(SecurityExtension.PATH_SUBSYSTEM);
+
+        FailedOperationTransformationConfig config = new FailedOperationTransformationConfig();
+
+        // the module attribute is not recognized in the 1.2.0 version of the subsystem.
+        PathAddress jaspiAuthenticationAuthModule = subsystemAddress.append(
+                PathElement.pathElement(Constants.SECURITY_DOMAIN, "jaspi-test"),SecurityExtension.PATH_JASPI_AUTH, PathElement.pathElement(Constants.AUTH_MODULE, "org.jboss.as.web.security.jaspi.modules.HTTPBasicServerAuthModule"));
+        config.addFailedAttribute(jaspiAuthenticationAuthModule, new NewAttributesConfig(Constants.MODULE));
+
+        addAuthenticationCacheConfig(config, subsystemAddress);
+
+        return config;
+    }
+
+    private static void addAuthenticationCacheConfig(FailedOperationTransformationConfig config, PathAddress subsystemAddress) {
+        // the tinylfu cache type and the cache size and lifespan are not recognized prior to the 1.3.0 version of the subsystem.
+        config.addFailedAttribute(subsystemAddress.append(PathElement.pathElement(Constants.SECURITY_DOMAIN, "tinylfu")),
+                ChainedConfig.createBuilder(Constants.CACHE_TYPE, Constants.CACHE_MAX_SIZE, Constants.CACHE_LIFESPAN)
+                    .addConfig(new CacheTypeConfig(Constants.CACHE_TYPE))
+                    .addConfig(new NewAttributesConfig(Constants.CACHE_MAX_SIZE, Constants.CACHE_LIFESPAN))
+                    .build());
+    }
+
     private ChainedConfig createCorrectModelRejectExpressionsConfig(KernelServices kernelServices, PathAddress address, String...attributes) {
         ChainedConfig.Builder builder = ChainedConfig.createBuilder(attributes);
         for (String attr : attributes) {
@@ -730,6 +781,27 @@ public class SecurityDomainModelv12UnitTestCase extends AbstractSubsystemBaseTes
         return builder.build();
     }
 
+    private static class CacheTypeConfig extends AttributesPathAddressConfig<CacheTypeConfig> {
+        public CacheTypeConfig(String... attributes) {
+            super(attributes);
+        }
+
+        @Override
+        protected boolean isAttributeWritable(String attributeName) {
+            return true;
+        }
+
+        @Override
+        protected boolean checkValue(String attrName, ModelNode attribute, boolean isWriteAttribute) {
+            return attribute.equals(new ModelNode("tinylfu"));
+        }
+
+        @Override
+        protected ModelNode correctValue(ModelNode toResolve, boolean isWriteAttribute) {
+            return new ModelNode("default");
+        }
+    }
+
     private class CorrectModelConfig extends RejectExpressionsConfig {
         private final KernelServices mainServices;
         private final PathAddress address;
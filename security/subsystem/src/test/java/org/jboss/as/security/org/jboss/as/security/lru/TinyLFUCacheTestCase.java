@@ -0,0 +1,109 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2015 Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package org.jboss.as.security.org.jboss.as.security.lru;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Test;
+
+/**
+ * Unit test for {@link TinyLFUCache}.
+ */
+public class TinyLFUCacheTestCase {
+
+    @Test
+    public void testFrequentEntriesSurviveBurst() {
+        int maxEntries = 100;
+        int hotEntries = maxEntries / 2;
+        TinyLFUCache<Integer, Integer> cache = new TinyLFUCache<>(maxEntries);
+        for (int i = 0; i < hotEntries; ++i) {
+            cache.put(i, i);
+        }
+        // A burst of keys used only once, while the popular keys remain in use
+        for (int i = 0; i < maxEntries * 100; ++i) {
+            int hot = i % hotEntries;
+            if (cache.get(hot) == null) {
+                cache.put(hot, hot);
+            }
+            cache.put(maxEntries + i, i);
+        }
+        for (int i = 0; i < hotEntries; ++i) {
+            assertEquals(Integer.valueOf(i), cache.get(i));
+        }
+        assertTrue(cache.size() <= maxEntries);
+    }
+
+    @Test
+    public void testRemoveCallback() {
+        final Map<String, String> removed = new HashMap<>();
+        TinyLFUCache<String, String> cache = new TinyLFUCache<>(1, 0, TimeUnit.MILLISECONDS, new RemoveCallback<String, String>() {
+            @Override
+            public void afterRemove(String key, String value) {
+                removed.put(key, value);
+            }
+        });
+        cache.put("a", "1");
+        assertEquals("1", cache.remove("a"));
+        assertEquals("1", removed.get("a"));
+
+        cache.put("b", "2");
+        cache.put("c", "3");
+        assertEquals(1, cache.size());
+        assertEquals(1, cache.getEvictionCount());
+        // Either entry may be evicted, depending on their estimated frequencies
+        assertEquals(2, removed.size());
+
+        cache.clear();
+        assertTrue(cache.isEmpty());
+        assertEquals(3, removed.size());
+    }
+
+    @Test
+    public void testLifespan() throws InterruptedException {
+        TinyLFUCache<String, String> cache = new TinyLFUCache<>(10, 10, TimeUnit.MILLISECONDS, null);
+        cache.put("a", "1");
+        assertEquals("1", cache.get("a"));
+        assertTrue(cache.containsKey("a"));
+        Thread.sleep(20);
+        assertFalse(cache.containsKey("a"));
+        assertFalse(cache.keySet().contains("a"));
+        assertNull(cache.get("a"));
+        assertEquals(0, cache.size());
+        assertEquals(1, cache.getEvictionCount());
+    }
+
+    @Test
+    public void testStatistics() {
+        TinyLFUCache<String, String> cache = new TinyLFUCache<>(10);
+        assertNull(cache.get("a"));
+        cache.put("a", "1");
+        assertEquals("1", cache.get("a"));
+        assertEquals("1", cache.get("a"));
+        assertEquals(2, cache.getHitCount());
+        assertEquals(1, cache.getMissCount());
+        assertEquals(0, cache.getEvictionCount());
+    }
+}
@@ -123,6 +123,7 @@ public interface Constants {
     String ALLOW_NON_STANDARD_WRAPPERS = "allow-non-standard-wrappers";
 
     String PERSISTENT_SESSIONS = "persistent-sessions";
+    String INDEXED = "indexed";
     String DEFAULT_BUFFER_CACHE = "default-buffer-cache";
 
     String RELATIVE_TO = "relative-to";
@@ -216,4 +217,6 @@ public interface Constants {
     String EXTENDED = "extended";
     String MAX_BUFFERED_REQUEST_SIZE = "max-buffered-request-size";
     String MAX_SESSIONS = "max-sessions";
+    String SESSION_ATTRIBUTE_CHANGE_DETECTION = "session-attribute-change-detection";
+    String SESSION_DELTA_REPLICATION = "session-delta-replication";
 }
@@ -31,12 +31,14 @@ import org.jboss.as.controller.SimpleAttributeDefinition;
 import org.jboss.as.controller.SimpleAttributeDefinitionBuilder;
 import org.jboss.as.controller.SimpleListAttributeDefinition;
 import org.jboss.as.controller.SimpleResourceDefinition;
+import org.jboss.as.controller.client.helpers.MeasurementUnit;
 import org.jboss.as.controller.descriptions.ModelDescriptionConstants;
 import org.jboss.as.controller.registry.ManagementResourceRegistration;
 import org.jboss.as.controller.registry.Resource;
 import org.jboss.dmr.ModelNode;
 import org.jboss.dmr.ModelType;
 import org.jboss.msc.service.ServiceController;
+import org.wildfly.extension.undertow.deployment.ServletMetrics;
 import org.wildfly.extension.undertow.deployment.UndertowDeploymentService;
 import org.wildfly.extension.undertow.deployment.UndertowMetricsCollector;
 
@@ -57,12 +59,26 @@ public class DeploymentServletDefinition extends SimpleResourceDefinition {
     static final SimpleAttributeDefinition MIN_REQUEST_TIME = new SimpleAttributeDefinitionBuilder("min-request-time", ModelType.LONG, true).setStorageRuntime().build();
     static final SimpleAttributeDefinition TOTAL_REQUEST_TIME = new SimpleAttributeDefinitionBuilder("total-request-time", ModelType.LONG, true).setStorageRuntime().build();
     static final SimpleAttributeDefinition REQUEST_COUNT = new SimpleAttributeDefinitionBuilder("request-count", ModelType.LONG, true).setStorageRuntime().build();
+    static final SimpleAttributeDefinition ACTIVE_REQUESTS = new SimpleAttributeDefinitionBuilder("active-requests", ModelType.LONG, true).setStorageRuntime().build();
+    private static final double[] PERCENTILES = { 50, 95, 99, 99.9 };
+    private static final String[] PERCENTILE_SUFFIXES = { "p50", "p95", "p99", "p999" };
+    static final SimpleAttributeDefinition[] REQUEST_TIME_PERCENTILES = percentiles("request-time", MeasurementUnit.MICROSECONDS);
+    static final SimpleAttributeDefinition[] REQUEST_SIZE_PERCENTILES = percentiles("request-size", MeasurementUnit.BYTES);
+    static final SimpleAttributeDefinition[] RESPONSE_SIZE_PERCENTILES = percentiles("response-size", MeasurementUnit.BYTES);
     static final SimpleListAttributeDefinition SERVLET_MAPPINGS = new SimpleListAttributeDefinition.Builder("mappings", new SimpleAttributeDefinitionBuilder("mapping", ModelType.STRING).setAllowNull(true).build())
             .setAllowNull(true)
             .setStorageRuntime()
             .build();
 
 
+    private static SimpleAttributeDefinition[] percentiles(String name, MeasurementUnit unit) {
+        SimpleAttributeDefinition[] attributes = new SimpleAttributeDefinition[PERCENTILE_SUFFIXES.length];
+        for (int i = 0; i < attributes.length; ++i) {
+            attributes[i] = new SimpleAttributeDefinitionBuilder(name + "-" + PERCENTILE_SUFFIXES[i], ModelType.LONG, true).setMeasurementUnit(unit).setStorageRuntime().build();
+        }
+        return attributes;
+    }
+
     private DeploymentServletDefinition() {
         super(PathElement.pathElement("servlet"),
                 UndertowExtension.getResolver("deployment.servlet"));
@@ -96,6 +112,33 @@ public class DeploymentServletDefinition extends SimpleResourceDefinition {
                 response.set(metricResult.getTotalRequests());
             }
         });
+        registration.registerMetric(ACTIVE_REQUESTS, new AbstractServletMetricsHandler() {
+            @Override
+            void handle(final ModelNode response, final ServletMetrics metrics) {
+                response.set(metrics.getActiveRequests());
+            }
+        });
+        for (int i = 0; i < PERCENTILES.length; ++i) {
+            final double percentile = PERCENTILES[i];
+            registration.registerMetric(REQUEST_TIME_PERCENTILES[i], new AbstractServletMetricsHandler() {
+                @Override
+                void handle(final ModelNode response, final ServletMetrics metrics) {
+                    response.set(metrics.getRequestTime(percentile));
+                }
+            });
+            registration.registerMetric(REQUEST_SIZE_PERCENTILES[i], new AbstractServletMetricsHandler() {
+                @Override
+                void handle(final ModelNode response, final ServletMetrics metrics) {
+                    response.set(metrics.getRequestSize(percentile));
+                }
+            });
+            registration.registerMetric(RESPONSE_SIZE_PERCENTILES[i], new AbstractServletMetricsHandler() {
+                @Override
+                void handle(final ModelNode response, final ServletMetrics metrics) {
+                    response.set(metrics.getResponseSize(percentile));
+                }
+            });
+        }
         registration.registerMetric(SERVLET_MAPPINGS, new AbstractMetricsHandler() {
             @Override
             void handle(final ModelNode response, final String name, final MetricsHandler.MetricResult metricResult, final ServletInfo servlet) {
@@ -110,6 +153,15 @@ public class DeploymentServletDefinition extends SimpleResourceDefinition {
 
         abstract void handle(ModelNode response, String name, MetricsHandler.MetricResult metricResult, ServletInfo infos);
 
+        void handle(ModelNode response, String name, UndertowMetricsCollector collector, ServletInfo servlet) {
+            MetricsHandler.MetricResult result = collector != null ? collector.getMetrics(name) : null;
+            if (result == null) {
+                response.set(0);
+            } else {
+                handle(response, name, result, servlet);
+            }
+        }
+
         @Override
         public void execute(final OperationContext context, final ModelNode operation) throws OperationFailedException {
             final PathAddress address = PathAddress.pathAddress(operation.get(ModelDescriptionConstants.OP_ADDR));
@@ -133,12 +185,7 @@ public class DeploymentServletDefinition extends SimpleResourceDefinition {
                         final String name = address.getLastElement().getValue();
                         final ServletInfo servlet = deploymentInfo.getServlets().get(name);
                         final ModelNode response = new ModelNode();
-                        MetricsHandler.MetricResult result = collector != null ? collector.getMetrics(name) : null;
-                        if (result == null) {
-                            response.set(0);
-                        } else {
-                            handle(response, name, result, servlet);
-                        }
+                        handle(response, name, collector, servlet);
                         context.getResult().set(response);
                     }
                     context.stepCompleted();
@@ -148,4 +195,23 @@ public class DeploymentServletDefinition extends SimpleResourceDefinition {
         }
     }
 
+    abstract static class AbstractServletMetricsHandler extends AbstractMetricsHandler {
+
+        abstract void handle(ModelNode response, ServletMetrics metrics);
+
+        @Override
+        void handle(final ModelNode response, final String name, final MetricsHandler.MetricResult metricResult, final ServletInfo servlet) {
+            // Not used, distributions are read from the servlet metrics
+        }
+
+        @Override
+        void handle(ModelNode response, String name, UndertowMetricsCollector collector, ServletInfo servlet) {
+            ServletMetrics metrics = collector != null ? collector.getServletMetrics(name) : null;
+            if (metrics == null) {
+                response.set(0);
+            } else {
+                handle(response, metrics);
+            }
+        }
+    }
 }
@@ -131,4 +131,8 @@ public class DiskBasedModularPersistentSessionManager extends AbstractPersistent
     public InjectedValue<PathManager> getPathManager() {
         return pathManager;
     }
+
+    protected File getBaseDir() {
+        return baseDir;
+    }
 }
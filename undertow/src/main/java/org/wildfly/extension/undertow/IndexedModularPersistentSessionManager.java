@@ -0,0 +1,363 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2015, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.wildfly.extension.undertow;
+
+import io.undertow.servlet.UndertowServletLogger;
+import org.jboss.marshalling.ByteBufferInput;
+import org.jboss.marshalling.Marshaller;
+import org.jboss.marshalling.OutputStreamByteOutput;
+import org.jboss.marshalling.Unmarshaller;
+import org.jboss.msc.service.StopContext;
+import org.wildfly.extension.undertow.logging.UndertowLogger;
+import org.xnio.IoUtils;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.AbstractMap;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Persistent session manager that stores each session of a deployment as a separate record of an indexed file.
+ * <p/>
+ * When a deployment starts, only the index of its file is read. The attributes of a session are unmarshalled when
+ * the session is first accessed, so the cost of a redeploy no longer depends on the size of the sessions that are
+ * never used again. When a deployment stops, the sessions that were restored are marshalled again, while the records
+ * of the sessions that were never accessed are copied as is.
+ * <p/>
+ * The file consists of a header, the session records, the index of the records and a trailer locating the index.
+ */
+public class IndexedModularPersistentSessionManager extends DiskBasedModularPersistentSessionManager {
+
+    private static final String SUFFIX = ".sessions";
+    private static final int MAGIC = 0x57465353;
+    private static final int VERSION = 1;
+    private static final int HEADER_SIZE = 8;
+    private static final int TRAILER_SIZE = 16;
+
+    private final ConcurrentMap<String, Segment> segments = new ConcurrentHashMap<>();
+
+    public IndexedModularPersistentSessionManager(String path, String pathRelativeTo) {
+        super(path, pathRelativeTo);
+    }
+
+    @Override
+    public synchronized void stop(StopContext stopContext) {
+        for (Segment segment : segments.values()) {
+            segment.close();
+        }
+        segments.clear();
+        super.stop(stopContext);
+    }
+
+    @Override
+    public void persistSessions(String deploymentName, Map<String, PersistentSession> sessionData) {
+        final File file = new File(getBaseDir(), deploymentName + SUFFIX);
+        final File temp = new File(getBaseDir(), deploymentName + SUFFIX + ".tmp");
+        final Segment previous = segments.remove(deploymentName);
+        try {
+            try {
+                final SegmentWriter writer = new SegmentWriter(temp);
+                try {
+                    final Marshaller marshaller = createMarshaller();
+                    try {
+                        final ByteArrayOutputStream record = new ByteArrayOutputStream();
+                        final ByteArrayOutputStream attribute = new ByteArrayOutputStream();
+                        for (Map.Entry<String, PersistentSession> sessionEntry : sessionData.entrySet()) {
+                            record.reset();
+                            writeSession(marshaller, sessionEntry.getKey(), sessionEntry.getValue().getSessionData(), new DataOutputStream(record), attribute);
+                            writer.write(sessionEntry.getKey(), sessionEntry.getValue().getExpiration(), record.toByteArray());
+                        }
+                    } finally {
+                        marshaller.close();
+                    }
+                    if (previous != null) {
+                        // Carry over the sessions that did not expire and were never accessed, without unmarshalling them
+                        final long time = System.currentTimeMillis();
+                        for (Record record : previous.records.values()) {
+                            if (!record.restored && (record.expiry.getTime() > time) && !sessionData.containsKey(record.id)) {
+                                writer.write(record.id, record.expiry, previous.read(record).array());
+                            }
+                        }
+                    }
+                } finally {
+                    writer.close();
+                }
+            } finally {
+                if (previous != null) {
+                    previous.close();
+                }
+            }
+            Files.move(temp.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING);
+            // Sessions persisted by the disk based manager are now stale
+            Files.deleteIfExists(new File(getBaseDir(), deploymentName).toPath());
+        } catch (Exception e) {
+            UndertowServletLogger.ROOT_LOGGER.failedToPersistSessions(e);
+            temp.delete();
+        }
+    }
+
+    @Override
+    public Map<String, PersistentSession> loadSessionAttributes(String deploymentName, final ClassLoader classLoader) {
+        final File file = new File(getBaseDir(), deploymentName + SUFFIX);
+        if (!file.exists()) {
+            // Restore any sessions persisted by the disk based manager
+            return super.loadSessionAttributes(deploymentName, classLoader);
+        }
+        try {
+            final Segment segment = new Segment(file);
+            final Segment previous = segments.put(deploymentName, segment);
+            if (previous != null) {
+                previous.close();
+            }
+            final long time = System.currentTimeMillis();
+            final Map<String, PersistentSession> ret = new HashMap<String, PersistentSession>();
+            for (Record record : segment.records.values()) {
+                if (record.expiry.getTime() > time) {
+                    ret.put(record.id, new PersistentSession(record.expiry, new LazySessionData(segment, record)));
+                }
+            }
+            return ret;
+        } catch (Exception e) {
+            UndertowServletLogger.ROOT_LOGGER.failedtoLoadPersistentSessions(e);
+        }
+        return null;
+    }
+
+    private static void writeSession(Marshaller marshaller, String sessionId, Map<String, Object> sessionData, DataOutputStream out, ByteArrayOutputStream attribute) throws IOException {
+        final List<String> names = new ArrayList<String>(sessionData.size());
+        final List<byte[]> values = new ArrayList<byte[]>(sessionData.size());
+        for (Map.Entry<String, Object> sessionAttribute : sessionData.entrySet()) {
+            try {
+                attribute.reset();
+                marshaller.start(new OutputStreamByteOutput(attribute));
+                marshaller.writeObject(sessionAttribute.getValue());
+                marshaller.finish();
+                names.add(sessionAttribute.getKey());
+                values.add(attribute.toByteArray());
+            } catch (Exception e) {
+                UndertowLogger.ROOT_LOGGER.failedToPersistSessionAttribute(sessionAttribute.getKey(), sessionAttribute.getValue(), sessionId, e);
+            }
+        }
+        out.writeInt(names.size());
+        for (int i = 0; i < names.size(); ++i) {
+            final byte[] name = names.get(i).getBytes(StandardCharsets.UTF_8);
+            out.writeInt(name.length);
+            out.write(name);
+            out.writeInt(values.get(i).length);
+            out.write(values.get(i));
+        }
+        out.flush();
+    }
+
+    private Map<String, Object> readSession(Segment segment, Record record) {
+        final Map<String, Object> session = new HashMap<String, Object>();
+        try {
+            final ByteBuffer buffer = segment.read(record);
+            final Unmarshaller unmarshaller = createUnmarshaller();
+            try {
+                final int count = buffer.getInt();
+                for (int i = 0; i < count; ++i) {
+                    final byte[] name = new byte[buffer.getInt()];
+                    buffer.get(name);
+                    final int length = buffer.getInt();
+                    final ByteBuffer value = buffer.slice();
+                    value.limit(length);
+                    buffer.position(buffer.position() + length);
+                    unmarshaller.start(new ByteBufferInput(value));
+                    session.put(new String(name, StandardCharsets.UTF_8), unmarshaller.readObject());
+                    unmarshaller.finish();
+                }
+            } finally {
+                unmarshaller.close();
+            }
+        } catch (Exception e) {
+            UndertowLogger.ROOT_LOGGER.failedToRestorePersistentSession(record.id, e);
+        }
+        return session;
+    }
+
+    /**
+     * Session data that is only read from its record once it is first accessed.
+     */
+    private class LazySessionData extends AbstractMap<String, Object> {
+        private final Segment segment;
+        private final Record record;
+        private volatile Map<String, Object> data;
+
+        LazySessionData(Segment segment, Record record) {
+            this.segment = segment;
+            this.record = record;
+        }
+
+        @Override
+        public Set<Entry<String, Object>> entrySet() {
+            Map<String, Object> data = this.data;
+            if (data == null) {
+                synchronized (this) {
+                    data = this.data;
+                    if (data == null) {
+                        data = Collections.unmodifiableMap(readSession(segment, record));
+                        // Once restored, the session is persisted again by the next call to persistSessions, if it still exists
+                        record.restored = true;
+                        this.data = data;
+                    }
+                }
+            }
+            return data.entrySet();
+        }
+    }
+
+    /**
+     * The location of a session within a persistent sessions file.
+     */
+    private static final class Record {
+        final String id;
+        final Date expiry;
+        final long offset;
+        final int length;
+        volatile boolean restored;
+
+        Record(String id, Date expiry, long offset, int length) {
+            this.id = id;
+            this.expiry = expiry;
+            this.offset = offset;
+            this.length = length;
+        }
+    }
+
+    /**
+     * A persistent sessions file opened for reading, along with its index.
+     */
+    private static final class Segment {
+        final FileChannel channel;
+        final Map<String, Record> records;
+
+        Segment(File file) throws IOException {
+            channel = FileChannel.open(file.toPath(), StandardOpenOption.READ);
+            try {
+                final long size = channel.size();
+                if (size < HEADER_SIZE + TRAILER_SIZE) {
+                    throw UndertowLogger.ROOT_LOGGER.corruptPersistentSessionsFile(file);
+                }
+                final ByteBuffer trailer = read(size - TRAILER_SIZE, TRAILER_SIZE);
+                final long indexOffset = trailer.getLong();
+                final int version = trailer.getInt();
+                if ((trailer.getInt() != MAGIC) || (version != VERSION) || (indexOffset < HEADER_SIZE) || (indexOffset > size - TRAILER_SIZE)) {
+                    throw UndertowLogger.ROOT_LOGGER.corruptPersistentSessionsFile(file);
+                }
+                final ByteBuffer index = read(indexOffset, (int) (size - TRAILER_SIZE - indexOffset));
+                final int count = index.getInt();
+                records = new HashMap<String, Record>(count * 4 / 3 + 1);
+                for (int i = 0; i < count; ++i) {
+                    final byte[] id = new byte[index.getInt()];
+                    index.get(id);
+                    final Record record = new Record(new String(id, StandardCharsets.UTF_8), new Date(index.getLong()), index.getLong(), index.getInt());
+                    records.put(record.id, record);
+                }
+            } catch (IOException | RuntimeException e) {
+                IoUtils.safeClose(channel);
+                throw e;
+            }
+        }
+
+        ByteBuffer read(Record record) throws IOException {
+            return read(record.offset, record.length);
+        }
+
+        private ByteBuffer read(long offset, int length) throws IOException {
+            final ByteBuffer buffer = ByteBuffer.allocate(length);
+            while (buffer.hasRemaining()) {
+                if (channel.read(buffer, offset + buffer.position()) < 0) {
+                    throw new EOFException();
+                }
+            }
+            buffer.flip();
+            return buffer;
+        }
+
+        void close() {
+            IoUtils.safeClose(channel);
+        }
+    }
+
+    /**
+     * Writes the records of a persistent sessions file, followed by their index.
+     */
+    private static final class SegmentWriter {
+        private final DataOutputStream out;
+        private final ByteArrayOutputStream index = new ByteArrayOutputStream();
+        private final DataOutputStream indexOut = new DataOutputStream(index);
+        private long position;
+        private int count;
+
+        SegmentWriter(File file) throws IOException {
+            out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(file, false)));
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            position = HEADER_SIZE;
+        }
+
+        void write(String id, Date expiry, byte[] record) throws IOException {
+            out.write(record);
+            final byte[] name = id.getBytes(StandardCharsets.UTF_8);
+            indexOut.writeInt(name.length);
+            indexOut.write(name);
+            indexOut.writeLong(expiry.getTime());
+            indexOut.writeLong(position);
+            indexOut.writeInt(record.length);
+            position += record.length;
+            count += 1;
+        }
+
+        void close() throws IOException {
+            try {
+                out.writeInt(count);
+                index.writeTo(out);
+                out.writeLong(position);
+                out.writeInt(VERSION);
+                out.writeInt(MAGIC);
+                out.flush();
+            } finally {
+                IoUtils.safeClose(out);
+            }
+        }
+    }
+}
@@ -68,9 +68,17 @@ class PersistentSessionsDefinition extends PersistentResourceDefinition {
                     .setAllowExpression(true)
                     .build();
 
+    protected static final SimpleAttributeDefinition INDEXED =
+            new SimpleAttributeDefinitionBuilder(Constants.INDEXED, ModelType.BOOLEAN, true)
+                    .setFlags(AttributeAccess.Flag.RESTART_ALL_SERVICES)
+                    .setAllowExpression(true)
+                    .setDefaultValue(new ModelNode(false))
+                    .build();
+
     protected static final SimpleAttributeDefinition[] ATTRIBUTES = {
             PATH,
-            RELATIVE_TO
+            RELATIVE_TO,
+            INDEXED
     };
     static final Map<String, AttributeDefinition> ATTRIBUTES_MAP = new HashMap<>();
 
@@ -131,7 +139,8 @@ class PersistentSessionsDefinition extends PersistentResourceDefinition {
                     String path = pathValue.asString();
                     ModelNode relativeToValue = RELATIVE_TO.resolveModelAttribute(context, model);
                     String relativeTo = relativeToValue.isDefined() ? relativeToValue.asString() : null;
-                    final DiskBasedModularPersistentSessionManager service = new DiskBasedModularPersistentSessionManager(path, relativeTo);
+                    final boolean indexed = INDEXED.resolveModelAttribute(context, model).asBoolean();
+                    final DiskBasedModularPersistentSessionManager service = indexed ? new IndexedModularPersistentSessionManager(path, relativeTo) : new DiskBasedModularPersistentSessionManager(path, relativeTo);
                     builder = context.getServiceTarget().addService(AbstractPersistentSessionManager.SERVICE_NAME, service)
                             .addDependency(Services.JBOSS_SERVICE_MODULE_LOADER, ModuleLoader.class, service.getModuleLoaderInjectedValue())
                             .addDependency(PathManagerService.SERVICE_NAME, PathManager.class, service.getPathManager());
@@ -96,6 +96,8 @@ final class ServletContainerAdd extends AbstractBoottimeAddStepHandler {
         }
 
         final int sessionTimeout = ServletContainerDefinition.DEFAULT_SESSION_TIMEOUT.resolveModelAttribute(context, model).asInt();
+        final boolean sessionAttributeChangeDetection = ServletContainerDefinition.SESSION_ATTRIBUTE_CHANGE_DETECTION.resolveModelAttribute(context, model).asBoolean();
+        final boolean sessionDeltaReplication = ServletContainerDefinition.SESSION_DELTA_REPLICATION.resolveModelAttribute(context, model).asBoolean();
 
         WebsocketsDefinition.WebSocketInfo info = WebsocketsDefinition.INSTANCE.getConfig(context, model);
 
@@ -130,7 +132,8 @@ final class ServletContainerAdd extends AbstractBoottimeAddStepHandler {
                 sessionTimeout,
                 disableCachingForSecuredPages, info != null, info != null && info.isDispatchToWorker(),
                 mimeMappings,
-                welcomeFiles, directoryListingEnabled, proactiveAuth, sessionIdLength, authenticationMechanisms, maxSessions);
+                welcomeFiles, directoryListingEnabled, proactiveAuth, sessionIdLength, authenticationMechanisms, maxSessions,
+                sessionAttributeChangeDetection, sessionDeltaReplication);
 
         final ServiceTarget target = context.getServiceTarget();
         final ServiceBuilder<ServletContainerService> builder = target.addService(UndertowService.SERVLET_CONTAINER.append(name), container);
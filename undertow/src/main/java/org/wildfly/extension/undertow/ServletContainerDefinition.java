@@ -139,6 +139,20 @@ class ServletContainerDefinition extends PersistentResourceDefinition {
                     .setAllowExpression(true)
                     .build();
 
+    protected static final AttributeDefinition SESSION_ATTRIBUTE_CHANGE_DETECTION =
+            new SimpleAttributeDefinitionBuilder(Constants.SESSION_ATTRIBUTE_CHANGE_DETECTION, ModelType.BOOLEAN, true)
+                    .setFlags(AttributeAccess.Flag.RESTART_ALL_SERVICES)
+                    .setAllowExpression(true)
+                    .setDefaultValue(new ModelNode(false))
+                    .build();
+
+    protected static final AttributeDefinition SESSION_DELTA_REPLICATION =
+            new SimpleAttributeDefinitionBuilder(Constants.SESSION_DELTA_REPLICATION, ModelType.BOOLEAN, true)
+                    .setFlags(AttributeAccess.Flag.RESTART_ALL_SERVICES)
+                    .setAllowExpression(true)
+                    .setDefaultValue(new ModelNode(false))
+                    .build();
+
     private static final List<? extends PersistentResourceDefinition> CHILDREN;
     static final Collection<AttributeDefinition> ATTRIBUTES = Arrays.asList(
             ALLOW_NON_STANDARD_WRAPPERS,
@@ -153,7 +167,9 @@ class ServletContainerDefinition extends PersistentResourceDefinition {
             DIRECTORY_LISTING,
             PROACTIVE_AUTHENTICATION,
             SESSION_ID_LENGTH,
-            MAX_SESSIONS
+            MAX_SESSIONS,
+            SESSION_ATTRIBUTE_CHANGE_DETECTION,
+            SESSION_DELTA_REPLICATION
             );
 
     static final ServletContainerDefinition INSTANCE = new ServletContainerDefinition();
@@ -130,6 +130,8 @@ public class UndertowSubsystemParser_3_0 extends PersistentResourceXMLParser {
                                 .addAttribute(ServletContainerDefinition.PROACTIVE_AUTHENTICATION)
                                 .addAttribute(ServletContainerDefinition.SESSION_ID_LENGTH)
                                 .addAttribute(ServletContainerDefinition.MAX_SESSIONS)
+                                .addAttribute(ServletContainerDefinition.SESSION_ATTRIBUTE_CHANGE_DETECTION)
+                                .addAttribute(ServletContainerDefinition.SESSION_DELTA_REPLICATION)
                                 .addChild(
                                         builder(JspDefinition.INSTANCE)
                                                 .setXmlElementName(Constants.JSP_CONFIG)
@@ -170,7 +172,8 @@ public class UndertowSubsystemParser_3_0 extends PersistentResourceXMLParser {
                                         builder(PersistentSessionsDefinition.INSTANCE)
                                                 .addAttributes(
                                                         PersistentSessionsDefinition.PATH,
-                                                        PersistentSessionsDefinition.RELATIVE_TO
+                                                        PersistentSessionsDefinition.RELATIVE_TO,
+                                                        PersistentSessionsDefinition.INDEXED
                                                 )
                                 )
                                 .addChild(
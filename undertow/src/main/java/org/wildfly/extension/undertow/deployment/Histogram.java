@@ -0,0 +1,102 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2015, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.wildfly.extension.undertow.deployment;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A lock-free histogram of non-negative values, whose buckets are laid out log-linearly, as those of an HDR histogram.
+ * Each power of 2 range of values is split into {@value #SUB_BUCKETS} sub-buckets, so that a percentile is reported
+ * within about 6% of the recorded value, while the number of buckets only grows with the logarithm of the highest
+ * trackable value. Recording a value neither allocates nor locks.
+ */
+final class Histogram {
+
+    private static final int SUB_BUCKET_BITS = 4;
+    static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+
+    private final long highestTrackableValue;
+    private final AtomicLongArray buckets;
+    private final LongAdder count = new LongAdder();
+
+    /**
+     * Creates a histogram of values up to the specified value. Higher values are recorded as the highest trackable value.
+     * @param highestTrackableValue the highest value that can be distinguished
+     */
+    Histogram(long highestTrackableValue) {
+        this.highestTrackableValue = highestTrackableValue;
+        this.buckets = new AtomicLongArray(bucket(highestTrackableValue) + 1);
+    }
+
+    void record(long value) {
+        if (value < 0) return;
+        this.buckets.incrementAndGet(bucket(Math.min(value, this.highestTrackableValue)));
+        this.count.increment();
+    }
+
+    long getCount() {
+        return this.count.sum();
+    }
+
+    /**
+     * Returns an upper bound of the specified percentile of the recorded values.
+     * @param percentile a percentile between 0 and 100
+     * @return a value, or 0 if no value was recorded
+     */
+    long getValueAtPercentile(double percentile) {
+        long total = 0;
+        int length = this.buckets.length();
+        long[] counts = new long[length];
+        for (int i = 0; i < length; ++i) {
+            counts[i] = this.buckets.get(i);
+            total += counts[i];
+        }
+        if (total == 0) return 0;
+        long target = Math.max(1, (long) Math.ceil(Math.min(percentile, 100d) * total / 100d));
+        long cumulative = 0;
+        for (int i = 0; i < length; ++i) {
+            cumulative += counts[i];
+            if (cumulative >= target) {
+                return Math.min(highestValue(i), this.highestTrackableValue);
+            }
+        }
+        return this.highestTrackableValue;
+    }
+
+    static int bucket(long value) {
+        if (value < SUB_BUCKETS) {
+            return (int) value;
+        }
+        int exponent = 63 - Long.numberOfLeadingZeros(value) - SUB_BUCKET_BITS;
+        return (exponent * SUB_BUCKETS) + (int) (value >>> exponent);
+    }
+
+    static long highestValue(int bucket) {
+        if (bucket < SUB_BUCKETS) {
+            return bucket;
+        }
+        int exponent = (bucket - SUB_BUCKETS) / SUB_BUCKETS;
+        int subBucket = (bucket - SUB_BUCKETS) % SUB_BUCKETS;
+        return ((long) (SUB_BUCKETS + subBucket + 1) << exponent) - 1;
+    }
+}
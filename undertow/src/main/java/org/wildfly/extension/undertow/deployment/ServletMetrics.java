@@ -0,0 +1,88 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2015, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.wildfly.extension.undertow.deployment;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Distributions of the processing time, request size and response size of the requests to a servlet, along with the
+ * number of requests it is currently processing.
+ */
+public class ServletMetrics {
+
+    private static final long HIGHEST_TRACKABLE_REQUEST_TIME = TimeUnit.HOURS.toMicros(1);
+    private static final long HIGHEST_TRACKABLE_SIZE = 1L << 36;
+
+    private final LongAdder activeRequests = new LongAdder();
+    private final Histogram requestTime = new Histogram(HIGHEST_TRACKABLE_REQUEST_TIME);
+    private final Histogram requestSize = new Histogram(HIGHEST_TRACKABLE_SIZE);
+    private final Histogram responseSize = new Histogram(HIGHEST_TRACKABLE_SIZE);
+
+    /**
+     * Records the start of a request.
+     * @param requestSize the content length of the request, or -1 if unknown
+     */
+    void requestStarted(long requestSize) {
+        this.activeRequests.increment();
+        this.requestSize.record(requestSize);
+    }
+
+    /**
+     * Records the completion of a request.
+     * @param nanos the processing time of the request, in nanoseconds
+     * @param responseSize the number of bytes sent in response
+     */
+    void requestCompleted(long nanos, long responseSize) {
+        this.activeRequests.decrement();
+        this.requestTime.record(TimeUnit.NANOSECONDS.toMicros(nanos));
+        this.responseSize.record(responseSize);
+    }
+
+    public long getActiveRequests() {
+        return this.activeRequests.sum();
+    }
+
+    /**
+     * @param percentile a percentile between 0 and 100
+     * @return the specified percentile of the processing time of the requests, in microseconds
+     */
+    public long getRequestTime(double percentile) {
+        return this.requestTime.getValueAtPercentile(percentile);
+    }
+
+    /**
+     * @param percentile a percentile between 0 and 100
+     * @return the specified percentile of the content length of the requests, in bytes
+     */
+    public long getRequestSize(double percentile) {
+        return this.requestSize.getValueAtPercentile(percentile);
+    }
+
+    /**
+     * @param percentile a percentile between 0 and 100
+     * @return the specified percentile of the size of the responses, in bytes
+     */
+    public long getResponseSize(double percentile) {
+        return this.responseSize.getValueAtPercentile(percentile);
+    }
+}
@@ -24,7 +24,12 @@ package org.wildfly.extension.undertow.deployment;
 import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 
 import io.undertow.server.handlers.resource.FileResourceManager;
 import io.undertow.server.handlers.resource.Resource;
@@ -34,14 +39,41 @@ import org.jboss.vfs.VirtualFile;
 
 /**
  * Resource manager that deals with overlays
+ * <p/>
+ * The lookups of a packaged deployment are cached by normalized path, so that repeated requests for the same path do
+ * not query the file system again. The contents of a packaged deployment and of its overlays cannot change while it is
+ * deployed, so lookups are cached for the lifetime of the deployment. Resources that were found and paths that were
+ * not are bounded separately, so that requests for arbitrary missing paths only ever evict other missing paths.
+ * <p/>
+ * The contents of an exploded deployment may change at any time, so its lookups are not cached. This also avoids
+ * watching the deployment for changes, and serving a stale miss for a file added since.
  *
  * @author Stuart Douglas
  */
 public class ServletResourceManager implements ResourceManager {
 
+    /**
+     * Bounds the number of cached resources, in case a deployment contains more resources than are worth caching.
+     */
+    static final int MAX_CACHED_RESOURCES = 10000;
+    /**
+     * Bounds the number of cached missing paths, so that requests for arbitrary paths cannot grow the cache indefinitely.
+     */
+    static final int MAX_CACHED_MISSES = 1000;
+
     private final FileResourceManager deploymentResourceManager;
     private final Collection<VirtualFile> overlays;
     private final boolean explodedDeployment;
+    private final ConcurrentMap<String, Resource> resources = new ConcurrentHashMap<>();
+    // Guarded by itself, least recently missed first
+    private final Map<String, Boolean> misses = new LinkedHashMap<String, Boolean>(16, 0.75f, true) {
+        private static final long serialVersionUID = -3475276183632924436L;
+
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, Boolean> eldest) {
+            return size() > MAX_CACHED_MISSES;
+        }
+    };
 
     public ServletResourceManager(final VirtualFile resourcesRoot, final Collection<VirtualFile> overlays, boolean explodedDeployment, boolean followSymlink) throws IOException {
         this.explodedDeployment = explodedDeployment;
@@ -51,6 +83,69 @@ public class ServletResourceManager implements ResourceManager {
 
     @Override
     public Resource getResource(final String path) throws IOException {
+        if (explodedDeployment) {
+            return findResource(path);
+        }
+        final String normalizedPath = normalize(path);
+        Resource res = resources.get(normalizedPath);
+        if (res != null) {
+            return res;
+        }
+        synchronized (misses) {
+            if (misses.get(normalizedPath) != null) {
+                return null;
+            }
+        }
+        res = findResource(normalizedPath);
+        if (res != null) {
+            if (resources.size() >= MAX_CACHED_RESOURCES) {
+                // Make room by evicting an arbitrary resource
+                Iterator<String> paths = resources.keySet().iterator();
+                if (paths.hasNext()) {
+                    resources.remove(paths.next());
+                }
+            }
+            Resource existing = resources.putIfAbsent(normalizedPath, res);
+            return (existing != null) ? existing : res;
+        }
+        synchronized (misses) {
+            misses.put(normalizedPath, Boolean.TRUE);
+        }
+        return null;
+    }
+
+    /**
+     * Resolves the empty, "." and ".." segments of a path, so that equivalent paths share a cache entry.
+     */
+    static String normalize(final String path) {
+        final List<String> segments = new ArrayList<>();
+        int start = 0;
+        while (start <= path.length()) {
+            int end = path.indexOf('/', start);
+            if (end < 0) {
+                end = path.length();
+            }
+            final String segment = path.substring(start, end);
+            if (segment.equals("..")) {
+                if (!segments.isEmpty()) {
+                    segments.remove(segments.size() - 1);
+                }
+            } else if (!segment.isEmpty() && !segment.equals(".")) {
+                segments.add(segment);
+            }
+            start = end + 1;
+        }
+        final StringBuilder result = new StringBuilder(path.length() + 1);
+        for (String segment : segments) {
+            result.append('/').append(segment);
+        }
+        if (segments.isEmpty() || path.endsWith("/")) {
+            result.append('/');
+        }
+        return result.toString();
+    }
+
+    private Resource findResource(final String path) throws IOException {
         Resource res = deploymentResourceManager.getResource(path);
         if (res != null) {
             return new ServletResource(this, res);
@@ -87,6 +182,10 @@ public class ServletResourceManager implements ResourceManager {
 
     @Override
     public void close() throws IOException {
+        resources.clear();
+        synchronized (misses) {
+            misses.clear();
+        }
         deploymentResourceManager.close();
     }
 
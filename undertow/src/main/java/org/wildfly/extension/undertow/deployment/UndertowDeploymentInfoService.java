@@ -404,7 +404,9 @@ public class UndertowDeploymentInfoService implements Service<DeploymentInfo> {
             }
             deploymentInfo.setServerName("WildFly " + Version.AS_VERSION);
             if (undertowService.getValue().isStatisticsEnabled()) {
-                deploymentInfo.setMetricsCollector(new UndertowMetricsCollector());
+                UndertowMetricsCollector metricsCollector = new UndertowMetricsCollector();
+                deploymentInfo.setMetricsCollector(metricsCollector);
+                deploymentInfo.addInnerHandlerChainWrapper(metricsCollector);
             }
 
             ControlPoint controlPoint = controlPointInjectedValue.getOptionalValue();
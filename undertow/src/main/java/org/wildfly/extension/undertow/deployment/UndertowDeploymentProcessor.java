@@ -404,11 +404,13 @@ public class UndertowDeploymentProcessor implements DeploymentUnitProcessor {
         if(maxActiveSessions == null && servletContainerService != null) {
             maxActiveSessions = servletContainerService.getMaxSessions();
         }
+        boolean attributeChangeDetection = (servletContainerService != null) && servletContainerService.isSessionAttributeChangeDetection();
+        boolean deltaReplication = (servletContainerService != null) && servletContainerService.isSessionDeltaReplication();
         ServiceName name = deploymentServiceName.append("session");
         if (metaData.getDistributable() != null) {
             DistributableSessionManagerFactoryBuilder sessionManagerFactoryBuilder = new DistributableSessionManagerFactoryBuilderValue().getValue();
             if (sessionManagerFactoryBuilder != null) {
-                sessionManagerFactoryBuilder.build(target, name, new SimpleDistributableSessionManagerConfiguration(maxActiveSessions, metaData.getReplicationConfig(), deploymentName, module))
+                sessionManagerFactoryBuilder.build(target, name, new SimpleDistributableSessionManagerConfiguration(maxActiveSessions, metaData.getReplicationConfig(), deploymentName, module, attributeChangeDetection, deltaReplication))
                         .setInitialMode(Mode.ON_DEMAND)
                         .install()
                 ;
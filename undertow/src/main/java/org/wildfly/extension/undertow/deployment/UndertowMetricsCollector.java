@@ -24,27 +24,76 @@
 
 package org.wildfly.extension.undertow.deployment;
 
-import java.util.HashMap;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
+import io.undertow.server.ExchangeCompletionListener;
+import io.undertow.server.HandlerWrapper;
+import io.undertow.server.HttpHandler;
+import io.undertow.server.HttpServerExchange;
 import io.undertow.server.handlers.MetricsHandler;
+import io.undertow.server.handlers.PredicateHandler;
 import io.undertow.servlet.api.MetricsCollector;
+import io.undertow.servlet.handlers.ServletRequestContext;
+import io.undertow.servlet.predicate.DispatcherTypePredicate;
 
 /**
+ * Collects the metrics of the servlets of a deployment. In addition to the totals of the {@link MetricsHandler} of
+ * each servlet, the distributions of {@link ServletMetrics} are recorded by wrapping the inner handler chain.
+ *
  * @author Tomaz Cerar (c) 2014 Red Hat Inc.
  */
-public class UndertowMetricsCollector implements MetricsCollector {
-    private final Map<String, MetricsHandler> metrics = new HashMap<>();
+public class UndertowMetricsCollector implements MetricsCollector, HandlerWrapper {
+    private final Map<String, MetricsHandler> metrics = new ConcurrentHashMap<>();
+    private final Map<String, ServletMetrics> servletMetrics = new ConcurrentHashMap<>();
 
     @Override
     public void registerMetric(String name, MetricsHandler handler) {
         metrics.put(name, handler);
+        servletMetrics.putIfAbsent(name, new ServletMetrics());
     }
 
     public MetricsHandler.MetricResult getMetrics(String name) {
-        if (metrics.containsKey(name)) {
-            return metrics.get(name).getMetrics();
+        MetricsHandler handler = metrics.get(name);
+        return (handler != null) ? handler.getMetrics() : null;
+    }
+
+    public ServletMetrics getServletMetrics(String name) {
+        return servletMetrics.get(name);
+    }
+
+    @Override
+    public HttpHandler wrap(HttpHandler handler) {
+        //forwards and includes are part of the request that dispatched them
+        return new PredicateHandler(DispatcherTypePredicate.REQUEST, new ServletMetricsHandler(handler), handler);
+    }
+
+    private class ServletMetricsHandler implements HttpHandler {
+        private final HttpHandler next;
+
+        ServletMetricsHandler(HttpHandler next) {
+            this.next = next;
+        }
+
+        @Override
+        public void handleRequest(HttpServerExchange exchange) throws Exception {
+            final String name = exchange.getAttachment(ServletRequestContext.ATTACHMENT_KEY).getCurrentServlet().getManagedServlet().getServletInfo().getName();
+            final ServletMetrics metrics = servletMetrics.get(name);
+            if (metrics != null) {
+                final long start = System.nanoTime();
+                metrics.requestStarted(exchange.getRequestContentLength());
+                exchange.addExchangeCompleteListener(new ExchangeCompletionListener() {
+                    @Override
+                    public void exchangeEvent(HttpServerExchange exchange, NextListener nextListener) {
+                        try {
+                            metrics.requestCompleted(System.nanoTime() - start, exchange.getResponseBytesSent());
+                        } finally {
+                            nextListener.proceed();
+                        }
+                    }
+                });
+            }
+            next.handleRequest(exchange);
         }
-        return null;
     }
 }
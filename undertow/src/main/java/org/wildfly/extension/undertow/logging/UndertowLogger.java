@@ -338,4 +338,11 @@ public interface UndertowLogger extends BasicLogger {
 
     @Message(id = 79, value = "No SSL Context available from security realm. Either the realm is not configured for SSL, or the server has not been reloaded since the SSL config was added.")
     IllegalStateException noSslContextInSecurityRealm();
+
+    @LogMessage(level = WARN)
+    @Message(id = 80, value = "Failed to restore persistent session %s")
+    void failedToRestorePersistentSession(String sessionId, @Cause Exception e);
+
+    @Message(id = 81, value = "Persistent sessions file %s is corrupt")
+    IOException corruptPersistentSessionsFile(File file);
 }
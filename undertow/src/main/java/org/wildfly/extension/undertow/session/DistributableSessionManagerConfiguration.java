@@ -34,4 +34,8 @@ public interface DistributableSessionManagerConfiguration {
     Module getModule();
 
     String getCacheName();
+
+    boolean isAttributeChangeDetectionEnabled();
+
+    boolean isDeltaReplicationEnabled();
 }
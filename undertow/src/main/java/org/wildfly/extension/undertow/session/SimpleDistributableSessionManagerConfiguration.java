@@ -36,6 +36,8 @@ public class SimpleDistributableSessionManagerConfiguration implements Distribut
     private final ReplicationConfig replicationConfig;
     private final String deploymentName;
     private final Module module;
+    private final boolean attributeChangeDetection;
+    private final boolean deltaReplication;
 
     public SimpleDistributableSessionManagerConfiguration(JBossWebMetaData metaData, String deploymentName, Module module) {
         this(metaData.getMaxActiveSessions(), metaData.getReplicationConfig(), deploymentName, module);
@@ -46,10 +48,16 @@ public class SimpleDistributableSessionManagerConfiguration implements Distribut
     }
 
     public SimpleDistributableSessionManagerConfiguration(Integer maxActiveSessions, ReplicationConfig replicationConfig, String deploymentName, Module module) {
+        this(maxActiveSessions, replicationConfig, deploymentName, module, false, false);
+    }
+
+    public SimpleDistributableSessionManagerConfiguration(Integer maxActiveSessions, ReplicationConfig replicationConfig, String deploymentName, Module module, boolean attributeChangeDetection, boolean deltaReplication) {
         this.maxActiveSessions = maxActiveSessions;
         this.replicationConfig = replicationConfig;
         this.deploymentName = deploymentName;
         this.module = module;
+        this.attributeChangeDetection = attributeChangeDetection;
+        this.deltaReplication = deltaReplication;
     }
 
     @Override
@@ -76,4 +84,14 @@ public class SimpleDistributableSessionManagerConfiguration implements Distribut
     public String getCacheName() {
         return (this.replicationConfig != null) ? this.replicationConfig.getCacheName() : null;
     }
+
+    @Override
+    public boolean isAttributeChangeDetectionEnabled() {
+        return this.attributeChangeDetection;
+    }
+
+    @Override
+    public boolean isDeltaReplicationEnabled() {
+        return this.deltaReplication;
+    }
 }
@@ -0,0 +1,245 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2015, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.wildfly.extension.undertow;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.RandomAccessFile;
+import java.io.Serializable;
+import java.nio.file.Files;
+import java.util.Collections;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import io.undertow.servlet.api.SessionPersistenceManager.PersistentSession;
+import org.jboss.as.controller.services.path.PathManager;
+import org.jboss.modules.ModuleLoader;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Unit test for {@link IndexedModularPersistentSessionManager}
+ */
+public class IndexedModularPersistentSessionManagerTestCase {
+
+    private static final String DEPLOYMENT = "test.war";
+
+    private File dir;
+    private IndexedModularPersistentSessionManager manager;
+
+    @Before
+    public void init() throws Exception {
+        this.dir = Files.createTempDirectory("sessions").toFile();
+        this.manager = start(new IndexedModularPersistentSessionManager(this.dir.getAbsolutePath(), null));
+        Counted.RESTORED.set(0);
+    }
+
+    @After
+    public void destroy() {
+        this.manager.stop(null);
+        File[] files = this.dir.listFiles();
+        if (files != null) {
+            for (File file : files) {
+                file.delete();
+            }
+        }
+        this.dir.delete();
+    }
+
+    @Test
+    public void roundTrip() {
+        Map<String, PersistentSession> sessions = new HashMap<>();
+        sessions.put("a", session(Collections.<String, Object>singletonMap("name", "value")));
+        sessions.put("b", session(Collections.<String, Object>emptyMap()));
+        sessions.put("expired", new PersistentSession(new Date(System.currentTimeMillis() - 1000), Collections.<String, Object>singletonMap("name", "value")));
+        this.manager.persistSessions(DEPLOYMENT, sessions);
+
+        assertTrue(new File(this.dir, DEPLOYMENT + ".sessions").exists());
+
+        Map<String, PersistentSession> result = this.manager.loadSessionAttributes(DEPLOYMENT, this.getClass().getClassLoader());
+
+        assertEquals(2, result.size());
+        assertEquals(sessions.get("a").getExpiration(), result.get("a").getExpiration());
+        assertEquals(Collections.singletonMap("name", "value"), result.get("a").getSessionData());
+        assertTrue(result.get("b").getSessionData().isEmpty());
+    }
+
+    @Test
+    public void lazyRestore() {
+        Map<String, Object> attributes = new HashMap<>();
+        attributes.put("counted", new Counted(1));
+        attributes.put("name", "value");
+        this.manager.persistSessions(DEPLOYMENT, Collections.singletonMap("a", session(attributes)));
+
+        Map<String, PersistentSession> result = this.manager.loadSessionAttributes(DEPLOYMENT, this.getClass().getClassLoader());
+
+        // Only the index is read when the sessions are loaded
+        assertEquals(0, Counted.RESTORED.get());
+
+        Map<String, Object> data = result.get("a").getSessionData();
+        assertEquals(0, Counted.RESTORED.get());
+        assertEquals(1, ((Counted) data.get("counted")).value);
+        assertEquals("value", data.get("name"));
+        assertEquals(1, Counted.RESTORED.get());
+
+        // Attributes are only unmarshalled once
+        assertEquals(2, data.size());
+        assertEquals(1, Counted.RESTORED.get());
+    }
+
+    @Test
+    public void carryOverUnrestoredSessions() {
+        Map<String, PersistentSession> sessions = new HashMap<>();
+        sessions.put("restored", session(Collections.<String, Object>singletonMap("name", "old")));
+        sessions.put("unrestored", session(Collections.<String, Object>singletonMap("counted", new Counted(2))));
+        this.manager.persistSessions(DEPLOYMENT, sessions);
+
+        Map<String, PersistentSession> result = this.manager.loadSessionAttributes(DEPLOYMENT, this.getClass().getClassLoader());
+        assertEquals("old", result.get("restored").getSessionData().get("name"));
+
+        // Only restored sessions are passed back to the manager
+        this.manager.persistSessions(DEPLOYMENT, Collections.singletonMap("restored", session(Collections.<String, Object>singletonMap("name", "new"))));
+
+        result = this.manager.loadSessionAttributes(DEPLOYMENT, this.getClass().getClassLoader());
+
+        assertEquals(2, result.size());
+        assertEquals("new", result.get("restored").getSessionData().get("name"));
+        // The record of the unrestored session was copied without being unmarshalled
+        assertEquals(0, Counted.RESTORED.get());
+        assertEquals(2, ((Counted) result.get("unrestored").getSessionData().get("counted")).value);
+        assertEquals(1, Counted.RESTORED.get());
+    }
+
+    @Test
+    public void restoredSessionsAreNotCarriedOver() {
+        Map<String, PersistentSession> sessions = new HashMap<>();
+        sessions.put("a", session(Collections.<String, Object>singletonMap("name", "value")));
+        this.manager.persistSessions(DEPLOYMENT, sessions);
+
+        Map<String, PersistentSession> result = this.manager.loadSessionAttributes(DEPLOYMENT, this.getClass().getClassLoader());
+        result.get("a").getSessionData().size();
+
+        // A restored session that is no longer passed back was invalidated
+        this.manager.persistSessions(DEPLOYMENT, Collections.<String, PersistentSession>emptyMap());
+
+        assertTrue(this.manager.loadSessionAttributes(DEPLOYMENT, this.getClass().getClassLoader()).isEmpty());
+    }
+
+    @Test
+    public void corruptTrailer() throws IOException {
+        this.manager.persistSessions(DEPLOYMENT, Collections.singletonMap("a", session(Collections.<String, Object>singletonMap("name", "value"))));
+
+        File file = new File(this.dir, DEPLOYMENT + ".sessions");
+        try (RandomAccessFile raf = new RandomAccessFile(file, "rw")) {
+            raf.seek(raf.length() - 4);
+            raf.writeInt(0);
+        }
+
+        assertNull(this.manager.loadSessionAttributes(DEPLOYMENT, this.getClass().getClassLoader()));
+    }
+
+    @Test
+    public void truncatedFile() throws IOException {
+        this.manager.persistSessions(DEPLOYMENT, Collections.singletonMap("a", session(Collections.<String, Object>singletonMap("name", "value"))));
+
+        File file = new File(this.dir, DEPLOYMENT + ".sessions");
+        try (RandomAccessFile raf = new RandomAccessFile(file, "rw")) {
+            raf.setLength(raf.length() - 6);
+        }
+        assertNull(this.manager.loadSessionAttributes(DEPLOYMENT, this.getClass().getClassLoader()));
+
+        try (RandomAccessFile raf = new RandomAccessFile(file, "rw")) {
+            raf.setLength(10);
+        }
+        assertNull(this.manager.loadSessionAttributes(DEPLOYMENT, this.getClass().getClassLoader()));
+    }
+
+    @Test
+    public void migrateFromDiskBasedManager() throws Exception {
+        DiskBasedModularPersistentSessionManager legacy = start(new DiskBasedModularPersistentSessionManager(this.dir.getAbsolutePath(), null));
+        try {
+            legacy.persistSessions(DEPLOYMENT, Collections.singletonMap("a", session(Collections.<String, Object>singletonMap("name", "value"))));
+        } finally {
+            legacy.stop(null);
+        }
+        File legacyFile = new File(this.dir, DEPLOYMENT);
+        assertTrue(legacyFile.exists());
+
+        // Sessions persisted by the disk based manager are restored
+        Map<String, PersistentSession> result = this.manager.loadSessionAttributes(DEPLOYMENT, this.getClass().getClassLoader());
+        assertEquals(Collections.singletonMap("name", "value"), result.get("a").getSessionData());
+
+        // and written to the indexed file, which replaces the file of the disk based manager
+        this.manager.persistSessions(DEPLOYMENT, result);
+
+        assertFalse(legacyFile.exists());
+        assertTrue(new File(this.dir, DEPLOYMENT + ".sessions").exists());
+
+        result = this.manager.loadSessionAttributes(DEPLOYMENT, this.getClass().getClassLoader());
+        assertEquals(Collections.singletonMap("name", "value"), result.get("a").getSessionData());
+    }
+
+    private <M extends DiskBasedModularPersistentSessionManager> M start(M manager) throws Exception {
+        PathManager pathManager = mock(PathManager.class);
+        when(pathManager.resolveRelativePathEntry(this.dir.getAbsolutePath(), null)).thenReturn(this.dir.getAbsolutePath());
+        manager.getPathManager().inject(pathManager);
+        manager.getModuleLoaderInjectedValue().inject(mock(ModuleLoader.class));
+        manager.start(null);
+        return manager;
+    }
+
+    private static PersistentSession session(Map<String, Object> attributes) {
+        return new PersistentSession(new Date(System.currentTimeMillis() + TimeUnit.MINUTES.toMillis(10)), attributes);
+    }
+
+    /**
+     * Attribute that counts how often it was unmarshalled.
+     */
+    static class Counted implements Serializable {
+        private static final long serialVersionUID = -2361618244442372581L;
+
+        static final AtomicInteger RESTORED = new AtomicInteger();
+
+        final int value;
+
+        Counted(int value) {
+            this.value = value;
+        }
+
+        private void readObject(ObjectInputStream in) throws IOException, ClassNotFoundException {
+            in.defaultReadObject();
+            RESTORED.incrementAndGet();
+        }
+    }
+}
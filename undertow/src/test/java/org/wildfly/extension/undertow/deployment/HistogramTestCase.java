@@ -0,0 +1,67 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2015, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.wildfly.extension.undertow.deployment;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+public class HistogramTestCase {
+
+    @Test
+    public void bucket() {
+        long previous = -1;
+        for (int bucket = 0; bucket < Histogram.bucket(1L << 40); ++bucket) {
+            long highest = Histogram.highestValue(bucket);
+            assertEquals(bucket, Histogram.bucket(previous + 1));
+            assertEquals(bucket, Histogram.bucket(highest));
+            // Relative error of at most 6.25%
+            assertTrue(highest - (previous + 1) <= (previous + 1) / Histogram.SUB_BUCKETS);
+            previous = highest;
+        }
+    }
+
+    @Test
+    public void percentile() {
+        Histogram histogram = new Histogram(1000000);
+        assertEquals(0, histogram.getValueAtPercentile(99));
+
+        for (int i = 1; i <= 1000; ++i) {
+            histogram.record(i);
+        }
+        assertEquals(1000, histogram.getCount());
+        assertWithinError(500, histogram.getValueAtPercentile(50));
+        assertWithinError(990, histogram.getValueAtPercentile(99));
+        assertWithinError(1000, histogram.getValueAtPercentile(100));
+
+        // Negative values are ignored, values beyond the highest trackable value are clamped
+        histogram.record(-1);
+        histogram.record(Long.MAX_VALUE / 2);
+        assertEquals(1001, histogram.getCount());
+        assertEquals(1000000, histogram.getValueAtPercentile(100));
+    }
+
+    private static void assertWithinError(long expected, long actual) {
+        assertTrue(String.valueOf(actual), (actual >= expected) && (actual <= expected + expected / Histogram.SUB_BUCKETS));
+    }
+}
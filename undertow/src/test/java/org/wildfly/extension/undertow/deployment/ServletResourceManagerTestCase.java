@@ -0,0 +1,156 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2015, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.wildfly.extension.undertow.deployment;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Collections;
+
+import io.undertow.server.handlers.resource.Resource;
+import org.jboss.vfs.VFS;
+import org.jboss.vfs.VirtualFile;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Unit test for the lookups of {@link ServletResourceManager}.
+ */
+public class ServletResourceManagerTestCase {
+
+    private Path root;
+    private Path overlay;
+
+    @Before
+    public void init() throws IOException {
+        this.root = Files.createTempDirectory("deployment");
+        this.overlay = Files.createTempDirectory("overlay");
+        Files.write(Files.createDirectories(this.root.resolve("static")).resolve("index.html"), new byte[] { 0 });
+        Files.write(Files.createDirectories(this.overlay.resolve("static")).resolve("overlay.html"), new byte[] { 0 });
+    }
+
+    @After
+    public void destroy() {
+        delete(this.root.toFile());
+        delete(this.overlay.toFile());
+    }
+
+    @Test
+    public void hit() throws IOException {
+        try (ServletResourceManager manager = this.createResourceManager(false)) {
+            Resource resource = manager.getResource("/static/index.html");
+            assertNotNull(resource);
+            assertEquals("/static/index.html", resource.getPath());
+            assertSame(resource, manager.getResource("/static/index.html"));
+            // equivalent paths share the cached resource
+            assertSame(resource, manager.getResource("/static/./index.html"));
+            assertSame(resource, manager.getResource("//static//index.html"));
+            assertSame(resource, manager.getResource("/static/missing/../index.html"));
+        }
+    }
+
+    @Test
+    public void miss() throws IOException {
+        try (ServletResourceManager manager = this.createResourceManager(false)) {
+            assertNull(manager.getResource("/static/missing.html"));
+            // a packaged deployment does not change, so the miss is cached
+            Files.write(this.root.resolve("static").resolve("missing.html"), new byte[] { 0 });
+            assertNull(manager.getResource("/static/missing.html"));
+            assertNull(manager.getResource("/static/./missing.html"));
+        }
+    }
+
+    @Test
+    public void missesAreBounded() throws IOException {
+        try (ServletResourceManager manager = this.createResourceManager(false)) {
+            assertNull(manager.getResource("/static/first.html"));
+            Resource resource = manager.getResource("/static/index.html");
+            for (int i = 0; i < ServletResourceManager.MAX_CACHED_MISSES; ++i) {
+                assertNull(manager.getResource("/static/missing" + i + ".html"));
+            }
+            // the least recently missed path was evicted, so it is looked up again
+            Files.write(this.root.resolve("static").resolve("first.html"), new byte[] { 0 });
+            assertNotNull(manager.getResource("/static/first.html"));
+            // but misses never evict resources
+            assertSame(resource, manager.getResource("/static/index.html"));
+        }
+    }
+
+    @Test
+    public void overlay() throws IOException {
+        try (ServletResourceManager manager = this.createResourceManager(false)) {
+            Resource resource = manager.getResource("/static/overlay.html");
+            assertNotNull(resource);
+            assertEquals("/static/overlay.html", resource.getPath());
+            assertSame(resource, manager.getResource("/static/overlay.html"));
+            // the deployment takes precedence over its overlays
+            Files.write(this.overlay.resolve("static").resolve("index.html"), new byte[] { 0 });
+            assertEquals(this.root.resolve("static").resolve("index.html").toFile().getCanonicalFile(), manager.getResource("/static/index.html").getFile().getCanonicalFile());
+        }
+    }
+
+    @Test
+    public void exploded() throws IOException {
+        try (ServletResourceManager manager = this.createResourceManager(true)) {
+            assertNull(manager.getResource("/static/added.html"));
+            // the lookups of an exploded deployment are not cached, so changes are visible straight away
+            Path added = this.root.resolve("static").resolve("added.html");
+            Files.write(added, new byte[] { 0 });
+            assertNotNull(manager.getResource("/static/added.html"));
+            Files.delete(added);
+            assertNull(manager.getResource("/static/added.html"));
+        }
+    }
+
+    @Test
+    public void normalize() {
+        assertEquals("/", ServletResourceManager.normalize(""));
+        assertEquals("/", ServletResourceManager.normalize("/"));
+        assertEquals("/a/b", ServletResourceManager.normalize("a/b"));
+        assertEquals("/a/b", ServletResourceManager.normalize("/a//./b"));
+        assertEquals("/a/", ServletResourceManager.normalize("/a/b/../"));
+        assertEquals("/b", ServletResourceManager.normalize("/../../b"));
+    }
+
+    private ServletResourceManager createResourceManager(boolean exploded) throws IOException {
+        VirtualFile root = VFS.getChild(this.root.toAbsolutePath().toString());
+        VirtualFile overlay = VFS.getChild(this.overlay.toAbsolutePath().toString());
+        return new ServletResourceManager(root, Collections.singleton(overlay), exploded, false);
+    }
+
+    private static void delete(File file) {
+        File[] children = file.listFiles();
+        if (children != null) {
+            for (File child : children) {
+                delete(child);
+            }
+        }
+        file.delete();
+    }
+}
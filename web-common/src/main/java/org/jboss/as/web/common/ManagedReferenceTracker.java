@@ -0,0 +1,98 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2015, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.jboss.as.web.common;
+
+import java.util.IdentityHashMap;
+import java.util.Map;
+
+import org.jboss.as.naming.ManagedReference;
+
+/**
+ * Tracks the {@link ManagedReference} of each instance created by a {@link WebInjectionContainer} until that instance is
+ * destroyed. Instances are compared by identity.
+ * <p/>
+ * Entries are spread over a number of {@link IdentityHashMap} stripes, each guarded by its own monitor. An
+ * {@link IdentityHashMap} stores keys and values inline in a single array, so tracking an instance, e.g. a JSP tag
+ * handler created and destroyed on every request, allocates nothing beyond the occasional resize of its stripe.
+ * <p/>
+ * References are held strongly until their instance is destroyed, so that every tracked reference is released.
+ * The servlet container and the JSP engine destroy every instance they create: servlets, filters and listeners on
+ * undeploy, and tag handlers on release or pool eviction. Any other instance stays tracked until undeploy, when the
+ * tracker becomes unreachable along with its container.
+ */
+final class ManagedReferenceTracker {
+
+    private final Stripe[] stripes;
+    private final int mask;
+
+    ManagedReferenceTracker(int expectedSize, int concurrency) {
+        // Round up to a power of 2 so that a stripe can be selected via a mask
+        int count = (concurrency > 1) ? Integer.highestOneBit(concurrency - 1) << 1 : 1;
+        this.mask = count - 1;
+        this.stripes = new Stripe[count];
+        for (int i = 0; i < count; ++i) {
+            this.stripes[i] = new Stripe(Math.max(expectedSize / count, 2));
+        }
+    }
+
+    void put(Object instance, ManagedReference reference) {
+        Stripe stripe = this.stripes[this.index(instance)];
+        synchronized (stripe) {
+            stripe.references.put(instance, reference);
+        }
+    }
+
+    ManagedReference remove(Object instance) {
+        Stripe stripe = this.stripes[this.index(instance)];
+        synchronized (stripe) {
+            return stripe.references.remove(instance);
+        }
+    }
+
+    int size() {
+        int size = 0;
+        for (Stripe stripe : this.stripes) {
+            synchronized (stripe) {
+                size += stripe.references.size();
+            }
+        }
+        return size;
+    }
+
+    int stripes() {
+        return this.stripes.length;
+    }
+
+    int index(Object instance) {
+        int hash = System.identityHashCode(instance);
+        return (hash ^ (hash >>> 16)) & this.mask;
+    }
+
+    private static class Stripe {
+        // Guarded by the stripe's monitor
+        final Map<Object, ManagedReference> references;
+
+        Stripe(int expectedSize) {
+            this.references = new IdentityHashMap<>(expectedSize);
+        }
+    }
+}
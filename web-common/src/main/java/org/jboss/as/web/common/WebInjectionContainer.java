@@ -22,8 +22,6 @@
 package org.jboss.as.web.common;
 
 import java.lang.reflect.InvocationTargetException;
-import java.util.EnumSet;
-import java.util.Map;
 
 import javax.naming.NamingException;
 
@@ -40,20 +38,17 @@ public class WebInjectionContainer {
 
     private final ClassLoader classloader;
     private final ComponentRegistry componentRegistry;
-    private final Map<Object, ManagedReference> instanceMap;
+    private final ManagedReferenceTracker references;
 
     public WebInjectionContainer(ClassLoader classloader, final ComponentRegistry componentRegistry) {
         this.classloader = classloader;
         this.componentRegistry = componentRegistry;
-        this.instanceMap = new ConcurrentReferenceHashMap<Object, ManagedReference>
-                (256, ConcurrentReferenceHashMap.DEFAULT_LOAD_FACTOR,
-                        Runtime.getRuntime().availableProcessors(), ConcurrentReferenceHashMap.ReferenceType.STRONG,
-                        ConcurrentReferenceHashMap.ReferenceType.WEAK, EnumSet.of(ConcurrentReferenceHashMap.Option.IDENTITY_COMPARISONS));
+        this.references = new ManagedReferenceTracker(256, Runtime.getRuntime().availableProcessors() * 2);
     }
 
 
     public void destroyInstance(Object instance) {
-        final ManagedReference reference = instanceMap.remove(instance);
+        final ManagedReference reference = references.remove(instance);
         if (reference != null) {
             reference.release();
         }
@@ -67,7 +62,7 @@ public class WebInjectionContainer {
         final ManagedReferenceFactory factory = componentRegistry.createInstanceFactory(clazz);
         ManagedReference reference = factory.getReference();
         if (reference != null) {
-            instanceMap.put(reference.getInstance(), reference);
+            references.put(reference.getInstance(), reference);
             return reference.getInstance();
         }
         return clazz.newInstance();
@@ -76,7 +71,7 @@ public class WebInjectionContainer {
     public void newInstance(Object arg0) throws IllegalAccessException, InvocationTargetException, NamingException {
         final ManagedReference reference = componentRegistry.createInstance(arg0);
         if (reference != null) {
-            instanceMap.put(arg0, reference);
+            references.put(arg0, reference);
         }
     }
 
@@ -0,0 +1,152 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2015, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.jboss.as.web.common;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.util.BitSet;
+
+import org.jboss.as.naming.ManagedReference;
+import org.junit.Test;
+
+/**
+ * Unit test for {@link ManagedReferenceTracker}.
+ */
+public class ManagedReferenceTrackerTestCase {
+
+    @Test
+    public void putRemove() {
+        ManagedReferenceTracker tracker = new ManagedReferenceTracker(16, 4);
+        Object instance = new Object();
+        ManagedReference reference = new SimpleManagedReference(instance);
+
+        assertNull(tracker.remove(instance));
+
+        tracker.put(instance, reference);
+        assertEquals(1, tracker.size());
+        assertSame(reference, tracker.remove(instance));
+        assertEquals(0, tracker.size());
+        assertNull(tracker.remove(instance));
+
+        // Tracking an instance again replaces its reference
+        ManagedReference replacement = new SimpleManagedReference(instance);
+        tracker.put(instance, reference);
+        tracker.put(instance, replacement);
+        assertEquals(1, tracker.size());
+        assertSame(replacement, tracker.remove(instance));
+        assertEquals(0, tracker.size());
+    }
+
+    @Test
+    public void identity() {
+        ManagedReferenceTracker tracker = new ManagedReferenceTracker(16, 4);
+        Object instance1 = new EqualInstance();
+        Object instance2 = new EqualInstance();
+        ManagedReference reference1 = new SimpleManagedReference(instance1);
+        ManagedReference reference2 = new SimpleManagedReference(instance2);
+
+        tracker.put(instance1, reference1);
+        tracker.put(instance2, reference2);
+        assertEquals(2, tracker.size());
+        assertNull(tracker.remove(new EqualInstance()));
+        assertSame(reference2, tracker.remove(instance2));
+        assertSame(reference1, tracker.remove(instance1));
+        assertEquals(0, tracker.size());
+    }
+
+    @Test
+    public void stripes() {
+        assertEquals(1, new ManagedReferenceTracker(16, 0).stripes());
+        assertEquals(1, new ManagedReferenceTracker(16, 1).stripes());
+        assertEquals(2, new ManagedReferenceTracker(16, 2).stripes());
+        assertEquals(4, new ManagedReferenceTracker(16, 3).stripes());
+        assertEquals(8, new ManagedReferenceTracker(16, 8).stripes());
+        assertEquals(16, new ManagedReferenceTracker(16, 9).stripes());
+
+        ManagedReferenceTracker tracker = new ManagedReferenceTracker(1024, 8);
+        BitSet used = new BitSet(tracker.stripes());
+        Object[] instances = new Object[1024];
+        for (int i = 0; i < instances.length; ++i) {
+            instances[i] = new Object();
+            int index = tracker.index(instances[i]);
+            assertTrue(index >= 0 && index < tracker.stripes());
+            assertEquals(index, tracker.index(instances[i]));
+            used.set(index);
+            tracker.put(instances[i], new SimpleManagedReference(instances[i]));
+        }
+        // Instances should be spread over every stripe
+        assertEquals(tracker.stripes(), used.cardinality());
+        assertEquals(instances.length, tracker.size());
+        for (Object instance : instances) {
+            assertSame(instance, tracker.remove(instance).getInstance());
+        }
+        assertEquals(0, tracker.size());
+    }
+
+    @Test
+    public void retainedUntilDestroyed() {
+        ManagedReferenceTracker tracker = new ManagedReferenceTracker(16, 1);
+        Object instance = new Object();
+        tracker.put(instance, new SimpleManagedReference(instance));
+
+        // The reference is referenced by the tracker only, yet must still be released when its instance is destroyed
+        System.gc();
+        assertEquals(1, tracker.size());
+        ManagedReference reference = tracker.remove(instance);
+        assertNotNull(reference);
+        assertSame(instance, reference.getInstance());
+        assertEquals(0, tracker.size());
+    }
+
+    private static class SimpleManagedReference implements ManagedReference {
+        private final Object instance;
+
+        SimpleManagedReference(Object instance) {
+            this.instance = instance;
+        }
+
+        @Override
+        public void release() {
+        }
+
+        @Override
+        public Object getInstance() {
+            return this.instance;
+        }
+    }
+
+    private static class EqualInstance {
+        @Override
+        public boolean equals(Object object) {
+            return object instanceof EqualInstance;
+        }
+
+        @Override
+        public int hashCode() {
+            return 0;
+        }
+    }
+}